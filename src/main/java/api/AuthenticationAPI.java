@@ -20,10 +20,12 @@ public class AuthenticationAPI {
     /**
      * Devuelve el token de autenticación actual. Si no existe en el contexto de pruebas
      * o si han pasado más de 30 minutos desde su obtención, se solicita uno nuevo.
+     * <p>Sincronizado para que, con escenarios en paralelo, solo un hilo renueve el token
+     * y el resto reutilice el mismo valor.</p>
      *
      * @return Token Bearer como cadena de texto.
      */
-    public static String getToken() {
+    public static synchronized String getToken() {
         String token = TestContext.getValue("token");
         String tokenTimestampStr = TestContext.getValue("token_timestamp");
 
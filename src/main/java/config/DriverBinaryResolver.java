@@ -0,0 +1,147 @@
+package config;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import ui.utils.LogUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resuelve una única vez por JVM el binario del driver (chromedriver / msedgedriver) de cada navegador.
+ *
+ * <p>Antes, {@link DriverFactory} invocaba {@code WebDriverManager.xxxdriver().setup()} cada vez que
+ * creaba un navegador, lo que implicaba una consulta de versión (y a veces llamadas de red en CI)
+ * por escenario. Este resolvedor:</p>
+ * <ul>
+ *   <li>Usa una caché local fija ({@code -DdriverCache}, por defecto {@code ~/.cache/smarttest-webdriver})
+ *       en la que WebDriverManager descarga los binarios.</li>
+ *   <li>Registra la ruta resuelta de cada navegador en un manifiesto {@code drivers.properties} dentro de la caché.</li>
+ *   <li>En modo offline ({@code -DdriverOffline=true}) solo lee el manifiesto y fija
+ *       {@code webdriver.chrome.driver} / {@code webdriver.edge.driver} sin tocar la red.</li>
+ *   <li>Memoiza el resultado por navegador: los hilos que piden el mismo driver en paralelo esperan a
+ *       la primera resolución en lugar de competir entre sí. La escritura de la caché se serializa dentro
+ *       de la JVM con un cerrojo propio (un {@link FileLock} no se puede tomar dos veces en la misma JVM, por
+ *       ejemplo al resolver Chrome y Edge a la vez) y entre procesos (forks) con un bloqueo de fichero.</li>
+ * </ul>
+ *
+ * <p>La imagen Docker del proyecto precarga en {@code DRIVER_CACHE} los drivers de las versiones de Chrome y
+ * Edge instaladas, con su manifiesto, así que en el contenedor se puede correr con {@code DRIVER_OFFLINE=true}.
+ * Para otra imagen basta con apuntar {@code DRIVER_CACHE} a una ruta de la imagen, ejecutar una vez en modo
+ * online y, a partir de ahí, correr con {@code DRIVER_OFFLINE=true}.</p>
+ */
+public final class DriverBinaryResolver {
+
+    /** Nombre del manifiesto con las rutas resueltas por navegador. */
+    static final String MANIFEST_FILE = "drivers.properties";
+
+    /** Fichero usado como bloqueo entre procesos que comparten la caché. */
+    private static final String LOCK_FILE = ".resolve.lock";
+
+    /** Serializa dentro de la JVM el acceso al bloqueo de fichero, que es por proceso. */
+    private static final Object CACHE_LOCK = new Object();
+
+    private static final Map<String, String> RESOLVED = new ConcurrentHashMap<>();
+
+    private DriverBinaryResolver() {
+    }
+
+    /**
+     * Garantiza que el binario del driver para el navegador indicado está resuelto y registrado en la
+     * propiedad del sistema que usa Selenium. Solo la primera llamada por navegador hace trabajo real.
+     *
+     * @param browser {@code chrome} o {@code edge}.
+     * @return ruta absoluta del binario del driver.
+     * @throws IllegalStateException si en modo offline no existe un binario válido en la caché.
+     */
+    public static String resolve(String browser) {
+        return RESOLVED.computeIfAbsent(browser, DriverBinaryResolver::resolveOnce);
+    }
+
+    private static String resolveOnce(String browser) {
+        Path cacheDir = getCacheDir();
+        Path manifest = cacheDir.resolve(MANIFEST_FILE);
+        String systemProperty = "edge".equals(browser) ? "webdriver.edge.driver" : "webdriver.chrome.driver";
+
+        if (Boolean.getBoolean("driverOffline")) {
+            String cached = readManifest(manifest).getProperty(browser);
+            if (cached == null || !Files.isExecutable(Paths.get(cached))) {
+                throw new IllegalStateException("Modo offline activo pero no hay driver de '" + browser
+                        + "' en la caché " + manifest + ". Ejecuta una vez sin -DdriverOffline para poblarla.");
+            }
+            System.setProperty(systemProperty, cached);
+            LogUtil.info("Driver de " + browser + " tomado de la caché (offline): " + cached);
+            return cached;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            Files.createDirectories(cacheDir);
+            synchronized (CACHE_LOCK) {
+                try (FileChannel channel = FileChannel.open(cacheDir.resolve(LOCK_FILE),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    FileLock lock = channel.lock();
+                    try {
+                        return setupLocked(browser, cacheDir, manifest, start);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo preparar la caché de drivers en " + cacheDir, e);
+        }
+    }
+
+    /**
+     * Resuelve el driver con WebDriverManager y lo registra en el manifiesto; se invoca con el bloqueo de la
+     * caché tomado.
+     */
+    private static String setupLocked(String browser, Path cacheDir, Path manifest, long start) throws IOException {
+        WebDriverManager manager = "edge".equals(browser)
+                ? WebDriverManager.edgedriver()
+                : WebDriverManager.chromedriver();
+        manager.cachePath(cacheDir.toString()).setup();
+
+        String path = manager.getDownloadedDriverPath();
+        Properties properties = readManifest(manifest);
+        properties.setProperty(browser, path);
+        properties.setProperty(browser + ".version", String.valueOf(manager.getDownloadedDriverVersion()));
+        try (OutputStream out = Files.newOutputStream(manifest)) {
+            properties.store(out, "Drivers resueltos por DriverBinaryResolver");
+        }
+
+        LogUtil.info("Driver de " + browser + " " + manager.getDownloadedDriverVersion()
+                + " resuelto en " + (System.currentTimeMillis() - start) + " ms: " + path);
+        return path;
+    }
+
+    private static Path getCacheDir() {
+        String configured = System.getProperty("driverCache");
+        if (configured == null || configured.isBlank()) {
+            return Paths.get(System.getProperty("user.home"), ".cache", "smarttest-webdriver");
+        }
+        return Paths.get(configured);
+    }
+
+    private static Properties readManifest(Path manifest) {
+        Properties properties = new Properties();
+        if (Files.isRegularFile(manifest)) {
+            try (InputStream in = Files.newInputStream(manifest)) {
+                properties.load(in);
+            } catch (IOException e) {
+                LogUtil.warn("No se pudo leer el manifiesto de drivers " + manifest + ": " + e.getMessage());
+            }
+        }
+        return properties;
+    }
+}
@@ -1,6 +1,5 @@
 package config;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.chrome.ChromeDriver;
@@ -9,6 +8,17 @@ import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import ui.utils.LogUtil;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Fábrica de instancias de WebDriver para automatizar navegadores.
  *
@@ -19,7 +29,15 @@ import ui.utils.LogUtil;
  * Si se ejecuta en un entorno CI/CD (variable de entorno CI=true),
  * también se activa automáticamente el modo headless.
  *
- * Utiliza WebDriverManager para gestionar automáticamente los drivers.
+ * Utiliza WebDriverManager, a través de {@link DriverBinaryResolver}, para resolver los drivers
+ * una sola vez por JVM (con caché fija y modo offline opcional).
+ *
+ * Con la propiedad "driverPool=N" (N &gt; 0) los navegadores se reutilizan entre escenarios
+ * a través de un {@link DriverPool}: al terminar el escenario se resetea la sesión
+ * (pestañas, almacenamiento, cookies, descargas) en lugar de cerrar y relanzar el navegador.
+ *
+ * Con {@link #prelaunchAsync()} el primer navegador se lanza en segundo plano al inicio de la suite,
+ * en paralelo con la carga de {@link EnvironmentConfig}, y el primer escenario lo reutiliza.
  */
 public class DriverFactory {
 
@@ -29,6 +47,36 @@ public class DriverFactory {
     private static final int HEADLESS_WIDTH = 2560;
     private static final int HEADLESS_HEIGHT = 1440;
 
+    /** Argumentos adicionales del perfil {@code -DbrowserProfile=fast}. */
+    private static final String[] FAST_PROFILE_ARGUMENTS = {
+            "--disable-extensions",
+            "--disable-background-networking",
+            "--disable-component-update"
+    };
+
+    /**
+     * Tiempo máximo de los scripts asíncronos ({@code executeAsyncScript}). Las esperas con
+     * MutationObserver de {@code WaitUtil} se resuelven solas antes de su propio límite; este valor solo
+     * debe superar el mayor de esos límites.
+     */
+    private static final Duration SCRIPT_TIMEOUT = Duration.ofSeconds(90);
+
+    /** Pool compartido de navegadores; solo se crea si {@code -DdriverPool} es mayor que cero. */
+    private static volatile DriverPool pool;
+
+    /** Navegador lanzado en segundo plano por {@link #prelaunchAsync()} y aún no reclamado. */
+    private static CompletableFuture<WebDriver> prelaunched;
+
+    /** Indica si ya se inició la precarga; solo se precarga un navegador por JVM. */
+    private static final AtomicBoolean PRELAUNCH_STARTED = new AtomicBoolean();
+
+    /** Espera máxima, al apagarse la JVM, a que termine de lanzarse un navegador precargado para cerrarlo. */
+    private static final long PRELAUNCH_SHUTDOWN_WAIT_SECONDS = 30;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverFactory::quitUnclaimedPrelaunch, "browser-prelaunch-shutdown"));
+    }
+
     /**
      * Obtiene (o crea si no existe) la instancia de {@link WebDriver} para el hilo actual.
      * <p>
@@ -37,6 +85,10 @@ public class DriverFactory {
      * <ul>
      *   <li><b>Navegador</b>: {@code -Dbrowser=<chrome|edge>} (por defecto {@code chrome}).</li>
      *   <li><b>Headless</b>: activo si {@code -Dheadless=true} <em>o</em> si la variable de entorno {@code CI=true}.</li>
+     *   <li><b>Pool</b>: con {@code -DdriverPool=N} el navegador se toma de un {@link DriverPool} compartido
+     *       (hasta N instancias vivas) en lugar de lanzarse uno nuevo.</li>
+     *   <li><b>Perfil</b>: con {@code -DbrowserProfile=fast} se desactivan extensiones, tráfico de fondo y
+     *       actualización de componentes, y se bloquean recursos innecesarios con {@link ResourceBlocker}.</li>
      * </ul>
      *
      * <p><strong>Comportamiento</strong></p>
@@ -47,7 +99,7 @@ public class DriverFactory {
      *       <li>En modo gráfico: {@code --start-maximized} + intento de {@code manage().window().maximize()}.</li>
      *     </ul>
      *   </li>
-     *   <li>Usa {@code WebDriverManager} para resolver binarios del driver.</li>
+     *   <li>Usa {@link DriverBinaryResolver} (WebDriverManager) para resolver binarios del driver una sola vez por JVM.</li>
      *   <li>Guarda la instancia en un {@code ThreadLocal} (vía {@code driver.set(newDriver)}), por lo que
      *       cada hilo obtiene su propio navegador.</li>
      * </ul>
@@ -66,91 +118,212 @@ public class DriverFactory {
      *
      * @return la instancia de {@link WebDriver} asociada al hilo; se crea si aún no existe.
      *
-     * @see io.github.bonigarcia.wdm.WebDriverManager
+     * @see DriverBinaryResolver
      * @see org.openqa.selenium.chrome.ChromeOptions
      * @see org.openqa.selenium.edge.EdgeOptions
      */
     public static WebDriver getDriver() {
         if (driver.get() == null) {
-            String browser = System.getProperty("browser", "chrome").toLowerCase();
+            DriverPool activePool = getPool();
+            driver.set(activePool != null ? activePool.acquire() : newDriver());
+        }
+        return driver.get();
+    }
+
+    /**
+     * Lanza en un hilo de fondo la creación del primer navegador de la suite.
+     *
+     * <p>Pensado para invocarse al arrancar la suite (p. ej. desde el {@code @BeforeClass} de los runners),
+     * de modo que la resolución del driver y el arranque del navegador se solapen con la carga de
+     * {@link EnvironmentConfig} (YAML de usuario y restauración de base de datos). El primer
+     * {@link #getDriver()} del escenario reclama ese navegador en lugar de lanzar otro.</p>
+     *
+     * <p>Solo la primera llamada de la JVM tiene efecto, aunque el navegador ya se haya reclamado. Si el
+     * navegador nunca se reclama, se cierra al apagarse la JVM (esperando a que termine de lanzarse si aún está
+     * en curso). Si el lanzamiento en segundo plano falla, el escenario crea el navegador de la forma
+     * habitual.</p>
+     */
+    public static void prelaunchAsync() {
+        if (!PRELAUNCH_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (DriverFactory.class) {
+            long start = System.currentTimeMillis();
+            CompletableFuture<WebDriver> future = new CompletableFuture<>();
+            Thread launcher = new Thread(() -> {
+                try {
+                    WebDriver created = createDriver();
+                    LogUtil.info("Navegador precargado en " + (System.currentTimeMillis() - start) + " ms.");
+                    if (!future.complete(created)) {
+                        // Precarga cancelada al apagarse la JVM: nadie va a reclamar este navegador
+                        created.quit();
+                    }
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }, "browser-prelaunch");
+            launcher.setDaemon(true);
+            prelaunched = future;
+            launcher.start();
+
+            LogUtil.info("Precarga del navegador iniciada en segundo plano.");
+        }
+    }
 
-            // Se activa headless si: -Dheadless=true o variable de entorno CI=true
-            boolean isHeadless = Boolean.parseBoolean(System.getProperty("headless", "false"))
-                    || ("true".equalsIgnoreCase(System.getenv("CI")));
+    /**
+     * Obtiene un navegador nuevo: reclama el precargado si existe o lanza uno.
+     *
+     * @return navegador listo para asignarse a un escenario o al pool.
+     */
+    private static WebDriver newDriver() {
+        CompletableFuture<WebDriver> future;
+        synchronized (DriverFactory.class) {
+            future = prelaunched;
+            prelaunched = null;
+        }
+        if (future != null) {
+            long start = System.currentTimeMillis();
+            try {
+                WebDriver claimed = future.join();
+                LogUtil.info("Navegador precargado reclamado (espera: " + (System.currentTimeMillis() - start) + " ms).");
+                return claimed;
+            } catch (CompletionException e) {
+                LogUtil.warn("Falló la precarga del navegador; se lanza uno nuevo: " + e.getCause().getMessage());
+            }
+        }
+        return createDriver();
+    }
 
-            WebDriver newDriver;
+    /**
+     * Cierra el navegador precargado si nadie llegó a reclamarlo (p. ej. suites sin escenarios {@code @ui}).
+     *
+     * <p>Si el lanzamiento sigue en curso, espera hasta {@value #PRELAUNCH_SHUTDOWN_WAIT_SECONDS} s a que
+     * termine para cerrarlo; si no termina a tiempo, se cancela y se avisa de que el navegador puede quedar
+     * abierto.</p>
+     */
+    private static void quitUnclaimedPrelaunch() {
+        CompletableFuture<WebDriver> future;
+        synchronized (DriverFactory.class) {
+            future = prelaunched;
+            prelaunched = null;
+        }
+        if (future == null) {
+            return;
+        }
+        try {
+            future.get(PRELAUNCH_SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS).quit();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LogUtil.warn("La precarga del navegador no terminó al apagarse la JVM; el navegador puede quedar abierto.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // La precarga falló: no hay navegador que cerrar
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo cerrar el navegador precargado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lanza un navegador nuevo según las propiedades {@code browser} y {@code headless}.
+     *
+     * @return instancia recién creada de {@link WebDriver}.
+     */
+    static WebDriver createDriver() {
+        String browser = System.getProperty("browser", "chrome").toLowerCase();
 
-            switch (browser) {
-                case "edge":
-                    WebDriverManager.edgedriver().setup();
-                    EdgeOptions edgeOptions = new EdgeOptions();
-                    edgeOptions.setAcceptInsecureCerts(true);
+        // Se activa headless si: -Dheadless=true o variable de entorno CI=true
+        boolean isHeadless = Boolean.parseBoolean(System.getProperty("headless", "false"))
+                || ("true".equalsIgnoreCase(System.getenv("CI")));
+
+        // Perfil "fast": sin extensiones ni tráfico de fondo, y bloqueo de recursos vía CDP
+        boolean isFastProfile = "fast".equalsIgnoreCase(System.getProperty("browserProfile", ""));
+
+        WebDriver newDriver;
+
+        switch (browser) {
+            case "edge":
+                DriverBinaryResolver.resolve("edge");
+                EdgeOptions edgeOptions = new EdgeOptions();
+                edgeOptions.setAcceptInsecureCerts(true);
+                edgeOptions.setScriptTimeout(SCRIPT_TIMEOUT);
+                edgeOptions.addArguments(
+                        "--ignore-certificate-errors",
+                        "--allow-insecure-localhost"
+                );
+                if (isHeadless) {
                     edgeOptions.addArguments(
-                            "--ignore-certificate-errors",
-                            "--allow-insecure-localhost"
+                            "--headless=new",
+                            "--no-sandbox",
+                            "--disable-dev-shm-usage",
+                            "--disable-gpu",
+                            String.format("--window-size=%d,%d", HEADLESS_WIDTH, HEADLESS_HEIGHT)
                     );
-                    if (isHeadless) {
-                        edgeOptions.addArguments(
-                                "--headless=new",
-                                "--no-sandbox",
-                                "--disable-dev-shm-usage",
-                                "--disable-gpu",
-                                String.format("--window-size=%d,%d", HEADLESS_WIDTH, HEADLESS_HEIGHT)
-                        );
-                        LogUtil.info("Navegador: Edge | Modo: Headless | Resolución: " + HEADLESS_WIDTH + "x" + HEADLESS_HEIGHT);
-                    } else {
-                        edgeOptions.addArguments("--start-maximized");
-                        LogUtil.info("Navegador: Edge | Modo: Gráfico (maximizado)");
-                    }
-                    newDriver = new EdgeDriver(edgeOptions);
-                    break;
-
-                case "chrome":
-                default:
-                    WebDriverManager.chromedriver().setup();
-                    ChromeOptions chromeOptions = new ChromeOptions();
-                    chromeOptions.setAcceptInsecureCerts(true);
+                    LogUtil.info("Navegador: Edge | Modo: Headless | Resolución: " + HEADLESS_WIDTH + "x" + HEADLESS_HEIGHT);
+                } else {
+                    edgeOptions.addArguments("--start-maximized");
+                    LogUtil.info("Navegador: Edge | Modo: Gráfico (maximizado)");
+                }
+                if (isFastProfile) {
+                    edgeOptions.addArguments(FAST_PROFILE_ARGUMENTS);
+                }
+                newDriver = new EdgeDriver(edgeOptions);
+                break;
+
+            case "chrome":
+            default:
+                DriverBinaryResolver.resolve("chrome");
+                ChromeOptions chromeOptions = new ChromeOptions();
+                chromeOptions.setAcceptInsecureCerts(true);
+                chromeOptions.setScriptTimeout(SCRIPT_TIMEOUT);
+                chromeOptions.addArguments(
+                        "--ignore-certificate-errors",
+                        "--allow-insecure-localhost"
+                );
+                if (isHeadless) {
                     chromeOptions.addArguments(
-                            "--ignore-certificate-errors",
-                            "--allow-insecure-localhost"
+                            "--headless=new",
+                            "--no-sandbox",
+                            "--disable-dev-shm-usage",
+                            "--disable-gpu",
+                            String.format("--window-size=%d,%d", HEADLESS_WIDTH, HEADLESS_HEIGHT)
                     );
-                    if (isHeadless) {
-                        chromeOptions.addArguments(
-                                "--headless=new",
-                                "--no-sandbox",
-                                "--disable-dev-shm-usage",
-                                "--disable-gpu",
-                                String.format("--window-size=%d,%d", HEADLESS_WIDTH, HEADLESS_HEIGHT)
-                        );
-                        LogUtil.info("Navegador: Chrome | Modo: Headless | Resolución: " + HEADLESS_WIDTH + "x" + HEADLESS_HEIGHT);
-                    } else {
-                        chromeOptions.addArguments("--start-maximized");
-                        LogUtil.info("Navegador: Chrome | Modo: Gráfico (maximizado)");
-                    }
-                    newDriver = new ChromeDriver(chromeOptions);
-                    break;
-            }
-
-            // Si estamos en headless, intentar forzar el tamaño de ventana también vía WebDriver
-            if (isHeadless) {
-                try {
-                    newDriver.manage().window().setSize(new Dimension(HEADLESS_WIDTH, HEADLESS_HEIGHT));
-                    LogUtil.info("Tamaño de ventana ajustado a " + HEADLESS_WIDTH + "x" + HEADLESS_HEIGHT + " en headless.");
-                } catch (Exception e) {
-                    LogUtil.warn("No se pudo ajustar el tamaño de ventana en headless vía WebDriver: " + e.getMessage());
+                    LogUtil.info("Navegador: Chrome | Modo: Headless | Resolución: " + HEADLESS_WIDTH + "x" + HEADLESS_HEIGHT);
+                } else {
+                    chromeOptions.addArguments("--start-maximized");
+                    LogUtil.info("Navegador: Chrome | Modo: Gráfico (maximizado)");
                 }
-            } else {
-                // Garantizar maximización en modo gráfico (algunos SO/drivers ignoran el flag y esto lo refuerza)
-                try {
-                    newDriver.manage().window().maximize();
-                } catch (Exception e) {
-                    LogUtil.warn("No se pudo maximizar la ventana vía WebDriver: " + e.getMessage());
+                if (isFastProfile) {
+                    chromeOptions.addArguments(FAST_PROFILE_ARGUMENTS);
                 }
+                newDriver = new ChromeDriver(chromeOptions);
+                break;
+        }
+
+        // Si estamos en headless, intentar forzar el tamaño de ventana también vía WebDriver
+        if (isHeadless) {
+            try {
+                newDriver.manage().window().setSize(new Dimension(HEADLESS_WIDTH, HEADLESS_HEIGHT));
+                LogUtil.info("Tamaño de ventana ajustado a " + HEADLESS_WIDTH + "x" + HEADLESS_HEIGHT + " en headless.");
+            } catch (Exception e) {
+                LogUtil.warn("No se pudo ajustar el tamaño de ventana en headless vía WebDriver: " + e.getMessage());
             }
+        } else {
+            // Garantizar maximización en modo gráfico (algunos SO/drivers ignoran el flag y esto lo refuerza)
+            try {
+                newDriver.manage().window().maximize();
+            } catch (Exception e) {
+                LogUtil.warn("No se pudo maximizar la ventana vía WebDriver: " + e.getMessage());
+            }
+        }
 
-            driver.set(newDriver);
+        if (isFastProfile) {
+            ResourceBlocker.install(newDriver);
         }
-        return driver.get();
+        NetworkTracker.install(newDriver);
+        PageInstrumentation.install(newDriver);
+
+        return newDriver;
     }
 
     public static void setDriver(WebDriver webDriver) {
@@ -159,11 +332,83 @@ public class DriverFactory {
 
     /**
      * Cierra y elimina la instancia activa de WebDriver.
+     * <p>Si el pool está activo, el navegador se descarta del pool (no se reutiliza).</p>
      */
     public static void quitDriver() {
         if (driver.get() != null) {
-            driver.get().quit();
+            DriverPool activePool = getPool();
+            if (activePool != null) {
+                activePool.discard(driver.get());
+            } else {
+                driver.get().quit();
+            }
             driver.remove();
         }
     }
+
+    /**
+     * Libera la instancia activa de WebDriver al finalizar un escenario.
+     *
+     * <p>Con {@code -DdriverPool=N} el navegador se resetea y vuelve al pool para el siguiente
+     * escenario; sin pool se comporta igual que {@link #quitDriver()}.</p>
+     */
+    public static void releaseDriver() {
+        DriverPool activePool = getPool();
+        if (activePool == null) {
+            quitDriver();
+            return;
+        }
+        WebDriver current = driver.get();
+        driver.remove();
+        activePool.release(current);
+    }
+
+    /**
+     * Configura en tiempo de ejecución la carpeta de descargas del navegador empleando
+     * el protocolo CDP (Chrome DevTools Protocol).
+     *
+     * <p>Solo tiene efecto en {@link ChromeDriver} y {@link EdgeDriver}; en otros drivers
+     * se registra un {@code warn} y no se modifica nada.</p>
+     *
+     * @param webDriver   instancia del navegador en uso.
+     * @param downloadDir ruta (existente y escribible) donde se desean almacenar las descargas.
+     */
+    public static void setDownloadDirectory(WebDriver webDriver, String downloadDir) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("behavior", "allow");
+        params.put("downloadPath", Paths.get(downloadDir).toAbsolutePath().toString());
+
+        if (webDriver instanceof ChromeDriver) {
+            ((ChromeDriver) webDriver).executeCdpCommand("Page.setDownloadBehavior", params);
+        } else if (webDriver instanceof EdgeDriver) {
+            ((EdgeDriver) webDriver).executeCdpCommand("Page.setDownloadBehavior", params);
+        } else {
+            LogUtil.warn("El driver no es Chromium; no se puede forzar carpeta de descarga vía CDP.");
+        }
+    }
+
+    /**
+     * Devuelve el pool de navegadores, creándolo la primera vez si {@code -DdriverPool} es mayor que cero.
+     *
+     * <p>Al crearlo registra un hook de apagado de la JVM que cierra todos los navegadores del pool.</p>
+     *
+     * @return pool activo, o {@code null} si la reutilización de navegadores está desactivada.
+     */
+    private static DriverPool getPool() {
+        if (pool == null) {
+            int size = Integer.getInteger("driverPool", 0);
+            if (size <= 0) {
+                return null;
+            }
+            synchronized (DriverFactory.class) {
+                if (pool == null) {
+                    DriverPool created = new DriverPool(size, DriverFactory::newDriver);
+                    Runtime.getRuntime().addShutdownHook(new Thread(created::shutdown, "driver-pool-shutdown"));
+                    LogUtil.info("Pool de navegadores activado (tamaño máximo: " + size + ").");
+                    pool = created;
+                }
+            }
+        }
+        return pool;
+    }
 }
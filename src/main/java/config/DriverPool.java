@@ -0,0 +1,267 @@
+package config;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import ui.utils.LogUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pool de navegadores reutilizables entre escenarios.
+ *
+ * <p>En lugar de cerrar el navegador al terminar cada escenario y lanzar uno nuevo en el siguiente,
+ * el pool mantiene hasta {@code maxSize} instancias vivas y las <em>resetea</em> entre usos:</p>
+ * <ul>
+ *   <li>Cierra las pestañas adicionales y deja una sola ventana activa.</li>
+ *   <li>Limpia {@code localStorage} y {@code sessionStorage} del origen actual.</li>
+ *   <li>Elimina todas las cookies (vía CDP en Chromium, vía WebDriver en otros navegadores).</li>
+ *   <li>Reapunta la carpeta de descargas a una carpeta neutra del pool mediante CDP.</li>
+ *   <li>Navega a {@code about:blank}.</li>
+ * </ul>
+ *
+ * <p>Solo se recicla (cierra y se vuelve a crear) un navegador cuando falla el chequeo de salud
+ * ({@link #isHealthy(WebDriver)}) o el reset.</p>
+ *
+ * <p><strong>Concurrencia</strong>: el pool es seguro para múltiples hilos. Si todas las instancias
+ * están ocupadas y ya se alcanzó {@code maxSize}, {@link #acquire()} bloquea hasta que otro hilo
+ * libere un navegador o descarte uno (y con ello su plaza).</p>
+ */
+public final class DriverPool {
+
+    /** Carpeta de descargas usada mientras el navegador está inactivo en el pool. */
+    static final String IDLE_DOWNLOADS_FOLDER = "target/downloads/_pool/";
+
+    /**
+     * Intervalo con el que un hilo que espera un navegador libre vuelve a intentar crear uno, por si otro hilo
+     * descartó un navegador y dejó su plaza libre.
+     */
+    private static final long WAIT_RETRY_MILLIS = 500;
+
+    private final int maxSize;
+    private final Supplier<WebDriver> factory;
+    private final BlockingDeque<WebDriver> idle = new LinkedBlockingDeque<>();
+    private final Set<WebDriver> live = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Crea un pool con un tamaño máximo y una fábrica de navegadores.
+     *
+     * @param maxSize número máximo de navegadores vivos simultáneamente (mayor que cero).
+     * @param factory función que lanza un navegador nuevo cuando el pool necesita crecer o reciclar.
+     */
+    DriverPool(int maxSize, Supplier<WebDriver> factory) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño del pool debe ser mayor que cero: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.factory = factory;
+    }
+
+    /**
+     * Obtiene un navegador sano del pool.
+     *
+     * <p>Orden de preferencia: un navegador inactivo que supere el chequeo de salud; si no hay,
+     * un navegador nuevo mientras no se supere {@code maxSize}; en otro caso espera a que se libere uno.</p>
+     *
+     * @return navegador listo para usarse en el escenario.
+     */
+    WebDriver acquire() {
+        while (true) {
+            WebDriver candidate = idle.pollFirst();
+            if (candidate == null) {
+                candidate = tryCreate();
+            }
+            if (candidate == null) {
+                candidate = awaitFreeDriver();
+            }
+
+            if (isHealthy(candidate)) {
+                LogUtil.info("Navegador obtenido del pool (" + live.size() + "/" + maxSize + " vivos).");
+                return candidate;
+            }
+
+            LogUtil.warn("Navegador del pool no superó el chequeo de salud. Se recicla.");
+            discard(candidate);
+        }
+    }
+
+    /**
+     * Espera a que otro hilo devuelva un navegador o descarte uno y deje su plaza libre: {@link #discard} no
+     * devuelve nada a la cola de inactivos, de modo que la espera vuelve a intentar crear un navegador cada
+     * {@value #WAIT_RETRY_MILLIS} ms.
+     *
+     * @return navegador inactivo o recién creado.
+     * @throws IllegalStateException si el hilo se interrumpe durante la espera.
+     */
+    private WebDriver awaitFreeDriver() {
+        LogUtil.info("Pool de navegadores completo (" + maxSize + "). Esperando un navegador libre...");
+        try {
+            while (true) {
+                WebDriver candidate = idle.pollFirst(WAIT_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+                if (candidate == null) {
+                    candidate = tryCreate();
+                }
+                if (candidate != null) {
+                    return candidate;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se esperaba un navegador del pool.", e);
+        }
+    }
+
+    /**
+     * Devuelve un navegador al pool tras resetear su estado. Si el reset falla, el navegador se descarta.
+     *
+     * @param driver navegador a devolver.
+     */
+    void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (!live.contains(driver)) {
+            LogUtil.warn("Se intentó devolver al pool un navegador que no pertenece a él. Se cierra.");
+            quitQuietly(driver);
+            return;
+        }
+
+        try {
+            reset(driver);
+            idle.offerLast(driver);
+            LogUtil.info("Navegador reseteado y devuelto al pool.");
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo resetear el navegador; se recicla: " + e.getMessage());
+            discard(driver);
+        }
+    }
+
+    /**
+     * Cierra un navegador y libera su plaza en el pool.
+     *
+     * @param driver navegador a descartar.
+     */
+    void discard(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        live.remove(driver);
+        idle.remove(driver);
+        quitQuietly(driver);
+    }
+
+    /**
+     * Cierra todos los navegadores del pool. Pensado para la fase de apagado de la JVM.
+     */
+    void shutdown() {
+        List<WebDriver> all = new ArrayList<>(live);
+        live.clear();
+        idle.clear();
+        for (WebDriver driver : all) {
+            quitQuietly(driver);
+        }
+        if (!all.isEmpty()) {
+            LogUtil.info("Pool de navegadores cerrado (" + all.size() + " instancias).");
+        }
+    }
+
+    /**
+     * Crea un navegador nuevo solo si el pool aún no alcanzó su tamaño máximo.
+     *
+     * @return navegador nuevo, o {@code null} si el pool está completo.
+     */
+    private synchronized WebDriver tryCreate() {
+        if (live.size() >= maxSize) {
+            return null;
+        }
+        WebDriver created = factory.get();
+        live.add(created);
+        LogUtil.info("Navegador nuevo creado para el pool (" + live.size() + "/" + maxSize + ").");
+        return created;
+    }
+
+    /**
+     * Chequeo de salud barato: la sesión responde, hay al menos una ventana y se puede ejecutar JavaScript.
+     *
+     * @param driver navegador a comprobar.
+     * @return {@code true} si el navegador puede reutilizarse.
+     */
+    static boolean isHealthy(WebDriver driver) {
+        try {
+            if (driver.getWindowHandles().isEmpty()) {
+                return false;
+            }
+            ((JavascriptExecutor) driver).executeScript("return 1;");
+            return true;
+        } catch (Exception e) {
+            LogUtil.warn("Chequeo de salud del navegador fallido: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Restablece el estado del navegador para que el siguiente escenario empiece “limpio”.
+     *
+     * @param driver navegador a resetear.
+     */
+    static void reset(WebDriver driver) {
+        // 1) Cerrar pestañas adicionales y quedarse con la primera
+        List<String> handles = new ArrayList<>(driver.getWindowHandles());
+        Collections.sort(handles);
+        String keep = handles.contains(safeWindowHandle(driver)) ? safeWindowHandle(driver) : handles.getFirst();
+        for (String handle : handles) {
+            if (!handle.equals(keep)) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+        }
+        driver.switchTo().window(keep);
+
+        // 2) Limpiar almacenamiento del origen actual (localStorage/sessionStorage)
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); } catch (e) {}" +
+                            "try { window.sessionStorage.clear(); } catch (e) {}");
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo limpiar el almacenamiento web: " + e.getMessage());
+        }
+
+        // 3) Cookies y descargas
+        if (driver instanceof ChromiumDriver chromium) {
+            chromium.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            new File(IDLE_DOWNLOADS_FOLDER).mkdirs();
+            DriverFactory.setDownloadDirectory(driver, IDLE_DOWNLOADS_FOLDER);
+        } else {
+            driver.manage().deleteAllCookies();
+        }
+
+        // 4) Página neutra
+        driver.navigate().to("about:blank");
+    }
+
+    private static String safeWindowHandle(WebDriver driver) {
+        try {
+            return driver.getWindowHandle();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtil.warn("Error al cerrar un navegador del pool: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package config;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import ui.utils.LogUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seguimiento de las peticiones de red de cada navegador Chromium mediante eventos CDP.
+ *
+ * <p>Escucha {@code Network.requestWillBeSent}, {@code Network.responseReceived},
+ * {@code Network.loadingFinished} y {@code Network.loadingFailed} para saber en todo momento qué
+ * peticiones están en curso. {@code WaitUtil.waitForNetworkIdle(long, String)} lo usa para esperar,
+ * sin sondeos fijos, a que termine la llamada al backend que disparó una acción (guardar, filtrar,
+ * "Calcular todo"...).</p>
+ *
+ * <p>Además guarda la latencia de las últimas peticiones completadas del escenario
+ * ({@link #getCompletedRequests(WebDriver)}) y al terminar cada escenario registra en el log los
+ * endpoints más lentos.</p>
+ *
+ * <p>Se instala en todos los navegadores Chromium al crearlos, salvo con {@code -DnetworkTracking=false}.
+ * Las conexiones de larga duración ({@code EventSource}, {@code WebSocket}) y las URL {@code data:} no
+ * cuentan como peticiones en curso.</p>
+ */
+public final class NetworkTracker {
+
+    /** Peticiones completadas que se conservan por escenario. */
+    private static final int MAX_COMPLETED = 500;
+
+    /** Endpoints que se muestran en el resumen de cada escenario. */
+    private static final int REPORT_TOP = 5;
+
+    private static final Set<String> IGNORED_TYPES = Set.of("EventSource", "WebSocket");
+
+    private static final Map<WebDriver, NetworkTracker> TRACKERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<RequestTiming> completed = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Latencia de una petición completada.
+     *
+     * @param method         método HTTP.
+     * @param url            URL completa.
+     * @param status         código HTTP de la respuesta; {@code 0} si falló sin respuesta.
+     * @param durationMillis milisegundos desde el envío hasta el fin de la descarga.
+     * @param failed         {@code true} si la petición terminó con {@code loadingFailed}.
+     * @param endNanos       instante de finalización ({@link System#nanoTime()}).
+     */
+    public record RequestTiming(String method, String url, int status, long durationMillis, boolean failed, long endNanos) {
+    }
+
+    /**
+     * Petición en curso.
+     */
+    private static final class InFlight {
+        private final String method;
+        private final String url;
+        private final long startNanos;
+        private volatile int status;
+
+        private InFlight(String method, String url, long startNanos) {
+            this.method = method;
+            this.url = url;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private NetworkTracker() {
+    }
+
+    /**
+     * Suscribe el navegador a los eventos de red de CDP.
+     *
+     * @param driver navegador recién creado.
+     */
+    static void install(WebDriver driver) {
+        if (!Boolean.parseBoolean(System.getProperty("networkTracking", "true"))
+                || !(driver instanceof HasDevTools hasDevTools)) {
+            return;
+        }
+
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            NetworkTracker tracker = new NetworkTracker();
+            devTools.addListener(event("Network.requestWillBeSent"), tracker::onRequestWillBeSent);
+            devTools.addListener(event("Network.responseReceived"), tracker::onResponseReceived);
+            devTools.addListener(event("Network.loadingFinished"), params -> tracker.onRequestEnd(params, false));
+            devTools.addListener(event("Network.loadingFailed"), params -> tracker.onRequestEnd(params, true));
+            devTools.send(new Command<>("Network.enable", Map.of()));
+            TRACKERS.put(driver, tracker);
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo activar el seguimiento de red vía CDP: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Devuelve el seguimiento de red del navegador.
+     *
+     * @param driver navegador.
+     * @return el seguimiento, o {@code null} si el navegador no es Chromium o está desactivado.
+     */
+    public static NetworkTracker of(WebDriver driver) {
+        return TRACKERS.get(driver);
+    }
+
+    /**
+     * Descarta las peticiones completadas de escenarios anteriores (navegadores reutilizados del pool).
+     *
+     * @param driver navegador del escenario.
+     */
+    public static void startScenario(WebDriver driver) {
+        NetworkTracker tracker = TRACKERS.get(driver);
+        if (tracker != null) {
+            tracker.completed.clear();
+        }
+    }
+
+    /**
+     * Registra en el log los endpoints con mayor latencia media del escenario.
+     *
+     * @param driver       navegador del escenario.
+     * @param scenarioName nombre del escenario para el mensaje.
+     */
+    public static void reportScenario(WebDriver driver, String scenarioName) {
+        NetworkTracker tracker = TRACKERS.get(driver);
+        if (tracker == null || tracker.completed.isEmpty()) {
+            return;
+        }
+
+        Map<String, long[]> byEndpoint = new LinkedHashMap<>();
+        for (RequestTiming timing : tracker.completed) {
+            long[] stats = byEndpoint.computeIfAbsent(timing.method() + " " + endpoint(timing.url()), k -> new long[3]);
+            stats[0]++;
+            stats[1] += timing.durationMillis();
+            stats[2] = Math.max(stats[2], timing.durationMillis());
+        }
+
+        StringBuilder summary = new StringBuilder(String.format("Red [%s]: %d peticiones. Endpoints más lentos:",
+                scenarioName, tracker.completed.size()));
+        byEndpoint.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1] / e.getValue()[0]).reversed())
+                .limit(REPORT_TOP)
+                .forEach(e -> summary.append(String.format("%n  %s -> %d llamadas, media %d ms, máximo %d ms",
+                        e.getKey(), e.getValue()[0], e.getValue()[1] / e.getValue()[0], e.getValue()[2])));
+        LogUtil.info(summary.toString());
+    }
+
+    /**
+     * Peticiones completadas en el escenario actual, de la más antigua a la más reciente (máximo
+     * {@value #MAX_COMPLETED}).
+     *
+     * @param driver navegador del escenario.
+     * @return latencias registradas; vacía si el navegador no tiene seguimiento de red.
+     */
+    public static List<RequestTiming> getCompletedRequests(WebDriver driver) {
+        NetworkTracker tracker = TRACKERS.get(driver);
+        return tracker == null ? List.of() : new ArrayList<>(tracker.completed);
+    }
+
+    /**
+     * URL de las peticiones en curso que contienen el filtro.
+     *
+     * @param urlFilter fragmento de URL; {@code null} o vacío para todas.
+     * @return URL en curso.
+     */
+    public List<String> pendingUrls(String urlFilter) {
+        List<String> urls = new ArrayList<>();
+        for (InFlight request : inFlight.values()) {
+            if (matches(request.url, urlFilter)) {
+                urls.add(request.method + " " + request.url);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Instante ({@link System#nanoTime()}) de la última actividad de red que coincide con el filtro: inicio
+     * de una petición en curso o fin de una completada.
+     *
+     * @param urlFilter fragmento de URL; {@code null} o vacío para todas.
+     * @return instante de la última actividad, o {@link Long#MIN_VALUE} si no hubo ninguna.
+     */
+    public long lastActivityNanos(String urlFilter) {
+        long last = Long.MIN_VALUE;
+        for (InFlight request : inFlight.values()) {
+            if (matches(request.url, urlFilter)) {
+                last = Math.max(last, request.startNanos);
+            }
+        }
+        Iterator<RequestTiming> newestFirst = completed.descendingIterator();
+        while (newestFirst.hasNext()) {
+            RequestTiming timing = newestFirst.next();
+            if (matches(timing.url(), urlFilter)) {
+                return Math.max(last, timing.endNanos());
+            }
+        }
+        return last;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onRequestWillBeSent(Map<String, Object> params) {
+        Map<String, Object> request = (Map<String, Object>) params.get("request");
+        String url = request == null ? "" : String.valueOf(request.get("url"));
+        if (url.startsWith("data:") || IGNORED_TYPES.contains(String.valueOf(params.get("type")))) {
+            return;
+        }
+        String requestId = String.valueOf(params.get("requestId"));
+        // En las redirecciones se reutiliza el requestId: se conserva el instante de envío original
+        inFlight.merge(requestId, new InFlight(String.valueOf(request.get("method")), url, System.nanoTime()),
+                (original, redirected) -> original);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onResponseReceived(Map<String, Object> params) {
+        InFlight request = inFlight.get(String.valueOf(params.get("requestId")));
+        Map<String, Object> response = (Map<String, Object>) params.get("response");
+        if (request != null && response != null && response.get("status") instanceof Number status) {
+            request.status = status.intValue();
+        }
+    }
+
+    private void onRequestEnd(Map<String, Object> params, boolean failed) {
+        InFlight request = inFlight.remove(String.valueOf(params.get("requestId")));
+        if (request == null) {
+            return;
+        }
+        long end = System.nanoTime();
+        completed.addLast(new RequestTiming(request.method, request.url, request.status,
+                TimeUnit.NANOSECONDS.toMillis(end - request.startNanos), failed, end));
+        while (completed.size() > MAX_COMPLETED) {
+            completed.pollFirst();
+        }
+    }
+
+    private static boolean matches(String url, String urlFilter) {
+        return urlFilter == null || urlFilter.isEmpty() || url.contains(urlFilter);
+    }
+
+    /**
+     * Quita de la URL la query y los segmentos numéricos para agrupar las llamadas al mismo endpoint.
+     */
+    private static String endpoint(String url) {
+        int query = url.indexOf('?');
+        String path = query >= 0 ? url.substring(0, query) : url;
+        return path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    private static Event<Map<String, Object>> event(String name) {
+        return new Event<>(name, input -> input.<Map<String, Object>>read(Json.MAP_TYPE));
+    }
+}
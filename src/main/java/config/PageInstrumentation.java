@@ -0,0 +1,122 @@
+package config;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import ui.utils.LogUtil;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Script que se inyecta en cada documento para instrumentar la aplicación desde dentro del navegador.
+ *
+ * <p>Envuelve {@code XMLHttpRequest} y {@code fetch} para:</p>
+ * <ul>
+ *   <li>Llevar en {@code window.__smarttest.pending} el número de peticiones HTTP en curso.
+ *       {@code WaitUtil.waitForAppStable()} lo combina con las testabilities de Angular para saber cuándo la
+ *       aplicación está ociosa.</li>
+ *   <li>Guardar en {@code window.__smarttest.errors} las respuestas 4xx/5xx (método, URL, estado y cuerpo
+ *       recortado). Las esperas de {@code WaitUtil} lo consultan para fallar en cuanto el backend devuelve un
+ *       error en lugar de agotar su timeout.</li>
+ * </ul>
+ *
+ * <p>En Chromium el script se registra con CDP ({@code Page.addScriptToEvaluateOnNewDocument}) al crear el
+ * navegador, de modo que cuenta también las peticiones del arranque de cada página. En cualquier otro caso
+ * {@code WaitUtil} lo antepone a sus propios scripts: es idempotente y solo se instala una vez por documento.</p>
+ */
+public final class PageInstrumentation {
+
+    /** Máximo de caracteres del cuerpo de respuesta que se guarda por error. */
+    private static final int MAX_ERROR_BODY = 1000;
+
+    /** Máximo de errores que se conservan por página. */
+    private static final int MAX_ERRORS = 20;
+
+    /** Instala el contador de peticiones y el registro de errores si la página aún no los tiene. */
+    public static final String HOOK_SCRIPT =
+            "(function () {"
+            + "  if (window.__smarttest) { return; }"
+            + "  var state = window.__smarttest = {pending: 0, errors: []};"
+            + "  function recordError(method, url, status, body) {"
+            + "    if (state.errors.length < " + MAX_ERRORS + ") {"
+            + "      state.errors.push({method: method, url: url, status: status, body: String(body || '').substring(0, " + MAX_ERROR_BODY + ")});"
+            + "    }"
+            + "  }"
+            + "  var open = XMLHttpRequest.prototype.open, send = XMLHttpRequest.prototype.send;"
+            + "  XMLHttpRequest.prototype.open = function (method, url) {"
+            + "    this.__smarttestRequest = {method: String(method).toUpperCase(), url: String(url)};"
+            + "    return open.apply(this, arguments);"
+            + "  };"
+            + "  XMLHttpRequest.prototype.send = function () {"
+            + "    var xhr = this, finished = false;"
+            + "    function end() {"
+            + "      if (finished) { return; } finished = true; state.pending--;"
+            + "      if (xhr.status >= 400) {"
+            + "        var body = ''; try { body = xhr.responseType === '' || xhr.responseType === 'text' ? xhr.responseText : JSON.stringify(xhr.response); } catch (e) { }"
+            + "        var request = xhr.__smarttestRequest || {};"
+            + "        recordError(request.method, xhr.responseURL || request.url, xhr.status, body);"
+            + "      }"
+            + "    }"
+            + "    state.pending++;"
+            + "    this.addEventListener('loadend', end);"
+            + "    try { return send.apply(this, arguments); } catch (e) { end(); throw e; }"
+            + "  };"
+            + "  if (window.fetch) {"
+            + "    var originalFetch = window.fetch;"
+            + "    window.fetch = function (input, init) {"
+            + "      var method = String((init && init.method) || (input && input.method) || 'GET').toUpperCase();"
+            + "      state.pending++;"
+            + "      var end = function () { state.pending--; };"
+            + "      try {"
+            + "        return originalFetch.apply(this, arguments).then("
+            + "            function (response) {"
+            + "              end();"
+            + "              if (response.status >= 400) {"
+            + "                response.clone().text().then("
+            + "                    function (body) { recordError(method, response.url, response.status, body); },"
+            + "                    function () { recordError(method, response.url, response.status, ''); });"
+            + "              }"
+            + "              return response;"
+            + "            },"
+            + "            function (error) { end(); throw error; });"
+            + "      } catch (e) { end(); throw e; }"
+            + "    };"
+            + "  }"
+            + "})();";
+
+    /** Navegadores en los que el script quedó registrado vía CDP. */
+    private static final Set<WebDriver> INSTALLED = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private PageInstrumentation() {
+    }
+
+    /**
+     * Registra el script para todos los documentos que cargue el navegador (solo Chromium).
+     *
+     * @param driver navegador recién creado.
+     */
+    static void install(WebDriver driver) {
+        if (!(driver instanceof ChromiumDriver chromium)) {
+            return;
+        }
+        try {
+            chromium.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", HOOK_SCRIPT));
+            INSTALLED.add(driver);
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo registrar la instrumentación de páginas vía CDP: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si el script ya se inyecta en cada documento del navegador, de modo que los scripts de
+     * {@code WaitUtil} no necesitan anteponerlo.
+     *
+     * @param driver navegador del escenario.
+     * @return {@code true} si se registró vía CDP con {@link #install(WebDriver)}.
+     */
+    public static boolean isInstalled(WebDriver driver) {
+        return INSTALLED.contains(driver);
+    }
+}
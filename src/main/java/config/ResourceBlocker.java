@@ -0,0 +1,247 @@
+package config;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import ui.utils.LogUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Bloqueo de recursos no necesarios para las pruebas (perfil {@code -DbrowserProfile=fast}).
+ *
+ * <p>Las reglas se leen de {@code -DblockedResources} como lista separada por comas. Cada regla es un
+ * patrón de URL con comodines {@code *} y, opcionalmente, una lista de excepciones tras {@code !}
+ * separadas por {@code |}:</p>
+ * <pre>
+ * -DblockedResources="*.png,*.jpg,*.woff2!*icon*|*Material*,*googletagmanager.com*"
+ * </pre>
+ *
+ * <ul>
+ *   <li>Reglas sin excepciones: se bloquean en el propio navegador con CDP {@code Network.setBlockedURLs}.</li>
+ *   <li>Reglas con excepciones: se interceptan con CDP {@code Fetch.enable}; si la URL coincide con alguna
+ *       excepción la petición continúa, en otro caso se cancela con {@code BlockedByClient}.</li>
+ * </ul>
+ *
+ * <p>Por escenario se contabilizan las peticiones bloqueadas y se <em>estima</em> el volumen ahorrado
+ * a partir del tamaño medio de los recursos del mismo tipo que sí se descargaron (o de un valor de
+ * referencia por tipo si aún no hay muestras).</p>
+ *
+ * <p>Solo aplica a navegadores Chromium (Chrome/Edge); en otros casos no se instala.</p>
+ */
+public final class ResourceBlocker {
+
+    /** Reglas por defecto: imágenes raster, fuentes (salvo fuentes de iconos) y analítica de terceros. */
+    static final String DEFAULT_RULES = "*.png,*.jpg,*.jpeg,*.gif,*.webp,*.ico,"
+            + "*.woff!*icon*|*Material*,*.woff2!*icon*|*Material*,*.ttf!*icon*|*Material*,"
+            + "*googletagmanager.com*,*google-analytics.com*,*hotjar.com*,*clarity.ms*";
+
+    /** Tamaño de referencia (bytes) por tipo de recurso cuando no hay muestras descargadas. */
+    private static final Map<String, Long> REFERENCE_SIZES = Map.of(
+            "Image", 20_000L,
+            "Font", 45_000L,
+            "Script", 60_000L,
+            "Stylesheet", 20_000L,
+            "Media", 200_000L);
+    private static final long DEFAULT_REFERENCE_SIZE = 10_000L;
+
+    private static final Map<WebDriver, ResourceBlocker> BLOCKERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final DevTools devTools;
+    private final List<Pattern> fetchRules = new ArrayList<>();
+    private final Map<Pattern, List<Pattern>> allowlists = new HashMap<>();
+
+    private final Map<String, String> typeByRequest = new ConcurrentHashMap<>();
+    private final Map<String, long[]> bytesByType = new ConcurrentHashMap<>();
+    private final AtomicLong blockedRequests = new AtomicLong();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    private ResourceBlocker(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    /**
+     * Instala el bloqueo de recursos en el navegador indicado.
+     *
+     * @param driver navegador recién creado (Chrome o Edge).
+     */
+    static void install(WebDriver driver) {
+        if (!(driver instanceof HasDevTools hasDevTools)) {
+            LogUtil.warn("El driver no soporta CDP; el perfil 'fast' no bloqueará recursos.");
+            return;
+        }
+
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            ResourceBlocker blocker = new ResourceBlocker(devTools);
+            blocker.configure(System.getProperty("blockedResources", DEFAULT_RULES));
+            BLOCKERS.put(driver, blocker);
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo instalar el bloqueo de recursos vía CDP: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reinicia los contadores del navegador al comenzar un escenario.
+     *
+     * @param driver navegador del escenario.
+     */
+    public static void startScenario(WebDriver driver) {
+        ResourceBlocker blocker = BLOCKERS.get(driver);
+        if (blocker != null) {
+            blocker.blockedRequests.set(0);
+            blocker.estimatedBytes.set(0);
+        }
+    }
+
+    /**
+     * Registra en el log las peticiones bloqueadas y el volumen estimado ahorrado en el escenario.
+     *
+     * @param driver       navegador del escenario.
+     * @param scenarioName nombre del escenario para el mensaje.
+     */
+    public static void reportScenario(WebDriver driver, String scenarioName) {
+        ResourceBlocker blocker = BLOCKERS.get(driver);
+        if (blocker != null) {
+            LogUtil.info(String.format("Perfil fast [%s]: %d peticiones bloqueadas, ~%d KB ahorrados (estimado).",
+                    scenarioName, blocker.blockedRequests.get(), blocker.estimatedBytes.get() / 1024));
+        }
+    }
+
+    private void configure(String rules) {
+        List<String> blockedUrls = new ArrayList<>();
+        List<Map<String, Object>> fetchPatterns = new ArrayList<>();
+
+        for (String rawRule : rules.split(",")) {
+            String rule = rawRule.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            String[] parts = rule.split("!", 2);
+            String urlPattern = parts[0].trim();
+            if (parts.length == 1) {
+                blockedUrls.add(urlPattern);
+            } else {
+                Pattern compiled = toRegex(urlPattern);
+                fetchRules.add(compiled);
+                allowlists.put(compiled, Arrays.stream(parts[1].split("\\|"))
+                        .map(String::trim)
+                        .filter(s -> !s.isEmpty())
+                        .map(ResourceBlocker::toRegex)
+                        .toList());
+                fetchPatterns.add(Map.of("urlPattern", urlPattern, "requestStage", "Request"));
+            }
+        }
+
+        devTools.addListener(new Event<>("Network.responseReceived", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                this::onResponseReceived);
+        devTools.addListener(new Event<>("Network.loadingFinished", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                this::onLoadingFinished);
+        devTools.addListener(new Event<>("Network.loadingFailed", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                this::onLoadingFailed);
+        devTools.send(new Command<>("Network.enable", Map.of()));
+
+        if (!blockedUrls.isEmpty()) {
+            devTools.send(new Command<>("Network.setBlockedURLs", Map.of("urls", blockedUrls)));
+        }
+        if (!fetchPatterns.isEmpty()) {
+            devTools.addListener(new Event<>("Fetch.requestPaused", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                    this::onRequestPaused);
+            devTools.send(new Command<>("Fetch.enable", Map.of("patterns", fetchPatterns)));
+        }
+
+        LogUtil.info("Perfil fast: " + blockedUrls.size() + " patrones bloqueados y "
+                + fetchPatterns.size() + " patrones con excepciones.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onRequestPaused(Map<String, Object> params) {
+        String requestId = String.valueOf(params.get("requestId"));
+        String url = String.valueOf(((Map<String, Object>) params.get("request")).get("url"));
+        try {
+            if (isAllowed(url)) {
+                devTools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId)));
+            } else {
+                devTools.send(new Command<>("Fetch.failRequest",
+                        Map.of("requestId", requestId, "errorReason", "BlockedByClient")));
+            }
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo resolver la petición interceptada " + url + ": " + e.getMessage());
+        }
+    }
+
+    private boolean isAllowed(String url) {
+        for (Pattern rule : fetchRules) {
+            if (rule.matcher(url).matches()) {
+                return allowlists.get(rule).stream().anyMatch(allow -> allow.matcher(url).matches());
+            }
+        }
+        return true;
+    }
+
+    private void onResponseReceived(Map<String, Object> params) {
+        Object type = params.get("type");
+        if (type != null) {
+            typeByRequest.put(String.valueOf(params.get("requestId")), String.valueOf(type));
+        }
+    }
+
+    private void onLoadingFinished(Map<String, Object> params) {
+        String type = typeByRequest.remove(String.valueOf(params.get("requestId")));
+        Object length = params.get("encodedDataLength");
+        if (type != null && length instanceof Number number) {
+            long[] stats = bytesByType.computeIfAbsent(type, k -> new long[2]);
+            synchronized (stats) {
+                stats[0] += number.longValue();
+                stats[1]++;
+            }
+        }
+    }
+
+    private void onLoadingFailed(Map<String, Object> params) {
+        typeByRequest.remove(String.valueOf(params.get("requestId")));
+        String errorText = String.valueOf(params.get("errorText"));
+        if (params.get("blockedReason") == null && !errorText.contains("ERR_BLOCKED_BY_CLIENT")) {
+            return;
+        }
+        blockedRequests.incrementAndGet();
+        estimatedBytes.addAndGet(averageSize(String.valueOf(params.get("type"))));
+    }
+
+    private long averageSize(String type) {
+        long[] stats = bytesByType.get(type);
+        if (stats != null) {
+            synchronized (stats) {
+                if (stats[1] > 0) {
+                    return stats[0] / stats[1];
+                }
+            }
+        }
+        return REFERENCE_SIZES.getOrDefault(type, DEFAULT_REFERENCE_SIZE);
+    }
+
+    private static Pattern toRegex(String glob) {
+        String[] parts = glob.split("\\*", -1);
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+}
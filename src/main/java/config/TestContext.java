@@ -1,21 +1,29 @@
 package config;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Clase para almacenar datos compartidos entre pruebas.
+ *
+ * <p>El almacén es común a toda la JVM (p. ej. el token de autenticación) y es seguro para
+ * escenarios que se ejecutan en paralelo. Los datos propios de un escenario deben guardarse en
+ * {@link ScenarioContext}, que Cucumber crea por escenario.</p>
  */
 public class TestContext {
-    private static final Map<String, String> dataStore = new HashMap<>();
+    private static final Map<String, String> dataStore = new ConcurrentHashMap<>();
 
     /**
-     * Almacena un valor con la clave especificada.
+     * Almacena un valor con la clave especificada. Un valor {@code null} elimina la clave.
      * @param key Clave.
      * @param value Valor.
      */
     public static void setValue(String key, String value) {
-        dataStore.put(key, value);
+        if (value == null) {
+            dataStore.remove(key);
+        } else {
+            dataStore.put(key, value);
+        }
     }
 
     /**
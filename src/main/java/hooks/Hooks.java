@@ -1,6 +1,8 @@
 package hooks;
 
 import config.DriverFactory;
+import config.NetworkTracker;
+import config.ResourceBlocker;
 import config.ScenarioContext;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
@@ -8,25 +10,21 @@ import io.cucumber.java.Scenario;
 import org.openqa.selenium.WebDriver;
 import ui.manager.PageManager;
 import ui.utils.LogUtil;
+import ui.utils.NavigationState;
 import ui.utils.ScreenshotUtil;
+import ui.utils.SessionCacheUtil;
 
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.edge.EdgeDriver;
-
-import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Hooks de Cucumber para pruebas de interfaz {@code @ui}.
  *
  * <p>Responsabilidades principales:</p>
  * <ul>
- *   <li>Inicializar y cerrar el {@link WebDriver} a través de {@link DriverFactory}.</li>
+ *   <li>Inicializar y liberar el {@link WebDriver} a través de {@link DriverFactory}
+ *       (cierre o devolución al pool si {@code -DdriverPool} está activo).</li>
  *   <li>Propagar el {@link Scenario} al {@link ScenarioContext} para uso en steps y pages.</li>
  *   <li>Inicializar el {@link PageManager} y utilidades asociadas (p. ej., {@link ScreenshotUtil}).</li>
  *   <li>Configurar carpetas por escenario para screenshots y descargas.</li>
@@ -34,6 +32,10 @@ import java.util.Map;
  *   <li>Registrar inicio y fin de cada escenario, y capturar evidencia en fallos.</li>
  * </ul>
  *
+ * <p><strong>Concurrencia</strong>: todo el estado del escenario (driver, {@link PageManager}, carpetas)
+ * vive en {@link ThreadLocal}s, por lo que los hooks son válidos con escenarios en paralelo
+ * ({@code -Dparallel.scenarios=N}); cada hilo de Cucumber obtiene su propio navegador.</p>
+ *
  * <p><strong>Ámbito</strong>: cada ejecución de escenario crea su propio subdirectorio
  * bajo {@code target/screenshots/} y {@code target/downloads/} con un timestamp,
  * lo que facilita la trazabilidad de evidencias y archivos descargados.</p>
@@ -44,9 +46,6 @@ import java.util.Map;
  */
 public class Hooks {
 
-    /** Utilidad para gestionar capturas de pantalla asociadas al escenario. */
-    private ScreenshotUtil screenshotUtil;
-
     /**
      * Instancia compartida del {@link WebDriver} para el escenario actual.
      * <p>Se crea en {@link #setUp(Scenario)} y se cierra en {@link #tearDown(Scenario)}.</p>
@@ -61,13 +60,13 @@ public class Hooks {
 
     /**
      * Ruta del directorio donde se almacenarán las capturas de pantalla del escenario actual.
-     * <p>Formato: {@code target/screenshots/<nombre_escenario>_<timestamp>/}</p>
+     * <p>Formato: {@code target/screenshots/<nombre_escenario>_<línea>_<timestamp>/}</p>
      */
     private static final ThreadLocal<String> SCENARIO_FOLDER_PATH = new ThreadLocal<>();
 
     /**
      * Ruta del directorio donde se almacenarán las descargas del escenario actual.
-     * <p>Formato: {@code target/downloads/<nombre_escenario>_<timestamp>/}</p>
+     * <p>Formato: {@code target/downloads/<nombre_escenario>_<línea>_<timestamp>/}</p>
      * <p>Cuando se ejecuta en Chromium, se intenta forzar esta ruta en el navegador vía CDP.</p>
      */
     private static final ThreadLocal<String> DOWNLOADS_FOLDER_PATH = new ThreadLocal<>();
@@ -94,9 +93,9 @@ public class Hooks {
      * <ol>
      *   <li>Obtiene el {@link WebDriver} desde {@link DriverFactory#getDriver()}.</li>
      *   <li>Guarda el {@link Scenario} en {@link ScenarioContext}.</li>
-     *   <li>Inicializa {@link PageManager} y {@link ScreenshotUtil}.</li>
+     *   <li>Inicializa {@link PageManager} (las utilidades como {@link ScreenshotUtil} se crean bajo demanda).</li>
      *   <li>Crea carpetas específicas del escenario para screenshots y descargas (con timestamp).</li>
-     *   <li>Intenta configurar la carpeta de descargas del navegador con {@link #forceBrowserDownloadDir(WebDriver, String)}.</li>
+     *   <li>Intenta configurar la carpeta de descargas del navegador con {@link DriverFactory#setDownloadDirectory(WebDriver, String)}.</li>
      *   <li>Registra el inicio del escenario en el log.</li>
      * </ol>
      *
@@ -110,10 +109,9 @@ public class Hooks {
         PageManager manager = new PageManager(webDriver, scenarioContext);
         PAGE_MANAGER.set(manager);
 
-        screenshotUtil = manager.getScreenshotUtil();
-
+        // La línea evita colisiones entre ejemplos de un Scenario Outline ejecutados en paralelo
         String timestamp = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
-        String folderName = scenario.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_" + timestamp;
+        String folderName = scenario.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_" + scenario.getLine() + "_" + timestamp;
 
         // Carpeta de screenshots
         String scenarioFolderPath = "target/screenshots/" + folderName + "/";
@@ -125,12 +123,15 @@ public class Hooks {
         DOWNLOADS_FOLDER_PATH.set(downloadsFolderPath);
         new File(downloadsFolderPath).mkdirs();
         try {
-            forceBrowserDownloadDir(webDriver, downloadsFolderPath);
+            DriverFactory.setDownloadDirectory(webDriver, downloadsFolderPath);
             LogUtil.info("Carpeta de descargas configurada: " + downloadsFolderPath);
         } catch (Exception e) {
             LogUtil.error("No se pudo configurar la carpeta de descargas vía CDP: " + e.getMessage());
         }
 
+        ResourceBlocker.startScenario(webDriver);
+        NetworkTracker.startScenario(webDriver);
+        NavigationState.of(webDriver).invalidate("nuevo escenario");
         LogUtil.start("Escenario: " + scenario.getName());
     }
 
@@ -138,20 +139,26 @@ public class Hooks {
      * Hook de finalización para escenarios etiquetados con {@code @ui}.
      *
      * <p>Si el escenario falla, captura una screenshot con contexto y la guarda en
-     * {@link #scenarioFolderPath}. Tras ello, registra el fin del escenario y
-     * cierra el {@link WebDriver} vía {@link DriverFactory#quitDriver()}.</p>
+     * {@link #scenarioFolderPath}. Descarta la sesión en caché si la aplicación la rechazó durante el escenario
+     * ({@link SessionCacheUtil#checkStillAccepted(WebDriver)}). Tras ello, registra el fin del escenario y
+     * libera el {@link WebDriver} vía {@link DriverFactory#releaseDriver()} (se cierra, o se
+     * resetea y vuelve al pool cuando {@code -DdriverPool} está activo).</p>
      *
      * @param scenario escenario que acaba de finalizar.
      */
     @After("@ui")
     public void tearDown(Scenario scenario) {
-        if (scenario.isFailed() && screenshotUtil != null) {
+        PageManager manager = PAGE_MANAGER.get();
+        if (scenario.isFailed() && manager != null) {
             LogUtil.error("Escenario fallido: " + scenario.getName());
-            screenshotUtil.captureWithScenario(scenario, "Evidencia de error");
+            manager.getScreenshotUtil().captureWithScenario(scenario, "Evidencia de error");
         }
 
+        SessionCacheUtil.checkStillAccepted(DRIVER.get());
+        ResourceBlocker.reportScenario(DRIVER.get(), scenario.getName());
+        NetworkTracker.reportScenario(DRIVER.get(), scenario.getName());
         LogUtil.end("Escenario: " + scenario.getName());
-        DriverFactory.quitDriver();
+        DriverFactory.releaseDriver();
         ScenarioContext.DownloadContext.set(null);
         PAGE_MANAGER.remove();
         SCENARIO_FOLDER_PATH.remove();
@@ -194,36 +201,4 @@ public class Hooks {
     public static String getDownloadsFolderPath() {
         return DOWNLOADS_FOLDER_PATH.get();
     }
-
-    /**
-     * Configura en tiempo de ejecución la carpeta de descargas del navegador empleando
-     * el protocolo CDP (Chrome DevTools Protocol).
-     *
-     * <p>Compatibilidad:</p>
-     * <ul>
-     *   <li><strong>Soportado</strong>: {@link ChromeDriver}, {@link EdgeDriver} (Chromium).</li>
-     *   <li><strong>No soportado</strong>: otros drivers/no Chromium. En este caso, se registra un {@code warn} y no se modifica nada.</li>
-     * </ul>
-     *
-     * <p><strong>Requisitos</strong>:
-     * el navegador debe permitir el comando {@code Page.setDownloadBehavior} y
-     * la ruta de destino debe existir y ser escribible.</p>
-     *
-     * @param driver      instancia del navegador en uso.
-     * @param downloadDir ruta de la carpeta donde se desean almacenar las descargas.
-     */
-    private void forceBrowserDownloadDir(WebDriver driver, String downloadDir) {
-        // Solo funciona con drivers Chromium (Chrome/Edge):
-        Map<String, Object> params = new HashMap<>();
-        params.put("behavior", "allow");
-        params.put("downloadPath", Paths.get(downloadDir).toAbsolutePath().toString());
-
-        if (driver instanceof ChromeDriver) {
-            ((ChromeDriver) driver).executeCdpCommand("Page.setDownloadBehavior", params);
-        } else if (driver instanceof EdgeDriver) {
-            ((EdgeDriver) driver).executeCdpCommand("Page.setDownloadBehavior", params);
-        } else {
-            LogUtil.warn("El driver no es Chromium; no se puede forzar carpeta de descarga vía CDP.");
-        }
-    }
 }
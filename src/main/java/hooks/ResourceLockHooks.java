@@ -0,0 +1,171 @@
+package hooks;
+
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import ui.utils.LogUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bloqueos por recurso para escenarios que se ejecutan en paralelo ({@code -Dparallel.scenarios=N}).
+ *
+ * <p>Los escenarios declaran los recursos del tenant que usan con etiquetas:</p>
+ * <ul>
+ *   <li>{@code @exclusive:<recurso>}: el escenario necesita el recurso en exclusiva (p. ej.
+ *       {@code @exclusive:calc} para "Calcular todo"). Espera a que terminen los escenarios que lo usan y
+ *       ningún otro que lo declare empieza hasta que termina.</li>
+ *   <li>{@code @shared:<recurso>}: el escenario puede convivir con otros {@code @shared} del mismo recurso,
+ *       pero no con uno {@code @exclusive}.</li>
+ * </ul>
+ *
+ * <p>Casi todas las pantallas muestran datos calculados, así que los escenarios que no declaran el recurso
+ * {@value #CALC_RESOURCE} lo usan como {@code @shared:calc}: un {@code @exclusive:calc} espera a que terminen y
+ * ninguno empieza mientras dura el cálculo. Con otros recursos, los escenarios sin etiquetas o con recursos
+ * distintos siguen ejecutándose en paralelo. Si un
+ * escenario declara el mismo recurso como exclusivo y compartido, prevalece el exclusivo. Los recursos se
+ * adquieren en orden alfabético para evitar interbloqueos y antes de abrir el navegador, de modo que un
+ * escenario en espera no ocupa un navegador del pool.</p>
+ *
+ * <p>La espera de cada escenario se registra en el log y en el reporte de Cucumber; al terminar la
+ * ejecución se muestra un resumen por recurso. Si un recurso no se obtiene en
+ * {@code -DresourceLockTimeoutMinutes} (30 por defecto) el escenario falla.</p>
+ *
+ * <p><strong>Ámbito</strong>: los bloqueos coordinan los hilos de una misma JVM. Si la regresión se reparte
+ * entre varias JVM o contenedores ({@code -Dshards}), los escenarios con el mismo recurso exclusivo deben
+ * quedar en el mismo shard.</p>
+ */
+public class ResourceLockHooks {
+
+    private static final String EXCLUSIVE_PREFIX = "@exclusive:";
+    private static final String SHARED_PREFIX = "@shared:";
+
+    /** Recurso de "Calcular todo", compartido por defecto. */
+    static final String CALC_RESOURCE = "calc";
+
+    /** Esperas menores que este umbral no se registran en el reporte del escenario. */
+    private static final long REPORT_THRESHOLD_MILLIS = 50;
+
+    private static final Map<String, ReentrantReadWriteLock> LOCKS = new ConcurrentHashMap<>();
+    private static final Map<String, WaitStats> STATS = new ConcurrentHashMap<>();
+
+    /** Bloqueos que tiene el escenario actual; Cucumber crea una instancia de hooks por escenario. */
+    private final List<Lock> held = new ArrayList<>();
+
+    /**
+     * Estadísticas de espera de un recurso.
+     */
+    private static final class WaitStats {
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private void record(long waitedMillis) {
+            acquisitions.increment();
+            if (waitedMillis > 0) {
+                contended.increment();
+                totalMillis.add(waitedMillis);
+                maxMillis.accumulateAndGet(waitedMillis, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Adquiere los recursos declarados por las etiquetas del escenario antes de cualquier otro hook.
+     *
+     * @param scenario escenario que va a comenzar.
+     */
+    @Before(order = -100)
+    public void acquire(Scenario scenario) {
+        Map<String, Boolean> resources = resourcesOf(scenario);
+        long timeoutMinutes = Long.getLong("resourceLockTimeoutMinutes", 30);
+        for (Map.Entry<String, Boolean> entry : resources.entrySet()) {
+            String resource = entry.getKey();
+            boolean exclusive = entry.getValue();
+            ReentrantReadWriteLock rw = LOCKS.computeIfAbsent(resource, r -> new ReentrantReadWriteLock(true));
+            Lock lock = exclusive ? rw.writeLock() : rw.readLock();
+            String label = (exclusive ? EXCLUSIVE_PREFIX : SHARED_PREFIX) + resource;
+
+            long start = System.nanoTime();
+            try {
+                if (!lock.tryLock(timeoutMinutes, TimeUnit.MINUTES)) {
+                    release();
+                    throw new IllegalStateException("No se obtuvo el recurso " + label + " en "
+                            + timeoutMinutes + " minutos para el escenario '" + scenario.getName() + "'.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                release();
+                throw new IllegalStateException("Interrumpido esperando el recurso " + label, e);
+            }
+            held.add(lock);
+
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            STATS.computeIfAbsent(resource, r -> new WaitStats()).record(waitedMillis);
+            if (waitedMillis >= REPORT_THRESHOLD_MILLIS) {
+                String message = "Esperó " + waitedMillis + " ms por el recurso " + label + ".";
+                LogUtil.info("Escenario '" + scenario.getName() + "': " + message);
+                scenario.log(message);
+            }
+        }
+    }
+
+    /**
+     * Libera los recursos del escenario después de todos los demás hooks {@code @After}.
+     */
+    @After(order = -100)
+    public void release() {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+        held.clear();
+    }
+
+    /**
+     * Muestra en el log el resumen de esperas por recurso al finalizar la ejecución.
+     */
+    @AfterAll
+    public static void logWaitSummary() {
+        if (STATS.isEmpty()) {
+            return;
+        }
+        new TreeMap<>(STATS).forEach((resource, stats) -> LogUtil.info(String.format(
+                "Recurso '%s': %d escenarios, %d esperaron, %.1f s de espera total, máximo %.1f s.",
+                resource,
+                stats.acquisitions.sum(),
+                stats.contended.sum(),
+                stats.totalMillis.sum() / 1000.0,
+                stats.maxMillis.get() / 1000.0)));
+    }
+
+    /**
+     * Obtiene los recursos declarados en las etiquetas del escenario, más {@value #CALC_RESOURCE} compartido si
+     * no lo declara.
+     *
+     * @param scenario escenario.
+     * @return recurso → {@code true} si es exclusivo, ordenado por nombre.
+     */
+    static Map<String, Boolean> resourcesOf(Scenario scenario) {
+        Map<String, Boolean> resources = new TreeMap<>();
+        for (String tag : scenario.getSourceTagNames()) {
+            if (tag.startsWith(EXCLUSIVE_PREFIX) && tag.length() > EXCLUSIVE_PREFIX.length()) {
+                resources.put(tag.substring(EXCLUSIVE_PREFIX.length()), true);
+            } else if (tag.startsWith(SHARED_PREFIX) && tag.length() > SHARED_PREFIX.length()) {
+                resources.merge(tag.substring(SHARED_PREFIX.length()), false, Boolean::logicalOr);
+            }
+        }
+        resources.putIfAbsent(CALC_RESOURCE, false);
+        return resources;
+    }
+}
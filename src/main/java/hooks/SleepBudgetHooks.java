@@ -0,0 +1,44 @@
+package hooks;
+
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import ui.utils.SleepBudget;
+
+/**
+ * Contabilidad de pausas fijas por escenario con {@link SleepBudget}.
+ *
+ * <p>Abre la contabilidad antes de cada escenario, aplica el presupuesto {@code -DsleepBudgetMillis} al
+ * terminarlo ({@code -DsleepBudgetMode=warn|fail|off}) y al finalizar la ejecución publica los puntos de
+ * llamada con más tiempo de pausa.</p>
+ */
+public class SleepBudgetHooks {
+
+    /**
+     * Comienza la contabilidad de pausas del escenario.
+     *
+     * @param scenario escenario que va a comenzar.
+     */
+    @Before(order = -50)
+    public void startSleepAccounting(Scenario scenario) {
+        SleepBudget.startScenario(scenario.getName());
+    }
+
+    /**
+     * Aplica el presupuesto de pausas al escenario; con {@code -DsleepBudgetMode=fail} lo marca como fallido
+     * si lo supera.
+     */
+    @After(order = -50)
+    public void checkSleepBudget() {
+        SleepBudget.endScenario();
+    }
+
+    /**
+     * Escribe {@code target/sleep-hotspots.txt} y muestra en el log los puntos con más tiempo de pausa.
+     */
+    @AfterAll
+    public static void reportSleepHotspots() {
+        SleepBudget.report();
+    }
+}
@@ -0,0 +1,22 @@
+package hooks;
+
+import io.cucumber.java.AfterAll;
+import ui.utils.WaitEngine;
+
+/**
+ * Publica al finalizar la ejecución las estadísticas de esperas recogidas por {@link WaitEngine}.
+ */
+public final class WaitReportHook {
+
+    private WaitReportHook() {
+        // Clase de utilería; no instanciable.
+    }
+
+    /**
+     * Escribe {@code target/wait-latency.txt} y muestra en el log las esperas que más tiempo acumulan.
+     */
+    @AfterAll
+    public static void reportWaitLatency() {
+        WaitEngine.report();
+    }
+}
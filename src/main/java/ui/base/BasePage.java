@@ -86,8 +86,8 @@ public class BasePage {
     }
 
     /**
-     * Encapsula las esperas de visibilidad y clicabilidad, así como el ajuste de scroll,
-     * para un {@link WebElement} ya localizado.
+     * Encapsula la espera de aplicación estable ({@link WaitUtil#waitForAppStable()}), las esperas de
+     * visibilidad y clicabilidad, así como el ajuste de scroll, para un {@link WebElement} ya localizado.
      *
      * @param element     Elemento objetivo.
      * @param elementName Nombre descriptivo usado en los mensajes de log.
@@ -95,6 +95,7 @@ public class BasePage {
      */
     private WebElement ensureElementInteractable(WebElement element, String elementName) {
         LogUtil.info("Preparando elemento para interacción: " + elementName);
+        waitUtil.waitForAppStable();
         scrollToElementIfNotVisible(element);
         waitUtil.waitForVisibilityByElement(element);
         waitUtil.waitForClickable(element);
@@ -102,7 +103,8 @@ public class BasePage {
     }
 
     /**
-     * Encapsula la localización, esperas explícitas y ajuste de scroll para un locator.
+     * Encapsula la espera de aplicación estable, la localización, esperas explícitas y ajuste de scroll
+     * para un locator.
      *
      * @param locator     Localizador del elemento objetivo.
      * @param elementName Nombre descriptivo usado en los mensajes de log.
@@ -110,6 +112,7 @@ public class BasePage {
      */
     private WebElement ensureElementInteractable(By locator, String elementName) {
         LogUtil.info("Localizando elemento interactuable: " + elementName);
+        waitUtil.waitForAppStable();
         WebElement element = waitUtil.waitForPresenceOfElement(locator);
         scrollToElementIfNotVisible(element);
         waitUtil.waitForVisibilityByLocator(locator);
@@ -240,11 +243,7 @@ public class BasePage {
 
             // Espera antes de volver a intentar
             if (attempt < maxAttempts) {
-                try {
-                    Thread.sleep(waitBetweenMillis);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+                SleepBudget.sleep(waitBetweenMillis, "Espera entre intentos de localizar " + targetLocator);
             }
         }
 
@@ -444,6 +443,7 @@ public class BasePage {
      */
     public void sendKeysByElement(WebElement element, String text, String fieldName) {
         try {
+            waitUtil.waitForAppStable();
             LogUtil.info("Limpiando campo: " + fieldName);
             element.clear();
 
@@ -466,6 +466,7 @@ public class BasePage {
      */
     public void sendKeysByLocator(By locator, String text, String fieldName) {
         try {
+            waitUtil.waitForAppStable();
             LogUtil.info("Esperando que el campo esté visible (con refreshed): " + fieldName);
 
             //Espera que el elemento este visible
@@ -585,11 +586,7 @@ public class BasePage {
     private void sendTextSlowly(WebElement element, String text) {
         for (char c : text.toCharArray()) {
             element.sendKeys(Character.toString(c));
-            try {
-                Thread.sleep(50); // Pequeña pausa para simular ingreso humano
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt(); // Restablece el estado de interrupción
-            }
+            SleepBudget.sleep(50, "Pausa entre caracteres del ingreso lento"); // Simula ingreso humano
         }
     }
 
@@ -915,7 +912,7 @@ public class BasePage {
     public void modifyCell(String column, String originalRecord, String newRecord) {
         // Paso 1: Localizar y hacer clic en la celda del registro
         WebElement element = waitUtil.findVisibleElement(tableUtil.buildRecordLocator(originalRecord));
-        waitUtil.sleepMillis(300, "Espera a que la tabla se renderice completamente"); // realiza una pequeña espera a que la tabla se renderice completamente
+        waitUtil.waitForDomQuiet(null, 100, 300); // espera a que la tabla termine de renderizarse
         clickByElement(element, "Celda: " + originalRecord);
 
         // Paso 2: Ingresar el nuevo registro
@@ -1036,6 +1033,7 @@ public class BasePage {
      */
     public void sendKeysByElement(WebElement element, int number, String fieldName) {
         try {
+            waitUtil.waitForAppStable();
             LogUtil.info("Limpiando campo: " + fieldName);
             element.clear();
 
@@ -1107,6 +1105,7 @@ public class BasePage {
      */
     public void refreshPage() {
         LogUtil.info("Refrescando la página actual.");
+        NavigationState.of(driver).invalidate("refresco de página");
         driver.navigate().refresh();
     }
 
@@ -1119,6 +1118,7 @@ public class BasePage {
      */
     public void sendKeysByElement(WebElement element, BigDecimal number, String fieldName) {
         try {
+            waitUtil.waitForAppStable();
             LogUtil.info("Limpiando campo: " + fieldName);
             element.clear();
 
@@ -1256,6 +1256,7 @@ public class BasePage {
     public void navigateBack() {
         try {
             LogUtil.info("Navegando hacia la página anterior del navegador.");
+            NavigationState.of(driver).invalidate("navegación hacia atrás");
             driver.navigate().back();
             LogUtil.info("Navegación hacia atrás completada.");
         } catch (Exception e) {
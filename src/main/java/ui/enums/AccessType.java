@@ -8,6 +8,7 @@ package ui.enums;
  *   <li>{@link #QUICK} - Acceso mediante el menú rápido.</li>
  *   <li>{@link #INDEX} - Acceso mediante el menú índice o principal.</li>
  *   <li>{@link #SEARCH} - Acceso mediante el buscador (ícono de lupa).</li>
+ *   <li>{@link #DIRECT} - Acceso directo por URL aprendida (deep link).</li>
  * </ul>
  * </p>
  */
@@ -26,5 +27,11 @@ public enum AccessType {
     /**
      * Acceso mediante el buscador (ícono de lupa).
      */
-    SEARCH
+    SEARCH,
+
+    /**
+     * Acceso directo a la URL del módulo registrada en el mapa de rutas.
+     * Si la ruta aún no se conoce, se accede por el buscador y se aprende.
+     */
+    DIRECT
 }
\ No newline at end of file
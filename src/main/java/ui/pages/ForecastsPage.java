@@ -11,8 +11,14 @@ import ui.utils.*;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Página de Previsiones (ForecastsPage) del sistema.
@@ -21,6 +27,9 @@ import java.util.Map;
  */
 public class ForecastsPage extends BasePage {
 
+    /** Columna con el concepto de cada fila: las filas de un mismo registro se repiten una vez por concepto. */
+    private static final String CONCEPT_HEADER = "Concepto";
+
     private final By dropdownTrigger = By.xpath("//div[@role='button' and contains(@class,'p-dropdown-trigger') and @aria-label='dropdown trigger']");
 //    private BigDecimal expectedValue;
     private String expectedValue = tableUtil.getLastCellValue();
@@ -32,6 +41,14 @@ public class ForecastsPage extends BasePage {
 //    private String initialValue = "";
     private String finalValue;
     private String currentCellText;
+    /** Copia de la tabla "Previsiones" tomada antes de editar la celda, con las dimensiones y el concepto como clave. */
+    private TableSnapshot tableBeforeEdit;
+    /** Columnas de las dimensiones de la agrupación que se muestran en la tabla. */
+    private String[] dimensionHeaders = new String[0];
+    /** Columnas que identifican cada fila: las dimensiones y, si se muestra, el concepto. */
+    private String[] tableKeyHeaders = new String[0];
+    /** Celda editada, identificada en {@code tableBeforeEdit}. */
+    private TableDiff.CellRef editedCell;
 //    private int numberOfDecimals = 0;
 
     /**
@@ -218,20 +235,20 @@ public class ForecastsPage extends BasePage {
      */
     public void refreshPageAndWait() {
         refreshPage();
-        waitUtil.sleepMillis(500, "Esperar recarga de página");
+        waitUtil.waitForNetworkIdle(300, null);
     }
 
     /**
      * Valida que el valor editado en la celda persista tras el refresco, según el tipo de operación.
      *
+     * <p>Compara una copia de la tabla con la tomada antes de la edición ({@link TableDiff}): en la columna
+     * editada solo debe haber cambiado la celda editada, y debe tener el valor esperado (tolerancia 1), salvo en
+     * las filas derivadas que se recalculan ({@link #derivedRows()}). La celda se identifica por las dimensiones y
+     * el concepto de su fila, no por su posición.</p>
+     *
      * @param operation Tipo de operación aplicada (suma, resta, multiplicación, división o reemplazo).
      */
     public void validateCorrectCellModification(String operation) {
-        int row = tableUtil.getLastRowIndex();
-        int column = tableUtil.getLastColumnIndex();
-//        BigDecimal initialValue = tableUtil.getLastCellValue();
-//        BigDecimal expectedValue;
-
         switch (operation.toLowerCase()) {
             case "suma":
                 expectedValue = CalculatorUtil.addValues(initialValue, amount);
@@ -252,12 +269,14 @@ public class ForecastsPage extends BasePage {
                 throw new IllegalArgumentException("Operación no soportada: " + operation);
         }
 
-        WebElement newCell = tableUtil.getCellElement(row, column, "Previsiones");
-        scrollToElementIfNotVisible(newCell);
-//        String newCellString = newCell.getText();
-        finalValue = newCell.getText();
-        waitUtil.sleepMillis(2000, "Esperar que el valor se actualice");
-        ValidationUtil.assertEqualsWithTolerance(finalValue, expectedValue, "Validación de persistencia para operación: " + operation, 1);
+        TableDiff diff = changesSinceEdit();
+        finalValue = diff.change(editedCell).map(TableDiff.CellChange::after).orElse(initialValue);
+        diff.expect(CalculatorUtil::parseUserNumber)
+                .within(editedCell.header())
+                .ignoringRows(derivedRows())
+                .tolerance(BigDecimal.ONE)
+                .changedTo(editedCell, expectedValue)
+                .verify("Validación de persistencia para operación: " + operation);
     }
 
     /**
@@ -281,14 +300,152 @@ public class ForecastsPage extends BasePage {
      * @throws IllegalArgumentException si la operación especificada no es soportada.
      */
     public void locatesACellWithGivenStateAndAppliesOperation(String condition, String operation) {
+        // Obtiene la celda aplicando las condiciones
+        WebElement cell = findCellAndCaptureTable(condition);
+
+        // Aplica la operacion
+        applyOperation(cell, operation, false, null);
+    }
+
+    /**
+     * Busca en la columna del mes actual (y siguientes) la primera celda que cumple la condición, guardando antes
+     * una copia completa de la tabla "Previsiones" para validar después los cambios con {@link #changesSinceEdit()}.
+     *
+     * @param condition condición que debe cumplir la celda (por ejemplo: "modificada con pedido pendiente").
+     * @return la celda encontrada.
+     */
+    private WebElement findCellAndCaptureTable(String condition) {
         // Obtiene el nombre de la columna
         String currentMonth = tableUtil.getColumnNameCurrentMonth();
 
-        // Obtiene la celda aplicando las condiciones
+        // Copia de la tabla antes de editar; al terminar, el scroll vuelve al principio
+        waitUtil.waitForTableToLoadCompletely();
+        dimensionHeaders = dimensionKeyHeaders();
+        tableKeyHeaders = withConceptHeader(dimensionHeaders);
+        tableBeforeEdit = requireUniqueKeys(tableUtil.harvest("Previsiones", tableKeyHeaders));
+
         WebElement cell = tableUtil.findFirstCellMatchingCondition(currentMonth, "Previsiones", condition);
+        editedCell = tableUtil.getLastCellRef("Previsiones", tableBeforeEdit);
+        LogUtil.info("Celda a editar: " + editedCell);
+        return cell;
+    }
 
-        // Aplica la operacion
-        applyOperation(cell, operation, false, null);
+    /**
+     * Columnas de la tabla "Previsiones" que identifican cada fila: las dimensiones de la agrupación configurada
+     * ({@link #configureTheLastGroupingLevel()}) que se muestran como columnas.
+     *
+     * @return cabeceras clave; vacío si no hay dimensiones configuradas (las filas se identifican entonces por
+     *         su posición).
+     */
+    private String[] dimensionKeyHeaders() {
+        if (dimensionsApi == null || dimensionsApi.isEmpty()) {
+            LogUtil.warn("No hay dimensiones de agrupación configuradas; las filas de 'Previsiones' se identifican por su posición.");
+            return new String[0];
+        }
+        List<String> headers = tableUtil.getColumnHeaders("Previsiones");
+        return dimensionsApi.stream()
+                .filter(dimension -> headers.stream().anyMatch(header -> header.trim().equalsIgnoreCase(dimension.trim())))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Añade a las dimensiones la columna del concepto, si la tabla la muestra, para que las filas de un mismo
+     * registro repetidas por concepto tengan claves distintas.
+     *
+     * @param dimensions cabeceras de las dimensiones.
+     * @return cabeceras clave de la tabla "Previsiones".
+     */
+    private String[] withConceptHeader(String[] dimensions) {
+        boolean hasConcept = tableUtil.getColumnHeaders("Previsiones").stream()
+                .anyMatch(header -> header.trim().equalsIgnoreCase(CONCEPT_HEADER));
+        if (!hasConcept || dimensions.length == 0) {
+            return dimensions;
+        }
+        String[] keyHeaders = Arrays.copyOf(dimensions, dimensions.length + 1);
+        keyHeaders[dimensions.length] = CONCEPT_HEADER;
+        return keyHeaders;
+    }
+
+    /**
+     * Comprueba que las columnas clave identifican cada fila de la copia: si dos filas comparten clave, la
+     * copia solo las distinguiría por su orden y la comparación tras refrescar podría emparejar filas distintas.
+     *
+     * @param table copia de la tabla "Previsiones".
+     * @return la misma copia.
+     * @throws IllegalStateException si hay claves repetidas.
+     */
+    private TableSnapshot requireUniqueKeys(TableSnapshot table) {
+        if (tableKeyHeaders.length == 0) {
+            return table;
+        }
+        int[] columns = columnIndexes(table, tableKeyHeaders);
+        Map<String, Long> counts = table.rows().stream()
+                .collect(Collectors.groupingBy(row -> keyText(row, columns), LinkedHashMap::new, Collectors.counting()));
+        List<String> repeated = counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .map(entry -> entry.getKey() + " (" + entry.getValue() + ")")
+                .toList();
+        if (!repeated.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "Las columnas %s no identifican cada fila de la tabla '%s'; claves repetidas: %s",
+                    Arrays.toString(tableKeyHeaders), table.title(), repeated.stream().limit(5).collect(Collectors.joining(", "))));
+        }
+        return table;
+    }
+
+    /**
+     * Filas que se recalculan al editar la celda y que pueden cambiar sin que sea un error: las de totales
+     * (alguna columna clave vacía o que empieza por "Total") y las de los otros conceptos del mismo registro
+     * (mismas dimensiones que la fila editada).
+     *
+     * @return claves de las filas derivadas en {@code tableBeforeEdit}.
+     */
+    private Set<String> derivedRows() {
+        Set<String> derived = new HashSet<>();
+        if (tableKeyHeaders.length == 0) {
+            return derived;
+        }
+        int[] keyColumns = columnIndexes(tableBeforeEdit, tableKeyHeaders);
+        int[] dimensionColumns = columnIndexes(tableBeforeEdit, dimensionHeaders);
+        String editedItem = tableBeforeEdit.findRow(editedCell.rowKey())
+                .map(row -> keyText(row, dimensionColumns))
+                .orElse(null);
+        for (TableSnapshot.Row row : tableBeforeEdit.rows()) {
+            if (row.key().equals(editedCell.rowKey())) {
+                continue;
+            }
+            boolean total = Arrays.stream(keyColumns).mapToObj(row::text)
+                    .anyMatch(text -> text.isBlank() || text.trim().toLowerCase(Locale.ROOT).startsWith("total"));
+            if (total || keyText(row, dimensionColumns).equals(editedItem)) {
+                derived.add(row.key());
+            }
+        }
+        return derived;
+    }
+
+    private static int[] columnIndexes(TableSnapshot table, String[] headers) {
+        return Arrays.stream(headers).mapToInt(table::columnIndex).toArray();
+    }
+
+    private static String keyText(TableSnapshot.Row row, int[] columns) {
+        return Arrays.stream(columns).mapToObj(row::text).collect(Collectors.joining(" | "));
+    }
+
+    /**
+     * Diferencias de la tabla "Previsiones" entre la copia tomada antes de editar la celda y una copia actual,
+     * emparejando las filas por sus dimensiones y su concepto.
+     *
+     * @return las diferencias.
+     * @throws IllegalStateException si no se editó antes una celda con {@link #findCellAndCaptureTable(String)}.
+     */
+    private TableDiff changesSinceEdit() {
+        if (tableBeforeEdit == null || editedCell == null) {
+            throw new IllegalStateException("No hay una copia de la tabla 'Previsiones' anterior a la edición de la celda.");
+        }
+        waitUtil.waitForTableToLoadCompletely();
+        TableDiff diff = TableDiff.between(tableBeforeEdit, requireUniqueKeys(tableUtil.harvest("Previsiones", tableKeyHeaders)));
+        LogUtil.info("Cambios desde la edición: " + diff);
+        return diff;
     }
 
     /**
@@ -400,8 +557,8 @@ public class ForecastsPage extends BasePage {
 
         // Hace clic en el botón aplicar
         clickButtonByName("Aplicar");
-        // esta espera debe ser explicita para asegurar que la tabla se actualice
-        waitUtil.sleepMillis(2000, "Esperando que se refleje la actualización");
+        // Espera a que el backend guarde el cambio para asegurar que la tabla se actualice
+        waitUtil.waitForNetworkIdle(300, null);
     }
 
 
@@ -757,23 +914,24 @@ public class ForecastsPage extends BasePage {
      * Valida que el valor actual de la celda modificada en la tabla de previsiones
      * coincida con el valor esperado.
      *
-     * <p>Este metodo obtiene la última celda editada (usando el índice de la última fila
-     * y columna modificada) en la tabla identificada como "Previsiones", y compara su texto
-     * visible con el valor esperado, previamente calculado y formateado.</p>
-     *
-     * <p>Utiliza {@code calculatorUtil} para convertir el valor esperado a su formato original,
-     * y {@code validationUtil} para realizar la aserción.</p>
+     * <p>Este metodo compara una copia de la tabla "Previsiones" con la tomada antes de la edición
+     * ({@link TableDiff}): la celda editada, identificada por las dimensiones y el concepto de su fila, debe
+     * conservar el valor que tenía al seleccionarla (tolerancia 1) y ninguna otra celda de su columna debe haber
+     * cambiado, salvo las de las filas derivadas ({@link #derivedRows()}).</p>
      *
      * <p>Si el valor actual no coincide con el esperado, se lanza una aserción indicando el fallo.</p>
      */
     public void validModifiedValue() {
-        int rowIndex = tableUtil.getLastRowIndex();
-        int columnIndex = tableUtil.getLastColumnIndex();
-
-        WebElement element = tableUtil.getCellElement(rowIndex, columnIndex, "Previsiones");
-        currentCellText = element.getText();
         expectedValue = tableUtil.getLastCellValue();
-        ValidationUtil.assertEqualsWithTolerance(currentCellText, expectedValue, "Validar que el valor actual de la celda es el esperado",1);
+
+        TableDiff diff = changesSinceEdit();
+        currentCellText = diff.change(editedCell).map(TableDiff.CellChange::after).orElse(expectedValue);
+        diff.expect(CalculatorUtil::parseUserNumber)
+                .within(editedCell.header())
+                .ignoringRows(derivedRows())
+                .tolerance(BigDecimal.ONE)
+                .changedTo(editedCell, expectedValue)
+                .verify("Validar que el valor actual de la celda es el esperado");
     }
 
     /**
@@ -822,11 +980,8 @@ public class ForecastsPage extends BasePage {
      * @throws IllegalArgumentException si el tipo de condición no es soportado.
      */
     public void locateCellandApplyOperation(String condition, String operation, String conceptName) {
-        // Obtiene el nombre de la columna
-        String currentMonth = tableUtil.getColumnNameCurrentMonth();
-
         // Obtiene la celda aplicando las condiciones
-        WebElement cell = tableUtil.findFirstCellMatchingCondition(currentMonth, "Previsiones", condition);
+        WebElement cell = findCellAndCaptureTable(condition);
 
 //        String Prueba = cell.getText();
 //        LogUtil.info(Prueba);
@@ -1,10 +1,13 @@
 package ui.pages;
 
+import api.AuthenticationAPI;
 import config.EnvironmentConfig;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import ui.base.BasePage;
 import ui.manager.PageManager;
+import ui.utils.LogUtil;
+import ui.utils.SessionCacheUtil;
 
 /**
  * Página de inicio de sesión de la aplicación.
@@ -23,8 +26,85 @@ public class LoginPage extends BasePage {
 
     /**
      * Realiza login usando las credenciales configuradas por entorno.
+     *
+     * <p>El mecanismo depende de {@code -DloginMode}:</p>
+     * <ul>
+     *   <li>{@code ui} (por defecto): siempre mediante el formulario.</li>
+     *   <li>{@code session}: reutiliza la sesión capturada en el primer login de la JVM
+     *       ({@link SessionCacheUtil}); si no hay sesión válida o la aplicación la rechaza,
+     *       inicia sesión por formulario y captura la nueva sesión.</li>
+     *   <li>{@code api}: siembra la sesión del navegador con el token de {@link AuthenticationAPI#getToken()},
+     *       sin mostrar la pantalla de login. Si aún no se conocen las entradas de almacenamiento que
+     *       espera la aplicación, o la aplicación rechaza el token, inicia sesión por formulario y aprende
+     *       la plantilla para los siguientes escenarios.</li>
+     * </ul>
+     *
+     * <p>Los escenarios etiquetados con {@code @login} usan siempre el formulario, sea cual sea el modo.</p>
      */
     public void loginAs() {
+        String loginMode = System.getProperty("loginMode", "ui").toLowerCase();
+        if (isLoginScenario()) {
+            LogUtil.info("Escenario @login: se inicia sesión mediante el formulario.");
+            loginWithForm();
+            return;
+        }
+
+        switch (loginMode) {
+            case "session":
+                loginWithCachedSession();
+                break;
+            case "api":
+                loginWithApiToken();
+                break;
+            default:
+                loginWithForm();
+                break;
+        }
+    }
+
+    /**
+     * Reutiliza la sesión capturada o, si no hay una válida, inicia sesión por formulario y la captura.
+     */
+    private void loginWithCachedSession() {
+        SessionCacheUtil.Session session = SessionCacheUtil.getValidSession();
+        if (session != null && SessionCacheUtil.restore(driver, session)) {
+            return;
+        }
+
+        LogUtil.info("Sin sesión reutilizable; se inicia sesión mediante el formulario.");
+        loginWithForm();
+        SessionCacheUtil.capture(driver);
+    }
+
+    /**
+     * Construye la sesión del navegador a partir del token de la API; recurre al formulario si no es posible.
+     */
+    private void loginWithApiToken() {
+        SessionCacheUtil.Session seeded = SessionCacheUtil.seedFromToken(
+                AuthenticationAPI.getToken(), EnvironmentConfig.getWebUrl());
+        if (seeded != null && SessionCacheUtil.restore(driver, seeded)) {
+            LogUtil.info("Sesión iniciada con el token de la API (sin formulario).");
+            return;
+        }
+
+        LogUtil.info("No se pudo sembrar la sesión desde la API; se inicia sesión mediante el formulario.");
+        loginWithForm();
+        SessionCacheUtil.capture(driver);
+    }
+
+    /**
+     * @return {@code true} si el escenario en curso está etiquetado con {@code @login}.
+     */
+    private boolean isLoginScenario() {
+        return scenarioContext != null
+                && scenarioContext.getScenario() != null
+                && scenarioContext.getScenario().getSourceTagNames().contains("@login");
+    }
+
+    /**
+     * Inicia sesión rellenando el formulario de login, sin usar ninguna sesión en caché.
+     */
+    public void loginWithForm() {
         String email = EnvironmentConfig.getEmail();
         String password = EnvironmentConfig.getPassword();
         driver.get(EnvironmentConfig.getWebUrl() + "/login");
@@ -6,6 +6,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import ui.base.BasePage;
 import ui.manager.PageManager;
+import ui.utils.NavigationState;
 
 import java.util.function.Function;
 
@@ -62,6 +63,8 @@ public class MenuPage extends BasePage {
             throw new IllegalArgumentException("El path debe tener entre 1 y 3 niveles separados por '>'");
         }
 
+        NavigationState.of(driver).invalidate("navegación por menú a '" + path + "'");
+
         String nivel1 = levels[0].trim();
         String nivel2 = levels.length >= 2 ? levels[1].trim() : null;
         String nivel3 = levels.length == 3 ? levels[2].trim() : null;
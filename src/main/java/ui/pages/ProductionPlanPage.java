@@ -30,7 +30,7 @@ public class ProductionPlanPage extends BasePage {
     private final By locatorLine = By.cssSelector("imp-input-table-v2[formcontrolname='N1'] imperia-icon-button i.pi.pi-ellipsis-h");
     private final By locatorWarehouse = By.cssSelector("imp-input-table-v2[formcontrolname='W1'] imperia-icon-button i.pi.pi-ellipsis-h");
 
-    private static String today = null;
+    private String today;
 
     /**
      * Constructor que inicializa la página con el WebDriver y el PageManager.
@@ -7,6 +7,8 @@ import ui.base.BasePage;
 import ui.manager.PageManager;
 import ui.utils.CalculatorUtil;
 import ui.utils.LogUtil;
+import ui.utils.NumericTable;
+import ui.utils.TableSnapshot;
 import ui.utils.ValidationUtil;
 
 import java.math.BigDecimal;
@@ -187,12 +189,12 @@ public class ProjectionOfStockNeedsPage extends BasePage {
         Objects.requireNonNull(columnHeader, "El encabezado de la columna a validar no puede ser nulo");
 
         WebElement detailTable = obtainDetailTable();
-        int columnIndex = findColumnIndex(detailTable, columnHeader);
-        if (columnIndex == -1) {
+        TableSnapshot detail = tableUtil.snapshot(detailTable, "Detalle del panel de revisión");
+        if (detail.columnIndex(columnHeader) == -1) {
             throw new IllegalStateException("No se encontró la columna '" + columnHeader + "' en el detalle del panel de revisión.");
         }
 
-        BigDecimal total = sumColumn(detailTable, columnIndex);
+        BigDecimal total = sumColumn(detail, columnHeader);
         LogUtil.info(String.format(
                 Locale.ROOT,
                 "Total calculado en columna '%s': %s | Cantidad almacenada: %s",
@@ -304,36 +306,22 @@ public class ProjectionOfStockNeedsPage extends BasePage {
         return -1;
     }
 
-    private BigDecimal sumColumn(WebElement table, int columnIndex) {
-        List<WebElement> rows = waitUtil.findVisibleElements(table, By.cssSelector("tbody tr"));
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
-            WebElement row = rows.get(rowIndex);
-            List<WebElement> cells = waitUtil.findVisibleElements(row, By.cssSelector("td:not(.spacer)"));
-            if (columnIndex >= cells.size()) {
-                continue;
-            }
-
-            String cellValue = normalizeText(cells.get(columnIndex).getText());
-            if (cellValue.isEmpty()) {
-                continue;
-            }
-
-            BigDecimal parsedValue = parseNumericValue(cellValue);
-            if (parsedValue != null) {
-                total = total.add(parsedValue);
-                LogUtil.info(String.format(
-                        Locale.ROOT,
-                        "Fila %d → valor %s | acumulado %s",
-                        rowIndex + 1,
-                        parsedValue.toPlainString(),
-                        total.toPlainString()
-                ));
-            }
-        }
+    private BigDecimal sumColumn(TableSnapshot table, String columnHeader) {
+        NumericTable.Aggregate column = NumericTable.of(table, this::parseCellValue, columnHeader).aggregate(columnHeader);
+        LogUtil.info(String.format(
+                Locale.ROOT,
+                "Columna '%s': %d valores, %d celdas sin valor → suma %s",
+                columnHeader,
+                column.count(),
+                column.nulls(),
+                column.sum().toPlainString()
+        ));
+        return column.sum();
+    }
 
-        return total;
+    private BigDecimal parseCellValue(String rawValue) {
+        String cellValue = normalizeText(rawValue);
+        return cellValue.isEmpty() ? null : parseNumericValue(cellValue);
     }
 
     private BigDecimal parseNumericValue(String rawValue) {
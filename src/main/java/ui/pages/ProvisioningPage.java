@@ -7,7 +7,12 @@ import org.openqa.selenium.WebElement;
 import ui.base.BasePage;
 import ui.manager.PageManager;
 import ui.utils.CalculatorUtil;
+import ui.utils.Cells;
 import ui.utils.LogUtil;
+import ui.utils.NumericTable;
+import ui.utils.TableGrid;
+import ui.utils.TableQuery;
+import ui.utils.TableSnapshot;
 
 import java.math.BigDecimal;
 import java.text.Normalizer;
@@ -26,6 +31,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,12 +56,24 @@ public class ProvisioningPage extends BasePage {
     /** Título de la tabla de detalle. */
     private static final String DETAIL_TABLE_TITLE = "Plan de aprovisionamiento";
 
-    /** Índice de la fila seleccionada en la tabla principal. */
+    /** Columnas siguientes al período objetivo en las que se busca una cantidad si el período no tiene ninguna. */
+    private static final int MAX_FOLLOWING_PERIODS = 10;
+
+    /** Posición, en la tabla completa, de la fila seleccionada en la tabla principal. */
     private int selectedRowIndex = -1;
 
     /** Índice de la columna seleccionada en la tabla principal. */
     private int selectedColumnIndex = -1;
 
+    /** Clave de la fila seleccionada en {@link #mainTableGrid}. */
+    private String selectedRowKey;
+
+    /** Cabeceras de toda la tabla principal, incluidos los períodos no renderizados, leídas al buscar el registro. */
+    private List<String> mainTableHeaders;
+
+    /** Copia de la tabla principal (todas las filas, períodos candidatos) tomada al buscar el registro. */
+    private TableGrid mainTableGrid;
+
     /** Cantidad numérica del registro seleccionado. */
     private BigDecimal selectedQuantity = BigDecimal.ZERO;
 
@@ -100,6 +118,11 @@ public class ProvisioningPage extends BasePage {
      * Busca la primera celda con cantidad distinta de cero en la columna del período indicado
      * y almacena la información necesaria para validaciones posteriores.
      *
+     * <p>Las cabeceras se leen de toda la tabla ({@code TableUtil.harvestHeaders}) y la búsqueda se hace sobre una
+     * copia de todas las filas limitada a la columna del período y las {@value #MAX_FOLLOWING_PERIODS} siguientes
+     * ({@code TableUtil.harvestGrid}), de modo que encuentra registros y períodos fuera del área renderizada por
+     * el scroll virtual sin recorrer las demás columnas.</p>
+     *
      * @param periodLabel etiqueta del período objetivo (por ejemplo, «Mes siguiente» o «Mes actual»).
      */
     public void findRecordWithQuantityInPeriod(String periodLabel) {
@@ -109,32 +132,27 @@ public class ProvisioningPage extends BasePage {
 
         PeriodTarget periodTarget = PeriodTarget.fromLabel(periodLabel);
         mainTableTitle = resolveExistingTableTitle(MAIN_TABLE_TITLES);
+        mainTableHeaders = tableUtil.harvestHeaders(mainTableTitle);
         PeriodMetadata periodMetadata = resolvePeriodMetadata(mainTableTitle, periodTarget);
         String periodHeader = periodMetadata.getHeader();
-        int columnIndex = tableUtil.getColumnIndexByHeader(periodHeader, mainTableTitle);
 
-        if (columnIndex == -1) {
+        int periodIndex = mainTableHeaders.indexOf(periodHeader);
+        if (periodIndex < 0) {
             throw new IllegalStateException(
                     "No se encontró la columna del " + periodTarget.getDescription() + " en la tabla '" + mainTableTitle + "'."
             );
         }
+        List<String> candidateHeaders = mainTableHeaders.subList(periodIndex,
+                Math.min(mainTableHeaders.size(), periodIndex + MAX_FOLLOWING_PERIODS + 1));
+        mainTableGrid = tableUtil.harvestGrid(mainTableTitle, candidateHeaders);
 
-        WebElement table = tableUtil.getTable(mainTableTitle);
-        List<WebElement> rows = waitUtil.findVisibleElements(table, By.cssSelector("tbody tr"));
-        List<String> headers = tableUtil.getColumnHeaders(mainTableTitle);
-
-        int maxColumnAttempts = 10;
-        for (int offset = 0; offset < maxColumnAttempts; offset++) {
-            int currentColumnIndex = columnIndex + offset;
-            if (currentColumnIndex >= headers.size()) {
-                break;
-            }
+        for (int offset = 0; offset < candidateHeaders.size(); offset++) {
+            String currentHeader = candidateHeaders.get(offset);
 
             PeriodMetadata currentMetadata;
             if (offset == 0) {
                 currentMetadata = periodMetadata;
             } else {
-                String currentHeader = headers.get(currentColumnIndex);
                 currentMetadata = resolveMetadataFromHeader(currentHeader);
                 if (currentMetadata == null) {
                     LogUtil.warn("No se pudo interpretar el encabezado '" + currentHeader + "'. Se omite la columna.");
@@ -142,7 +160,7 @@ public class ProvisioningPage extends BasePage {
                 }
             }
 
-            if (trySelectCellWithQuantity(rows, currentColumnIndex, currentMetadata)) {
+            if (trySelectCellWithQuantity(mainTableGrid, currentHeader, currentMetadata)) {
                 if (offset > 0) {
                     LogUtil.warn(String.format(
                             "No se encontraron cantidades mayores a cero en '%s'. Se utilizará la columna '%s'.",
@@ -156,7 +174,7 @@ public class ProvisioningPage extends BasePage {
 
         throw new NoSuchElementException(
                 "No se encontró una celda con cantidad distinta de cero en la columna '" + periodHeader + "' ni en las "
-                        + maxColumnAttempts + " columnas siguientes."
+                        + MAX_FOLLOWING_PERIODS + " columnas siguientes."
         );
     }
 
@@ -166,6 +184,9 @@ public class ProvisioningPage extends BasePage {
     private void resetSelectionState() {
         selectedRowIndex = -1;
         selectedColumnIndex = -1;
+        selectedRowKey = null;
+        mainTableHeaders = null;
+        mainTableGrid = null;
         selectedQuantity = BigDecimal.ZERO;
         selectedQuantityLabel = null;
         selectedPeriodHeader = null;
@@ -175,38 +196,28 @@ public class ProvisioningPage extends BasePage {
     }
 
     /**
-     * Intenta seleccionar la primera celda con cantidad mayor a cero dentro de la columna indicada.
+     * Intenta seleccionar la primera celda con cantidad mayor a cero dentro de la columna indicada, consultando
+     * la copia de la tabla con {@link TableQuery} (se detiene en la primera fila que cumple).
      *
-     * @param rows           filas visibles de la tabla principal.
-     * @param columnIndex    índice de la columna objetivo.
+     * @param grid           copia completa de la tabla principal.
+     * @param header         cabecera de la columna objetivo.
      * @param periodMetadata metadatos asociados al encabezado evaluado.
      * @return {@code true} si se logró seleccionar un registro, {@code false} en caso contrario.
      */
-    private boolean trySelectCellWithQuantity(List<WebElement> rows, int columnIndex, PeriodMetadata periodMetadata) {
-        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
-            WebElement row = rows.get(rowIndex);
-            List<WebElement> cells = waitUtil.findVisibleElements(row, By.cssSelector("td:not(.spacer)"));
-
-            if (columnIndex >= cells.size()) {
-                continue;
-            }
-
-            WebElement cell = cells.get(columnIndex);
-            waitUtil.waitForVisibilityByElement(cell);
-            String cellText = cell.getText().trim();
-
-            if (cellText.isEmpty()) {
-                continue;
-            }
-
-            BigDecimal numericValue = parseNumericValue(cellText);
-            if (numericValue.compareTo(BigDecimal.ZERO) > 0) {
-                updateSelectionState(rowIndex, columnIndex, periodMetadata, numericValue, cellText);
-                return true;
-            }
+    private boolean trySelectCellWithQuantity(TableGrid grid, String header, PeriodMetadata periodMetadata) {
+        Optional<TableQuery.Row> match = TableQuery.from(grid)
+                .where(TableQuery.cell(header, Cells.number(this::parseNumericValue, value -> value.signum() > 0)))
+                .first();
+        if (match.isEmpty()) {
+            return false;
         }
 
-        return false;
+        TableQuery.Row row = match.get();
+        String cellText = row.text(header).trim();
+        selectedRowKey = row.key();
+        updateSelectionState(row.dataIndex(), mainTableHeaders.indexOf(header), periodMetadata,
+                parseNumericValue(cellText), cellText);
+        return true;
     }
 
     /**
@@ -219,6 +230,20 @@ public class ProvisioningPage extends BasePage {
      * @param initialPeriodMetadata metadatos del período inicialmente detectado.
      * @return {@code true} si se logró seleccionar un registro en una columna alternativa.
      */
+    /**
+     * Cabeceras entre las que se buscan los períodos: las de toda la tabla principal si ya se leyeron (incluye
+     * los períodos no renderizados) o, si no, las visibles.
+     *
+     * @param tableTitle título de la tabla evaluada.
+     * @return cabeceras de la tabla.
+     */
+    private List<String> periodHeaders(String tableTitle) {
+        if (mainTableHeaders != null && tableTitle.equals(mainTableTitle)) {
+            return mainTableHeaders.stream().filter(header -> !header.isEmpty()).toList();
+        }
+        return tableUtil.getColumnHeaders(tableTitle);
+    }
+
     /**
      * Determina los metadatos temporales correspondientes al encabezado proporcionado.
      *
@@ -290,7 +315,7 @@ public class ProvisioningPage extends BasePage {
     public void openSelectedRecordDetail() {
         ensureRecordSelected();
 
-        WebElement targetCell = tableUtil.getCellElement(selectedRowIndex, selectedColumnIndex, mainTableTitle);
+        WebElement targetCell = tableUtil.getCellElement(mainTableTitle, mainTableGrid, selectedRowKey, selectedPeriodHeader);
         WebElement interactiveElement = resolveInteractiveElement(targetCell);
         clickByElement(interactiveElement, String.format("Cantidad %s (%s)", selectedQuantityLabel, selectedPeriodHeader));
 
@@ -419,6 +444,8 @@ public class ProvisioningPage extends BasePage {
 
         boolean recordReady = selectedRowIndex >= 0
                 && selectedColumnIndex >= 0
+                && selectedRowKey != null
+                && mainTableGrid != null
                 && selectedQuantity != null
                 && selectedPeriodHeader != null
                 && hasTemporalData;
@@ -542,7 +569,7 @@ public class ProvisioningPage extends BasePage {
             String expectedLabel,
             String logContext
     ) {
-        List<String> headers = tableUtil.getColumnHeaders(tableTitle);
+        List<String> headers = periodHeaders(tableTitle);
         Locale locale = new Locale("es", "ES");
 
         for (String header : headers) {
@@ -640,7 +667,7 @@ public class ProvisioningPage extends BasePage {
             String expectedLabel,
             String logContext
     ) {
-        List<String> headers = tableUtil.getColumnHeaders(tableTitle);
+        List<String> headers = periodHeaders(tableTitle);
 
         PeriodMetadata exactWeekMetadata = findWeekMetadataByPeriod(
                 headers,
@@ -751,7 +778,7 @@ public class ProvisioningPage extends BasePage {
             throw new IllegalArgumentException("La fecha objetivo no puede ser nula para la búsqueda del " + logContext + ".");
         }
 
-        List<String> headers = tableUtil.getColumnHeaders(tableTitle);
+        List<String> headers = periodHeaders(tableTitle);
 
         for (String header : headers) {
             LocalDate candidate = parseHeaderToLocalDate(header);
@@ -1004,52 +1031,31 @@ public class ProvisioningPage extends BasePage {
     }
 
     /**
-     * Calcula la suma de todas las celdas visibles de una columna específica.
+     * Calcula la suma de todas las celdas de una columna específica, incluidas las filas que el scroll virtual
+     * no tenga renderizadas.
+     *
+     * <p>La tabla se lee una vez ({@code TableUtil.harvest}) y la columna se suma con {@link NumericTable}; las
+     * celdas vacías se omiten.</p>
      *
      * @param tableTitle   título de la tabla donde se realizará la suma.
      * @param columnHeader encabezado de la columna objetivo.
-     * @return suma total de los valores visibles.
+     * @return suma total de los valores.
      */
     private BigDecimal sumColumnValues(String tableTitle, String columnHeader) {
-        int columnIndex = tableUtil.getColumnIndexByHeader(columnHeader, tableTitle);
-        if (columnIndex == -1) {
+        TableSnapshot table = tableUtil.harvest(tableTitle);
+        if (table.columnIndex(columnHeader) == -1) {
             throw new IllegalStateException("No se encontró la columna '" + columnHeader + "' en la tabla '" + tableTitle + "'.");
         }
 
-        WebElement table = tableUtil.getTable(tableTitle);
-        List<WebElement> rows = waitUtil.findVisibleElements(table, By.cssSelector("tbody tr"));
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
-            WebElement row = rows.get(rowIndex);
-            List<WebElement> cells = waitUtil.findVisibleElements(row, By.cssSelector("td:not(.spacer)"));
-
-            if (columnIndex >= cells.size()) {
-                LogUtil.warn(String.format("La fila %d no contiene la columna '%s'.", rowIndex + 1, columnHeader));
-                continue;
-            }
-
-            WebElement cell = cells.get(columnIndex);
-            String text = cell.getText().trim();
-
-            if (text.isEmpty()) {
-                LogUtil.info(String.format("Fila %d columna '%s' sin valor. Se omite en la suma.", rowIndex + 1, columnHeader));
-                continue;
-            }
-
-            BigDecimal value = parseNumericValue(text);
-            total = total.add(value);
-
-            LogUtil.info(String.format(
-                    "Fila %d columna '%s' → valor %s | suma parcial %s",
-                    rowIndex + 1,
-                    columnHeader,
-                    value.toPlainString(),
-                    total.toPlainString()
-            ));
-        }
-
-        return total;
+        NumericTable.Aggregate column = NumericTable.of(table, this::parseNumericValue, columnHeader).aggregate(columnHeader);
+        LogUtil.info(String.format(
+                "Columna '%s': %d valores, %d celdas sin valor → suma %s",
+                columnHeader,
+                column.count(),
+                column.nulls(),
+                column.sum().toPlainString()
+        ));
+        return column.sum();
     }
 
     /**
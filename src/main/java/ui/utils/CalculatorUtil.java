@@ -23,8 +23,12 @@ import java.text.DecimalFormatSymbols;
  */
 public class CalculatorUtil {
 
-    /** Separador decimal preferido del usuario: ',' o '.'. Fallback: '.' */
-    private static char decimalSeparator;
+    /**
+     * Separador decimal preferido del usuario: ',' o '.'. Fallback: '.'
+     * <p>Es común a todos los hilos (depende del usuario, no del escenario); se publica con {@code volatile}
+     * y se inicializa una sola vez en {@link #getDecimalSeparator()}.</p>
+     */
+    private static volatile char decimalSeparator;
 
     // ============================
     //        UTILIDADES
@@ -91,8 +95,9 @@ public class CalculatorUtil {
     /**
      * Obtiene y establece el separador de decimales configurado según el formato numérico del usuario.
      * Lanza una excepción si no se puede obtener el formato.
+     * Es seguro invocarlo desde escenarios en paralelo: solo el primer hilo consulta la API.
      */
-    public static void getDecimalSeparator() throws RuntimeException {
+    public static synchronized void getDecimalSeparator() throws RuntimeException {
         // Validación: si ya tiene un valor asignado, no hacer nada
         if (decimalSeparator != '\u0000') {
             LogUtil.info("Separador de decimales ya establecido previamente: " + decimalSeparator);
@@ -182,6 +187,30 @@ public class CalculatorUtil {
         return new BigDecimal(limpio);
     }
 
+    /**
+     * Parsea un número con el separador decimal del perfil del usuario (ver {@link #parseConSeparadorDecimal}).
+     *
+     * @param valorCadena texto a parsear.
+     * @return BigDecimal equivalente.
+     * @throws IllegalArgumentException si el texto es nulo, vacío o no numérico.
+     */
+    public static BigDecimal parseUserNumber(String valorCadena) {
+        getDecimalSeparator();
+        return parseConSeparadorDecimal(valorCadena, decimalSeparator);
+    }
+
+    /**
+     * Formatea un valor con el separador decimal del perfil del usuario y su propia escala, como el resultado
+     * de {@link #addValues(String, String)}.
+     *
+     * @param valor valor numérico.
+     * @return número formateado.
+     */
+    public static String formatUserNumber(BigDecimal valor) {
+        getDecimalSeparator();
+        return formatear(valor, decimalSeparator, Math.max(0, valor.scale()));
+    }
+
     /**
      * Formatea un BigDecimal en texto, usando únicamente el separador decimal especificado.
      *
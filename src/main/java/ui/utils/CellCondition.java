@@ -0,0 +1,135 @@
+package ui.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Condición de búsqueda de celdas de previsiones ("modificada con pedido pendiente", "sin modificar sin pedido
+ * pendiente", ...), evaluable en Java o compilada a un script que la evalúa dentro del navegador.
+ *
+ * <p>Todas las condiciones exigen un valor numérico positivo y par; el tipo indica además si la celda debe estar
+ * modificada (ícono con clase {@code lock}) y si debe tener pedido pendiente (fondo
+ * {@code rgb(254, 222, 255)}).</p>
+ *
+ * <p>{@link #script()} genera una única llamada que recorre las filas renderizadas, desde la columna indicada
+ * hacia la derecha, y devuelve la primera celda que cumple la condición. Los números se interpretan como
+ * {@link java.math.BigDecimal}; si la búsqueda llega a uno que el navegador no puede evaluar con exactitud (más
+ * allá de {@code int}), se detiene y {@link TableUtil} la repite con la evaluación en Java.</p>
+ */
+final class CellCondition {
+
+    /** Marca del script que se sustituye por el predicado compilado de cada condición. */
+    private static final String PREDICATE = "/*predicado*/";
+
+    /**
+     * Devuelve {@code {header, row, column, cell}}: {@code header} es {@code -1} si la cabecera normalizada
+     * {@code arguments[1]} no existe; {@code row} es {@code -1} si ninguna de las {@code arguments[2]} columnas
+     * siguientes tiene una celda que cumpla el predicado que sustituye a {@value #PREDICATE}, y {@code -2} si
+     * se llegó a una celda que el navegador no puede decidir. Índices y celda con el mismo criterio que
+     * {@link TableSnapshot#READ_FUNCTION}.
+     */
+    private static final String SCRIPT_TEMPLATE =
+            "var table = arguments[0], target = arguments[1], span = arguments[2];"
+            + "function text(el) { return (el.innerText || el.textContent || '').replace(/\\u00a0/g, ' ').trim(); }"
+            + "function visible(el) { return el.getClientRects().length > 0; }"
+            + "function norm(s) { return (s || '').normalize('NFKC').replace(/\\u00a0/g, ' ').replace(/[\\u200B-\\u200D]/g, '').replace(/\\s+/g, ' ').trim().toLowerCase(); }"
+            + "function modified(td) { var is = td.querySelectorAll('i'); for (var i = 0; i < is.length; i++) { if ((is[i].getAttribute('class') || '').indexOf('lock') >= 0) { return true; } } return false; }"
+            + "function pending(td) { return (td.getAttribute('style') || '').indexOf('rgb(254, 222, 255)') >= 0; }"
+            + "function number(s) { return /^[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?$/.test(s) ? Number(s) : NaN; }"
+            + "function positive(n) { return n > 0; }"
+            + "function even(n) { return Math.abs(n) < 2147483648 ? Math.trunc(n) % 2 === 0 : undefined; }"
+            + "var ths = table.querySelectorAll('thead tr.imperia-table-header-row:not(.columns-selectors) th:not(.spacer)');"
+            + "if (!ths.length) { ths = table.querySelectorAll('thead th:not(.spacer)'); }"
+            + "var first = -1;"
+            + "for (var h = 0; h < ths.length && first < 0; h++) { if (norm(text(ths[h])) === target) { first = h; } }"
+            + "if (first < 0) { return {header: -1, row: -1, column: -1, cell: null}; }"
+            + "var rows = [], trs = table.tBodies.length ? table.querySelectorAll('tbody > tr') : [];"
+            + "for (var r = 0; r < trs.length; r++) {"
+            + "  if (!visible(trs[r])) { continue; }"
+            + "  var cells = [];"
+            + "  for (var c = 0; c < trs[r].children.length; c++) {"
+            + "    var cellEl = trs[r].children[c];"
+            + "    if (cellEl.tagName === 'TD' && !cellEl.classList.contains('spacer') && visible(cellEl)) { cells.push(cellEl); }"
+            + "  }"
+            + "  rows.push(cells);"
+            + "}"
+            + "for (var column = first; column < first + span; column++) {"
+            + "  for (var row = 0; row < rows.length; row++) {"
+            + "    var td = rows[row][column];"
+            + "    if (!td) { continue; }"
+            + "    var n = number(text(td));"
+            + "    var verdict = " + PREDICATE + ";"
+            + "    if (verdict === undefined) { return {header: first, row: -2, column: column, cell: null}; }"
+            + "    if (verdict) {"
+            + "      var icons = [], is = td.querySelectorAll('i');"
+            + "      for (var i = 0; i < is.length; i++) { icons.push(is[i].getAttribute('class') || ''); }"
+            + "      return {header: first, row: row, column: column,"
+            + "              cell: {text: text(td), cssClass: td.getAttribute('class') || '', style: td.getAttribute('style') || '', icons: icons}};"
+            + "    }"
+            + "  }"
+            + "}"
+            + "return {header: first, row: -1, column: -1, cell: null};";
+
+    private static final Map<String, String> SCRIPTS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final boolean modified;
+    private final boolean pendingOrder;
+
+    private CellCondition(String name, boolean modified, boolean pendingOrder) {
+        this.name = name;
+        this.modified = modified;
+        this.pendingOrder = pendingOrder;
+    }
+
+    /**
+     * @param conditionType tipo de condición (sin distinguir mayúsculas).
+     * @return la condición.
+     * @throws IllegalArgumentException si el tipo de condición no está soportado.
+     */
+    static CellCondition parse(String conditionType) {
+        switch (conditionType.toLowerCase(Locale.ROOT)) {
+            case "modificada con pedido pendiente":
+                return new CellCondition("modificada con pedido pendiente", true, true);
+            case "modificada sin pedido pendiente":
+                return new CellCondition("modificada sin pedido pendiente", true, false);
+            case "sin modificar con pedido pendiente":
+                return new CellCondition("sin modificar con pedido pendiente", false, true);
+            case "sin modificar sin pedido pendiente":
+                return new CellCondition("sin modificar sin pedido pendiente", false, false);
+            default:
+                throw new IllegalArgumentException("Tipo de condición no soportada: " + conditionType);
+        }
+    }
+
+    /**
+     * Evaluación en Java a partir de las propiedades ya calculadas de la celda.
+     *
+     * @return {@code true} si la celda cumple la condición.
+     */
+    boolean matches(boolean isModified, boolean isPositive, boolean isEven, boolean hasPendingOrder) {
+        return isModified == modified && hasPendingOrder == pendingOrder && isPositive && isEven;
+    }
+
+    /**
+     * Script de búsqueda con la condición compilada; argumentos: tabla, cabecera inicial normalizada
+     * ({@link TableUtil#norm(String)}) y número de columnas a revisar.
+     *
+     * @return el script, generado una sola vez por condición.
+     */
+    String script() {
+        return SCRIPTS.computeIfAbsent(name, n -> SCRIPT_TEMPLATE.replace(PREDICATE, "(" + predicate() + ")"));
+    }
+
+    private String predicate() {
+        return (modified ? "modified(td)" : "!modified(td)")
+                + (pendingOrder ? " && pending(td)" : " && !pending(td)")
+                + " && positive(n) && even(n)";
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,118 @@
+package ui.utils;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Predicados sobre celdas de las copias de tablas ({@link TableSnapshot.Cell}), para declarar las consultas de
+ * {@link TableQuery}: texto, valor numérico y estado de los íconos. Se combinan con
+ * {@link Predicate#and}, {@link Predicate#or} y {@link Predicate#negate}.
+ *
+ * <pre>{@code
+ * Predicate<TableSnapshot.Cell> candidata = Cells.modified().negate()
+ *         .and(Cells.pendingOrder().negate())
+ *         .and(Cells.positive());
+ * }</pre>
+ */
+public final class Cells {
+
+    private Cells() {
+    }
+
+    /**
+     * @param condition condición sobre el texto de la celda.
+     * @return predicado sobre el texto.
+     */
+    public static Predicate<TableSnapshot.Cell> text(Predicate<String> condition) {
+        return cell -> condition.test(cell.text());
+    }
+
+    /**
+     * @param expected texto esperado (comparación normalizada, como las cabeceras).
+     * @return predicado que se cumple si el texto coincide.
+     */
+    public static Predicate<TableSnapshot.Cell> textEquals(String expected) {
+        String target = TableUtil.norm(expected);
+        return cell -> TableUtil.norm(cell.text()).equals(target);
+    }
+
+    /**
+     * @return predicado que se cumple si la celda tiene texto.
+     */
+    public static Predicate<TableSnapshot.Cell> notEmpty() {
+        return cell -> !cell.text().isBlank();
+    }
+
+    /**
+     * Condición sobre el valor numérico de la celda, interpretado con el parser indicado. Las celdas vacías o
+     * cuyo valor el parser no reconoce ({@code null}) no la cumplen.
+     *
+     * @param parser    interpreta el texto de la celda (por ejemplo, el de la página, con sus separadores).
+     * @param condition condición sobre el valor.
+     * @return predicado sobre el valor.
+     */
+    public static Predicate<TableSnapshot.Cell> number(Function<String, BigDecimal> parser, Predicate<BigDecimal> condition) {
+        return cell -> {
+            if (cell.text().isBlank()) {
+                return false;
+            }
+            BigDecimal value = parser.apply(cell.text());
+            return value != null && condition.test(value);
+        };
+    }
+
+    /**
+     * Condición sobre el valor numérico de la celda en formato {@link BigDecimal} (sin separadores de miles).
+     *
+     * @param condition condición sobre el valor.
+     * @return predicado sobre el valor.
+     */
+    public static Predicate<TableSnapshot.Cell> number(Predicate<BigDecimal> condition) {
+        return number(Cells::plainNumber, condition);
+    }
+
+    /**
+     * @return predicado que se cumple si el valor es mayor que cero.
+     */
+    public static Predicate<TableSnapshot.Cell> positive() {
+        return number(value -> value.signum() > 0);
+    }
+
+    /**
+     * @return predicado que se cumple si la parte entera del valor es par.
+     */
+    public static Predicate<TableSnapshot.Cell> even() {
+        return number(value -> value.intValue() % 2 == 0);
+    }
+
+    /**
+     * @return predicado que se cumple si la celda está modificada (ícono con clase {@code lock}).
+     */
+    public static Predicate<TableSnapshot.Cell> modified() {
+        return TableSnapshot.Cell::isModified;
+    }
+
+    /**
+     * @return predicado que se cumple si la celda tiene pedido pendiente (fondo {@code rgb(254, 222, 255)}).
+     */
+    public static Predicate<TableSnapshot.Cell> pendingOrder() {
+        return TableSnapshot.Cell::hasPendingOrder;
+    }
+
+    /**
+     * @param classFragment fragmento de la clase del ícono (por ejemplo, {@code "lock"}).
+     * @return predicado que se cumple si algún ícono de la celda tiene una clase que contiene el fragmento.
+     */
+    public static Predicate<TableSnapshot.Cell> icon(String classFragment) {
+        return cell -> cell.iconClasses().stream().anyMatch(c -> c.contains(classFragment));
+    }
+
+    private static BigDecimal plainNumber(String text) {
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -69,14 +69,15 @@ public class DownloadWatcherUtil {
      * </ul>
      * Cuando lo encuentra, lo renombra añadiendo un timestamp al nombre base y devuelve el fichero resultante.
      *
-     * <p>El metodo realiza sondeos (polling) cada ~250 ms hasta alcanzar el {@code timeout}.</p>
+     * <p>El metodo realiza sondeos (polling) cada ~250 ms hasta alcanzar el {@code timeout}, o hasta que se
+     * interrumpa el hilo.</p>
      *
      * @param regex   expresión regular para filtrar por nombre de archivo (p. ej. {@code ".*\\.(xlsx|csv)"}).
      * @param timeout tiempo máximo a esperar antes de abortar.
      * @return el {@link File} ya renombrado con el sello temporal.
      *
      * @throws RuntimeException si no se detecta una descarga válida dentro del tiempo
-     *                          ({@code "No se detectó nueva descarga en <dir>"}), o si
+     *                          ({@code "No se detectó nueva descarga en <dir>"}), si se interrumpe el hilo, o si
      *                          falla el renombrado ({@code "No se pudo renombrar la descarga a <nombre>"}).
      *
      * @implNote El timestamp se inserta como sufijo del nombre base:
@@ -89,7 +90,7 @@ public class DownloadWatcherUtil {
     public File waitNewAndStamp(String regex, Duration timeout) {
         Instant end = Instant.now().plus(timeout);
         File found = null;
-        while (Instant.now().isBefore(end)) {
+        while (Instant.now().isBefore(end) && !Thread.currentThread().isInterrupted()) {
             File[] matches = dir.toFile().listFiles((d, name) ->
                     name.matches(regex) && !name.endsWith(".crdownload") && !name.endsWith(".part"));
             if (matches != null) {
@@ -100,7 +101,10 @@ public class DownloadWatcherUtil {
                 }
             }
             if (found != null) break;
-            try { Thread.sleep(250); } catch (InterruptedException ignored) {}
+            SleepBudget.sleep(250, "Sondeo de la carpeta de descargas");
+        }
+        if (found == null && Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Espera de la descarga en " + dir + " interrumpida");
         }
         if (found == null) throw new RuntimeException("No se detectó nueva descarga en " + dir);
 
@@ -120,13 +124,14 @@ public class DownloadWatcherUtil {
      * se están descargando o escribiendo.
      *
      * @param p ruta del archivo a comprobar.
-     * @return {@code true} si el tamaño permanece constante; {@code false} en caso contrario
-     *         o si ocurre alguna excepción al leer el tamaño.
+     * @return {@code true} si el tamaño permanece constante; {@code false} en caso contrario,
+     *         si ocurre alguna excepción al leer el tamaño o si el hilo se interrumpe durante la pausa.
      */
     private boolean isStable(Path p) {
         try {
             long s1 = Files.size(p);
-            Thread.sleep(400);
+            SleepBudget.sleep(400, "Comprobación de tamaño estable de la descarga");
+            if (Thread.currentThread().isInterrupted()) return false;
             long s2 = Files.size(p);
             return s1 == s2;
         } catch (Exception e) { return false; }
@@ -0,0 +1,111 @@
+package ui.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché de índices de columna por tabla, para que las búsquedas repetidas de cabeceras en una misma pantalla no
+ * vuelvan a leer ni a esperar la fila de cabecera.
+ *
+ * <p>Cada entrada se guarda por título de tabla junto con la firma de su cabecera (los textos normalizados de
+ * las columnas, en orden). Al leer la cabecera se instala en la fila un {@code MutationObserver} que la marca
+ * como modificada en cuanto cambian sus columnas o sus textos (cambio de agrupación, columnas que entran o
+ * salen con el scroll horizontal, tabla re-renderizada). Una entrada sigue siendo válida mientras la fila siga
+ * en el DOM y no esté marcada; comprobarlo es una única llamada mínima al navegador.</p>
+ *
+ * <p>Los índices por firma se conservan aunque la entrada de la tabla se invalide, de modo que al volver a una
+ * agrupación ya vista no hay que recalcularlos.</p>
+ */
+final class HeaderIndexCache {
+
+    /**
+     * Instala (una sola vez) el observador en la fila de cabecera {@code arguments[0]}, la marca como limpia y
+     * devuelve los textos de sus celdas de cabecera, sin las {@code spacer}.
+     */
+    private static final String READ_SCRIPT =
+            "var row = arguments[0];"
+            + "if (!row.__stdHeaderObserver) {"
+            + "  row.__stdHeaderObserver = new MutationObserver(function () { row.__stdHeaderDirty = true; });"
+            + "  row.__stdHeaderObserver.observe(row, {childList: true, subtree: true, characterData: true});"
+            + "}"
+            + "row.__stdHeaderDirty = false;"
+            + "var ths = row.querySelectorAll('th.imperia-table-header-cell:not(.spacer)');"
+            + "if (!ths.length) { ths = row.querySelectorAll('th:not(.spacer)'); }"
+            + "var texts = [];"
+            + "for (var i = 0; i < ths.length; i++) { texts.push(ths[i].textContent || ''); }"
+            + "return texts;";
+
+    /** {@code true} si la fila de cabecera {@code arguments[0]} sigue en el DOM y no cambió desde su lectura. */
+    private static final String VALID_SCRIPT =
+            "var row = arguments[0]; return row.isConnected && row.__stdHeaderObserver !== undefined && !row.__stdHeaderDirty;";
+
+    /**
+     * Cabecera leída de una tabla.
+     */
+    private record Entry(WebElement headerRow, String signature, Map<String, Integer> indexes) {
+    }
+
+    private final WebDriver driver;
+    private final Map<String, Entry> byTable = new HashMap<>();
+    private final Map<String, Map<String, Integer>> bySignature = new HashMap<>();
+
+    HeaderIndexCache(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Índices de columna vigentes de la tabla, si la cabecera leída antes sigue sin cambios.
+     *
+     * @param tableTitle título de la tabla.
+     * @return índices por texto normalizado de cabecera, o {@code null} si no hay entrada válida.
+     */
+    Map<String, Integer> current(String tableTitle) {
+        Entry entry = byTable.get(tableTitle);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            Object valid = ((JavascriptExecutor) driver).executeScript(VALID_SCRIPT, entry.headerRow());
+            if (Boolean.TRUE.equals(valid)) {
+                return entry.indexes();
+            }
+        } catch (StaleElementReferenceException e) {
+            // La fila de cabecera ya no existe: se vuelve a leer
+        }
+        LogUtil.info("La cabecera de la tabla '" + tableTitle + "' cambió; se vuelve a leer.");
+        byTable.remove(tableTitle);
+        return null;
+    }
+
+    /**
+     * Lee la fila de cabecera (ya estable), empieza a observarla y guarda sus índices.
+     *
+     * @param tableTitle título de la tabla.
+     * @param headerRow  fila de cabecera real de la tabla.
+     * @return índices por texto normalizado de cabecera.
+     * @throws StaleElementReferenceException si la fila deja de existir durante la lectura.
+     */
+    Map<String, Integer> load(String tableTitle, WebElement headerRow) {
+        List<String> texts = new ArrayList<>();
+        for (Object text : (List<?>) ((JavascriptExecutor) driver).executeScript(READ_SCRIPT, headerRow)) {
+            texts.add(TableUtil.norm(String.valueOf(text)));
+        }
+        String signature = String.join("\u0001", texts);
+        Map<String, Integer> indexes = bySignature.computeIfAbsent(signature, s -> {
+            Map<String, Integer> computed = new HashMap<>();
+            for (int i = 0; i < texts.size(); i++) {
+                computed.putIfAbsent(texts.get(i), i);
+            }
+            return Map.copyOf(computed);
+        });
+        byTable.put(tableTitle, new Entry(headerRow, signature, indexes));
+        return indexes;
+    }
+}
@@ -0,0 +1,134 @@
+package ui.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Estado de navegación de un navegador: módulo/pantalla actual, su URL y el título confirmado.
+ *
+ * <p>Lo actualizan {@link NavigationUtil} (al llegar a un módulo), {@code MenuPage} (al iniciar una
+ * navegación por menú), {@code BasePage.navigateBack()}/{@code refreshPage()} (que lo invalidan) y
+ * {@link ValidationUtil#assertCurrentScreen(String)} (que confirma el título).</p>
+ *
+ * <p>Con él, las navegaciones y validaciones cuyo destino ya se cumple se resuelven con una única
+ * comprobación barata: URL actual igual a la registrada <em>y</em> título visible igual al esperado,
+ * sin esperas ni reintentos. Si cualquiera de las dos no coincide se sigue el flujo normal.</p>
+ *
+ * <p>Hay una instancia por {@link WebDriver}; como cada navegador lo usa un único hilo a la vez,
+ * la instancia no necesita sincronización.</p>
+ */
+public final class NavigationState {
+
+    /** Título de la pantalla activa en SCP. */
+    public static final By SCREEN_TITLE = By.cssSelector("div.title-container > span[tooltip-on-hover]");
+
+    private static final Map<WebDriver, NavigationState> STATES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private String module;
+    private String url;
+    private String title;
+
+    private NavigationState() {
+    }
+
+    /**
+     * Devuelve el estado asociado al navegador, creándolo si no existe.
+     *
+     * @param driver navegador.
+     * @return estado de navegación del navegador.
+     */
+    public static NavigationState of(WebDriver driver) {
+        return STATES.computeIfAbsent(driver, d -> new NavigationState());
+    }
+
+    /**
+     * Registra que se llegó a un módulo; guarda la URL actual y el título visible en ese momento (si ya lo hay).
+     *
+     * @param driver     navegador.
+     * @param modulePath ruta del módulo tal como aparece en el step.
+     */
+    public void moduleReached(WebDriver driver, String modulePath) {
+        this.module = RouteMapUtil.normalize(modulePath);
+        this.url = driver.getCurrentUrl();
+        String visibleTitle = readTitle(driver);
+        this.title = visibleTitle.isEmpty() ? null : visibleTitle;
+    }
+
+    /**
+     * Registra que la pantalla visible es la indicada (tras validarla).
+     *
+     * @param driver navegador.
+     * @param screen título confirmado.
+     */
+    public void screenConfirmed(WebDriver driver, String screen) {
+        this.url = driver.getCurrentUrl();
+        this.title = screen;
+        if (module == null) {
+            this.module = RouteMapUtil.normalize(screen);
+        }
+    }
+
+    /**
+     * Olvida el estado; la siguiente navegación o validación seguirá el flujo completo.
+     *
+     * @param reason motivo, solo para el log.
+     */
+    public void invalidate(String reason) {
+        if (module != null || title != null) {
+            LogUtil.info("Estado de navegación invalidado: " + reason + ".");
+        }
+        this.module = null;
+        this.url = null;
+        this.title = null;
+    }
+
+    /**
+     * Indica si el navegador ya está en el módulo indicado.
+     *
+     * @param driver     navegador.
+     * @param modulePath ruta del módulo tal como aparece en el step.
+     * @return {@code true} si el módulo registrado coincide y la comprobación de URL y título se cumple.
+     */
+    public boolean isOnModule(WebDriver driver, String modulePath) {
+        return module != null
+                && module.equals(RouteMapUtil.normalize(modulePath))
+                && title != null
+                && matchesUrlAndTitle(driver, title);
+    }
+
+    /**
+     * Indica si el navegador ya muestra la pantalla con el título indicado.
+     *
+     * @param driver navegador.
+     * @param screen título esperado.
+     * @return {@code true} si el título confirmado coincide y la comprobación de URL y título se cumple.
+     */
+    public boolean isOnScreen(WebDriver driver, String screen) {
+        return screen.equals(title) && matchesUrlAndTitle(driver, screen);
+    }
+
+    private boolean matchesUrlAndTitle(WebDriver driver, String expectedTitle) {
+        try {
+            return url != null && url.equals(driver.getCurrentUrl()) && expectedTitle.equals(readTitle(driver));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lee el título visible sin esperas.
+     *
+     * @param driver navegador.
+     * @return título actual, o cadena vacía si no está presente.
+     */
+    private static String readTitle(WebDriver driver) {
+        List<WebElement> titles = driver.findElements(SCREEN_TITLE);
+        return titles.isEmpty() ? "" : titles.getFirst().getText().trim();
+    }
+}
@@ -1,5 +1,6 @@
 package ui.utils;
 
+import config.ScenarioContext;
 import org.openqa.selenium.*;
 import ui.enums.AccessType;
 import ui.manager.PageManager;
@@ -14,6 +15,7 @@ import ui.pages.MenuPage;
 public class NavigationUtil {
 
     private final WebDriver driver;
+    private final PageManager pageManager;
     private final HomePage homePage;
     private final MenuPage menuPage;
     private final LoginPage loginPage;
@@ -25,6 +27,7 @@ public class NavigationUtil {
      */
     public NavigationUtil(PageManager pageManager) {
         this.driver = pageManager.getDriver();
+        this.pageManager = pageManager;
         this.homePage = pageManager.getHomePage();
         this.menuPage = pageManager.getMenuPage();
         this.loginPage = pageManager.getLoginPage();
@@ -37,14 +40,43 @@ public class NavigationUtil {
      * - QUICK: accede directamente mediante el menú rápido.
      * - INDEX: abre el menú principal y luego navega por niveles.
      * - SEARCH: usa la barra de búsqueda y selecciona el módulo.
+     * - DIRECT: navega a la URL aprendida en {@link RouteMapUtil}; si no se conoce, usa el buscador.
+     *
+     * Con {@code -DnavigationMode=direct} cualquier tipo de acceso usa la URL aprendida cuando existe,
+     * salvo en escenarios etiquetados con {@code @navigation}, que validan el propio menú.
+     * Toda navegación por menú registra la URL alcanzada para las siguientes ejecuciones; solo con
+     * {@code -DnavigationMode=direct} o acceso DIRECT se espera a que la URL cambie, en otro caso se lee una vez sin bloquear.
+     *
+     * Si el {@link NavigationState} indica que el navegador ya está en el módulo (URL y título sin cambios),
+     * no se hace nada.
      *
      * @param modulePath Ruta del módulo a abrir, separada por '>' para navegación jerárquica.
      * @param accessType Tipo de acceso al módulo
      */
     public void navigateToModule(String modulePath, AccessType accessType) {
         LogUtil.info("Inicio navegación a módulo: " + modulePath + " | tipo de acceso: " + accessType);
+        NavigationState navigationState = NavigationState.of(driver);
+        if (navigationState.isOnModule(driver, modulePath)) {
+            LogUtil.info("El navegador ya está en la pantalla: " + modulePath + ". Navegación omitida.");
+            return;
+        }
+
         loginPage.loginAs();
 
+        boolean learnRoute = accessType == AccessType.DIRECT || isDirectNavigationMode();
+        if (accessType == AccessType.DIRECT || isDirectNavigationAllowed()) {
+            if (RouteMapUtil.navigate(driver, modulePath)) {
+                navigationState.moduleReached(driver, modulePath);
+                LogUtil.info("Navegación completada a la pantalla: " + modulePath);
+                return;
+            }
+            if (accessType == AccessType.DIRECT) {
+                LogUtil.info("Ruta directa desconocida para '" + modulePath + "'; se accede por buscador.");
+                accessType = AccessType.SEARCH;
+            }
+        }
+
+        String urlBeforeMenu = driver.getCurrentUrl();
         switch (accessType) {
             case QUICK:
                 LogUtil.info("Acceso por menú Rápido.");
@@ -62,16 +94,40 @@ public class NavigationUtil {
             default:
                 throw new IllegalArgumentException("Tipo de acceso no soportado: " + accessType);
         }
+        RouteMapUtil.record(driver, modulePath, urlBeforeMenu, learnRoute);
+        navigationState.moduleReached(driver, modulePath);
 
         LogUtil.info("Navegación completada a la pantalla: " + modulePath);
     }
 
+    /**
+     * Indica si se puede sustituir la navegación por menú por la URL aprendida.
+     *
+     * @return {@code true} con {@code -DnavigationMode=direct} y si el escenario no está etiquetado con {@code @navigation}.
+     */
+    private boolean isDirectNavigationAllowed() {
+        if (!isDirectNavigationMode()) {
+            return false;
+        }
+        ScenarioContext scenarioContext = pageManager.getScenarioContext();
+        return scenarioContext == null
+                || scenarioContext.getScenario() == null
+                || !scenarioContext.getScenario().getSourceTagNames().contains("@navigation");
+    }
+
+    /**
+     * @return {@code true} con {@code -DnavigationMode=direct}.
+     */
+    private static boolean isDirectNavigationMode() {
+        return "direct".equalsIgnoreCase(System.getProperty("navigationMode", "menu"));
+    }
+
     /**
      * Navega al módulo especificado utilizando el tipo de acceso indicado.
-     * Los tipos de acceso soportados son: "rapido", "indice" y "buscar".
+     * Los tipos de acceso soportados son: "rapido", "indice", "buscar" y "directo".
      *
      * @param modulePath Ruta del módulo a abrir, puede ser jerárquica.
-     * @param accessType Tipo de acceso al módulo ("rapido", "indice" o "buscar").
+     * @param accessType Tipo de acceso al módulo ("rapido", "indice", "buscar" o "directo").
      * @throws IllegalArgumentException si el tipo de acceso no es soportado
      */
     public void navigateToTheModuleFrom(String modulePath, String accessType) {
@@ -91,10 +147,33 @@ public class NavigationUtil {
                 LogUtil.info("Acceso por buscador.");
                 homePage.searchAndSelectModule(modulePath);
                 break;
+            case "directo":
+                if (!RouteMapUtil.navigate(driver, modulePath)) {
+                    LogUtil.info("Ruta directa desconocida; acceso por buscador.");
+                    String urlBeforeMenu = driver.getCurrentUrl();
+                    homePage.searchAndSelectModule(modulePath);
+                    RouteMapUtil.record(driver, modulePath, urlBeforeMenu, true);
+                }
+                break;
             default:
                 throw new IllegalArgumentException("Tipo de acceso no soportado: " + accessType);
         }
 
         LogUtil.info("Acceso completado a la pantalla: " + modulePath);
     }
-}
\ No newline at end of file
+
+    /**
+     * Selecciona una pantalla pulsando el botón con su nombre, salvo que el navegador ya la muestre.
+     *
+     * @param screenName nombre visible de la pantalla.
+     */
+    public void selectScreen(String screenName) {
+        NavigationState navigationState = NavigationState.of(driver);
+        if (navigationState.isOnScreen(driver, screenName)) {
+            LogUtil.info("La pantalla '" + screenName + "' ya está activa. Selección omitida.");
+            return;
+        }
+        navigationState.invalidate("selección de la pantalla '" + screenName + "'");
+        pageManager.getBasePage().clickButtonByName(screenName);
+    }
+}
@@ -0,0 +1,164 @@
+package ui.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Vista numérica por columnas de una copia de tabla ({@link TableSnapshot}), para sumar columnas sin volver a
+ * interpretar cada celda ni registrar cada suma parcial.
+ *
+ * <p>Las columnas indicadas se interpretan una sola vez con el parser del llamador y se guardan como decimales
+ * escalados en un {@code long[]} por columna (todos con la mayor escala de la columna), con las celdas vacías o
+ * no numéricas marcadas aparte como nulas. Las agregaciones recorren esos arrays y devuelven
+ * {@link BigDecimal} exactos, con la mayor escala de los valores agregados.</p>
+ *
+ * <p>El parser recibe el texto de la celda y devuelve {@code null} si no tiene valor; así cada página conserva
+ * su propia interpretación de separadores.</p>
+ */
+public final class NumericTable {
+
+    /**
+     * Agregados de una columna.
+     *
+     * @param count número de valores.
+     * @param nulls número de celdas sin valor.
+     * @param sum   suma de los valores ({@code 0} si no hay ninguno).
+     */
+    public record Aggregate(int count, int nulls, BigDecimal sum) {
+    }
+
+    /**
+     * Valores de una columna: {@code unscaled[i] / 10^scale} para las filas marcadas en {@code present}.
+     */
+    private static final class Column {
+        private final long[] unscaled;
+        private final byte[] scales;
+        private final BitSet present;
+        private final int scale;
+
+        private Column(long[] unscaled, byte[] scales, BitSet present, int scale) {
+            this.unscaled = unscaled;
+            this.scales = scales;
+            this.present = present;
+            this.scale = scale;
+        }
+    }
+
+    private final String title;
+    private final List<String> headers;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final int rowCount;
+
+    private NumericTable(String title, List<String> headers, int rowCount) {
+        this.title = title;
+        this.headers = List.copyOf(headers);
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * @param table          copia de la tabla.
+     * @param parser         interpreta el texto de una celda; {@code null} si no tiene valor.
+     * @param numericHeaders cabeceras de las columnas numéricas.
+     * @return la vista numérica.
+     * @throws IllegalArgumentException si alguna columna no existe.
+     * @throws ArithmeticException      si algún valor no cabe en un {@code long} con la escala de su columna.
+     */
+    public static NumericTable of(TableSnapshot table, Function<String, BigDecimal> parser, String... numericHeaders) {
+        List<TableSnapshot.Row> rows = table.rows();
+        NumericTable numeric = new NumericTable(table.title(), table.headers(), rows.size());
+        for (String header : numericHeaders) {
+            int index = numeric.requireIndex(header);
+            String[] cells = new String[rows.size()];
+            for (int r = 0; r < cells.length; r++) {
+                cells[r] = rows.get(r).text(index);
+            }
+            numeric.columns.computeIfAbsent(table.headers().get(index), h -> parseColumn(table.title(), h, cells, parser));
+        }
+        return numeric;
+    }
+
+    private static Column parseColumn(String title, String header, String[] cells, Function<String, BigDecimal> parser) {
+        BigDecimal[] values = new BigDecimal[cells.length];
+        int scale = 0;
+        for (int i = 0; i < cells.length; i++) {
+            BigDecimal value = cells[i] == null || cells[i].isBlank() ? null : parser.apply(cells[i]);
+            if (value != null) {
+                values[i] = value.scale() < 0 ? value.setScale(0) : value;
+                scale = Math.max(scale, values[i].scale());
+            }
+        }
+
+        long[] unscaled = new long[cells.length];
+        byte[] scales = new byte[cells.length];
+        BitSet present = new BitSet(cells.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            try {
+                unscaled[i] = values[i].setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw new ArithmeticException(String.format("El valor '%s' de la columna '%s' de la tabla '%s' excede la precisión admitida.",
+                        cells[i], header, title));
+            }
+            scales[i] = (byte) values[i].scale();
+            present.set(i);
+        }
+        return new Column(unscaled, scales, present, scale);
+    }
+
+    /**
+     * @param header cabecera de una columna numérica.
+     * @return agregados de la columna completa.
+     */
+    public Aggregate aggregate(String header) {
+        Column column = column(header);
+        long sum = 0;
+        BigInteger wideSum = null;
+        int resultScale = 0;
+        int count = 0;
+
+        for (int row = column.present.nextSetBit(0); row >= 0; row = column.present.nextSetBit(row + 1)) {
+            long value = column.unscaled[row];
+            count++;
+            if (wideSum == null) {
+                try {
+                    sum = Math.addExact(sum, value);
+                } catch (ArithmeticException overflow) {
+                    wideSum = BigInteger.valueOf(sum).add(BigInteger.valueOf(value));
+                }
+            } else {
+                wideSum = wideSum.add(BigInteger.valueOf(value));
+            }
+            resultScale = Math.max(resultScale, column.scales[row]);
+        }
+
+        if (count == 0) {
+            return new Aggregate(0, rowCount, BigDecimal.ZERO);
+        }
+        BigDecimal total = wideSum == null ? BigDecimal.valueOf(sum, column.scale) : new BigDecimal(wideSum, column.scale);
+        return new Aggregate(count, rowCount - count, total.setScale(resultScale, RoundingMode.UNNECESSARY));
+    }
+
+    private Column column(String header) {
+        Column column = columns.get(headers.get(requireIndex(header)));
+        if (column == null) {
+            throw new IllegalArgumentException("La columna '" + header + "' de la tabla '" + title + "' no se interpretó como numérica.");
+        }
+        return column;
+    }
+
+    private int requireIndex(String header) {
+        int index = TableSnapshot.indexOf(headers, header);
+        if (index < 0) {
+            throw new IllegalArgumentException("La tabla '" + title + "' no tiene la columna '" + header + "'");
+        }
+        return index;
+    }
+}
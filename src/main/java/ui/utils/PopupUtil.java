@@ -33,9 +33,16 @@ public class PopupUtil {
      * <p>Este metodo busca el mensaje en el componente con clase <code>title-container</code>,
      * que se encuentra dentro de un <code>div.error-container</code> mostrado en la UI.</p>
      *
+     * <p>El error HTTP que provoca el mensaje es el esperado, por lo que no detiene las esperas de la
+     * validación ({@link WaitUtil#expectingHttpErrors(Runnable)}).</p>
+     *
      * @param expectedMessage Texto del mensaje de error que se espera validar.
      */
     public void verifyErrorTitleMessage(String expectedMessage) {
+        waitUtil.expectingHttpErrors(() -> verifyErrorTitle(expectedMessage));
+    }
+
+    private void verifyErrorTitle(String expectedMessage) {
         try {
 //            waitUtil.sleepMillis(300, "Espera que se muestre el mensaje");
 //            By errorTitleLocator = By.cssSelector("div.error-container .title-container");
@@ -0,0 +1,194 @@
+package ui.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa de rutas aprendido para navegar directamente (deep link) a los módulos de SCP.
+ *
+ * <p>La primera vez que se llega a un módulo por menú (rápido, índice o buscador) se registra la URL
+ * alcanzada, asociada a la ruta del módulo tal como aparece en los steps ({@code "Previsiones"},
+ * {@code "Configuraciones > Unidades"}, ...). El mapa se guarda en disco
+ * ({@code -DrouteMapFile}, por defecto {@code ~/.cache/smarttest/routes.properties}) y se reutiliza en
+ * ejecuciones posteriores para navegar con un único {@code driver.get}.</p>
+ *
+ * <p>Solo se guarda la parte de la URL posterior al origen (ruta, query y fragmento), de modo que el mapa
+ * sirve para cualquier entorno ({@code -Denv}).</p>
+ *
+ * <p>Si la navegación directa no termina en la ruta esperada (p. ej. la app redirige al inicio), la ruta
+ * se olvida y el llamador debe volver a la navegación por menú.</p>
+ */
+public final class RouteMapUtil {
+
+    private static final long URL_CHANGE_SECONDS = 10;
+    private static final Duration URL_CHANGE_TIMEOUT = Duration.ofSeconds(URL_CHANGE_SECONDS);
+    private static final Duration DIRECT_LOAD_TIMEOUT = Duration.ofSeconds(15);
+
+    private static final Map<String, String> ROUTES = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+
+    private RouteMapUtil() {
+    }
+
+    /**
+     * Navega directamente a la URL aprendida del módulo.
+     *
+     * @param driver     navegador del escenario (ya autenticado).
+     * @param modulePath ruta del módulo tal como aparece en el step.
+     * @return {@code true} si se llegó a la ruta esperada; {@code false} si no hay ruta o la app redirigió.
+     */
+    public static boolean navigate(WebDriver driver, String modulePath) {
+        ensureLoaded();
+        String key = normalize(modulePath);
+        String route = ROUTES.get(key);
+        if (route == null) {
+            return false;
+        }
+
+        String origin = originOf(driver.getCurrentUrl());
+        if (origin == null) {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        driver.get(origin + route);
+        try {
+            new WebDriverWait(driver, DIRECT_LOAD_TIMEOUT).until(d ->
+                    "complete".equals(((JavascriptExecutor) d).executeScript("return document.readyState"))
+                            && pathOf(d.getCurrentUrl()).equals(route));
+        } catch (Exception e) {
+            LogUtil.warn("La navegación directa a '" + modulePath + "' terminó en " + driver.getCurrentUrl()
+                    + "; se descarta la ruta aprendida.");
+            ROUTES.remove(key);
+            save();
+            return false;
+        }
+
+        LogUtil.info("Navegación directa a '" + modulePath + "' (" + route + ") en "
+                + (System.currentTimeMillis() - start) + " ms.");
+        return true;
+    }
+
+    /**
+     * Registra la URL alcanzada tras navegar por menú hasta un módulo.
+     *
+     * <p>Con {@code waitForChange} espera hasta {@value #URL_CHANGE_SECONDS} s a que la URL cambie respecto a la
+     * de partida; sin él lee la URL una sola vez, tras la espera de carga que ya hizo la navegación, y no bloquea.
+     * En ambos casos, si la URL no cambió no se registra nada, para no asociar el módulo a la pantalla de
+     * origen.</p>
+     *
+     * @param driver        navegador del escenario.
+     * @param modulePath    ruta del módulo tal como aparece en el step.
+     * @param urlBeforeMenu URL previa a la navegación por menú.
+     * @param waitForChange si se espera al cambio de URL; solo compensa cuando se va a navegar por URL aprendida.
+     */
+    public static void record(WebDriver driver, String modulePath, String urlBeforeMenu, boolean waitForChange) {
+        ensureLoaded();
+        String current;
+        if (waitForChange) {
+            try {
+                current = new WebDriverWait(driver, URL_CHANGE_TIMEOUT).until(d -> {
+                    String url = d.getCurrentUrl();
+                    return url.equals(urlBeforeMenu) ? null : url;
+                });
+            } catch (Exception e) {
+                LogUtil.warn("La URL no cambió al navegar a '" + modulePath + "'; no se registra la ruta.");
+                return;
+            }
+        } else {
+            current = driver.getCurrentUrl();
+            if (current == null || current.equals(urlBeforeMenu)) {
+                return;
+            }
+        }
+
+        String route = pathOf(current);
+        String previous = ROUTES.put(normalize(modulePath), route);
+        if (!route.equals(previous)) {
+            LogUtil.info("Ruta aprendida para '" + modulePath + "': " + route);
+            save();
+        }
+    }
+
+    /**
+     * Normaliza la ruta del módulo: minúsculas, sin tildes y con separadores {@code >} homogéneos.
+     */
+    static String normalize(String modulePath) {
+        String withoutAccents = Normalizer.normalize(modulePath, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return withoutAccents.trim().toLowerCase(Locale.ROOT).replaceAll("\\s*>\\s*", ">").replaceAll("\\s+", " ");
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() == null || uri.getAuthority() == null ? null : uri.getScheme() + "://" + uri.getAuthority();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String pathOf(String url) {
+        String origin = originOf(url);
+        return origin == null ? url : url.substring(origin.length());
+    }
+
+    private static Path routeFile() {
+        String configured = System.getProperty("routeMapFile");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "smarttest", "routes.properties");
+    }
+
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (RouteMapUtil.class) {
+            if (loaded) {
+                return;
+            }
+            Path file = routeFile();
+            if (Files.isRegularFile(file)) {
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(file)) {
+                    properties.load(in);
+                    properties.forEach((k, v) -> ROUTES.put(String.valueOf(k), String.valueOf(v)));
+                    LogUtil.info("Mapa de rutas cargado (" + ROUTES.size() + " módulos) desde " + file);
+                } catch (IOException e) {
+                    LogUtil.warn("No se pudo leer el mapa de rutas " + file + ": " + e.getMessage());
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private static synchronized void save() {
+        Path file = routeFile();
+        Properties properties = new Properties();
+        properties.putAll(ROUTES);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                properties.store(out, "Rutas de módulos SCP aprendidas por RouteMapUtil");
+            }
+        } catch (IOException e) {
+            LogUtil.warn("No se pudo guardar el mapa de rutas " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ui.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alinea las lecturas solapadas de una tabla con scroll virtual para saber qué filas de cada lectura son nuevas.
+ *
+ * <p>Cada lectura muestra un tramo contiguo de filas que empieza con algunas de las últimas ya leídas. Las filas
+ * se comparan por su firma ({@code data-id} o el texto de todas sus celdas), no por su desplazamiento, que no
+ * sirve con filas de alto variable. La posición de cada fila en la tabla es el número de filas leídas antes que
+ * ella.</p>
+ *
+ * <p>Si el solape admite más de una longitud (filas idénticas seguidas sin {@code data-id}), no se puede saber
+ * cuántas filas son nuevas y la lectura falla en lugar de fusionar o repetir filas.</p>
+ */
+final class RowOverlap {
+
+    private final String tableTitle;
+    private final List<String> read = new ArrayList<>();
+
+    /**
+     * @param tableTitle título de la tabla (para los errores).
+     */
+    RowOverlap(String tableTitle) {
+        this.tableTitle = tableTitle;
+    }
+
+    /**
+     * @param batch firmas de las filas de la lectura, en el orden de la tabla.
+     * @return número de filas al principio de la lectura que ya se habían leído.
+     * @throws IllegalStateException si el solape admite más de una longitud.
+     */
+    int overlap(List<String> batch) {
+        int size = read.size();
+        int found = 0;
+        for (int k = Math.min(batch.size(), size); k > 0; k--) {
+            if (read.subList(size - k, size).equals(batch.subList(0, k))) {
+                if (found > 0) {
+                    throw new IllegalStateException(String.format(
+                            "No se puede alinear la lectura de la tabla '%s': empieza con %d o con %d filas ya leídas"
+                                    + " (filas idénticas sin data-id).", tableTitle, found, k));
+                }
+                found = k;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Registra una fila nueva.
+     *
+     * @param signature firma de la fila.
+     * @return posición de la fila en la tabla.
+     */
+    int add(String signature) {
+        read.add(signature);
+        return read.size() - 1;
+    }
+
+    /**
+     * @param id    clave declarada por la propia fila; vacía si no tiene.
+     * @param texts textos de todas las celdas de la fila.
+     * @return firma de la fila.
+     */
+    static String signature(String id, List<String> texts) {
+        return id.isEmpty() ? "texts:" + String.join("\u0001", texts) : "id:" + id;
+    }
+}
@@ -0,0 +1,457 @@
+package ui.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caché de la sesión autenticada del navegador para evitar repetir el formulario de login.
+ *
+ * <p>Tras el primer login real por formulario ({@code -DloginMode=session}) se captura el estado de
+ * autenticación de SCP: cookies y el contenido completo de {@code localStorage} y {@code sessionStorage}
+ * del origen de la aplicación, junto con la URL a la que se llegó tras el login. Los navegadores
+ * siguientes restauran ese estado antes de la primera navegación y se saltan el formulario.</p>
+ *
+ * <p><strong>Invalidación</strong>: la sesión se descarta y se vuelve al login por formulario cuando</p>
+ * <ul>
+ *   <li>el token JWT almacenado expira (claim {@code exp}) o, si no hay JWT, vence el TTL
+ *       {@code -DsessionTtlMinutes} (25 min por defecto);</li>
+ *   <li>tras restaurar, la aplicación redirige a {@code /login} o alguna petición responde {@code 401};</li>
+ *   <li>al terminar un escenario que usó la sesión, el navegador quedó en {@code /login} o recibió algún
+ *       {@code 401} ({@link #checkStillAccepted(WebDriver)}), p. ej. porque el token caducó a mitad de la
+ *       ejecución;</li>
+ *   <li>se invoca {@link #invalidate(String)} explícitamente.</li>
+ * </ul>
+ *
+ * <p>Solo se descarta la entrada que falló: si la aplicación rechaza una sesión sembrada desde la API, la
+ * sesión capturada por formulario se conserva.</p>
+ *
+ * <p><strong>Sesión sembrada desde API</strong> ({@code -DloginMode=api}): con {@link #seedFromToken(String, String)}
+ * se construye una sesión a partir del token de {@code AuthenticationAPI}. Las entradas de almacenamiento
+ * que espera la aplicación se obtienen de {@code -DapiLoginStorage} (p. ej. {@code local:token}) o, si no
+ * se indica, de una <em>plantilla</em> aprendida en el último login por formulario: el almacenamiento
+ * capturado con el JWT sustituido por {@value #TOKEN_PLACEHOLDER}. La plantilla se persiste en
+ * {@code ~/.cache/smarttest/} para reutilizarse en ejecuciones posteriores; en sistemas POSIX la carpeta y el
+ * fichero solo son accesibles por su propietario, porque la plantilla conserva el resto del almacenamiento
+ * de la aplicación.</p>
+ *
+ * <p>La caché es compartida por todos los hilos de la JVM; la captura se serializa y la sesión guardada es inmutable.</p>
+ */
+public final class SessionCacheUtil {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration LOGIN_REDIRECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration RESTORE_CHECK_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    /** Margen de seguridad antes de la expiración del token para no reutilizar sesiones a punto de caducar. */
+    private static final long EXPIRY_MARGIN_MILLIS = 60_000L;
+
+    /** Marcador del token dentro de la plantilla de almacenamiento. */
+    static final String TOKEN_PLACEHOLDER = "{{token}}";
+
+    private static final Pattern JWT_PATTERN = Pattern.compile("eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+
+    private static final String READ_STORAGE_SCRIPT =
+            "var read = function(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); } return o; };" +
+            "return { local: read(window.localStorage), session: read(window.sessionStorage) };";
+
+    private static final String WRITE_STORAGE_SCRIPT =
+            "var local = arguments[0], session = arguments[1];" +
+            "Object.keys(local).forEach(function(k) { window.localStorage.setItem(k, local[k]); });" +
+            "Object.keys(session).forEach(function(k) { window.sessionStorage.setItem(k, session[k]); });";
+
+    private static final String HAS_UNAUTHORIZED_SCRIPT =
+            "return performance.getEntriesByType('resource').some(function(e) { return e.responseStatus === 401; });";
+
+    private static volatile Session cached;
+    private static volatile Map<String, Map<String, String>> storageTemplate;
+
+    private SessionCacheUtil() {
+    }
+
+    /**
+     * Estado de autenticación capturado.
+     *
+     * @param origin         origen de la aplicación (esquema + host + puerto).
+     * @param landingUrl     URL a la que se llegó tras el login.
+     * @param cookies        cookies del navegador.
+     * @param localStorage   entradas de {@code localStorage}.
+     * @param sessionStorage entradas de {@code sessionStorage}.
+     * @param expiresAt      instante (epoch millis) a partir del cual la sesión no se reutiliza.
+     */
+    public record Session(String origin, String landingUrl, Set<Cookie> cookies,
+                          Map<String, String> localStorage, Map<String, String> sessionStorage, long expiresAt) {
+
+        /**
+         * @return {@code true} si la sesión aún puede reutilizarse.
+         */
+        public boolean isValid() {
+            return System.currentTimeMillis() < expiresAt - EXPIRY_MARGIN_MILLIS;
+        }
+    }
+
+    /**
+     * Devuelve la sesión guardada si sigue siendo válida.
+     *
+     * @return sesión reutilizable, o {@code null} si no hay o ya expiró.
+     */
+    public static Session getValidSession() {
+        Session session = cached;
+        if (session != null && !session.isValid()) {
+            invalidate(session, "token expirado");
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Captura el estado de autenticación tras un login por formulario exitoso.
+     *
+     * <p>Espera a que la URL deje de contener {@code /login} antes de leer cookies y almacenamiento.</p>
+     *
+     * @param driver navegador recién autenticado.
+     */
+    public static synchronized void capture(WebDriver driver) {
+        try {
+            new WebDriverWait(driver, LOGIN_REDIRECT_TIMEOUT)
+                    .until(d -> !d.getCurrentUrl().contains("/login"));
+
+            @SuppressWarnings("unchecked")
+            Map<String, Map<String, String>> storage = (Map<String, Map<String, String>>)
+                    ((JavascriptExecutor) driver).executeScript(READ_STORAGE_SCRIPT);
+
+            Session session = new Session(
+                    originOf(driver.getCurrentUrl()),
+                    driver.getCurrentUrl(),
+                    new HashSet<>(driver.manage().getCookies()),
+                    new HashMap<>(storage.get("local")),
+                    new HashMap<>(storage.get("session")),
+                    computeExpiry(storage));
+            store(session);
+            learnTemplate(storage);
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo capturar la sesión autenticada: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda una sesión ya construida (p. ej. sembrada desde la API) como sesión reutilizable.
+     *
+     * @param session sesión a guardar.
+     */
+    public static void store(Session session) {
+        cached = session;
+        LogUtil.info("Sesión autenticada guardada en caché (" + session.cookies().size() + " cookies, "
+                + session.localStorage().size() + " entradas localStorage, válida hasta "
+                + new java.util.Date(session.expiresAt()) + ").");
+    }
+
+    /**
+     * Restaura una sesión en el navegador y navega a su URL de aterrizaje.
+     *
+     * <p>Para poder escribir cookies y almacenamiento primero se navega a un recurso ligero del mismo origen.
+     * Tras restaurar se comprueba que la aplicación no redirige al login ni recibe respuestas {@code 401};
+     * en ese caso se invalida esa sesión si es la guardada en caché (una sesión sembrada desde la API no
+     * afecta a la guardada).</p>
+     *
+     * @param driver  navegador donde restaurar la sesión.
+     * @param session sesión a restaurar.
+     * @return {@code true} si el navegador quedó autenticado.
+     */
+    public static boolean restore(WebDriver driver, Session session) {
+        long start = System.currentTimeMillis();
+        try {
+            driver.get(session.origin() + "/robots.txt");
+
+            for (Cookie cookie : session.cookies()) {
+                try {
+                    driver.manage().addCookie(cookie);
+                } catch (Exception e) {
+                    LogUtil.warn("No se pudo restaurar la cookie " + cookie.getName() + ": " + e.getMessage());
+                }
+            }
+            ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE_SCRIPT,
+                    session.localStorage(), session.sessionStorage());
+
+            driver.get(session.landingUrl());
+
+            if (isRejected(driver)) {
+                invalidate(session, "la aplicación rechazó la sesión restaurada");
+                return false;
+            }
+
+            LogUtil.info("Sesión restaurada desde caché en " + (System.currentTimeMillis() - start) + " ms.");
+            return true;
+        } catch (Exception e) {
+            LogUtil.warn("No se pudo restaurar la sesión desde caché: " + e.getMessage());
+            invalidate(session, "error al restaurar");
+            return false;
+        }
+    }
+
+    /**
+     * Construye una sesión a partir de un token Bearer obtenido por API, sin pasar por el formulario.
+     *
+     * <p>Las entradas de almacenamiento salen de {@code -DapiLoginStorage} (lista {@code local:clave} /
+     * {@code session:clave}, con el token como valor) o, en su defecto, de la plantilla aprendida.</p>
+     *
+     * @param token      token Bearer de {@code /authentication/authenticate}.
+     * @param landingUrl URL de la aplicación a abrir una vez sembrada la sesión.
+     * @return sesión lista para {@link #restore(WebDriver, Session)}, o {@code null} si aún no se sabe
+     *         qué entradas espera la aplicación.
+     */
+    public static Session seedFromToken(String token, String landingUrl) {
+        Map<String, Map<String, String>> template = resolveTemplate(originOf(landingUrl));
+        if (template == null) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> storage = new HashMap<>();
+        template.forEach((area, entries) -> {
+            Map<String, String> filled = new HashMap<>();
+            entries.forEach((key, value) -> filled.put(key, value.replace(TOKEN_PLACEHOLDER, token)));
+            storage.put(area, filled);
+        });
+
+        Long exp = jwtExpiry(token);
+        long ttlExpiry = System.currentTimeMillis() + Long.getLong("sessionTtlMinutes", 25L) * 60_000L;
+        return new Session(originOf(landingUrl), landingUrl, Set.of(),
+                storage.getOrDefault("local", Map.of()), storage.getOrDefault("session", Map.of()),
+                exp != null ? Math.min(exp, ttlExpiry) : ttlExpiry);
+    }
+
+    /**
+     * Devuelve la plantilla de almacenamiento: la configurada por propiedad, la aprendida en esta JVM o la persistida.
+     */
+    private static Map<String, Map<String, String>> resolveTemplate(String origin) {
+        String configured = System.getProperty("apiLoginStorage");
+        if (configured != null && !configured.isBlank()) {
+            Map<String, Map<String, String>> template = new HashMap<>();
+            for (String entry : configured.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                String area = parts.length == 2 ? parts[0].trim().toLowerCase() : "local";
+                String key = parts[parts.length - 1].trim();
+                template.computeIfAbsent(area, k -> new HashMap<>()).put(key, TOKEN_PLACEHOLDER);
+            }
+            return template;
+        }
+
+        if (storageTemplate == null) {
+            Path file = templateFile(origin);
+            if (Files.isRegularFile(file)) {
+                try {
+                    storageTemplate = MAPPER.readValue(file.toFile(),
+                            MAPPER.getTypeFactory().constructMapType(Map.class,
+                                    MAPPER.getTypeFactory().constructType(String.class),
+                                    MAPPER.getTypeFactory().constructMapType(Map.class, String.class, String.class)));
+                    LogUtil.info("Plantilla de sesión cargada desde " + file);
+                } catch (IOException e) {
+                    LogUtil.warn("No se pudo leer la plantilla de sesión " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return storageTemplate;
+    }
+
+    /**
+     * Aprende la plantilla de almacenamiento a partir de un login real: sustituye cada JWT por el marcador
+     * y persiste el resultado. Si no hay ningún JWT en el almacenamiento no se aprende nada.
+     */
+    private static void learnTemplate(Map<String, Map<String, String>> storage) {
+        Map<String, Map<String, String>> template = new LinkedHashMap<>();
+        boolean hasToken = false;
+        for (Map.Entry<String, Map<String, String>> area : storage.entrySet()) {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : area.getValue().entrySet()) {
+                String value = String.valueOf(entry.getValue());
+                String templated = JWT_PATTERN.matcher(value).replaceAll(Matcher.quoteReplacement(TOKEN_PLACEHOLDER));
+                hasToken |= !templated.equals(value);
+                entries.put(entry.getKey(), templated);
+            }
+            template.put(area.getKey(), entries);
+        }
+        if (!hasToken) {
+            return;
+        }
+
+        storageTemplate = template;
+        Path file = templateFile(cached != null ? cached.origin() : "");
+        try {
+            writeOwnerOnly(file, MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(template));
+            LogUtil.info("Plantilla de sesión aprendida y guardada en " + file);
+        } catch (IOException e) {
+            LogUtil.warn("No se pudo guardar la plantilla de sesión: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe el fichero dejando la carpeta y el fichero accesibles solo por el propietario (si el sistema de
+     * ficheros es POSIX). El fichero se crea con esos permisos antes de escribir su contenido.
+     */
+    private static void writeOwnerOnly(Path file, byte[] content) throws IOException {
+        Path directory = file.getParent();
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory);
+            Files.write(file, content);
+            return;
+        }
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+        }
+        Files.setPosixFilePermissions(directory, OWNER_ONLY_DIRECTORY);
+        if (Files.exists(file)) {
+            Files.setPosixFilePermissions(file, OWNER_ONLY_FILE);
+        } else {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+        }
+        Files.write(file, content, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static Path templateFile(String origin) {
+        String host = origin.replaceAll("^[a-z]+://", "").replaceAll("[^A-Za-z0-9.-]", "_");
+        String user = System.getProperty("user", "default").replaceAll("[^A-Za-z0-9.-]", "_");
+        return Paths.get(System.getProperty("user.home"), ".cache", "smarttest",
+                "session-template-" + host + "-" + user + ".json");
+    }
+
+    /**
+     * Descarta la sesión guardada; el siguiente login volverá a usar el formulario.
+     *
+     * @param reason motivo registrado en el log.
+     */
+    public static void invalidate(String reason) {
+        Session session = cached;
+        if (session != null) {
+            invalidate(session, reason);
+        }
+    }
+
+    /**
+     * Descarta la sesión indicada solo si es la guardada en caché.
+     */
+    private static synchronized void invalidate(Session session, String reason) {
+        if (cached == session) {
+            cached = null;
+            LogUtil.warn("Sesión en caché invalidada: " + reason + ".");
+        } else {
+            LogUtil.warn("Sesión rechazada (" + reason + "); la sesión en caché se conserva.");
+        }
+    }
+
+    /**
+     * Descarta la sesión guardada si, al terminar un escenario, el navegador quedó en el login o recibió
+     * respuestas {@code 401} en el origen de la sesión: el token dejó de ser válido a mitad de la ejecución y
+     * los siguientes escenarios no deben restaurarlo.
+     *
+     * @param driver navegador del escenario que termina; puede ser {@code null}.
+     */
+    public static void checkStillAccepted(WebDriver driver) {
+        Session session = cached;
+        if (session == null || driver == null) {
+            return;
+        }
+        try {
+            String url = driver.getCurrentUrl();
+            if (url == null || !url.startsWith(session.origin())) {
+                return;
+            }
+            if (url.contains("/login")
+                    || Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(HAS_UNAUTHORIZED_SCRIPT))) {
+                invalidate(session, "la aplicación rechazó la sesión durante el escenario");
+            }
+        } catch (WebDriverException e) {
+            // Navegador cerrado o en navegación: se comprobará al restaurar la sesión
+        }
+    }
+
+    /**
+     * Comprueba si tras restaurar la sesión la aplicación redirige al login o devuelve {@code 401}.
+     */
+    private static boolean isRejected(WebDriver driver) {
+        try {
+            new WebDriverWait(driver, RESTORE_CHECK_TIMEOUT).until(d ->
+                    "complete".equals(((JavascriptExecutor) d).executeScript("return document.readyState")));
+        } catch (Exception e) {
+            LogUtil.warn("La página restaurada no terminó de cargar a tiempo: " + e.getMessage());
+        }
+        if (driver.getCurrentUrl().contains("/login")) {
+            return true;
+        }
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(HAS_UNAUTHORIZED_SCRIPT));
+    }
+
+    /**
+     * Calcula la expiración de la sesión a partir del claim {@code exp} del primer JWT encontrado en el
+     * almacenamiento; si no hay ninguno, usa el TTL configurado.
+     */
+    private static long computeExpiry(Map<String, Map<String, String>> storage) {
+        long ttlMillis = Long.getLong("sessionTtlMinutes", 25L) * 60_000L;
+        long fallback = System.currentTimeMillis() + ttlMillis;
+        for (Map<String, String> area : storage.values()) {
+            for (String value : area.values()) {
+                Long exp = jwtExpiry(value);
+                if (exp != null) {
+                    return Math.min(exp, fallback);
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Extrae el claim {@code exp} (en milisegundos) del primer JWT contenido en un valor, ya sea
+     * directamente, con prefijo {@code Bearer} o dentro de un JSON.
+     *
+     * @param value valor de almacenamiento.
+     * @return expiración en epoch millis, o {@code null} si el valor no contiene un JWT legible.
+     */
+    static Long jwtExpiry(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = JWT_PATTERN.matcher(value);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            String payloadPart = matcher.group().split("\\.")[1];
+            JsonNode payload = MAPPER.readTree(new String(Base64.getUrlDecoder().decode(payloadPart), StandardCharsets.UTF_8));
+            JsonNode exp = payload.get("exp");
+            return exp != null && exp.canConvertToLong() ? exp.asLong() * 1000L : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String originOf(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+}
@@ -0,0 +1,211 @@
+package ui.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Punto único por el que pasan las pausas fijas ({@code sleep}) del framework, con contabilidad y presupuesto.
+ *
+ * <p>Cada pausa se registra por escenario y por punto de llamada ({@code Clase.metodo:línea} del código que
+ * la pidió, saltando {@code WaitUtil.sleepMillis}). Al terminar cada escenario se compara el total con el
+ * presupuesto {@code -DsleepBudgetMillis} (10000 por defecto):</p>
+ * <ul>
+ *   <li>{@code -DsleepBudgetMode=warn} (por defecto): registra un aviso con los puntos que más pausaron.</li>
+ *   <li>{@code -DsleepBudgetMode=fail}: además hace fallar el escenario.</li>
+ *   <li>{@code -DsleepBudgetMode=off}: solo contabiliza.</li>
+ * </ul>
+ *
+ * <p>Al finalizar la ejecución se escribe {@code target/sleep-hotspots.txt} con los puntos de llamada
+ * ordenados por tiempo total de pausa: la lista de pausas a sustituir primero por esperas con condición.</p>
+ */
+public final class SleepBudget {
+
+    private static final String OUTSIDE_SCENARIO = "(fuera de escenario)";
+
+    /** Puntos de llamada que se muestran en el aviso de un escenario y en el resumen del log. */
+    private static final int SCENARIO_TOP = 3;
+    private static final int REPORT_TOP = 10;
+
+    private static final Path REPORT_FILE = Paths.get("target", "sleep-hotspots.txt");
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static final Map<String, SiteStats> SITES = new ConcurrentHashMap<>();
+    private static final LongAdder SCENARIOS = new LongAdder();
+    private static final LongAdder SCENARIOS_OVER_BUDGET = new LongAdder();
+
+    private static final ThreadLocal<ScenarioSleeps> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Pausas acumuladas de un punto de llamada en toda la ejecución.
+     */
+    private static final class SiteStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final Map<String, Boolean> scenarios = new ConcurrentHashMap<>();
+        private volatile String reason;
+    }
+
+    /**
+     * Pausas del escenario en curso en este hilo.
+     */
+    private static final class ScenarioSleeps {
+        private final String name;
+        private long totalMillis;
+        private final Map<String, Long> bySite = new HashMap<>();
+
+        private ScenarioSleeps(String name) {
+            this.name = name;
+        }
+    }
+
+    private SleepBudget() {
+    }
+
+    /**
+     * Pausa el hilo actual y contabiliza la pausa.
+     *
+     * <p>Si el hilo se interrumpe, se restablece el estado de interrupción y se devuelve sin lanzar excepción.</p>
+     *
+     * @param millis milisegundos de pausa.
+     * @param reason motivo de la pausa (se muestra en el informe de puntos de llamada).
+     */
+    public static void sleep(long millis, String reason) {
+        if (millis <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            record(callSite(), reason, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Comienza la contabilidad de un escenario en el hilo actual.
+     *
+     * @param scenarioName nombre del escenario.
+     */
+    public static void startScenario(String scenarioName) {
+        CURRENT.set(new ScenarioSleeps(scenarioName));
+    }
+
+    /**
+     * Cierra la contabilidad del escenario del hilo actual y aplica el presupuesto.
+     *
+     * @throws AssertionError si el escenario superó el presupuesto con {@code -DsleepBudgetMode=fail}.
+     */
+    public static void endScenario() {
+        ScenarioSleeps sleeps = CURRENT.get();
+        CURRENT.remove();
+        if (sleeps == null) {
+            return;
+        }
+        SCENARIOS.increment();
+
+        String mode = System.getProperty("sleepBudgetMode", "warn").trim().toLowerCase(Locale.ROOT);
+        long budget = Long.getLong("sleepBudgetMillis", 10000);
+        if ("off".equals(mode) || sleeps.totalMillis <= budget) {
+            if (sleeps.totalMillis > 0) {
+                LogUtil.info("Pausas fijas del escenario '" + sleeps.name + "': " + sleeps.totalMillis + " ms.");
+            }
+            return;
+        }
+
+        SCENARIOS_OVER_BUDGET.increment();
+        StringBuilder message = new StringBuilder(String.format(
+                "El escenario '%s' acumuló %d ms de pausas fijas (presupuesto %d ms). Mayores puntos de llamada:",
+                sleeps.name, sleeps.totalMillis, budget));
+        sleeps.bySite.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(SCENARIO_TOP)
+                .forEach(e -> message.append(String.format(" %s (%d ms);", e.getKey(), e.getValue())));
+        if ("fail".equals(mode)) {
+            LogUtil.error(message.toString());
+            throw new AssertionError(message.toString());
+        }
+        LogUtil.warn(message.toString());
+    }
+
+    /**
+     * Escribe {@code target/sleep-hotspots.txt} y muestra en el log los puntos de llamada con más tiempo de pausa.
+     */
+    public static void report() {
+        if (SITES.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, SiteStats>> entries = new ArrayList<>(SITES.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, SiteStats> e) -> e.getValue().totalMillis.sum()).reversed());
+        long total = entries.stream().mapToLong(e -> e.getValue().totalMillis.sum()).sum();
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("# %d ms de pausas fijas en %d escenarios (%d sobre el presupuesto)",
+                total, SCENARIOS.sum(), SCENARIOS_OVER_BUDGET.sum()));
+        lines.add("total_ms\tllamadas\tmax_ms\tescenarios\tpunto_de_llamada\tmotivo");
+        for (Map.Entry<String, SiteStats> entry : entries) {
+            SiteStats stats = entry.getValue();
+            lines.add(String.join("\t",
+                    String.valueOf(stats.totalMillis.sum()),
+                    String.valueOf(stats.calls.sum()),
+                    String.valueOf(stats.maxMillis.get()),
+                    String.valueOf(stats.scenarios.size()),
+                    entry.getKey(),
+                    String.valueOf(stats.reason)));
+        }
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            Files.write(REPORT_FILE, lines);
+        } catch (IOException e) {
+            LogUtil.warn("No se pudo escribir " + REPORT_FILE + ": " + e.getMessage());
+        }
+
+        StringBuilder summary = new StringBuilder(String.format(
+                "Pausas fijas: %d ms en total (detalle en %s). Puntos a sustituir primero:", total, REPORT_FILE));
+        entries.stream().limit(REPORT_TOP).forEach(e -> summary.append(String.format("%n  %s -> %d ms en %d llamadas (%s)",
+                e.getKey(), e.getValue().totalMillis.sum(), e.getValue().calls.sum(), e.getValue().reason)));
+        LogUtil.info(summary.toString());
+    }
+
+    private static void record(String site, String reason, long millis) {
+        ScenarioSleeps sleeps = CURRENT.get();
+        if (sleeps != null) {
+            sleeps.totalMillis += millis;
+            sleeps.bySite.merge(site, millis, Long::sum);
+        }
+
+        SiteStats stats = SITES.computeIfAbsent(site, s -> new SiteStats());
+        stats.calls.increment();
+        stats.totalMillis.add(millis);
+        stats.maxMillis.accumulateAndGet(millis, Math::max);
+        stats.scenarios.put(sleeps == null ? OUTSIDE_SCENARIO : sleeps.name, Boolean.TRUE);
+        stats.reason = reason;
+    }
+
+    /**
+     * Primer marco de la pila fuera de esta clase y de {@code WaitUtil.sleepMillis}.
+     */
+    private static String callSite() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> !f.getClassName().equals(SleepBudget.class.getName()))
+                .filter(f -> !(f.getClassName().equals(WaitUtil.class.getName()) && f.getMethodName().equals("sleepMillis")))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("desconocido"));
+    }
+}
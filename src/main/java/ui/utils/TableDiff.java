@@ -0,0 +1,402 @@
+package ui.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Diferencias entre dos copias de una misma tabla ({@link TableSnapshot} o {@link TableGrid}) tomadas antes y
+ * después de una acción (edición, refresco, "Calcular todo"), para validar la persistencia sin volver a buscar
+ * cada celda en la pantalla.
+ *
+ * <p>Las filas se emparejan por su clave en la copia (las columnas clave con que se leyó, por ejemplo las
+ * dimensiones de la agrupación), no por su posición, de modo que el resultado no depende del orden en que la
+ * tabla muestre las filas. Las columnas se emparejan por su cabecera normalizada y solo se comparan las que
+ * están en ambas copias; las cabeceras vacías se ignoran. Se compara el texto de las celdas.</p>
+ *
+ * <pre>{@code
+ * TableDiff.between(antes, despues)
+ *         .expect(CalculatorUtil::parseUserNumber)
+ *         .within(mes)
+ *         .changedBy(celda, new BigDecimal("2"))
+ *         .verify("Solo cambia la celda editada");
+ * }</pre>
+ */
+public final class TableDiff {
+
+    /**
+     * Celda de una copia, identificada por la clave de su fila y su cabecera.
+     *
+     * @param rowKey clave de la fila.
+     * @param header texto de la cabecera.
+     */
+    public record CellRef(String rowKey, String header) {
+
+        @Override
+        public String toString() {
+            return "('" + rowKey + "', '" + header + "')";
+        }
+    }
+
+    /**
+     * Celda cuyo texto cambió.
+     *
+     * @param rowKey clave de la fila.
+     * @param header texto de la cabecera (el de la copia anterior).
+     * @param before texto anterior.
+     * @param after  texto actual.
+     */
+    public record CellChange(String rowKey, String header, String before, String after) {
+
+        /**
+         * @return la celda.
+         */
+        public CellRef ref() {
+            return new CellRef(rowKey, header);
+        }
+    }
+
+    /**
+     * Una copia reducida a textos: cabeceras y, por clave de fila, el texto de cada columna.
+     */
+    private record Side(String title, List<String> headers, Map<String, String[]> rows) {
+
+        String text(String rowKey, String header) {
+            String[] texts = rows.get(rowKey);
+            int index = TableSnapshot.indexOf(headers, header);
+            return texts == null || index < 0 ? null : texts[index];
+        }
+    }
+
+    private final Side before;
+    private final Side after;
+    private final List<String> addedRows;
+    private final List<String> removedRows;
+    private final List<CellChange> changes;
+
+    private TableDiff(Side before, Side after) {
+        this.before = before;
+        this.after = after;
+
+        // Columnas comunes: índice en la copia anterior -> índice en la actual
+        List<int[]> columns = new ArrayList<>();
+        for (int i = 0; i < before.headers().size(); i++) {
+            String header = before.headers().get(i);
+            int j = header.isBlank() ? -1 : TableSnapshot.indexOf(after.headers(), header);
+            if (j >= 0) {
+                columns.add(new int[]{i, j});
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        List<CellChange> changed = new ArrayList<>();
+        for (Map.Entry<String, String[]> row : before.rows().entrySet()) {
+            String[] current = after.rows().get(row.getKey());
+            if (current == null) {
+                removed.add(row.getKey());
+                continue;
+            }
+            for (int[] column : columns) {
+                String was = row.getValue()[column[0]];
+                String is = current[column[1]];
+                if (!was.equals(is)) {
+                    changed.add(new CellChange(row.getKey(), before.headers().get(column[0]), was, is));
+                }
+            }
+        }
+        List<String> added = new ArrayList<>();
+        for (String key : after.rows().keySet()) {
+            if (!before.rows().containsKey(key)) {
+                added.add(key);
+            }
+        }
+
+        this.addedRows = Collections.unmodifiableList(added);
+        this.removedRows = Collections.unmodifiableList(removed);
+        this.changes = Collections.unmodifiableList(changed);
+    }
+
+    /**
+     * @param before copia anterior.
+     * @param after  copia actual, leída con las mismas columnas clave.
+     * @return las diferencias.
+     */
+    public static TableDiff between(TableSnapshot before, TableSnapshot after) {
+        return new TableDiff(side(before), side(after));
+    }
+
+    /**
+     * @param before copia dispersa anterior.
+     * @param after  copia dispersa actual, leída con las mismas columnas clave.
+     * @return las diferencias.
+     */
+    public static TableDiff between(TableGrid before, TableGrid after) {
+        return new TableDiff(side(before), side(after));
+    }
+
+    private static Side side(TableSnapshot table) {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (TableSnapshot.Row row : table.rows()) {
+            String[] texts = new String[table.headers().size()];
+            for (int c = 0; c < texts.length; c++) {
+                texts[c] = row.text(c);
+            }
+            rows.put(row.key(), texts);
+        }
+        return new Side(table.title(), table.headers(), rows);
+    }
+
+    private static Side side(TableGrid grid) {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (TableGrid.GridRow row : grid.rows()) {
+            String[] texts = new String[grid.headers().size()];
+            for (int c = 0; c < texts.length; c++) {
+                texts[c] = row.text(grid.headers().get(c));
+            }
+            rows.put(row.key(), texts);
+        }
+        return new Side(grid.title(), grid.headers(), rows);
+    }
+
+    /**
+     * @return claves de las filas que solo están en la copia actual.
+     */
+    public List<String> addedRows() {
+        return addedRows;
+    }
+
+    /**
+     * @return claves de las filas que solo están en la copia anterior.
+     */
+    public List<String> removedRows() {
+        return removedRows;
+    }
+
+    /**
+     * @return celdas cuyo texto cambió, en el orden de la copia anterior.
+     */
+    public List<CellChange> changes() {
+        return changes;
+    }
+
+    /**
+     * @param cell celda.
+     * @return el cambio de la celda, si cambió.
+     */
+    public Optional<CellChange> change(CellRef cell) {
+        return changes.stream()
+                .filter(c -> c.rowKey().equals(cell.rowKey())
+                        && TableUtil.norm(c.header()).equals(TableUtil.norm(cell.header())))
+                .findFirst();
+    }
+
+    /**
+     * @return {@code true} si no hay filas nuevas ni eliminadas ni celdas con cambios.
+     */
+    public boolean isEmpty() {
+        return addedRows.isEmpty() && removedRows.isEmpty() && changes.isEmpty();
+    }
+
+    /**
+     * Empieza la validación de los cambios esperados.
+     *
+     * @param parser interpreta el texto de una celda; {@code null} si no tiene valor. Las celdas vacías se
+     *               consideran sin valor sin llamarlo.
+     * @return la validación, sin cambios esperados.
+     */
+    public Expectation expect(Function<String, BigDecimal> parser) {
+        return new Expectation(parser);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d celdas cambiadas, %d filas nuevas, %d filas eliminadas en la tabla '%s'",
+                changes.size(), addedRows.size(), removedRows.size(), after.title());
+    }
+
+    /**
+     * Validación de que solo cambiaron las celdas indicadas, y en las cantidades indicadas.
+     *
+     * <p>Falla si alguna celda esperada no tiene el valor esperado (dentro de la tolerancia), si cambió
+     * alguna otra celda de las columnas y filas validadas o si hay filas nuevas o eliminadas.</p>
+     */
+    public final class Expectation {
+        private final Function<String, BigDecimal> parser;
+        private final Map<CellRef, BigDecimal> deltas = new LinkedHashMap<>();
+        private final Map<CellRef, BigDecimal> values = new LinkedHashMap<>();
+        private final Set<String> headers = new HashSet<>();
+        private final Set<String> ignoredRows = new HashSet<>();
+        private BigDecimal tolerance = BigDecimal.ZERO;
+
+        private Expectation(Function<String, BigDecimal> parser) {
+            this.parser = parser;
+        }
+
+        /**
+         * Limita la validación a las columnas indicadas (por defecto, todas las comunes); los cambios de otras
+         * columnas, por ejemplo totales que se recalculan, no se validan.
+         *
+         * @param headerTexts textos de las cabeceras.
+         * @return esta validación.
+         */
+        public Expectation within(String... headerTexts) {
+            for (String header : headerTexts) {
+                headers.add(TableUtil.norm(header));
+            }
+            return this;
+        }
+
+        /**
+         * Excluye filas de la comprobación de cambios no esperados, por ejemplo las derivadas de la celda editada
+         * (totales o conceptos calculados) que se recalculan. Las celdas esperadas de esas filas se siguen
+         * validando.
+         *
+         * @param rowKeys claves de las filas.
+         * @return esta validación.
+         */
+        public Expectation ignoringRows(Collection<String> rowKeys) {
+            ignoredRows.addAll(rowKeys);
+            return this;
+        }
+
+        /**
+         * @param maxDifference diferencia máxima admitida entre el valor esperado y el actual.
+         * @return esta validación.
+         */
+        public Expectation tolerance(BigDecimal maxDifference) {
+            this.tolerance = maxDifference.abs();
+            return this;
+        }
+
+        /**
+         * @param cell  celda que debe cambiar.
+         * @param delta diferencia esperada entre el valor actual y el anterior.
+         * @return esta validación.
+         */
+        public Expectation changedBy(CellRef cell, BigDecimal delta) {
+            deltas.put(cell, delta);
+            return this;
+        }
+
+        /**
+         * @param cell  celda que debe tener el valor indicado.
+         * @param value valor esperado.
+         * @return esta validación.
+         */
+        public Expectation changedTo(CellRef cell, BigDecimal value) {
+            values.put(cell, value);
+            return this;
+        }
+
+        /**
+         * @param cell celda que debe tener el valor indicado.
+         * @param text valor esperado, en el mismo formato que las celdas.
+         * @return esta validación.
+         * @throws IllegalArgumentException si el texto no tiene valor.
+         */
+        public Expectation changedTo(CellRef cell, String text) {
+            BigDecimal value = value(text);
+            if (value == null) {
+                throw new IllegalArgumentException("Valor esperado sin valor numérico para la celda " + cell + ": '" + text + "'");
+            }
+            return changedTo(cell, value);
+        }
+
+        /**
+         * Comprueba los cambios esperados y que no haya otros.
+         *
+         * @param description descripción de la validación para el log.
+         * @throws AssertionError con todas las discrepancias encontradas.
+         */
+        public void verify(String description) {
+            LogUtil.info("Validando cambios en la tabla '" + after.title() + "': " + description);
+            List<String> failures = new ArrayList<>();
+
+            for (Map.Entry<CellRef, BigDecimal> expected : deltas.entrySet()) {
+                BigDecimal[] pair = values(expected.getKey(), failures);
+                if (pair != null) {
+                    check(expected.getKey(), "diferencia", pair[1].subtract(pair[0]), expected.getValue(), failures);
+                }
+            }
+            for (Map.Entry<CellRef, BigDecimal> expected : values.entrySet()) {
+                BigDecimal[] pair = values(expected.getKey(), failures);
+                if (pair != null) {
+                    check(expected.getKey(), "valor", pair[1], expected.getValue(), failures);
+                }
+            }
+
+            Set<String> expectedCells = new HashSet<>();
+            deltas.keySet().forEach(cell -> expectedCells.add(id(cell.rowKey(), cell.header())));
+            values.keySet().forEach(cell -> expectedCells.add(id(cell.rowKey(), cell.header())));
+            for (CellChange change : changes) {
+                if (validated(change.header()) && !ignoredRows.contains(change.rowKey())
+                        && !expectedCells.contains(id(change.rowKey(), change.header()))) {
+                    failures.add(String.format("La celda %s cambió sin esperarse: '%s' -> '%s'.",
+                            change.ref(), change.before(), change.after()));
+                }
+            }
+            if (!addedRows.isEmpty()) {
+                failures.add("Filas nuevas: " + addedRows + ".");
+            }
+            if (!removedRows.isEmpty()) {
+                failures.add("Filas eliminadas: " + removedRows + ".");
+            }
+
+            if (!failures.isEmpty()) {
+                String error = description + ". Cambios no esperados en la tabla '" + after.title() + "':\n- "
+                        + String.join("\n- ", failures);
+                LogUtil.error(error);
+                throw new AssertionError(error);
+            }
+            LogUtil.info(String.format("Validación exitosa: %s (%d celdas esperadas, %d cambios).",
+                    description, deltas.size() + values.size(), changes.size()));
+        }
+
+        /**
+         * @return {@code [anterior, actual]} de la celda, o {@code null} (con el motivo en {@code failures}) si
+         *         falta la fila, la columna o el valor.
+         */
+        private BigDecimal[] values(CellRef cell, List<String> failures) {
+            String was = before.text(cell.rowKey(), cell.header());
+            String is = after.text(cell.rowKey(), cell.header());
+            if (was == null || is == null) {
+                failures.add(String.format("La celda %s no está en la copia %s.", cell, was == null ? "anterior" : "actual"));
+                return null;
+            }
+            BigDecimal wasValue = value(was);
+            BigDecimal isValue = value(is);
+            if (wasValue == null || isValue == null) {
+                failures.add(String.format("La celda %s no tiene valor numérico: '%s' -> '%s'.", cell, was, is));
+                return null;
+            }
+            return new BigDecimal[]{wasValue, isValue};
+        }
+
+        private void check(CellRef cell, String what, BigDecimal actual, BigDecimal expected, List<String> failures) {
+            if (actual.subtract(expected).abs().compareTo(tolerance) > 0) {
+                failures.add(String.format("La celda %s tiene %s %s y se esperaba %s (tolerancia %s).",
+                        cell, what, actual.toPlainString(), expected.toPlainString(), tolerance.toPlainString()));
+            }
+        }
+
+        private BigDecimal value(String text) {
+            return text == null || text.isBlank() ? null : parser.apply(text.trim());
+        }
+
+        private boolean validated(String header) {
+            return headers.isEmpty() || headers.contains(TableUtil.norm(header));
+        }
+
+        private String id(String rowKey, String header) {
+            return rowKey + '\u0001' + TableUtil.norm(header);
+        }
+    }
+}
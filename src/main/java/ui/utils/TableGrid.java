@@ -0,0 +1,262 @@
+package ui.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copia dispersa e inmutable de una tabla con scroll virtual en las dos direcciones, indexada por
+ * (clave de fila, cabecera de columna).
+ *
+ * <p>La obtiene {@link TableUtil#harvestGrid(String, String...)} recorriendo a la vez el scroll horizontal y el
+ * vertical, de modo que incluye las columnas de períodos (meses, semanas, días) que no estaban renderizadas. Solo
+ * se guardan las celdas con contenido (texto, íconos o estilo); las vacías no ocupan memoria y
+ * {@link #cell(String, String)} las devuelve vacías.</p>
+ *
+ * <p>Cada fila y cada columna recuerda la posición de scroll en la que se leyó, para que
+ * {@link TableUtil#getCellElement(String, TableGrid, String, String)} pueda volver a mostrar una celda concreta.</p>
+ */
+public final class TableGrid {
+
+    private static final TableSnapshot.Cell EMPTY = new TableSnapshot.Cell("", "", "", List.of());
+
+    private final String title;
+    private final List<String> headers;
+    private final Map<String, Integer> headerScrollLeft;
+    private final List<GridRow> rows;
+    private final Map<String, GridRow> rowsByKey;
+
+    /**
+     * Fila de la copia.
+     *
+     * @param dataIndex posición de la fila en la tabla completa.
+     * @param key       clave de la fila.
+     * @param scrollTop posición de scroll vertical con la que la fila está renderizada.
+     * @param cells     celdas con contenido, por cabecera y en el orden de las columnas.
+     */
+    public record GridRow(int dataIndex, String key, int scrollTop, Map<String, TableSnapshot.Cell> cells) {
+
+        public GridRow {
+            cells = Collections.unmodifiableMap(new LinkedHashMap<>(cells));
+        }
+
+        /**
+         * @param header cabecera exacta de la columna.
+         * @return la celda; vacía si no tiene contenido o la columna no existe.
+         */
+        public TableSnapshot.Cell cell(String header) {
+            return cells.getOrDefault(header, EMPTY);
+        }
+
+        /**
+         * @param header cabecera exacta de la columna.
+         * @return el texto de la celda; cadena vacía si no tiene contenido.
+         */
+        public String text(String header) {
+            return cell(header).text();
+        }
+    }
+
+    TableGrid(String title, List<String> headers, Map<String, Integer> headerScrollLeft, List<GridRow> rows) {
+        this.title = title;
+        this.headers = List.copyOf(headers);
+        this.headerScrollLeft = Map.copyOf(headerScrollLeft);
+        this.rows = List.copyOf(rows);
+        Map<String, GridRow> byKey = new LinkedHashMap<>();
+        for (GridRow row : this.rows) {
+            byKey.put(row.key(), row);
+        }
+        this.rowsByKey = Collections.unmodifiableMap(byKey);
+    }
+
+    /**
+     * @return título de la tabla.
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * @return cabeceras de todas las columnas, de izquierda a derecha.
+     */
+    public List<String> headers() {
+        return headers;
+    }
+
+    /**
+     * @return filas de la tabla, en su orden.
+     */
+    public List<GridRow> rows() {
+        return rows;
+    }
+
+    /**
+     * @param key clave de la fila.
+     * @return la fila con esa clave, si existe.
+     */
+    public Optional<GridRow> row(String key) {
+        return Optional.ofNullable(rowsByKey.get(key));
+    }
+
+    /**
+     * Cabecera exacta de la columna cuyo texto coincide con el indicado (comparación normalizada, como
+     * {@link TableSnapshot#columnIndex(String)}).
+     *
+     * @param headerText texto de la cabecera.
+     * @return la cabecera tal como aparece en la tabla, o {@code null} si no hay ninguna columna con ese texto.
+     */
+    public String resolveHeader(String headerText) {
+        int index = TableSnapshot.indexOf(headers, headerText);
+        return index < 0 ? null : headers.get(index);
+    }
+
+    /**
+     * Cabeceras desde la indicada hacia la derecha, como en las búsquedas que prueban los períodos siguientes
+     * cuando el primero no tiene un registro válido.
+     *
+     * @param headerText texto de la cabecera inicial.
+     * @param count      número máximo de columnas.
+     * @return cabeceras a partir de la indicada (incluida); vacía si la columna no existe.
+     */
+    public List<String> headersFrom(String headerText, int count) {
+        int index = TableSnapshot.indexOf(headers, headerText);
+        if (index < 0) {
+            return List.of();
+        }
+        return headers.subList(index, Math.min(headers.size(), index + count));
+    }
+
+    /**
+     * @param rowKey     clave de la fila.
+     * @param headerText texto de la cabecera.
+     * @return la celda; vacía si no tiene contenido.
+     * @throws IllegalArgumentException si la fila o la columna no existen.
+     */
+    public TableSnapshot.Cell cell(String rowKey, String headerText) {
+        GridRow row = rowsByKey.get(rowKey);
+        if (row == null) {
+            throw new IllegalArgumentException("La tabla '" + title + "' no tiene la fila '" + rowKey + "'");
+        }
+        return row.cell(requireHeader(headerText));
+    }
+
+    /**
+     * @param headerText texto de la cabecera.
+     * @return la cabecera tal como aparece en la tabla.
+     * @throws IllegalArgumentException si no hay ninguna columna con ese texto.
+     */
+    public String requireHeader(String headerText) {
+        String header = resolveHeader(headerText);
+        if (header == null) {
+            throw new IllegalArgumentException("La tabla '" + title + "' no tiene la columna '" + headerText + "'. Columnas: " + headers);
+        }
+        return header;
+    }
+
+    /**
+     * @param header cabecera exacta.
+     * @return posición de scroll horizontal con la que la columna está renderizada.
+     */
+    int scrollLeft(String header) {
+        return headerScrollLeft.getOrDefault(header, 0);
+    }
+
+    /**
+     * Acumula las lecturas del recorrido y construye la copia al final, cuando ya se conocen todas las filas y
+     * columnas.
+     *
+     * <p>Cada franja horizontal recorre todas las filas desde arriba, así que las lecturas de una franja se alinean
+     * con {@link RowOverlap} y la posición de cada fila en la franja es su posición en la tabla. Las filas de las
+     * distintas franjas se unen por su {@code data-id} o, si no tienen, por esa posición; nunca por el
+     * desplazamiento de la lectura, que no sirve con filas de alto variable.</p>
+     */
+    static final class Builder {
+        private final String title;
+        private final List<String> headers = new ArrayList<>();
+        private final Map<String, Integer> headerScrollLeft = new LinkedHashMap<>();
+        private final Map<String, PartialRow> rows = new LinkedHashMap<>();
+        private final Map<Integer, Integer> bandRows = new LinkedHashMap<>();
+        private RowOverlap band;
+        private int bandLeft;
+
+        /**
+         * Fila de una lectura.
+         *
+         * @param id    clave declarada por la propia fila; vacía si no tiene.
+         * @param texts textos de todas las celdas renderizadas, para alinear la lectura.
+         * @param cells celdas con contenido, por cabecera.
+         */
+        record ReadRow(String id, List<String> texts, Map<String, TableSnapshot.Cell> cells) {
+        }
+
+        private static final class PartialRow {
+            private final String id;
+            private final int dataIndex;
+            private final int scrollTop;
+            private final Map<String, TableSnapshot.Cell> cells = new HashMap<>();
+
+            private PartialRow(String id, int dataIndex, int scrollTop) {
+                this.id = id;
+                this.dataIndex = dataIndex;
+                this.scrollTop = scrollTop;
+            }
+        }
+
+        Builder(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Añade una lectura hecha con el scroll indicado: las cabeceras nuevas se colocan a la derecha y las filas
+         * que la lectura comparte con la anterior de la misma franja se descartan.
+         *
+         * @throws IllegalStateException si no se puede saber qué filas de la lectura son nuevas.
+         */
+        void addRead(int left, int top, List<String> readHeaders, List<ReadRow> readRows) {
+            for (String header : readHeaders) {
+                if (!headerScrollLeft.containsKey(header)) {
+                    headers.add(header);
+                    headerScrollLeft.put(header, left);
+                }
+            }
+            if (band == null || left != bandLeft) {
+                band = new RowOverlap(title);
+                bandLeft = left;
+            }
+            List<String> signatures = readRows.stream().map(row -> RowOverlap.signature(row.id(), row.texts())).toList();
+            for (int i = band.overlap(signatures); i < readRows.size(); i++) {
+                ReadRow read = readRows.get(i);
+                int position = band.add(signatures.get(i));
+                String identity = read.id().isEmpty() ? "pos:" + position : "id:" + read.id();
+                PartialRow row = rows.computeIfAbsent(identity, k -> new PartialRow(read.id(), position, top));
+                read.cells().forEach(row.cells::putIfAbsent);
+                bandRows.merge(left, 1, Integer::sum);
+            }
+        }
+
+        TableGrid build(String... keyHeaders) {
+            if (bandRows.values().stream().distinct().count() > 1) {
+                LogUtil.warn(String.format("Las franjas de la tabla '%s' no leyeron el mismo número de filas %s:"
+                        + " la tabla cambió durante el recorrido.", title, bandRows.values()));
+            }
+            TableSnapshot.RowKeys keys = new TableSnapshot.RowKeys(title, headers, keyHeaders);
+            List<GridRow> built = new ArrayList<>(rows.size());
+            for (PartialRow row : rows.values()) {
+                Map<String, TableSnapshot.Cell> ordered = new LinkedHashMap<>();
+                for (String header : headers) {
+                    TableSnapshot.Cell cell = row.cells.get(header);
+                    if (cell != null) {
+                        ordered.put(header, cell);
+                    }
+                }
+                String key = keys.next(column -> ordered.getOrDefault(headers.get(column), EMPTY).text(), row.id, row.dataIndex);
+                built.add(new GridRow(row.dataIndex, key, row.scrollTop, ordered));
+            }
+            return new TableGrid(title, headers, headerScrollLeft, built);
+        }
+    }
+}
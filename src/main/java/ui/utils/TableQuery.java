@@ -0,0 +1,307 @@
+package ui.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Consulta declarativa sobre una copia de tabla ({@link TableSnapshot} o {@link TableGrid}) para encontrar
+ * datos de prueba sin recorrer elementos ni escribir bucles anidados.
+ *
+ * <pre>{@code
+ * Optional<TableQuery.Group> producto = TableQuery.from(grid)
+ *         .where(TableQuery.cell("Código producto", Cells.notEmpty()))
+ *         .groupBy("Código producto")
+ *         .having(grupo -> grupo.size() > 2 && grupo.allMatch("Julio", Cells.positive()))
+ *         .first();
+ * }</pre>
+ *
+ * <p>Las consultas son inmutables y perezosas: cada operación devuelve una consulta nueva y las filas solo se
+ * evalúan al pedir el resultado ({@link #first()}, {@link #list()}, {@link #count()}, {@link #stream()}), de
+ * modo que {@code first()} y {@code limit} dejan de evaluar filas en cuanto tienen el resultado. Solo
+ * {@code orderBy} y {@code groupBy} necesitan ver todas las filas que les llegan.</p>
+ *
+ * <p>Las cabeceras se comparan normalizadas (como {@link TableSnapshot#columnIndex(String)}); una cabecera que
+ * no existe lanza {@link IllegalArgumentException} al evaluarse.</p>
+ */
+public final class TableQuery {
+
+    private static final TableSnapshot.Cell EMPTY = new TableSnapshot.Cell("", "", "", List.of());
+
+    /**
+     * Fila de una consulta.
+     */
+    public static final class Row {
+        private final String key;
+        private final int dataIndex;
+        private final Function<String, TableSnapshot.Cell> cells;
+
+        private Row(String key, int dataIndex, Function<String, TableSnapshot.Cell> cells) {
+            this.key = key;
+            this.dataIndex = dataIndex;
+            this.cells = cells;
+        }
+
+        /**
+         * @return clave de la fila en la copia.
+         */
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return posición de la fila en la tabla completa.
+         */
+        public int dataIndex() {
+            return dataIndex;
+        }
+
+        /**
+         * @param header texto de la cabecera.
+         * @return la celda; vacía si no tiene contenido.
+         * @throws IllegalArgumentException si la columna no existe.
+         */
+        public TableSnapshot.Cell cell(String header) {
+            return cells.apply(header);
+        }
+
+        /**
+         * @param header texto de la cabecera.
+         * @return texto de la celda.
+         * @throws IllegalArgumentException si la columna no existe.
+         */
+        public String text(String header) {
+            return cell(header).text();
+        }
+    }
+
+    /**
+     * Grupo de filas con el mismo texto en la columna de agrupación.
+     *
+     * @param key  texto de la columna de agrupación.
+     * @param rows filas del grupo, en el orden de la tabla.
+     */
+    public record Group(String key, List<Row> rows) {
+
+        public Group {
+            rows = List.copyOf(rows);
+        }
+
+        /**
+         * @return número de filas del grupo.
+         */
+        public int size() {
+            return rows.size();
+        }
+
+        /**
+         * @param header    texto de la cabecera.
+         * @param condition condición sobre la celda.
+         * @return {@code true} si la celda de esa columna la cumple en todas las filas (se detiene en la primera
+         *         que no).
+         */
+        public boolean allMatch(String header, Predicate<TableSnapshot.Cell> condition) {
+            return rows.stream().allMatch(row -> condition.test(row.cell(header)));
+        }
+
+        /**
+         * @param header    texto de la cabecera.
+         * @param condition condición sobre la celda.
+         * @return {@code true} si la celda de esa columna la cumple en alguna fila.
+         */
+        public boolean anyMatch(String header, Predicate<TableSnapshot.Cell> condition) {
+            return rows.stream().anyMatch(row -> condition.test(row.cell(header)));
+        }
+    }
+
+    /**
+     * Consulta sobre los grupos de una {@link TableQuery}.
+     */
+    public static final class Groups {
+        private final Supplier<Stream<Group>> source;
+
+        private Groups(Supplier<Stream<Group>> source) {
+            this.source = source;
+        }
+
+        /**
+         * @param condition condición sobre cada grupo.
+         * @return grupos que la cumplen.
+         */
+        public Groups having(Predicate<Group> condition) {
+            return new Groups(() -> source.get().filter(condition));
+        }
+
+        /**
+         * @param order orden de los grupos.
+         * @return grupos ordenados.
+         */
+        public Groups orderBy(Comparator<Group> order) {
+            return new Groups(() -> source.get().sorted(order));
+        }
+
+        /**
+         * @param maxGroups número máximo de grupos.
+         * @return los primeros grupos.
+         */
+        public Groups limit(int maxGroups) {
+            return new Groups(() -> source.get().limit(maxGroups));
+        }
+
+        /**
+         * @return el primer grupo, si hay alguno.
+         */
+        public Optional<Group> first() {
+            return source.get().findFirst();
+        }
+
+        /**
+         * @return todos los grupos.
+         */
+        public List<Group> list() {
+            return source.get().toList();
+        }
+
+        /**
+         * @return los grupos, evaluados a medida que se consumen.
+         */
+        public Stream<Group> stream() {
+            return source.get();
+        }
+    }
+
+    private final Supplier<Stream<Row>> source;
+
+    private TableQuery(Supplier<Stream<Row>> source) {
+        this.source = source;
+    }
+
+    /**
+     * @param table copia de la tabla.
+     * @return consulta sobre todas sus filas.
+     */
+    public static TableQuery from(TableSnapshot table) {
+        Function<String, Integer> columns = headerResolver(table.title(), table.headers());
+        return new TableQuery(() -> table.rows().stream().map(row -> new Row(row.key(), row.dataIndex(), header -> {
+            TableSnapshot.Cell cell = row.cell(columns.apply(header));
+            return cell == null ? EMPTY : cell;
+        })));
+    }
+
+    /**
+     * @param grid copia dispersa de la tabla.
+     * @return consulta sobre todas sus filas.
+     */
+    public static TableQuery from(TableGrid grid) {
+        Function<String, Integer> columns = headerResolver(grid.title(), grid.headers());
+        return new TableQuery(() -> grid.rows().stream().map(row -> new Row(row.key(), row.dataIndex(),
+                header -> row.cell(grid.headers().get(columns.apply(header))))));
+    }
+
+    /**
+     * @param condition condición sobre cada fila.
+     * @return filas que la cumplen.
+     */
+    public TableQuery where(Predicate<Row> condition) {
+        return new TableQuery(() -> source.get().filter(condition));
+    }
+
+    /**
+     * @param order orden de las filas.
+     * @return filas ordenadas.
+     */
+    public TableQuery orderBy(Comparator<Row> order) {
+        return new TableQuery(() -> source.get().sorted(order));
+    }
+
+    /**
+     * @param maxRows número máximo de filas.
+     * @return las primeras filas.
+     */
+    public TableQuery limit(int maxRows) {
+        return new TableQuery(() -> source.get().limit(maxRows));
+    }
+
+    /**
+     * Agrupa las filas por el texto de una columna, conservando el orden en que aparece cada grupo.
+     *
+     * @param header texto de la cabecera de agrupación.
+     * @return consulta sobre los grupos.
+     */
+    public Groups groupBy(String header) {
+        return new Groups(() -> {
+            Map<String, List<Row>> groups = new LinkedHashMap<>();
+            source.get().forEach(row -> groups.computeIfAbsent(row.text(header), k -> new ArrayList<>()).add(row));
+            return groups.entrySet().stream().map(e -> new Group(e.getKey(), e.getValue()));
+        });
+    }
+
+    /**
+     * @return la primera fila, si hay alguna.
+     */
+    public Optional<Row> first() {
+        return source.get().findFirst();
+    }
+
+    /**
+     * @return todas las filas.
+     */
+    public List<Row> list() {
+        return source.get().toList();
+    }
+
+    /**
+     * @return número de filas.
+     */
+    public long count() {
+        return source.get().count();
+    }
+
+    /**
+     * @return las filas, evaluadas a medida que se consumen.
+     */
+    public Stream<Row> stream() {
+        return source.get();
+    }
+
+    /**
+     * @param header    texto de la cabecera.
+     * @param condition condición sobre la celda de esa columna.
+     * @return condición sobre la fila.
+     */
+    public static Predicate<Row> cell(String header, Predicate<TableSnapshot.Cell> condition) {
+        return row -> condition.test(row.cell(header));
+    }
+
+    /**
+     * @param headers   textos de las cabeceras.
+     * @param condition condición sobre cada celda.
+     * @return condición que se cumple si todas las celdas de esas columnas la cumplen (se detiene en la primera
+     *         que no).
+     */
+    public static Predicate<Row> allCells(List<String> headers, Predicate<TableSnapshot.Cell> condition) {
+        return row -> headers.stream().allMatch(header -> condition.test(row.cell(header)));
+    }
+
+    /**
+     * Índice de columna por texto de cabecera, resuelto una sola vez por texto.
+     */
+    private static Function<String, Integer> headerResolver(String title, List<String> headers) {
+        Map<String, Integer> resolved = new HashMap<>();
+        return header -> resolved.computeIfAbsent(header, h -> {
+            int index = TableSnapshot.indexOf(headers, h);
+            if (index < 0) {
+                throw new IllegalArgumentException("La tabla '" + title + "' no tiene la columna '" + h + "'");
+            }
+            return index;
+        });
+    }
+}
@@ -0,0 +1,413 @@
+package ui.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * Copia inmutable del contenido renderizado de una tabla, leída del navegador en una sola llamada.
+ *
+ * <p>La obtiene {@link TableUtil#snapshot(String)}: un único {@code executeScript} devuelve las cabeceras y,
+ * por cada fila visible del cuerpo, el texto, las clases CSS, el estilo en línea y las clases de los íconos de
+ * cada celda (sin contar las celdas {@code spacer}). Las búsquedas y comprobaciones sobre la copia no hacen
+ * ninguna llamada al driver; para interactuar con una celda se vuelve a localizar con
+ * {@link TableUtil#getCellElement(int, int, String)} usando {@link Row#index()} y la columna.</p>
+ *
+ * <p>Cada fila lleva una clave: el texto de las columnas clave pedidas o, si no se piden, la indicada por la
+ * propia fila ({@code data-id}, {@code data-key}, {@code data-row-key} o {@code id}) o su posición en la tabla. Las claves
+ * repetidas se distinguen con el sufijo {@code #2}, {@code #3}...</p>
+ *
+ * <p>Las copias de {@link TableUtil#harvest(String, String...)} reúnen todas las filas de una tabla con scroll
+ * virtual, no solo las renderizadas.</p>
+ */
+public final class TableSnapshot {
+
+    /** Fondo rosa con el que la tabla marca las celdas con pedido pendiente. */
+    private static final String PENDING_ORDER_BACKGROUND = "rgb(254, 222, 255)";
+
+    /** Separador entre los textos de las columnas que forman la clave de una fila. */
+    private static final String KEY_SEPARATOR = " | ";
+
+    /**
+     * Define {@code readTable(table)}, que devuelve {@code {headers, rows}}. Las cabeceras salen de la fila de
+     * cabecera real (sin la de selectores de columnas) y las celdas, de las filas y celdas visibles. La posición
+     * de cada fila en los datos se obtiene del desplazamiento ({@code translateY}) con el que el scroll virtual
+     * coloca las filas renderizadas.
+     */
+    static final String READ_FUNCTION =
+            "function readTable(table) {"
+            + "  function text(el) { return (el.innerText || el.textContent || '').replace(/\\u00a0/g, ' ').trim(); }"
+            + "  function visible(el) { return el.getClientRects().length > 0; }"
+            + "  var ths = table.querySelectorAll('thead tr.imperia-table-header-row:not(.columns-selectors) th:not(.spacer)');"
+            + "  if (!ths.length) { ths = table.querySelectorAll('thead th:not(.spacer)'); }"
+            + "  var headers = [], rows = [];"
+            + "  for (var h = 0; h < ths.length; h++) { headers.push(text(ths[h])); }"
+            + "  var trs = table.tBodies.length ? table.querySelectorAll('tbody > tr') : [];"
+            + "  var wrapper = table.closest('.cdk-virtual-scroll-content-wrapper') || table.querySelector('.cdk-virtual-scroll-content-wrapper');"
+            + "  var first = 0, transform = wrapper ? getComputedStyle(wrapper).transform : 'none';"
+            + "  if (transform && transform !== 'none' && trs.length && trs[0].offsetHeight) {"
+            + "    first = Math.round(new DOMMatrixReadOnly(transform).m42 / trs[0].offsetHeight);"
+            + "  }"
+            + "  for (var r = 0; r < trs.length; r++) {"
+            + "    var tr = trs[r];"
+            + "    if (!visible(tr)) { continue; }"
+            + "    var cells = [];"
+            + "    for (var c = 0; c < tr.children.length; c++) {"
+            + "      var td = tr.children[c];"
+            + "      if (td.tagName !== 'TD' || td.classList.contains('spacer') || !visible(td)) { continue; }"
+            + "      var icons = [], is = td.querySelectorAll('i');"
+            + "      for (var i = 0; i < is.length; i++) { icons.push(is[i].getAttribute('class') || ''); }"
+            + "      cells.push({text: text(td), cssClass: td.getAttribute('class') || '', style: td.getAttribute('style') || '', icons: icons});"
+            + "    }"
+            + "    rows.push({id: tr.getAttribute('data-id') || tr.getAttribute('data-key') || tr.getAttribute('data-row-key') || tr.id || '', index: rows.length, dataIndex: first + rows.length, cells: cells});"
+            + "  }"
+            + "  return {headers: headers, rows: rows};"
+            + "}";
+
+    /** Devuelve {@code readTable(arguments[0])}. */
+    static final String SCRIPT = READ_FUNCTION + "return readTable(arguments[0]);";
+
+    private final String title;
+    private final List<String> headers;
+    private final List<Row> rows;
+    private final Map<String, Row> rowsByKey;
+
+    /**
+     * Celda de la copia.
+     *
+     * @param text        texto visible, sin espacios al principio ni al final.
+     * @param cssClass    atributo {@code class} de la celda.
+     * @param style       atributo {@code style} de la celda.
+     * @param iconClasses atributo {@code class} de cada {@code <i>} de la celda.
+     */
+    public record Cell(String text, String cssClass, String style, List<String> iconClasses) {
+
+        public Cell {
+            iconClasses = List.copyOf(iconClasses);
+        }
+
+        /**
+         * @return {@code true} si la celda está modificada (algún ícono con una clase que contiene {@code "lock"}).
+         */
+        public boolean isModified() {
+            return iconClasses.stream().anyMatch(c -> c.contains("lock"));
+        }
+
+        /**
+         * @return {@code true} si la celda tiene un pedido pendiente (fondo rosa {@code rgb(254, 222, 255)}).
+         */
+        public boolean hasPendingOrder() {
+            return style.contains(PENDING_ORDER_BACKGROUND);
+        }
+
+        /**
+         * @param cssClassName nombre de clase CSS.
+         * @return {@code true} si la celda tiene esa clase.
+         */
+        public boolean hasClass(String cssClassName) {
+            return List.of(cssClass.trim().split("\\s+")).contains(cssClassName);
+        }
+    }
+
+    /**
+     * Fila visible de la copia.
+     *
+     * @param index     posición de la fila entre las filas renderizadas cuando se leyó (la que usa
+     *                  {@link TableUtil#getCellElement(int, int, String)}).
+     * @param dataIndex posición de la fila en la tabla completa; en las tablas con scroll virtual cuenta también
+     *                  las filas no renderizadas.
+     * @param key       clave de la fila.
+     * @param cells     celdas de la fila, sin las {@code spacer}.
+     */
+    public record Row(int index, int dataIndex, String key, List<Cell> cells) {
+
+        public Row {
+            cells = List.copyOf(cells);
+        }
+
+        /**
+         * @param column índice de columna.
+         * @return la celda, o {@code null} si la fila no tiene esa columna.
+         */
+        public Cell cell(int column) {
+            return column >= 0 && column < cells.size() ? cells.get(column) : null;
+        }
+
+        /**
+         * @param column índice de columna.
+         * @return el texto de la celda, o cadena vacía si la fila no tiene esa columna.
+         */
+        public String text(int column) {
+            Cell cell = cell(column);
+            return cell == null ? "" : cell.text();
+        }
+    }
+
+    private TableSnapshot(String title, List<String> headers, List<Row> rows) {
+        this.title = title;
+        this.headers = List.copyOf(headers);
+        this.rows = List.copyOf(rows);
+        Map<String, Row> byKey = new LinkedHashMap<>();
+        for (Row row : this.rows) {
+            byKey.put(row.key(), row);
+        }
+        this.rowsByKey = Collections.unmodifiableMap(byKey);
+    }
+
+    /**
+     * Asigna la clave de cada fila a medida que se leen, en el orden de la tabla, para que las claves repetidas
+     * reciban el mismo sufijo aunque las filas lleguen en varias lecturas.
+     *
+     * <p>Con lecturas solapadas ({@link #parseNewRows}) alinea además cada lectura con las filas ya leídas
+     * ({@link RowOverlap}) para descartar las que se repiten al principio.</p>
+     */
+    static final class RowKeys {
+        private final int[] keyColumns;
+        private final Map<String, Integer> keyCount = new HashMap<>();
+        private final RowOverlap overlap;
+
+        /**
+         * @param title      título de la tabla.
+         * @param headers    cabeceras de la tabla.
+         * @param keyHeaders cabeceras de las columnas que forman la clave; vacío para usar la clave de la
+         *                   propia fila o su posición.
+         * @throws IllegalArgumentException si alguna cabecera clave no existe en la tabla.
+         */
+        RowKeys(String title, List<String> headers, String... keyHeaders) {
+            overlap = new RowOverlap(title);
+            keyColumns = new int[keyHeaders.length];
+            for (int i = 0; i < keyHeaders.length; i++) {
+                keyColumns[i] = indexOf(headers, keyHeaders[i]);
+                if (keyColumns[i] < 0) {
+                    throw new IllegalArgumentException("La tabla '" + title + "' no tiene la columna clave '" + keyHeaders[i] + "'");
+                }
+            }
+        }
+
+        /**
+         * @param textAt    texto de la celda de cada columna de la fila.
+         * @param id        clave declarada por la propia fila; vacía si no tiene.
+         * @param dataIndex posición de la fila en la tabla.
+         * @return clave de la fila, con sufijo si ya se asignó antes.
+         */
+        String next(IntFunction<String> textAt, String id, int dataIndex) {
+            String key;
+            if (keyColumns.length > 0) {
+                StringBuilder joined = new StringBuilder();
+                for (int column : keyColumns) {
+                    if (!joined.isEmpty()) {
+                        joined.append(KEY_SEPARATOR);
+                    }
+                    joined.append(textAt.apply(column));
+                }
+                key = joined.toString();
+            } else {
+                key = id.isEmpty() ? String.valueOf(dataIndex) : id;
+            }
+            int occurrence = keyCount.merge(key, 1, Integer::sum);
+            return occurrence == 1 ? key : key + "#" + occurrence;
+        }
+    }
+
+    /**
+     * Construye la copia a partir del resultado de {@link #SCRIPT}.
+     *
+     * @param title      título de la tabla.
+     * @param raw        resultado del script.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila; vacío para usar la
+     *                   clave de la propia fila o su posición.
+     * @throws IllegalArgumentException si alguna cabecera clave no existe en la tabla.
+     */
+    static TableSnapshot fromScript(String title, Object raw, String... keyHeaders) {
+        List<String> headers = parseHeaders(raw);
+        return new TableSnapshot(title, headers, parseRows(raw, new RowKeys(title, headers, keyHeaders)));
+    }
+
+    /**
+     * Construye una copia con filas ya leídas (por ejemplo, reunidas de varias lecturas).
+     */
+    static TableSnapshot of(String title, List<String> headers, List<Row> rows) {
+        return new TableSnapshot(title, headers, rows);
+    }
+
+    /**
+     * @param raw resultado de {@code readTable}.
+     * @return cabeceras leídas.
+     */
+    @SuppressWarnings("unchecked")
+    static List<String> parseHeaders(Object raw) {
+        List<String> headers = new ArrayList<>();
+        for (Object header : (List<Object>) asMap(raw).getOrDefault("headers", List.of())) {
+            headers.add(String.valueOf(header));
+        }
+        return headers;
+    }
+
+    /**
+     * @param raw  resultado de {@code readTable}.
+     * @param keys asignación de claves de la tabla.
+     * @return filas leídas, en el orden de la tabla.
+     */
+    static List<Row> parseRows(Object raw, RowKeys keys) {
+        List<Row> rows = new ArrayList<>();
+        for (Map<String, Object> rowMap : rawRows(raw)) {
+            List<Cell> cells = parseCells(rowMap);
+            int dataIndex = ((Number) rowMap.get("dataIndex")).intValue();
+            rows.add(new Row(((Number) rowMap.get("index")).intValue(), dataIndex,
+                    keys.next(textAt(cells), String.valueOf(rowMap.get("id")), dataIndex), cells));
+        }
+        return rows;
+    }
+
+    /**
+     * Filas nuevas de una lectura que se solapa con la anterior (recorrido del scroll virtual). Las filas se
+     * reconocen por su firma ({@code data-id} o texto de todas sus celdas, ver {@link RowOverlap}) y no por su
+     * desplazamiento, que no sirve con filas de alto variable; las repetidas al principio de la lectura se
+     * descartan sin consumir clave. La posición en la tabla ({@link Row#dataIndex()}) es el número de filas
+     * leídas antes.
+     *
+     * @param raw  resultado de {@code readTable}.
+     * @param keys asignación de claves del recorrido.
+     * @return filas nuevas, en el orden de la tabla.
+     * @throws IllegalStateException si no se puede saber cuántas filas de la lectura ya se habían leído.
+     */
+    static List<Row> parseNewRows(Object raw, RowKeys keys) {
+        List<Map<String, Object>> rawRows = rawRows(raw);
+        List<List<Cell>> cellsByRow = new ArrayList<>();
+        List<String> identities = new ArrayList<>();
+        for (Map<String, Object> rowMap : rawRows) {
+            List<Cell> cells = parseCells(rowMap);
+            cellsByRow.add(cells);
+            identities.add(RowOverlap.signature(String.valueOf(rowMap.get("id")), cells.stream().map(Cell::text).toList()));
+        }
+
+        List<Row> rows = new ArrayList<>();
+        for (int i = keys.overlap.overlap(identities); i < rawRows.size(); i++) {
+            Map<String, Object> rowMap = rawRows.get(i);
+            List<Cell> cells = cellsByRow.get(i);
+            int dataIndex = keys.overlap.add(identities.get(i));
+            rows.add(new Row(((Number) rowMap.get("index")).intValue(), dataIndex,
+                    keys.next(textAt(cells), String.valueOf(rowMap.get("id")), dataIndex), cells));
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> rawRows(Object raw) {
+        return (List<Map<String, Object>>) asMap(raw).getOrDefault("rows", List.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Cell> parseCells(Map<String, Object> rowMap) {
+        List<Cell> cells = new ArrayList<>();
+        for (Object rawCell : (List<Object>) rowMap.get("cells")) {
+            cells.add(parseCell(rawCell));
+        }
+        return cells;
+    }
+
+    private static IntFunction<String> textAt(List<Cell> cells) {
+        return column -> column < cells.size() ? cells.get(column).text() : "";
+    }
+
+    /**
+     * @param raw celda leída por {@code readTable} ({@code {text, cssClass, style, icons}}).
+     * @return la celda.
+     */
+    @SuppressWarnings("unchecked")
+    static Cell parseCell(Object raw) {
+        Map<String, Object> cellMap = asMap(raw);
+        List<String> icons = new ArrayList<>();
+        for (Object icon : (List<Object>) cellMap.getOrDefault("icons", List.of())) {
+            icons.add(String.valueOf(icon));
+        }
+        return new Cell(String.valueOf(cellMap.get("text")), String.valueOf(cellMap.get("cssClass")),
+                String.valueOf(cellMap.get("style")), icons);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> asMap(Object raw) {
+        return raw instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    static int indexOf(List<String> headers, String headerText) {
+        String target = TableUtil.norm(headerText);
+        for (int i = 0; i < headers.size(); i++) {
+            if (TableUtil.norm(headers.get(i)).equals(target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return título de la tabla.
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * @return textos de las cabeceras, de izquierda a derecha y sin las {@code spacer}.
+     */
+    public List<String> headers() {
+        return headers;
+    }
+
+    /**
+     * Índice de la columna cuya cabecera coincide con el texto indicado (comparación normalizada: sin
+     * distinguir mayúsculas, espacios duplicados ni NBSP).
+     *
+     * @param headerText texto de la cabecera.
+     * @return índice basado en 0, o {@code -1} si no hay ninguna columna con esa cabecera.
+     */
+    public int columnIndex(String headerText) {
+        return indexOf(headers, headerText);
+    }
+
+    /**
+     * @return filas visibles, en el orden de la tabla.
+     */
+    public List<Row> rows() {
+        return rows;
+    }
+
+    /**
+     * @param index posición de la fila.
+     * @return la fila.
+     * @throws IndexOutOfBoundsException si no hay fila en esa posición.
+     */
+    public Row row(int index) {
+        if (index < 0 || index >= rows.size()) {
+            throw new IndexOutOfBoundsException("Índice de fila fuera de rango: " + index);
+        }
+        return rows.get(index);
+    }
+
+    /**
+     * @param key clave de la fila.
+     * @return la fila con esa clave, si existe.
+     */
+    public Optional<Row> findRow(String key) {
+        return Optional.ofNullable(rowsByKey.get(key));
+    }
+
+    /**
+     * @param rowIndex    posición de la fila.
+     * @param columnIndex índice de la columna.
+     * @return la celda.
+     * @throws IndexOutOfBoundsException si no hay fila o columna en esa posición.
+     */
+    public Cell cell(int rowIndex, int columnIndex) {
+        Cell cell = row(rowIndex).cell(columnIndex);
+        if (cell == null) {
+            throw new IndexOutOfBoundsException("Índice de columna fuera de rango: " + columnIndex);
+        }
+        return cell;
+    }
+}
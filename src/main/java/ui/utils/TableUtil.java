@@ -15,6 +15,7 @@ import java.time.format.TextStyle;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -31,6 +32,8 @@ public class TableUtil {
 
     private final WebDriver driver;
     private final WaitUtil waitUtil;
+    private final VirtualScrollHarvester harvester;
+    private final HeaderIndexCache headerIndexes;
     private final By tableLocator = By.xpath("//*[@id='calculation-history-table']");
     private final By inputDecimal = By.cssSelector("input.p-inputtext.p-inputnumber-input");
 
@@ -48,18 +51,41 @@ public class TableUtil {
     // Detalles completos de celdas válidas encontradas (una lista de objetos)
     private final List<CellData> lastMatchingCells = new ArrayList<>();
 
+    // Columna que identifica los productos en las tablas de previsiones
+    private static final String PRODUCT_CODE_HEADER = "Código producto";
+
     // Clase interna o externa para representar los datos de una celda
     public static class CellData {
+        private final String rowKey;
+        private final String header;
         private final int rowIndex;
         private final int columnIndex;
         private String value;
 
         public CellData(int rowIndex, int columnIndex, String value) {
+            this(null, null, rowIndex, columnIndex, value);
+        }
+
+        /**
+         * Celda de una copia obtenida con {@link TableUtil#harvestGrid(String, String...)}: además de su posición
+         * en la tabla completa conserva la clave de la fila y la cabecera, que no cambian al desplazar la tabla.
+         */
+        public CellData(String rowKey, String header, int rowIndex, int columnIndex, String value) {
+            this.rowKey = rowKey;
+            this.header = header;
             this.rowIndex = rowIndex;
             this.columnIndex = columnIndex;
             this.value = value;
         }
 
+        public String getRowKey() {
+            return rowKey;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
         public int getRowIndex() {
             return rowIndex;
         }
@@ -118,6 +144,8 @@ public class TableUtil {
     public TableUtil(PageManager pageManager) {
         this.driver = pageManager.getDriver();
         this.waitUtil = pageManager.getWaitUtil();
+        this.harvester = new VirtualScrollHarvester(driver, waitUtil);
+        this.headerIndexes = new HeaderIndexCache(driver);
     }
 
     /**
@@ -197,12 +225,14 @@ public class TableUtil {
      *
      * <p><b>Flujo:</b></p>
      * <ol>
-     *   <li>Intenta hasta 4 veces localizar la cabecera de la tabla.</li>
+     *   <li>Si la cabecera de la tabla ya se leyó y no ha cambiado desde entonces (lo vigila un
+     *       {@code MutationObserver}), devuelve el índice guardado sin volver a leerla.</li>
+     *   <li>Si no, intenta hasta 4 veces localizar la cabecera de la tabla.</li>
      *   <li>Filtra la fila de cabecera "real" (excluyendo las filas de selectores de columnas).</li>
-     *   <li>Toma dos snapshots rápidos de los textos de cabecera con una breve pausa entre ellos
-     *       (100 ms) para comprobar que los valores sean estables.</li>
-     *   <li>Si los snapshots difieren, asume que la cabecera estaba en transición y reintenta
-     *       después de una pausa (200 ms).</li>
+     *   <li>Espera con {@link WaitUtil#waitForDomQuiet(WebElement, long, long)} a que la fila de cabecera lleve
+     *       100 ms sin cambios (máximo 2 s) y toma un único snapshot de los textos, que queda guardado hasta
+     *       que la cabecera cambie.</li>
+     *   <li>Si la cabecera no se estabiliza, asume que estaba en transición y reintenta.</li>
      *   <li>Cuando obtiene un snapshot estable, busca el texto normalizado de la cabecera
      *       que coincida con {@code headerText}.</li>
      *   <li>Si lo encuentra, devuelve su índice (basado en 0, de izquierda a derecha).</li>
@@ -225,16 +255,22 @@ public class TableUtil {
      * @throws RuntimeException si ocurre un error inesperado al acceder al DOM (diferente de los manejados).
      *
      * @see #getTable(String)
-     * @see #snapshotHeaderTexts(WebElement)
-     * @see waitUtil#sleepMillis(long, String)
+     * @see HeaderIndexCache
+     * @see WaitUtil#waitForDomQuiet(WebElement, long, long)
      */
     public int getColumnIndexByHeader(String headerText, String tableTitle) {
         final int attempts = 4;
         final int pauseBetweenAttemptsMillis = 200;
-        final int stabilityCheckMillis = 100; // pausa corta para comprobar estabilidad
+        final int headerQuietMillis = 100; // tiempo sin cambios para considerar estable la cabecera
+        final int headerQuietTimeoutMillis = 2000;
 
         String target = norm(headerText);
 
+        Map<String, Integer> cached = headerIndexes.current(tableTitle);
+        if (cached != null && cached.containsKey(target)) {
+            return cached.get(target);
+        }
+
         for (int i = 1; i <= attempts; i++) {
             try {
                 LogUtil.info("Intento " + i + " - Buscando '" + headerText + "' en tabla '" + tableTitle + "'");
@@ -245,23 +281,18 @@ public class TableUtil {
                         table.findElement(By.cssSelector("thead tr.imperia-table-header-row:not(.columns-selectors)"))
                 );
 
-                // Tomamos dos snapshots rápidos de los textos de cabecera y los comparamos
-                List<String> snap1 = snapshotHeaderTexts(headerRow);
-                waitUtil.sleepMillis(stabilityCheckMillis, "Pausa corta para chequeo de estabilidad");
-                List<String> snap2 = snapshotHeaderTexts(headerRow);
-
-                if (!snap1.equals(snap2)) {
-                    LogUtil.warn("Cabeceras inestables entre snapshots (intento " + i + "), reintentando");
-                    waitUtil.sleepMillis(pauseBetweenAttemptsMillis, "Tiempo de espera entre intentos");
+                // Esperamos a que la cabecera deje de cambiar y tomamos un único snapshot
+                if (!waitUtil.waitForDomQuiet(headerRow, headerQuietMillis, headerQuietTimeoutMillis)) {
+                    LogUtil.warn("Cabeceras inestables (intento " + i + "), reintentando");
                     continue; // reintenta si no fue estable
                 }
+                Map<String, Integer> indexes = headerIndexes.load(tableTitle, headerRow);
 
                 // Busca el índice en el snapshot estable
-                for (int colIndex = 0; colIndex < snap1.size(); colIndex++) {
-                    if (snap1.get(colIndex).equals(target)) {
-                        LogUtil.info("Columna encontrada: '" + headerText + "' en índice " + colIndex);
-                        return colIndex;
-                    }
+                Integer colIndex = indexes.get(target);
+                if (colIndex != null) {
+                    LogUtil.info("Columna encontrada: '" + headerText + "' en índice " + colIndex);
+                    return colIndex;
                 }
 
                 LogUtil.warn("No se encontró la columna '" + headerText + "' en intento " + i);
@@ -272,27 +303,12 @@ public class TableUtil {
                 LogUtil.warn("Error al buscar columna '" + headerText + "': " + e.getMessage());
             }
 
-            waitUtil.sleepMillis(pauseBetweenAttemptsMillis, "Tiempo de espera entre intentos");
+            waitUtil.waitForDomQuiet(null, pauseBetweenAttemptsMillis, pauseBetweenAttemptsMillis * 5L);
         }
 
         return -1;
     }
 
-    /**
-     * Lee y normaliza (con {@code norm(...)}) el textContent de las celdas de cabecera
-     * excluyendo .spacer. Lanza StaleElementReferenceException si ocurre durante la lectura.
-     */
-    private List<String> snapshotHeaderTexts(WebElement headerRow) {
-        List<WebElement> headers = headerRow.findElements(By.cssSelector("th.imperia-table-header-cell:not(.spacer)"));
-        List<String> texts = new ArrayList<>(headers.size());
-        for (WebElement th : headers) {
-            // usamos textContent para incluir NBSPs antes de normalizar
-            String raw = th.getAttribute("textContent");
-            texts.add(norm(raw));
-        }
-        return texts;
-    }
-
     /**
      * Normaliza una cadena para comparaciones robustas en UI.
      * <p>Transformaciones aplicadas, en orden:</p>
@@ -317,7 +333,7 @@ public class TableUtil {
      * @param s texto de entrada (puede ser {@code null}).
      * @return cadena normalizada apta para comparación exacta.
      */
-    private String norm(String s) {
+    static String norm(String s) {
         if (s == null) return "";
         // Normaliza a NFKC para homogeneizar puntos/espacios
         s = java.text.Normalizer.normalize(s, java.text.Normalizer.Form.NFKC);
@@ -400,6 +416,10 @@ public class TableUtil {
      * </ul>
      */
     public WebElement getFirstCellElementByHeaderName(String headerText, String tableTitle) {
+        // Las columnas de períodos pueden estar fuera del rango renderizado por el scroll horizontal
+        if (!harvester.revealColumn(getTable(tableTitle), headerText)) {
+            LogUtil.warn("La columna '" + headerText + "' no aparece al recorrer la tabla '" + tableTitle + "'.");
+        }
         int columnIndex = getColumnIndexByHeader(headerText, tableTitle);
         if (columnIndex == -1)
             throw new IllegalArgumentException("No se encontró la columna con encabezado: '" + headerText + "'");
@@ -543,8 +563,9 @@ public class TableUtil {
     /**
      * Espera a que se rendericen las filas visibles de una tabla con scroll virtual (cdk-virtual-scroll).
      *
-     * <p>Este metodo detecta y espera dinámicamente a que el número de filas se estabilice,
-     * para evitar errores causados por carga asincrónica o renderizado progresivo.</p>
+     * <p>Este metodo espera con {@link WaitUtil#waitForDomQuiet(WebElement, long, long)} a que el contenedor de
+     * filas deje de cambiar (100 ms de calma, máximo 500 ms), para evitar errores causados por carga
+     * asincrónica o renderizado progresivo, y cuenta las filas una sola vez.</p>
      *
      * @return Número final de filas renderizadas visibles en el DOM.
      */
@@ -555,42 +576,248 @@ public class TableUtil {
         LogUtil.info("Esperando a que se rendericen completamente las filas en la tabla localizada: " + tableLocator);
 
         int maxWaitMs = 500; // Tiempo máximo total de espera (en milisegundos).
-        int pollingInterval = 200; // Intervalo entre verificaciones.
-        int previousCount = -1;
-        int currentCount = 0;
-        int waited = 0;
+        int quietMs = 100; // Tiempo sin cambios para considerar estable el renderizado.
+
+        List<WebElement> wrappers = table.findElements(By.cssSelector(".cdk-virtual-scroll-content-wrapper"));
+        waitUtil.waitForDomQuiet(wrappers.isEmpty() ? table : wrappers.get(0), quietMs, maxWaitMs);
+        int currentCount = table.findElements(rowsLocator).size();
+
+        LogUtil.info("Se encontraron " + currentCount + " filas renderizadas en la tabla localizada.");
+        return currentCount;
+    }
+
+    /**
+     * Toma una copia inmutable de la tabla (cabeceras, textos, clases, estilos e íconos de las celdas visibles)
+     * con una única llamada {@code executeScript}.
+     *
+     * <p>Antes de leerla espera a que la tabla lleve 100 ms sin cambios (máximo 2 s), de modo que el
+     * renderizado del scroll virtual haya terminado. Las filas se identifican por su posición o por la clave
+     * que declare la propia fila (ver {@link TableSnapshot}).</p>
+     *
+     * @param tableTitle título visible de la tabla.
+     * @return copia de la tabla.
+     */
+    public TableSnapshot snapshot(String tableTitle) {
+        return snapshot(tableTitle, new String[0]);
+    }
+
+    /**
+     * Toma una copia inmutable de la tabla identificando cada fila por el texto de las columnas indicadas.
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de negocio de cada fila
+     *                   (por ejemplo, "Código producto").
+     * @return copia de la tabla.
+     * @throws IllegalArgumentException si alguna cabecera clave no existe en la tabla.
+     * @see #snapshot(String)
+     */
+    public TableSnapshot snapshot(String tableTitle, String... keyHeaders) {
+        Object raw;
+        try {
+            raw = readSnapshot(tableTitle);
+        } catch (StaleElementReferenceException e) {
+            LogUtil.warn("La tabla '" + tableTitle + "' se re-renderizó durante la lectura; se vuelve a leer.");
+            raw = readSnapshot(tableTitle);
+        }
+        TableSnapshot snapshot = TableSnapshot.fromScript(tableTitle, raw, keyHeaders);
+        LogUtil.info(String.format("Tabla '%s' leída: %d columnas, %d filas visibles.",
+                tableTitle, snapshot.headers().size(), snapshot.rows().size()));
+        return snapshot;
+    }
+
+    /**
+     * Toma una copia inmutable de una tabla ya localizada, para las tablas que no se identifican por un título
+     * visible (por ejemplo, detalles dentro de paneles).
+     *
+     * @param table       tabla localizada.
+     * @param description nombre de la tabla en la copia y en los logs.
+     * @return copia de la tabla.
+     * @see #snapshot(String)
+     */
+    public TableSnapshot snapshot(WebElement table, String description) {
+        TableSnapshot snapshot = TableSnapshot.fromScript(description, readSnapshot(table));
+        LogUtil.info(String.format("Tabla '%s' leída: %d columnas, %d filas visibles.",
+                description, snapshot.headers().size(), snapshot.rows().size()));
+        return snapshot;
+    }
+
+    private Object readSnapshot(String tableTitle) {
+        return readSnapshot(getTable(tableTitle));
+    }
+
+    private Object readSnapshot(WebElement table) {
+        waitUtil.waitForDomQuiet(table, 100, 2000);
+        return ((JavascriptExecutor) driver).executeScript(TableSnapshot.SCRIPT, table);
+    }
+
+    /**
+     * Recorre todas las filas de una tabla con scroll virtual, incluidas las que no están renderizadas, y las
+     * entrega una a una al visitante en el orden de la tabla.
+     *
+     * <p>Desplaza la tabla de pantalla en pantalla esperando cada renderizado con un {@code MutationObserver}
+     * (una llamada al navegador por salto) y no repite las filas del solape. En cuanto el visitante devuelve
+     * {@code true} el recorrido se detiene y la fila queda renderizada, de modo que
+     * {@link #getCellElement(int, int, String)} con {@link TableSnapshot.Row#index()} localiza sus celdas.</p>
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param visitor    recibe cada fila; devuelve {@code true} para detener el recorrido.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila (opcional).
+     * @return la fila en la que se detuvo el recorrido, o vacío si se recorrió la tabla completa.
+     */
+    public Optional<TableSnapshot.Row> scanRows(String tableTitle, Predicate<TableSnapshot.Row> visitor, String... keyHeaders) {
+        return harvester.scan(tableTitle, () -> getTable(tableTitle), visitor, keyHeaders, null, null);
+    }
+
+    /**
+     * Copia completa en memoria de una tabla con scroll virtual: todas sus filas, no solo las renderizadas.
+     *
+     * <p>Las filas conservan en {@link TableSnapshot.Row#dataIndex()} su posición en la tabla; al terminar, el
+     * scroll de la tabla vuelve al principio.</p>
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila (opcional).
+     * @return copia con todas las filas de la tabla.
+     * @see #scanRows(String, Predicate, String...)
+     */
+    public TableSnapshot harvest(String tableTitle, String... keyHeaders) {
+        return harvester.harvest(tableTitle, () -> getTable(tableTitle), keyHeaders);
+    }
+
+    /**
+     * Copia dispersa en memoria de una tabla con scroll virtual en las dos direcciones: todas sus filas y todas
+     * sus columnas, incluidas las de períodos (meses, semanas, días) que no estaban renderizadas.
+     *
+     * <p>Recorre la tabla por franjas verticales en pocas llamadas al navegador (cada una trabaja unos segundos
+     * y devuelve dónde continuar) y guarda solo las celdas con contenido, indexadas por (clave de fila,
+     * cabecera). Al terminar, el scroll de la tabla vuelve al origen.</p>
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila (por ejemplo, "Código producto").
+     * @return copia dispersa de la tabla.
+     * @throws IllegalArgumentException si alguna cabecera clave no existe en la tabla.
+     */
+    public TableGrid harvestGrid(String tableTitle, String... keyHeaders) {
+        return harvester.harvestGrid(tableTitle, () -> getTable(tableTitle), keyHeaders);
+    }
 
-        while (waited < maxWaitMs) {
-            List<WebElement> rows = table.findElements(rowsLocator);
-            currentCount = rows.size();
+    /**
+     * Como {@link #harvestGrid(String, String...)}, pero solo recorre las franjas horizontales en las que se
+     * muestran las columnas indicadas y termina en cuanto las ha leído todas. La copia incluye además las otras
+     * columnas renderizadas en esas franjas (por ejemplo, las fijas).
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param columns    cabeceras de las columnas que se necesitan (por ejemplo, las de {@link #harvestHeaders}).
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila.
+     * @return copia dispersa de la tabla, limitada a esas franjas.
+     * @throws IllegalArgumentException si alguna cabecera clave no existe en la copia.
+     */
+    public TableGrid harvestGrid(String tableTitle, List<String> columns, String... keyHeaders) {
+        return harvester.harvestGrid(tableTitle, () -> getTable(tableTitle), columns, keyHeaders);
+    }
 
-            if (currentCount == previousCount) {
-                break; // el conteo se estabilizó
+    /**
+     * Cabeceras de una tabla con scroll virtual horizontal, incluidas las columnas de períodos que no estaban
+     * renderizadas. Solo recorre la fila de cabecera, sin leer filas.
+     *
+     * @param tableTitle título visible de la tabla.
+     * @return textos de las cabeceras, de izquierda a derecha.
+     */
+    public List<String> harvestHeaders(String tableTitle) {
+        return harvester.harvestHeaders(tableTitle, () -> getTable(tableTitle));
+    }
+
+    /**
+     * Vuelve a mostrar una celda de una copia obtenida con {@link #harvestGrid(String, String...)} y retorna
+     * su elemento.
+     *
+     * <p>Lleva el scroll a la posición en la que se leyeron la fila y la columna, espera el renderizado y
+     * localiza la fila por su contenido: la única fila renderizada con los mismos textos que la copia.</p>
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param grid       copia de la tabla.
+     * @param rowKey     clave de la fila.
+     * @param headerText texto de la cabecera.
+     * @return la celda.
+     * @throws IllegalArgumentException si la copia no tiene la fila o la columna.
+     * @throws NoSuchElementException   si la celda no llega a renderizarse.
+     */
+    public WebElement getCellElement(String tableTitle, TableGrid grid, String rowKey, String headerText) {
+        TableGrid.GridRow gridRow = grid.row(rowKey).orElseThrow(() ->
+                new IllegalArgumentException("La tabla '" + tableTitle + "' no tiene la fila '" + rowKey + "'"));
+        String header = grid.requireHeader(headerText);
+
+        harvester.moveTo(tableTitle, getTable(tableTitle), grid.scrollLeft(header), gridRow.scrollTop());
+        TableSnapshot current = snapshot(tableTitle);
+        int columnIndex = current.columnIndex(header);
+        List<TableSnapshot.Row> rows = current.rows().stream()
+                .filter(r -> showsGridRow(current, r, grid, gridRow))
+                .toList();
+        if (rows.size() != 1 || columnIndex < 0) {
+            throw new NoSuchElementException(String.format("La celda ('%s', '%s') de la tabla '%s' no está renderizada"
+                    + " (%d filas renderizadas con el mismo contenido).", rowKey, header, tableTitle, rows.size()));
+        }
+        return getCellElement(rows.get(0).index(), columnIndex, tableTitle);
+    }
+
+    /**
+     * @return {@code true} si la fila renderizada tiene, en todas las columnas que muestra, el mismo texto que la
+     *         fila de la copia.
+     */
+    private static boolean showsGridRow(TableSnapshot current, TableSnapshot.Row rendered, TableGrid grid, TableGrid.GridRow gridRow) {
+        for (int column = 0; column < current.headers().size(); column++) {
+            String header = current.headers().get(column);
+            if (grid.headers().contains(header) && !rendered.text(column).equals(gridRow.text(header))) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            previousCount = currentCount;
-            waitUtil.sleepMillis(pollingInterval, "Intervalo entre verificaciones del número de filas renderizadas.");
-            waited += pollingInterval;
+    /**
+     * Identifica en una copia de la tabla la última celda seleccionada por
+     * {@link #findFirstCellMatchingCondition(String, String, String)}, para validar después sus cambios con
+     * {@link TableDiff} en lugar de volver a buscarla por su fila y columna renderizadas.
+     *
+     * <p>La fila se identifica por su contenido: la única fila de la copia con los mismos textos en todas las
+     * columnas que la fila seleccionada. Con las columnas clave, la copia no puede tener dos filas iguales.</p>
+     *
+     * @param tableTitle título visible de la tabla.
+     * @param table      copia completa de la tabla ({@link #harvest(String, String...)}), con las columnas clave.
+     * @return la celda en la copia.
+     * @throws NoSuchElementException si la celda seleccionada ya no está renderizada, o su fila no está en la
+     *                                copia o aparece más de una vez.
+     */
+    public TableDiff.CellRef getLastCellRef(String tableTitle, TableSnapshot table) {
+        TableSnapshot current = snapshot(tableTitle);
+        TableSnapshot.Row rendered = lastRowIndex < current.rows().size() ? current.rows().get(lastRowIndex) : null;
+        if (rendered == null || lastColumnIndex >= current.headers().size()) {
+            throw new NoSuchElementException(String.format("La celda seleccionada [%d,%d] de la tabla '%s' ya no está renderizada.",
+                    lastRowIndex, lastColumnIndex, tableTitle));
         }
+        String header = current.headers().get(lastColumnIndex);
+        List<String> texts = texts(rendered);
+        List<TableSnapshot.Row> rows = table.rows().stream()
+                .filter(r -> texts(r).equals(texts))
+                .toList();
+        if (rows.size() != 1) {
+            throw new NoSuchElementException(String.format(
+                    "La fila seleccionada de la tabla '%s' aparece %d veces en la copia: %s", tableTitle, rows.size(), texts));
+        }
+        return new TableDiff.CellRef(rows.get(0).key(), header);
+    }
 
-        LogUtil.info("Se encontraron " + currentCount + " filas renderizadas en la tabla localizada.");
-        return currentCount;
+    private static List<String> texts(TableSnapshot.Row row) {
+        return row.cells().stream().map(TableSnapshot.Cell::text).toList();
     }
 
     /**
      * Retorna la lista de textos visibles de los encabezados de columna, excluyendo celdas tipo spacer.
      *
-     * @param tablePosition posición de la tabla (1 = primera, 2 = segunda, etc.)
+     * @param tableTitle título visible de la tabla.
      * @return Lista de nombres de encabezados visibles.
      */
     public List<String> getColumnHeaders(String tableTitle) {
-        WebElement table = getTable(tableTitle);
-        List<WebElement> headers = waitUtil.findVisibleElements(
-                table,
-                By.cssSelector("thead th:not(.spacer)")
-        );
-        return headers.stream()
-                .map(h -> h.getText().trim())
+        return snapshot(tableTitle).headers().stream()
                 .filter(text -> !text.isEmpty())
                 .collect(Collectors.toList());
     }
@@ -700,6 +927,11 @@ public class TableUtil {
      *     <li><b>"sin modificar sin pedido pendiente"</b></li>
      * </ul>
      *
+     * <p>La condición se compila a un script ({@code CellCondition}) que recorre las filas renderizadas dentro del
+     * navegador y devuelve la primera celda que la cumple en una sola llamada; solo esa celda se confirma en
+     * Java y se vuelve a localizar en el DOM. Si el navegador no puede decidir (por ejemplo, un valor fuera del
+     * rango de {@code int}) o el script falla, la búsqueda se repite en Java sobre una copia de la tabla.</p>
+     *
      * <p>Si se encuentra una celda que cumpla con la condición, se retorna como {@link WebElement}.
      * Si no se encuentra ninguna celda válida tras revisar todas las columnas consecutivas desde la columna base,
      * se lanza una excepción.</p>
@@ -713,98 +945,96 @@ public class TableUtil {
      * @throws NoSuchElementException si no se encuentra ninguna celda válida en las columnas evaluadas.
      */
     public WebElement findFirstCellMatchingCondition(String headerName, String tableTitle, String conditionType) {
+        final int maxColumnsToSearch = 10;
+        CellCondition condition = CellCondition.parse(conditionType);
+
         // Espera a que la tabla carge completamente
         waitUtil.waitForTableToLoadCompletely();
 
-        int initialColumnIndex = getColumnIndexByHeader(headerName, tableTitle);
-        int maxColumnsToSearch = 10;
+        WebElement table = getTable(tableTitle);
+        waitUtil.waitForDomQuiet(table, 100, 2000);
+        Map<String, Object> found;
+        try {
+            found = TableSnapshot.asMap(((JavascriptExecutor) driver).executeScript(
+                    condition.script(), table, norm(headerName), maxColumnsToSearch));
+        } catch (StaleElementReferenceException | JavascriptException e) {
+            LogUtil.warn("No se pudo evaluar la condición '" + condition + "' en el navegador (" + e.getMessage()
+                    + "); se evalúa en Java.");
+            return findFirstCellMatchingConditionInJava(headerName, tableTitle, condition, maxColumnsToSearch);
+        }
+
+        if (((Number) found.get("header")).intValue() == -1) {
+            throw new NoSuchElementException("No se encontró la columna con encabezado: '" + headerName + "' en la tabla '" + tableTitle + "'");
+        }
+        int rowIndex = ((Number) found.get("row")).intValue();
+        if (rowIndex == -1) {
+            throw new NoSuchElementException("No se encontró una celda que cumpla la condición '" + conditionType + "' en las columnas desde '" + headerName + "' en adelante (hasta " + maxColumnsToSearch + " columnas).");
+        }
+        if (rowIndex == -2) {
+            LogUtil.warn("La condición '" + condition + "' no se puede decidir en el navegador para un valor de la columna "
+                    + found.get("column") + "; se evalúa en Java.");
+            return findFirstCellMatchingConditionInJava(headerName, tableTitle, condition, maxColumnsToSearch);
+        }
+
+        // La celda elegida en el navegador se confirma con la evaluación en Java
+        int columnIndex = ((Number) found.get("column")).intValue();
+        TableSnapshot.Cell cell = TableSnapshot.parseCell(found.get("cell"));
+        if (!cellMatches(condition, cell)) {
+            LogUtil.warn("La celda [" + rowIndex + "," + columnIndex + "] elegida en el navegador no cumple '" + condition
+                    + "' en Java; se evalúa en Java.");
+            return findFirstCellMatchingConditionInJava(headerName, tableTitle, condition, maxColumnsToSearch);
+        }
+        return selectMatchingCell(rowIndex, columnIndex, cell.text(), tableTitle);
+    }
+
+    /**
+     * Búsqueda de {@link #findFirstCellMatchingCondition(String, String, String)} evaluando la condición en Java
+     * sobre una copia de la tabla ({@link #snapshot(String)}); se usa cuando la evaluación en el navegador no
+     * es posible o no es concluyente.
+     */
+    private WebElement findFirstCellMatchingConditionInJava(String headerName, String tableTitle, CellCondition condition,
+                                                            int maxColumnsToSearch) {
+        TableSnapshot table = snapshot(tableTitle);
+        int initialColumnIndex = table.columnIndex(headerName);
+        if (initialColumnIndex == -1) {
+            throw new NoSuchElementException("No se encontró la columna con encabezado: '" + headerName + "' en la tabla '" + tableTitle + "'");
+        }
 
         for (int offset = 0; offset < maxColumnsToSearch; offset++) {
             int currentColumnIndex = initialColumnIndex + offset;
-            List<WebElement> columnCells = getAllCellsByColumnIndex(currentColumnIndex, tableTitle);
-
-            for (int rowIndex = 0; rowIndex < columnCells.size(); rowIndex++) {
-                WebElement cell = columnCells.get(rowIndex);
-                waitUtil.waitForElementToBeVisible(cell);
-                waitUtil.sleepMillis(100, "Pausa por scroll virtual (cdk)"); // Parece que no es necesaria esta espera, se esta probando
-                LogUtil.info("Evaluando celda '" + conditionType + "' fila: " + rowIndex + ", columna: " + currentColumnIndex);
-                String rawText = cell.getText().trim();
-
-                //Normalizar el valor
-//                BigDecimal rawText = CalculatorUtil.parseToBigDecimal(rawText);
-                List<WebElement> icons = cell.findElements(By.tagName("i"));
-
-                boolean isItModified = isCellModified(icons);
-                boolean isItPositive = isPositiveValue(rawText);
-                boolean isItAnEvenNumber = isItEvenValue(rawText);
-                boolean hasPendingOrder = theCellHasPendingOrder(cell);
-
-                boolean conditionMet;
-                switch (conditionType.toLowerCase()) {
-                    case "modificada con pedido pendiente":
-                        conditionMet = isItModified && isItPositive && isItAnEvenNumber && hasPendingOrder;
-                        break;
-                    case "modificada sin pedido pendiente":
-                        conditionMet = isItModified && isItPositive && isItAnEvenNumber && !hasPendingOrder;
-                        break;
-                    case "sin modificar con pedido pendiente":
-                        conditionMet = !isItModified && isItPositive && isItAnEvenNumber && hasPendingOrder;
-                        break;
-                    case "sin modificar sin pedido pendiente":
-                        conditionMet = !isItModified && isItPositive && isItAnEvenNumber && !hasPendingOrder;
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Tipo de condición no soportada: " + conditionType);
-                }
 
-                if (!conditionMet) {
-                    LogUtil.info("Celda no cumple condición '" + conditionType + "', fila omitida: " + rowIndex);
+            for (TableSnapshot.Row row : table.rows()) {
+                TableSnapshot.Cell cell = row.cell(currentColumnIndex);
+                if (cell == null) {
                     continue;
                 }
+                int rowIndex = row.index();
+                LogUtil.info("Evaluando celda '" + condition + "' fila: " + rowIndex + ", columna: " + currentColumnIndex);
 
-                this.lastRowIndex = rowIndex;
-                this.lastColumnIndex = currentColumnIndex;
-                this.lastCellValue = rawText;
-//                this.lastCellValueString = rawText;
-
-                LogUtil.info(("Celda válida - Fila: " + rowIndex + " Columna: " + currentColumnIndex + " Valor: " + rawText));
-                return getCellElement(rowIndex, currentColumnIndex, tableTitle);
-
+                if (!cellMatches(condition, cell)) {
+                    LogUtil.info("Celda no cumple condición '" + condition + "', fila omitida: " + rowIndex);
+                    continue;
+                }
+                return selectMatchingCell(rowIndex, currentColumnIndex, cell.text(), tableTitle);
             }
         }
 
-        throw new NoSuchElementException("No se encontró una celda que cumpla la condición '" + conditionType + "' en las columnas desde '" + headerName + "' en adelante (hasta " + maxColumnsToSearch + " columnas).");
+        throw new NoSuchElementException("No se encontró una celda que cumpla la condición '" + condition + "' en las columnas desde '" + headerName + "' en adelante (hasta " + maxColumnsToSearch + " columnas).");
     }
 
-    /**
-     * Obtiene todas las celdas visibles (td) de una columna específica en una tabla HTML,
-     * identificada por el índice absoluto de la columna (ignorando celdas con clase <code>spacer</code>).
-     *
-     * <p>Este metodo recorre todas las filas del cuerpo (<code>tbody</code>) de la tabla localizada por su título visible,
-     * y en cada fila extrae la celda correspondiente al índice de columna proporcionado.</p>
-     *
-     * <p>Se utilizan únicamente celdas visibles y válidas, omitiendo aquellas con clase <code>spacer</code>
-     * que se usan para espaciado estructural en la tabla.</p>
-     *
-     * @param columnIndex el índice cero-based de la columna a recuperar (sin contar celdas <code>spacer</code>).
-     * @param tableTitle  el texto visible del encabezado que identifica la tabla dentro del DOM.
-     * @return una lista de {@link WebElement} correspondientes a las celdas visibles en la columna indicada.
-     *
-     * @throws RuntimeException si la tabla no puede ser localizada correctamente mediante su título.
-     */
-    private List<WebElement> getAllCellsByColumnIndex(int columnIndex, String tableTitle) {
-        WebElement table = getTable(tableTitle);
-        List<WebElement> rows = waitUtil.findVisibleElements(table, By.cssSelector("tbody tr"));
-        List<WebElement> cells = new ArrayList<>();
+    private boolean cellMatches(CellCondition condition, TableSnapshot.Cell cell) {
+        String rawText = cell.text();
+        return condition.matches(isCellModified(cell), isPositiveValue(rawText), isItEvenValue(rawText),
+                theCellHasPendingOrder(cell));
+    }
 
-        for (WebElement row : rows) {
-            List<WebElement> columnas = waitUtil.findVisibleElements(row, By.cssSelector("td:not(.spacer)"));
-            if (columnIndex < columnas.size()) {
-                cells.add(columnas.get(columnIndex));
-            }
-        }
+    private WebElement selectMatchingCell(int rowIndex, int columnIndex, String rawText, String tableTitle) {
+        this.lastRowIndex = rowIndex;
+        this.lastColumnIndex = columnIndex;
+        this.lastCellValue = rawText;
 
-        return cells;
+        LogUtil.info(("Celda válida - Fila: " + rowIndex + " Columna: " + columnIndex + " Valor: " + rawText));
+        return getCellElement(rowIndex, columnIndex, tableTitle);
     }
 
     /**
@@ -815,15 +1045,12 @@ public class TableUtil {
      *
      * <p>Se registra un log informativo indicando si la celda fue detectada como modificada o no.</p>
      *
-     * @param icons lista de elementos <code>&lt;i&gt;</code> presentes en la celda.
+     * @param cell celda de la copia de la tabla.
      * @return <code>true</code> si la celda está modificada (ícono con clase <code>"lock"</code> presente),
      *         <code>false</code> en caso contrario.
      */
-    private boolean isCellModified(List<WebElement> icons) {
-        boolean isModified = icons.stream().anyMatch(e -> {
-            String classAttr = e.getAttribute("class");
-            return classAttr != null && classAttr.contains("lock");
-        });
+    private boolean isCellModified(TableSnapshot.Cell cell) {
+        boolean isModified = cell.isModified();
 
         if (isModified) {
             LogUtil.info("Celda modificada");
@@ -908,13 +1135,11 @@ public class TableUtil {
      * <p>Se considera con pedido pendiente si el color de fondo es rosa
      * (background-color: rgb(254, 222, 255)), que indica una modificación en la previsión.</p>
      *
-     * @param cell el {@link WebElement} que representa la celda.
+     * @param cell celda de la copia de la tabla.
      * @return true si hay pedido pendiente (color rosa), false en caso contrario.
      */
-    private boolean theCellHasPendingOrder(WebElement cell) {
-        String styleAttr = cell.getAttribute("style");
-
-        boolean hasPinkBackground = styleAttr != null && styleAttr.contains("rgb(254, 222, 255)");
+    private boolean theCellHasPendingOrder(TableSnapshot.Cell cell) {
+        boolean hasPinkBackground = cell.hasPendingOrder();
 
         if (hasPinkBackground) {
             LogUtil.info("Celda con pedido pendiente");
@@ -930,6 +1155,10 @@ public class TableUtil {
      * las celdas correspondientes a ese producto en las columnas de los próximos 6 meses
      * cumplan una condición específica (por ejemplo: "sin modificar sin pedido pendiente").
      *
+     * <p>Toda la búsqueda se hace sobre una única copia de la tabla completa ({@link #harvestGrid(String, String...)}),
+     * que incluye las filas y los meses que no estaban renderizados, y se declara con {@link TableQuery}: se
+     * agrupan las filas por producto y se detiene en el primer producto y mes que cumplen la condición.</p>
+     *
      * <p>Si se encuentra un producto válido, se almacena su código, mes, y los datos de las celdas
      * correspondientes en {@code lastProductCode}, {@code lastMonth} y {@code lastMatchingCells}.</p>
      *
@@ -939,25 +1168,15 @@ public class TableUtil {
      * @throws NoSuchElementException si no se encuentra ningún producto que cumpla la condición especificada.
      */
     public void findProductWithConditionInMonthColumns(String conditionType, String tableTitle) {
-        String columnProducto = "Código producto";
+        TableGrid table = harvestGrid(tableTitle, PRODUCT_CODE_HEADER);
 
-        // Obtener el índice de la columna "Código producto"
-        int colIndexProducto = getColumnIndexByHeader(columnProducto, tableTitle);
-        if (colIndexProducto == -1) {
+        // Cabecera exacta de la columna "Código producto"
+        String columnProducto = table.resolveHeader(PRODUCT_CODE_HEADER);
+        if (columnProducto == null) {
             throw new IllegalArgumentException("No se encontró la columna 'Código producto'");
         }
 
-        // Obtener todas las celdas correspondientes a esa columna
-        List<WebElement> productoColumnCells = getAllCellsByColumnIndex(colIndexProducto, tableTitle);
-
-        // Agrupar las filas por código de producto
-        Map<String, List<Integer>> productoIndices = new LinkedHashMap<>();
-        for (int i = 0; i < productoColumnCells.size(); i++) {
-            String value = productoColumnCells.get(i).getText().trim();
-            if (!value.isEmpty()) {
-                productoIndices.computeIfAbsent(value, k -> new ArrayList<>()).add(i);
-            }
-        }
+        Predicate<TableSnapshot.Cell> condition = monthCellCondition(conditionType);
 
         // Generar nombres completos de los próximos 6 meses (ej: Julio, Agosto, Septiembre)
         Locale esES = new Locale("es", "ES");
@@ -965,78 +1184,70 @@ public class TableUtil {
                 .mapToObj(i -> LocalDate.now().withDayOfMonth(1).plusMonths(i))
                 .map(d -> d.getMonth().getDisplayName(TextStyle.FULL, esES))
                 .map(m -> m.substring(0, 1).toUpperCase(esES) + m.substring(1))
+                .filter(m -> table.resolveHeader(m) != null)
                 .collect(java.util.stream.Collectors.toList());
 
-        // Recorre cada producto con sus filas
-        for (Map.Entry<String, List<Integer>> entry : productoIndices.entrySet()) {
-            String productCode = entry.getKey();
-            List<Integer> rowIndices = entry.getValue();
-
-            if (rowIndices.size() <= 2) continue; // Se requiere más de 2 registros
-
-            for (String month : nextMonths) {
-                int colMesIndex = getColumnIndexByHeader(month, tableTitle);
-                if (colMesIndex == -1) continue;
-
-                boolean todasCumplen = true;
-                List<String> values = new ArrayList<>();
-
-                for (int row : rowIndices) {
-                    WebElement cell = getCellElement(row, colMesIndex, tableTitle);
-                    waitUtil.waitForElementToBeVisible(cell);
-                    waitUtil.sleepMillis(100, "Esperando scroll");
-
-                    String rawText = cell.getText().trim();
-//                    BigDecimal rawText = CalculatorUtil.parseToBigDecimal(rawText);
-                    List<WebElement> icons = cell.findElements(By.tagName("i"));
-
-                    boolean cumpleCondicion;
-                    switch (conditionType.toLowerCase()) {
-                        case "sin modificar sin pedido pendiente":
-                            cumpleCondicion = !isCellModified(icons) && !theCellHasPendingOrder(cell) && isPositiveValue(rawText);
-                            break;
-                        case "sin modificar con pedido pendiente":
-                            cumpleCondicion = !isCellModified(icons) && theCellHasPendingOrder(cell) && isPositiveValue(rawText);
-                            break;
-                        case "modificada sin pedido pendiente":
-                            cumpleCondicion = isCellModified(icons) && !theCellHasPendingOrder(cell) && isPositiveValue(rawText);
-                            break;
-                        case "modificada con pedido pendiente":
-                            cumpleCondicion = isCellModified(icons) && theCellHasPendingOrder(cell) && isPositiveValue(rawText);
-                            break;
-                        default:
-                            throw new IllegalArgumentException("Condición no soportada: " + conditionType);
-                    }
-
-                    if (!cumpleCondicion) {
-                        todasCumplen = false;
-                        break;
-                    }
-
-                    values.add(rawText);
-                }
-
-                if (todasCumplen) {
-                    LogUtil.info("Producto encontrado: " + productCode);
-                    LogUtil.info("Columna mes: " + month);
-
-                    this.lastProductCode = productCode;
-                    this.lastMonth = month;
-
-                    this.lastMatchingCells.clear();
-                    for (int i = 0; i < rowIndices.size(); i++) {
-                        this.lastMatchingCells.add(new CellData(rowIndices.get(i), colMesIndex, values.get(i)));
-                    }
-
-                    printLastMatchingCells();
-                    return;
-                }
+        // Primer producto con más de 2 registros y primer mes en el que todas sus celdas cumplen la condición
+        Optional<Map.Entry<TableQuery.Group, String>> match = TableQuery.from(table)
+                .where(TableQuery.cell(columnProducto, Cells.notEmpty()))
+                .groupBy(columnProducto)
+                .having(group -> group.size() > 2)
+                .stream()
+                .flatMap(group -> nextMonths.stream()
+                        .filter(month -> group.allMatch(month, condition))
+                        .map(month -> Map.entry(group, month)))
+                .findFirst();
+
+        if (match.isPresent()) {
+            TableQuery.Group group = match.get().getKey();
+            String month = match.get().getValue();
+            String monthHeader = table.resolveHeader(month);
+            int colMesIndex = table.headers().indexOf(monthHeader);
+
+            LogUtil.info("Producto encontrado: " + group.key());
+            LogUtil.info("Columna mes: " + month);
+
+            this.lastProductCode = group.key();
+            this.lastMonth = month;
+
+            this.lastMatchingCells.clear();
+            for (TableQuery.Row row : group.rows()) {
+                this.lastMatchingCells.add(new CellData(row.key(), monthHeader, row.dataIndex(), colMesIndex,
+                        row.text(monthHeader)));
             }
+
+            printLastMatchingCells();
+            return;
         }
 
         throw new NoSuchElementException("No se encontró ningún producto con más de 2 registros que cumpla la condición: " + conditionType);
     }
 
+    /**
+     * Condición de celda de {@link #findProductWithConditionInMonthColumns(String, String)}: estado de
+     * modificación y de pedido pendiente según el tipo, con valor positivo.
+     *
+     * @param conditionType tipo de condición (por ejemplo: "sin modificar sin pedido pendiente").
+     * @return el predicado sobre la celda.
+     * @throws IllegalArgumentException si el tipo de condición no está soportado.
+     */
+    private static Predicate<TableSnapshot.Cell> monthCellCondition(String conditionType) {
+        Predicate<TableSnapshot.Cell> notModified = Cells.modified().negate();
+        Predicate<TableSnapshot.Cell> noPendingOrder = Cells.pendingOrder().negate();
+        switch (conditionType.toLowerCase()) {
+            case "sin modificar sin pedido pendiente":
+                return notModified.and(noPendingOrder).and(Cells.positive());
+            case "sin modificar con pedido pendiente":
+                return notModified.and(Cells.pendingOrder()).and(Cells.positive());
+            case "modificada sin pedido pendiente":
+                return Cells.modified().and(noPendingOrder).and(Cells.positive());
+            case "modificada con pedido pendiente":
+                return Cells.modified().and(Cells.pendingOrder()).and(Cells.positive());
+            default:
+                throw new IllegalArgumentException("Condición no soportada: " + conditionType);
+        }
+    }
+
     /**
      * Imprime en los logs el contenido de la lista {@code lastMatchingCells},
      * que representa las celdas válidas encontradas durante la ejecución de pruebas.
@@ -1057,46 +1268,62 @@ public class TableUtil {
      * Calcula la suma total de los valores actuales de las celdas previamente registradas
      * en {@code lastMatchingCells}.
      *
-     * <p>Este metodo utiliza {@link CalculatorUtil#addValues(String, String)} para realizar la suma
-     * de forma precisa y respetando el formato numérico (separadores de miles y decimales)
-     * detectado internamente en {@code CalculatorUtil}.</p>
+     * <p>Los valores se leen de una única copia de la tabla completa ({@link #harvestGrid(String, String...)}),
+     * de modo que no importa dónde haya quedado el scroll: cada celda guardada se busca en la copia por la clave
+     * de su fila y su cabecera. Las celdas vacías o no numéricas se ignoran en la suma.</p>
+     *
+     * <p>Los valores se interpretan y el resultado se formatea con el separador decimal del usuario
+     * ({@link CalculatorUtil#parseUserNumber(String)}, {@link CalculatorUtil#formatUserNumber(BigDecimal)}), con
+     * la mayor escala de los valores sumados, igual que {@link CalculatorUtil#addValues(String, String)}.</p>
      *
      * <p>El resultado total se almacena en {@code sumCurrentValues} para posibles
      * validaciones posteriores.</p>
      *
      * @param tableTitle título visible de la tabla donde se encuentran las celdas (por ejemplo, "Previsiones").
+     * @throws NoSuchElementException si alguna celda guardada ya no está en la tabla (su fila o su columna).
      */
     public void addCells(String tableTitle) {
         // Esperar a que la tabla esté completamente cargada antes de leer celdas
         waitUtil.waitForTableToLoadCompletely();
 
-        String suma = "0";
+        TableGrid table = harvestGrid(tableTitle, PRODUCT_CODE_HEADER);
+        BigDecimal sum = BigDecimal.ZERO;
+        int added = 0;
 
         for (CellData cellData : lastMatchingCells) {
-            int row = cellData.getRowIndex();
-            int column = cellData.getColumnIndex();
-
-            WebElement currentCell = getCellElement(row, column, tableTitle);
-            String currentText = currentCell.getText().trim();
+            TableGrid.GridRow row = table.row(cellData.getRowKey()).orElseThrow(() -> new NoSuchElementException(String.format(
+                    "La fila '%s' de la celda [%d,%d] ya no aparece en la tabla '%s'.",
+                    cellData.getRowKey(), cellData.getRowIndex(), cellData.getColumnIndex(), tableTitle)));
+            String header = table.resolveHeader(cellData.getHeader());
+            if (header == null) {
+                throw new NoSuchElementException(String.format("La columna '%s' de la celda [%d,%d] ya no aparece en la tabla '%s'.",
+                        cellData.getHeader(), cellData.getRowIndex(), cellData.getColumnIndex(), tableTitle));
+            }
 
+            String currentText = row.text(header);
             if (currentText.isEmpty()) {
-                LogUtil.warn(String.format("Celda [%d,%d]: vacía, se ignora en la suma.", row, column));
+                LogUtil.warn(String.format("Celda [%d,%d]: vacía, se ignora en la suma.", cellData.getRowIndex(), cellData.getColumnIndex()));
                 continue;
             }
-
-            // Intentar sumar usando tu metodo CalculatorUtil
-            try {
-                suma = CalculatorUtil.addValues(suma, currentText);
-                LogUtil.info(String.format("Celda [%d,%d]: valor actual '%s' | suma parcial '%s'",
-                        row, column, currentText, suma));
-            } catch (Exception e) {
-                LogUtil.warn(String.format(
-                        "Celda [%d,%d]: valor no numérico o inválido '%s', se ignora en la suma. Error: %s",
-                        row, column, currentText, e.getMessage()));
+            BigDecimal value = parseUserNumberOrNull(currentText);
+            if (value != null) {
+                sum = sum.add(value);
+                added++;
             }
         }
 
+        String suma = CalculatorUtil.formatUserNumber(sum);
         this.sumCurrentValues = suma;
-        LogUtil.info(String.format("Suma total de los valores actuales (guardada internamente): %s", suma));
+        LogUtil.info(String.format("Suma total de los valores actuales (guardada internamente): %s (%d de %d celdas)",
+                suma, added, lastMatchingCells.size()));
+    }
+
+    private static BigDecimal parseUserNumberOrNull(String text) {
+        try {
+            return CalculatorUtil.parseUserNumber(text);
+        } catch (IllegalArgumentException e) {
+            LogUtil.warn(String.format("Valor no numérico o inválido '%s', se ignora en la suma. Error: %s", text, e.getMessage()));
+            return null;
+        }
     }
 }
\ No newline at end of file
@@ -41,9 +41,18 @@ public class ValidationUtil {
      * Realiza varios intentos, esperando un tiempo entre ellos, hasta que el texto coincida
      * o se agote el tiempo máximo de espera.</p>
      *
+     * <p>Si el {@link NavigationState} del navegador ya tiene confirmada esa pantalla y la URL y el título
+     * actuales coinciden, la validación termina sin reintentos ni esperas.</p>
+     *
      * @param expectedScreenName Nombre visible esperado de la pantalla.
      */
     public void assertCurrentScreen(String expectedScreenName) {
+        NavigationState navigationState = NavigationState.of(driver);
+        if (navigationState.isOnScreen(driver, expectedScreenName)) {
+            LogUtil.info("Pantalla '" + expectedScreenName + "' ya confirmada (URL y título sin cambios).");
+            return;
+        }
+
         final int maxAttempts = 3; // Número máximo de intentos
         final long waitBetweenAttemptsMillis = 300; // Tiempo entre intentos
         final long timeoutAbsolutoMillis = 1000; // Tiempo máximo total
@@ -53,13 +62,14 @@ public class ValidationUtil {
 
         while (attempt <= maxAttempts) {
             try {
-                WebElement titlePageElement = waitUtil.findVisibleElement(By.cssSelector("div.title-container > span[tooltip-on-hover]"));
+                WebElement titlePageElement = waitUtil.findVisibleElement(NavigationState.SCREEN_TITLE);
                 String currentTitle = titlePageElement.getText().trim();
 
                 LogUtil.info("Intento " + attempt + " - Validando pantalla actual. Esperada: '" + expectedScreenName + "', Actual: '" + currentTitle + "'");
 
                 assertEquals(currentTitle, expectedScreenName, "La pantalla actual no es la esperada");
                 LogUtil.info("Pantalla validada correctamente en el intento " + attempt);
+                navigationState.screenConfirmed(driver, expectedScreenName);
                 return;
             } catch (AssertionError e) {
                 LogUtil.warn("Intento " + attempt + " fallido: la pantalla aún no es la esperada. Reintentando...");
@@ -295,12 +305,17 @@ public class ValidationUtil {
      * Verifica que un mensaje de error específico esté visible en pantalla
      * y que su contenido coincida exactamente con el texto esperado.
      *
-     * <p>Ejemplo de uso: verificar límites, validaciones, errores del sistema.</p>
+     * <p>Ejemplo de uso: verificar límites, validaciones, errores del sistema. El error HTTP que provoca el
+     * mensaje no detiene las esperas de la validación ({@link WaitUtil#expectingHttpErrors(Runnable)}).</p>
      *
      * @param expectedMessage El mensaje de error que se espera ver.
      * @throws AssertionError si el mensaje no aparece o no coincide con el esperado.
      */
     public void verifyErrorMessage(String expectedMessage) {
+        waitUtil.expectingHttpErrors(() -> verifyMessageContainer(expectedMessage));
+    }
+
+    private void verifyMessageContainer(String expectedMessage) {
         By errorMessageLocator = By.cssSelector("div.message-container");
 
         WebElement errorElement = waitUtil.waitForVisibilityByLocator(errorMessageLocator);
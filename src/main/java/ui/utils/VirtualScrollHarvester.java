@@ -0,0 +1,462 @@
+package ui.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Recorre todas las filas de una tabla con scroll virtual ({@code cdk-virtual-scroll}), no solo las renderizadas.
+ *
+ * <p>Desplaza el contenedor con scroll de la tabla ({@code .cdk-virtual-scrollable} o el propio
+ * {@code cdk-virtual-scroll-viewport}) de una pantalla en una pantalla, dejando una fila de solape. Cada salto
+ * es una única llamada al navegador: desplaza, espera con un {@code MutationObserver} a que las filas nuevas
+ * terminen de renderizarse y lee la tabla con {@link TableSnapshot#READ_FUNCTION}. Las filas ya vistas se
+ * descartan por su firma ({@code data-id} o texto de la fila, ver {@link RowOverlap}), de
+ * modo que el solape no las repite aunque las filas tengan alto variable.</p>
+ *
+ * <p>Lo usan {@link TableUtil#scanRows} (las filas se entregan a medida que se leen y el recorrido se detiene
+ * en cuanto el visitante lo pide) y {@link TableUtil#harvest} (copia completa en memoria). Para las tablas que
+ * además virtualizan las columnas de períodos, {@link TableUtil#harvestGrid} recorre las dos direcciones y
+ * construye un {@link TableGrid}.</p>
+ */
+final class VirtualScrollHarvester {
+
+    /** Calma exigida tras cada salto antes de leer las filas renderizadas. */
+    private static final int QUIET_MILLIS = 50;
+
+    /** Máximo de espera por salto. */
+    private static final int MAX_JUMP_MILLIS = 1000;
+
+    /** Límite de seguridad de saltos por recorrido. */
+    private static final int MAX_JUMPS = 2000;
+
+    /**
+     * Si {@code arguments[1]} lleva el scroll al principio; si no, lo avanza una pantalla menos una fila. Espera
+     * {@code arguments[2]} ms sin mutaciones (máximo {@code arguments[3]} ms) y resuelve con
+     * {@code {moved, end, table}}. Sin contenedor con scroll, lee la tabla y resuelve con {@code end: true}.
+     */
+    private static final String STEP_SCRIPT = TableSnapshot.READ_FUNCTION
+            + "var table = arguments[0], fromTop = arguments[1], quiet = arguments[2], max = arguments[3];"
+            + "var done = arguments[arguments.length - 1], finished = false, timer, limit, observer;"
+            + "var scroller = table.closest('.cdk-virtual-scrollable, cdk-virtual-scroll-viewport');"
+            + "function finish(moved) {"
+            + "  if (finished) { return; } finished = true;"
+            + "  if (observer) { observer.disconnect(); } clearTimeout(timer); clearTimeout(limit);"
+            + "  var end = !scroller || scroller.scrollTop + scroller.clientHeight >= scroller.scrollHeight - 1;"
+            + "  done({moved: moved, end: end, table: readTable(table)});"
+            + "}"
+            + "if (!scroller) { finish(false); return; }"
+            + "var before = scroller.scrollTop, firstRow = table.querySelector('tbody > tr');"
+            + "var rowHeight = firstRow ? firstRow.offsetHeight : 0, headHeight = table.tHead ? table.tHead.offsetHeight : 0;"
+            + "scroller.scrollTop = fromTop ? 0 : before + Math.max(rowHeight, scroller.clientHeight - headHeight - rowHeight, 1);"
+            + "if (scroller.scrollTop === before) { finish(false); return; }"
+            + "observer = new MutationObserver(function () { clearTimeout(timer); timer = setTimeout(function () { finish(true); }, quiet); });"
+            + "observer.observe(scroller, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "timer = setTimeout(function () { finish(true); }, quiet);"
+            + "limit = setTimeout(function () { finish(true); }, max);";
+
+    /** Presupuesto de cada llamada del recorrido en dos direcciones; al agotarse devuelve dónde continuar. */
+    private static final int GRID_CALL_MILLIS = 5000;
+
+    /** Límite de seguridad de llamadas por recorrido en dos direcciones. */
+    private static final int MAX_GRID_CALLS = 200;
+
+    /**
+     * Funciones comunes a los scripts que desplazan la tabla en las dos direcciones. Esperan las variables
+     * {@code table}, {@code scroller}, {@code quiet} y {@code max}.
+     */
+    private static final String GRID_FUNCTIONS =
+            "function settle(callback) {"
+            + "  var timer, limit, over = false;"
+            + "  var observer = new MutationObserver(function () { clearTimeout(timer); timer = setTimeout(end, quiet); });"
+            + "  function end() { if (over) { return; } over = true; observer.disconnect(); clearTimeout(timer); clearTimeout(limit); callback(); }"
+            + "  observer.observe(scroller, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "  timer = setTimeout(end, quiet); limit = setTimeout(end, max);"
+            + "}"
+            + "function moveTo(left, top, callback) {"
+            + "  var l = scroller.scrollLeft, t = scroller.scrollTop;"
+            + "  scroller.scrollLeft = left; scroller.scrollTop = top;"
+            + "  if (scroller.scrollLeft === l && scroller.scrollTop === t) { callback(); } else { settle(callback); }"
+            + "}"
+            + "function frozenWidth() {"
+            + "  var width = 0, ths = table.querySelectorAll('thead th');"
+            + "  for (var i = 0; i < ths.length; i++) {"
+            + "    var style = getComputedStyle(ths[i]);"
+            + "    if (style.position === 'sticky' && style.left !== 'auto' && ths[i].getClientRects().length) { width = Math.max(width, ths[i].offsetLeft - scroller.scrollLeft + ths[i].offsetWidth); }"
+            + "  }"
+            + "  return Math.max(0, width);"
+            + "}"
+            + "function stepX() { return Math.max(50, scroller.clientWidth - frozenWidth() - 50); }"
+            + "function norm(s) { return (s || '').normalize('NFKC').replace(/\\u00a0/g, ' ').replace(/[\\u200B-\\u200D]/g, '').replace(/\\s+/g, ' ').trim().toLowerCase(); }"
+            + "function headerTexts() {"
+            + "  var ths = table.querySelectorAll('thead tr.imperia-table-header-row:not(.columns-selectors) th:not(.spacer)');"
+            + "  if (!ths.length) { ths = table.querySelectorAll('thead th:not(.spacer)'); }"
+            + "  var texts = [];"
+            + "  for (var i = 0; i < ths.length; i++) { texts.push((ths[i].innerText || ths[i].textContent || '').replace(/\\u00a0/g, ' ').trim()); }"
+            + "  return texts;"
+            + "}"
+            + "function stepY() {"
+            + "  var row = table.querySelector('tbody > tr'), rowHeight = row ? row.offsetHeight : 0, headHeight = table.tHead ? table.tHead.offsetHeight : 0;"
+            + "  return Math.max(rowHeight, scroller.clientHeight - headHeight - rowHeight, 1);"
+            + "}";
+
+    /**
+     * Recorre la tabla por franjas verticales: en cada posición horizontal baja de pantalla en pantalla y, al
+     * llegar al final, avanza una pantalla a la derecha (descontando las columnas fijas) y vuelve arriba. Empieza
+     * en {@code arguments[1]} ({@code {left, top}}, o el origen si es {@code null}) y, si pasan más de
+     * {@code arguments[4]} ms, resuelve con la posición siguiente en {@code next} para continuar en otra llamada.
+     *
+     * <p>Si {@code arguments[5]} trae una lista de cabeceras normalizadas, solo baja por las franjas en las que
+     * se muestra alguna que aún no se ha leído, y termina en cuanto las ha leído todas; las demás franjas se
+     * cruzan sin leer filas. Las pendientes viajan en {@code next.remaining}.</p>
+     *
+     * <p>Cada lectura devuelve todas las filas renderizadas con los textos de todas sus celdas, para alinearla
+     * con las anteriores de la franja (ver {@link TableGrid.Builder}), y solo las celdas con contenido:
+     * {@code {reads: [{left, top, headers, rows: [{id, texts, cells: {cabecera: celda}}]}], next}}.</p>
+     */
+    private static final String GRID_SCRIPT = TableSnapshot.READ_FUNCTION + GRID_FUNCTIONS
+            + "var table = arguments[0], resume = arguments[1], quiet = arguments[2], max = arguments[3], budget = arguments[4];"
+            + "var remaining = resume ? resume.remaining : arguments[5];"
+            + "var done = arguments[arguments.length - 1], began = Date.now(), reads = [];"
+            + "var scroller = table.closest('.cdk-virtual-scrollable, cdk-virtual-scroll-viewport');"
+            + "function record() {"
+            + "  var data = readTable(table), rows = [];"
+            + "  data.rows.forEach(function (row) {"
+            + "    var cells = {}, texts = [];"
+            + "    row.cells.forEach(function (cell, c) {"
+            + "      var header = data.headers[c];"
+            + "      texts.push(cell.text);"
+            + "      if (header && (cell.text || cell.icons.length || cell.style)) { cells[header] = cell; }"
+            + "    });"
+            + "    rows.push({id: row.id, texts: texts, cells: cells});"
+            + "  });"
+            + "  if (remaining) { data.headers.forEach(function (h) { var i = remaining.indexOf(norm(h)); if (i >= 0) { remaining.splice(i, 1); } }); }"
+            + "  reads.push({left: scroller ? scroller.scrollLeft : 0, top: scroller ? scroller.scrollTop : 0, headers: data.headers, rows: rows});"
+            + "}"
+            + "function wantedBand() {"
+            + "  return !remaining || headerTexts().some(function (h) { return remaining.indexOf(norm(h)) >= 0; });"
+            + "}"
+            + "function visit(left, top, previous, sideways) {"
+            + "  moveTo(left, top, function () {"
+            + "    var l = scroller.scrollLeft, t = scroller.scrollTop, next = null;"
+            + "    var stuck = previous && previous.left === l && previous.top === t;"
+            + "    if (stuck && sideways) { done({reads: reads, next: null}); return; }"
+            + "    var skip = !stuck && t === 0 && !wantedBand();"
+            + "    if (!stuck && !skip) { record(); }"
+            + "    if (!stuck && !skip && t + scroller.clientHeight < scroller.scrollHeight - 1) { next = {left: l, top: t + stepY(), sideways: false, remaining: remaining}; }"
+            + "    else if (remaining && !remaining.length) { next = null; }"
+            + "    else if (l + scroller.clientWidth < scroller.scrollWidth - 1) { next = {left: l + stepX(), top: 0, sideways: true, remaining: remaining}; }"
+            + "    if (!next) { done({reads: reads, next: null}); return; }"
+            + "    if (Date.now() - began >= budget) { done({reads: reads, next: next}); return; }"
+            + "    visit(next.left, next.top, {left: l, top: t}, next.sideways);"
+            + "  });"
+            + "}"
+            + "if (!scroller) { record(); done({reads: reads, next: null}); return; }"
+            + "visit(resume ? resume.left : 0, resume ? resume.top : 0, null, resume ? resume.sideways : false);";
+
+    /**
+     * Recorre el scroll horizontal desde la izquierda leyendo solo las cabeceras y devuelve el scroll a donde
+     * estaba. Resuelve con las cabeceras en el orden de la tabla, incluidas las que no estaban renderizadas.
+     */
+    private static final String HEADERS_SCRIPT = GRID_FUNCTIONS
+            + "var table = arguments[0], quiet = arguments[1], max = arguments[2], done = arguments[arguments.length - 1];"
+            + "var scroller = table.closest('.cdk-virtual-scrollable, cdk-virtual-scroll-viewport'), headers = [], seen = {};"
+            + "function collect() { headerTexts().forEach(function (h) { if (!seen[h]) { seen[h] = true; headers.push(h); } }); }"
+            + "if (!scroller) { collect(); done(headers); return; }"
+            + "var origin = scroller.scrollLeft;"
+            + "function sweep(left, previous) {"
+            + "  moveTo(left, scroller.scrollTop, function () {"
+            + "    collect();"
+            + "    var l = scroller.scrollLeft;"
+            + "    if (l === previous || l + scroller.clientWidth >= scroller.scrollWidth - 1) { moveTo(origin, scroller.scrollTop, function () { done(headers); }); return; }"
+            + "    sweep(l + stepX(), l);"
+            + "  });"
+            + "}"
+            + "sweep(0, -1);";
+
+    /**
+     * Lleva el scroll a {@code {left: arguments[1], top: arguments[2]}} y resuelve cuando la tabla se calma.
+     */
+    private static final String MOVE_SCRIPT = GRID_FUNCTIONS
+            + "var table = arguments[0], quiet = arguments[3], max = arguments[4], done = arguments[arguments.length - 1];"
+            + "var scroller = table.closest('.cdk-virtual-scrollable, cdk-virtual-scroll-viewport');"
+            + "if (!scroller) { done(false); return; }"
+            + "moveTo(arguments[1], arguments[2], function () { done(true); });";
+
+    /**
+     * Si la columna cuya cabecera normalizada es {@code arguments[1]} no está renderizada, recorre el scroll
+     * horizontal desde la izquierda hasta que aparece y la centra. Resuelve con {@code true} si la encontró; si
+     * no, devuelve el scroll horizontal a donde estaba y resuelve con {@code false}.
+     */
+    private static final String COLUMN_SCRIPT = GRID_FUNCTIONS
+            + "var table = arguments[0], target = arguments[1], quiet = arguments[2], max = arguments[3];"
+            + "var done = arguments[arguments.length - 1];"
+            + "var scroller = table.closest('.cdk-virtual-scrollable, cdk-virtual-scroll-viewport');"
+            + "function find() {"
+            + "  var ths = table.querySelectorAll('thead tr.imperia-table-header-row:not(.columns-selectors) th:not(.spacer)');"
+            + "  if (!ths.length) { ths = table.querySelectorAll('thead th:not(.spacer)'); }"
+            + "  for (var i = 0; i < ths.length; i++) {"
+            + "    if (ths[i].getClientRects().length && norm(ths[i].innerText || ths[i].textContent) === target) { return ths[i]; }"
+            + "  }"
+            + "  return null;"
+            + "}"
+            + "function show(th) {"
+            + "  var box = scroller.getBoundingClientRect(), rect = th.getBoundingClientRect();"
+            + "  if (rect.left >= box.left + frozenWidth() && rect.right <= box.right) { done(true); return; }"
+            + "  moveTo(Math.max(0, scroller.scrollLeft + rect.left - box.left - frozenWidth() - 50), scroller.scrollTop, function () { done(true); });"
+            + "}"
+            + "var found = find();"
+            + "if (found || !scroller) { if (found && scroller) { show(found); } else { done(!!found); } return; }"
+            + "var origin = scroller.scrollLeft;"
+            + "function sweep(left, previous) {"
+            + "  moveTo(left, scroller.scrollTop, function () {"
+            + "    var th = find(), l = scroller.scrollLeft;"
+            + "    if (th) { show(th); return; }"
+            + "    if (l === previous || l + scroller.clientWidth >= scroller.scrollWidth - 1) { moveTo(origin, scroller.scrollTop, function () { done(false); }); return; }"
+            + "    sweep(l + stepX(), l);"
+            + "  });"
+            + "}"
+            + "sweep(0, -1);";
+
+    private final WebDriver driver;
+    private final WaitUtil waitUtil;
+
+    VirtualScrollHarvester(WebDriver driver, WaitUtil waitUtil) {
+        this.driver = driver;
+        this.waitUtil = waitUtil;
+    }
+
+    /**
+     * Recorre la tabla desde la primera fila y entrega cada fila nueva al visitante, en el orden de la tabla.
+     *
+     * <p>Si el visitante devuelve {@code true} el recorrido se detiene y la tabla queda desplazada de modo que
+     * esa fila sigue renderizada ({@link TableSnapshot.Row#index()} sirve para localizar sus celdas). Si llega
+     * al final, devuelve el scroll al principio.</p>
+     *
+     * @param tableTitle título de la tabla (para claves y logs).
+     * @param table      localiza la tabla; se vuelve a invocar si el elemento queda obsoleto.
+     * @param visitor    recibe cada fila; devuelve {@code true} para detener el recorrido.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila.
+     * @param collected  si no es {@code null}, recibe todas las filas leídas.
+     * @param headers    si no es {@code null}, recibe las cabeceras de la tabla.
+     * @return la fila en la que se detuvo el recorrido, o vacío si se recorrió la tabla completa.
+     */
+    Optional<TableSnapshot.Row> scan(String tableTitle, Supplier<WebElement> table, Predicate<TableSnapshot.Row> visitor,
+                                     String[] keyHeaders, List<TableSnapshot.Row> collected, List<String> headers) {
+        long start = System.currentTimeMillis();
+        WebElement tableElement = table.get();
+        int read = 0;
+        TableSnapshot.RowKeys keys = null;
+        boolean fromTop = true;
+        int jumps = 0;
+        boolean complete = false;
+
+        while (!complete && jumps < MAX_JUMPS) {
+            Map<?, ?> step;
+            jumps++;
+            try {
+                step = (Map<?, ?>) ((JavascriptExecutor) driver).executeAsyncScript(
+                        STEP_SCRIPT, tableElement, fromTop, QUIET_MILLIS, MAX_JUMP_MILLIS);
+            } catch (StaleElementReferenceException e) {
+                // La tabla se volvió a crear: se sigue desde la posición actual, las filas vistas se descartan por solape
+                tableElement = table.get();
+                continue;
+            }
+            waitUtil.failOnHttpError();
+
+            Object raw = step.get("table");
+            if (keys == null) {
+                List<String> tableHeaders = TableSnapshot.parseHeaders(raw);
+                keys = new TableSnapshot.RowKeys(tableTitle, tableHeaders, keyHeaders);
+                if (headers != null) {
+                    headers.addAll(tableHeaders);
+                }
+            }
+            for (TableSnapshot.Row row : TableSnapshot.parseNewRows(raw, keys)) {
+                read++;
+                if (collected != null) {
+                    collected.add(row);
+                }
+                if (visitor.test(row)) {
+                    LogUtil.info(String.format("Recorrido de la tabla '%s' detenido en la fila %d (%d filas leídas, %d saltos, %d ms).",
+                            tableTitle, row.dataIndex(), read, jumps, System.currentTimeMillis() - start));
+                    return Optional.of(row);
+                }
+            }
+
+            boolean moved = Boolean.TRUE.equals(step.get("moved"));
+            complete = Boolean.TRUE.equals(step.get("end")) || (!fromTop && !moved);
+            fromTop = false;
+        }
+
+        if (!complete) {
+            LogUtil.warn("Recorrido de la tabla '" + tableTitle + "' interrumpido tras " + MAX_JUMPS + " saltos.");
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "var s = arguments[0].closest('.cdk-virtual-scrollable, cdk-virtual-scroll-viewport'); if (s) { s.scrollTop = 0; }",
+                    tableElement);
+        } catch (StaleElementReferenceException e) {
+            LogUtil.warn("No se pudo devolver el scroll de la tabla '" + tableTitle + "' al principio: " + e.getMessage());
+        }
+        LogUtil.info(String.format("Tabla '%s' recorrida completa: %d filas en %d saltos (%d ms).",
+                tableTitle, read, jumps, System.currentTimeMillis() - start));
+        return Optional.empty();
+    }
+
+    /**
+     * Copia completa de la tabla, con todas sus filas.
+     *
+     * @param tableTitle título de la tabla.
+     * @param table      localiza la tabla.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila.
+     * @return copia con todas las filas, en el orden de la tabla.
+     */
+    TableSnapshot harvest(String tableTitle, Supplier<WebElement> table, String[] keyHeaders) {
+        List<TableSnapshot.Row> rows = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        scan(tableTitle, table, row -> false, keyHeaders, rows, headers);
+        return TableSnapshot.of(tableTitle, headers, rows);
+    }
+
+    /**
+     * Copia dispersa de la tabla recorriendo a la vez el scroll horizontal y el vertical, con todas las filas y
+     * todas las columnas (también las de períodos que no estaban renderizadas).
+     *
+     * <p>Cada llamada al navegador recorre la tabla durante unos segundos y devuelve las celdas con contenido
+     * que leyó y la posición en la que debe continuar la siguiente. Al terminar, el scroll vuelve al origen.</p>
+     *
+     * @param tableTitle título de la tabla.
+     * @param table      localiza la tabla; se vuelve a invocar si el elemento queda obsoleto.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila.
+     * @return copia dispersa por (clave de fila, cabecera).
+     */
+    TableGrid harvestGrid(String tableTitle, Supplier<WebElement> table, String[] keyHeaders) {
+        return harvestGrid(tableTitle, table, null, keyHeaders);
+    }
+
+    /**
+     * Copia dispersa de la tabla limitada a las franjas horizontales en las que se muestran las columnas
+     * indicadas: las demás se cruzan sin bajar por ellas y el recorrido termina en cuanto se han leído todas.
+     * La copia incluye también las otras columnas renderizadas en esas franjas (por ejemplo, las fijas).
+     *
+     * @param tableTitle título de la tabla.
+     * @param table      localiza la tabla; se vuelve a invocar si el elemento queda obsoleto.
+     * @param columns    cabeceras de las columnas que se necesitan; {@code null} para recorrer todas.
+     * @param keyHeaders cabeceras de las columnas que forman la clave de cada fila.
+     * @return copia dispersa por (clave de fila, cabecera).
+     */
+    TableGrid harvestGrid(String tableTitle, Supplier<WebElement> table, List<String> columns, String[] keyHeaders) {
+        long start = System.currentTimeMillis();
+        List<String> wanted = columns == null ? null : columns.stream().map(TableUtil::norm).toList();
+        WebElement tableElement = table.get();
+        TableGrid.Builder builder = new TableGrid.Builder(tableTitle);
+        Object resume = null;
+        int calls = 0;
+        int reads = 0;
+        boolean complete = false;
+
+        while (!complete && calls < MAX_GRID_CALLS) {
+            Map<?, ?> result;
+            calls++;
+            try {
+                result = (Map<?, ?>) ((JavascriptExecutor) driver).executeAsyncScript(
+                        GRID_SCRIPT, tableElement, resume, QUIET_MILLIS, MAX_JUMP_MILLIS, GRID_CALL_MILLIS, wanted);
+            } catch (StaleElementReferenceException e) {
+                // La tabla se volvió a crear: se repite la llamada desde la misma posición
+                tableElement = table.get();
+                continue;
+            }
+            waitUtil.failOnHttpError();
+
+            for (Object read : (List<?>) result.get("reads")) {
+                addRead(builder, TableSnapshot.asMap(read));
+                reads++;
+            }
+            resume = result.get("next");
+            complete = resume == null;
+        }
+
+        if (!complete) {
+            LogUtil.warn("Recorrido de la tabla '" + tableTitle + "' interrumpido tras " + MAX_GRID_CALLS + " llamadas.");
+        }
+        moveTo(tableTitle, tableElement, 0, 0);
+        TableGrid grid = builder.build(keyHeaders);
+        LogUtil.info(String.format("Tabla '%s' recorrida en dos direcciones: %d filas, %d columnas en %d lecturas y %d llamadas (%d ms).",
+                tableTitle, grid.rows().size(), grid.headers().size(), reads, calls, System.currentTimeMillis() - start));
+        return grid;
+    }
+
+    /**
+     * Cabeceras de la tabla en orden, incluidas las columnas que el scroll horizontal no tenía renderizadas. Solo
+     * recorre la fila de cabecera, sin leer filas, y devuelve el scroll horizontal a donde estaba.
+     *
+     * @param tableTitle título de la tabla (para los logs).
+     * @param table      localiza la tabla.
+     * @return textos de las cabeceras, de izquierda a derecha.
+     */
+    List<String> harvestHeaders(String tableTitle, Supplier<WebElement> table) {
+        long start = System.currentTimeMillis();
+        Object raw = ((JavascriptExecutor) driver).executeAsyncScript(HEADERS_SCRIPT, table.get(), QUIET_MILLIS, MAX_JUMP_MILLIS);
+        List<String> headers = new ArrayList<>();
+        for (Object header : (List<?>) raw) {
+            headers.add(String.valueOf(header));
+        }
+        LogUtil.info(String.format("Cabeceras de la tabla '%s' leídas: %d columnas (%d ms).",
+                tableTitle, headers.size(), System.currentTimeMillis() - start));
+        return headers;
+    }
+
+    /**
+     * Lleva el scroll de la tabla a la posición indicada y espera a que se renderice.
+     *
+     * @param tableTitle   título de la tabla (para los logs).
+     * @param tableElement la tabla.
+     * @param left         scroll horizontal.
+     * @param top          scroll vertical.
+     */
+    void moveTo(String tableTitle, WebElement tableElement, int left, int top) {
+        try {
+            ((JavascriptExecutor) driver).executeAsyncScript(MOVE_SCRIPT, tableElement, left, top, QUIET_MILLIS, MAX_JUMP_MILLIS);
+        } catch (StaleElementReferenceException e) {
+            LogUtil.warn("No se pudo desplazar la tabla '" + tableTitle + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recorre el scroll horizontal hasta que la columna queda renderizada y visible.
+     *
+     * @param tableElement la tabla.
+     * @param headerText   texto de la cabecera.
+     * @return {@code true} si la columna quedó renderizada.
+     */
+    boolean revealColumn(WebElement tableElement, String headerText) {
+        Object found = ((JavascriptExecutor) driver).executeAsyncScript(
+                COLUMN_SCRIPT, tableElement, TableUtil.norm(headerText), QUIET_MILLIS, MAX_JUMP_MILLIS);
+        return Boolean.TRUE.equals(found);
+    }
+
+    private static void addRead(TableGrid.Builder builder, Map<String, Object> read) {
+        List<TableGrid.Builder.ReadRow> rows = new ArrayList<>();
+        for (Object rawRow : (List<?>) read.get("rows")) {
+            Map<String, Object> row = TableSnapshot.asMap(rawRow);
+            List<String> texts = ((List<?>) row.get("texts")).stream().map(String::valueOf).toList();
+            Map<String, TableSnapshot.Cell> cells = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> cell : TableSnapshot.asMap(row.get("cells")).entrySet()) {
+                cells.put(cell.getKey(), TableSnapshot.parseCell(cell.getValue()));
+            }
+            rows.add(new TableGrid.Builder.ReadRow(String.valueOf(row.get("id")), texts, cells));
+        }
+        builder.addRead(((Number) read.get("left")).intValue(), ((Number) read.get("top")).intValue(),
+                TableSnapshot.parseHeaders(read), rows);
+    }
+}
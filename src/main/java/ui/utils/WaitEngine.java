@@ -0,0 +1,309 @@
+package ui.utils;
+
+import org.openqa.selenium.support.ui.Sleeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor central de esperas: perfiles de timeout por entorno, calendarios de sondeo y estadísticas de latencia.
+ *
+ * <p>Todas las esperas de {@link WaitUtil} pasan por aquí, de modo que la suite se ajusta desde un solo punto:</p>
+ * <ul>
+ *   <li><strong>Perfil</strong> ({@code -DwaitProfile=local|ci|slow-env}, {@code local} por defecto): multiplica
+ *       los timeouts de todas las esperas (x1, x1,5 y x2,5).</li>
+ *   <li><strong>Calendario de sondeo</strong> ({@code -DwaitPolling=exponential|fast-then-slow|fixed},
+ *       {@code exponential} por defecto): el intervalo de sondeo de cada espera pasa a ser el máximo del
+ *       calendario, de modo que las condiciones que se cumplen enseguida se detectan antes sin sondear más
+ *       a menudo en las esperas largas.</li>
+ *   <li><strong>Histogramas por condición</strong>: cada espera registra su duración con la descripción de la
+ *       condición (localizador incluido). Al terminar la ejecución se escribe
+ *       {@code target/wait-latency.txt} con percentiles, timeouts y un timeout sugerido para las condiciones
+ *       con muestras suficientes que nunca agotaron su espera.</li>
+ * </ul>
+ */
+public final class WaitEngine {
+
+    /** Primer intervalo de los calendarios no fijos. */
+    private static final long MIN_POLL_MILLIS = 25;
+
+    /** Duración de la fase rápida de {@link PollingSchedule#FAST_THEN_SLOW}. */
+    private static final long FAST_PHASE_MILLIS = 1000;
+
+    /** Límites superiores (ms) de los buckets del histograma; el último recoge el resto. */
+    private static final long[] BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, Long.MAX_VALUE};
+
+    /** Muestras mínimas para sugerir un timeout. */
+    private static final int MIN_SAMPLES_FOR_SUGGESTION = 20;
+
+    /** Condiciones distintas que se registran como máximo; el resto se agrupa. */
+    private static final int MAX_KEYS = 1000;
+    private static final String OTHER_KEY = "(otras condiciones)";
+    private static final int MAX_KEY_LENGTH = 200;
+
+    /** Condiciones que se muestran en el resumen del log. */
+    private static final int REPORT_TOP = 15;
+
+    private static final Path REPORT_FILE = Paths.get("target", "wait-latency.txt");
+
+    private static final Map<String, LatencyStats> STATS = new ConcurrentHashMap<>();
+
+    /**
+     * Perfil de timeouts por entorno.
+     */
+    public enum WaitProfile {
+        LOCAL(1.0), CI(1.5), SLOW_ENV(2.5);
+
+        private final double timeoutFactor;
+
+        WaitProfile(double timeoutFactor) {
+            this.timeoutFactor = timeoutFactor;
+        }
+
+        /**
+         * @return perfil indicado en {@code -DwaitProfile}; {@link #LOCAL} si no se indica.
+         */
+        public static WaitProfile current() {
+            return valueOf(System.getProperty("waitProfile", "local").trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * Calendario de intervalos entre sondeos de una espera.
+     */
+    public enum PollingSchedule {
+        /** Siempre el intervalo base. */
+        FIXED,
+        /** Empieza en {@value WaitEngine#MIN_POLL_MILLIS} ms y se duplica hasta el intervalo base. */
+        EXPONENTIAL,
+        /** {@value WaitEngine#MIN_POLL_MILLIS} ms durante el primer segundo y después el intervalo base. */
+        FAST_THEN_SLOW;
+
+        /**
+         * Intervalo antes del siguiente sondeo.
+         *
+         * @param poll          número de sondeos ya realizados (desde 0).
+         * @param elapsedMillis milisegundos transcurridos desde el inicio de la espera.
+         * @param baseMillis    intervalo base (máximo) de la espera.
+         * @return milisegundos a esperar.
+         */
+        long intervalMillis(int poll, long elapsedMillis, long baseMillis) {
+            if (baseMillis <= MIN_POLL_MILLIS) {
+                return baseMillis;
+            }
+            return switch (this) {
+                case FIXED -> baseMillis;
+                case EXPONENTIAL -> Math.min(baseMillis, MIN_POLL_MILLIS << Math.min(poll, 20));
+                case FAST_THEN_SLOW -> elapsedMillis < FAST_PHASE_MILLIS ? MIN_POLL_MILLIS : baseMillis;
+            };
+        }
+
+        /**
+         * @return calendario indicado en {@code -DwaitPolling}; {@link #EXPONENTIAL} si no se indica.
+         */
+        public static PollingSchedule current() {
+            return valueOf(System.getProperty("waitPolling", "exponential").trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * {@link Sleeper} que aplica el calendario de sondeo en vigor. Cada espera debe llamar a {@link #reset()}
+     * al comenzar.
+     */
+    public static final class Poller implements Sleeper {
+        private final long baseMillis;
+        private final PollingSchedule schedule = PollingSchedule.current();
+        private int polls;
+        private long startNanos = System.nanoTime();
+
+        private Poller(Duration basePolling) {
+            this.baseMillis = basePolling.toMillis();
+        }
+
+        /** Reinicia el calendario para una nueva espera. */
+        public void reset() {
+            polls = 0;
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void sleep(Duration ignoredInterval) throws InterruptedException {
+            long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+            Thread.sleep(schedule.intervalMillis(polls++, elapsed, baseMillis));
+        }
+    }
+
+    /**
+     * Estadísticas de latencia de una condición.
+     */
+    private static final class LatencyStats {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS.length];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final AtomicLong timeoutMillis = new AtomicLong();
+
+        private LatencyStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long millis, boolean timedOut, long configuredTimeoutMillis) {
+            int bucket = 0;
+            while (millis > BUCKETS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalMillis.add(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+            timeoutMillis.accumulateAndGet(configuredTimeoutMillis, Math::max);
+            if (timedOut) {
+                timeouts.increment();
+            }
+        }
+
+        /** Límite superior del bucket que alcanza el percentil indicado. */
+        private long percentile(double fraction) {
+            long total = count.sum();
+            long target = (long) Math.ceil(total * fraction);
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                if (cumulative >= target) {
+                    return Math.min(BUCKETS[i], maxMillis.get());
+                }
+            }
+            return maxMillis.get();
+        }
+
+        /** Timeout sugerido, o {@code -1} si no hay datos suficientes o no mejora el actual. */
+        private long suggestedTimeout() {
+            if (count.sum() < MIN_SAMPLES_FOR_SUGGESTION || timeouts.sum() > 0) {
+                return -1;
+            }
+            long candidate = Math.max(1000, percentile(0.99) * 3);
+            for (long bound : BUCKETS) {
+                if (bound >= candidate) {
+                    candidate = bound;
+                    break;
+                }
+            }
+            return candidate < timeoutMillis.get() / 2 ? candidate : -1;
+        }
+    }
+
+    private WaitEngine() {
+    }
+
+    /**
+     * Aplica el factor del perfil en vigor a un timeout.
+     *
+     * @param base timeout de referencia (perfil {@code local}).
+     * @return timeout a usar.
+     */
+    public static Duration timeout(Duration base) {
+        return Duration.ofMillis(Math.round(base.toMillis() * WaitProfile.current().timeoutFactor));
+    }
+
+    /**
+     * Crea el {@link Sleeper} de una espera con el calendario en vigor.
+     *
+     * @param basePolling intervalo de sondeo base (máximo) de la espera.
+     * @return sleeper a pasar al {@code WebDriverWait}.
+     */
+    public static Poller poller(Duration basePolling) {
+        return new Poller(basePolling);
+    }
+
+    /**
+     * Registra la duración de una espera.
+     *
+     * @param condition descripción de la condición esperada (p. ej. el {@code toString()} de un
+     *                  {@code ExpectedCondition}, que incluye el localizador).
+     * @param millis    duración de la espera en milisegundos.
+     * @param timedOut  {@code true} si la espera agotó su timeout.
+     * @param timeout   timeout configurado para la espera.
+     */
+    public static void record(String condition, long millis, boolean timedOut, Duration timeout) {
+        String key = condition.length() > MAX_KEY_LENGTH ? condition.substring(0, MAX_KEY_LENGTH) + "..." : condition;
+        LatencyStats stats = STATS.get(key);
+        if (stats == null) {
+            stats = STATS.computeIfAbsent(STATS.size() < MAX_KEYS ? key : OTHER_KEY, k -> new LatencyStats());
+        }
+        stats.record(millis, timedOut, timeout.toMillis());
+    }
+
+    /**
+     * Describe una condición para las estadísticas: su {@code toString()} si es descriptivo (las de
+     * {@code ExpectedConditions} lo son) o el nombre indicado en caso contrario (lambdas).
+     *
+     * @param condition condición esperada.
+     * @param fallback  nombre a usar si la condición no se describe a sí misma.
+     * @return descripción de la condición.
+     */
+    public static String describe(Object condition, String fallback) {
+        String description = String.valueOf(condition);
+        return description.contains("$$Lambda") || description.contains("$Lambda$") ? fallback : description;
+    }
+
+    /**
+     * Escribe {@code target/wait-latency.txt} con las estadísticas de todas las condiciones y muestra en el log
+     * las que más tiempo acumulan y los timeouts sugeridos.
+     */
+    public static void report() {
+        if (STATS.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, LatencyStats>> entries = new ArrayList<>(STATS.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, LatencyStats> e) -> e.getValue().totalMillis.sum()).reversed());
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("# Perfil: %s | Sondeo: %s", WaitProfile.current(), PollingSchedule.current()));
+        lines.add("esperas\ttotal_ms\tp50_ms\tp90_ms\tp99_ms\tmax_ms\ttimeouts\ttimeout_ms\tsugerido_ms\tcondicion");
+        for (Map.Entry<String, LatencyStats> entry : entries) {
+            lines.add(format(entry.getKey(), entry.getValue(), "\t"));
+        }
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            Files.write(REPORT_FILE, lines);
+        } catch (IOException e) {
+            LogUtil.warn("No se pudo escribir " + REPORT_FILE + ": " + e.getMessage());
+        }
+
+        StringBuilder summary = new StringBuilder(String.format(
+                "Esperas [perfil %s, sondeo %s]: %d condiciones (detalle en %s). Las que más tiempo acumulan:",
+                WaitProfile.current(), PollingSchedule.current(), entries.size(), REPORT_FILE));
+        entries.stream().limit(REPORT_TOP)
+                .forEach(e -> summary.append(System.lineSeparator()).append("  ").append(format(e.getKey(), e.getValue(), " | ")));
+        LogUtil.info(summary.toString());
+    }
+
+    private static String format(String key, LatencyStats stats, String separator) {
+        long suggested = stats.suggestedTimeout();
+        return String.join(separator,
+                String.valueOf(stats.count.sum()),
+                String.valueOf(stats.totalMillis.sum()),
+                String.valueOf(stats.percentile(0.5)),
+                String.valueOf(stats.percentile(0.9)),
+                String.valueOf(stats.percentile(0.99)),
+                String.valueOf(stats.maxMillis.get()),
+                String.valueOf(stats.timeouts.sum()),
+                String.valueOf(stats.timeoutMillis.get()),
+                suggested < 0 ? "-" : String.valueOf(suggested),
+                key);
+    }
+}
@@ -1,24 +1,160 @@
 package ui.utils;
 
+import config.NetworkTracker;
+import config.PageInstrumentation;
+import io.cucumber.java.Scenario;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import ui.manager.PageManager;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Clase de utilidades para aplicar esperas explícitas en elementos web.
+ *
+ * <p>Los timeouts, el calendario de sondeo y las estadísticas de latencia de todas las esperas los gestiona
+ * {@link WaitEngine} ({@code -DwaitProfile}, {@code -DwaitPolling}).</p>
  */
 public class WaitUtil {
 
+    /**
+     * Resuelve cuando el subárbol {@code arguments[0]} (o {@code document.body}) lleva
+     * {@code arguments[1]} ms sin mutaciones; devuelve {@code false} si se alcanza el máximo
+     * {@code arguments[2]} sin calma. Si {@code arguments[3]}/{@code arguments[4]} no son cero, desplaza
+     * antes el elemento en horizontal/vertical y devuelve si la posición de scroll cambió.
+     */
+    private static final String DOM_QUIET_SCRIPT =
+            "var root = arguments[0] || document.body, quiet = arguments[1], max = arguments[2];"
+            + "var dx = arguments[3], dy = arguments[4], done = arguments[arguments.length - 1];"
+            + "var finished = false, timer, limit, moved = null;"
+            + "var observer = new MutationObserver(function () { clearTimeout(timer); timer = setTimeout(function () { finish(true); }, quiet); });"
+            + "function finish(settled) {"
+            + "  if (finished) { return; } finished = true; observer.disconnect(); clearTimeout(timer); clearTimeout(limit);"
+            + "  done(moved === null ? settled : moved);"
+            + "}"
+            + "observer.observe(root, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "if (dx || dy) {"
+            + "  var top = root.scrollTop, left = root.scrollLeft;"
+            + "  root.scrollTop = top + dy; root.scrollLeft = left + dx;"
+            + "  moved = root.scrollTop !== top || root.scrollLeft !== left;"
+            + "}"
+            + "timer = setTimeout(function () { finish(true); }, quiet);"
+            + "limit = setTimeout(function () { finish(false); }, max);";
+
+    /**
+     * Resuelve con el primer elemento visible que cumple el selector CSS {@code arguments[1]} dentro de
+     * {@code arguments[0]} (o del documento) en cuanto aparece, o con {@code null} tras {@code arguments[2]} ms.
+     */
+    private static final String SELECTOR_SCRIPT =
+            "var root = arguments[0] || document, selector = arguments[1], max = arguments[2];"
+            + "var done = arguments[arguments.length - 1];"
+            + "function find() {"
+            + "  var nodes = root.querySelectorAll(selector);"
+            + "  for (var i = 0; i < nodes.length; i++) { if (nodes[i].getClientRects().length) { return nodes[i]; } }"
+            + "  return null;"
+            + "}"
+            + "var found = find();"
+            + "if (found) { done(found); return; }"
+            + "var limit;"
+            + "var observer = new MutationObserver(function () {"
+            + "  var el = find(); if (el) { observer.disconnect(); clearTimeout(limit); done(el); }"
+            + "});"
+            + "observer.observe(root === document ? document.documentElement : root, {childList: true, subtree: true, attributes: true});"
+            + "limit = setTimeout(function () { observer.disconnect(); done(null); }, max);";
+
+    /**
+     * Resuelve en cuanto la aplicación está ociosa: todas las testabilities de Angular estables (o
+     * {@code arguments[1]} para ignorarlas), ninguna petición HTTP en curso y el documento cargado, durante
+     * dos comprobaciones seguidas separadas por una tarea del event loop. Mientras la zona no está estable se
+     * re-comprueba desde {@code whenStable}; las peticiones se sondean cada 25 ms. Tras {@code arguments[0]}
+     * ms resuelve con {@code stable: false}. En {@code errors} devuelve y vacía los errores HTTP registrados.
+     */
+    private static final String APP_STABLE_SCRIPT = PageInstrumentation.HOOK_SCRIPT
+            + "var max = arguments[0], ignoreZone = arguments[1], done = arguments[arguments.length - 1];"
+            + "var start = Date.now(), finished = false, idleOnce = false, listening = false, timer;"
+            + "function unstableTestabilities() {"
+            + "  if (ignoreZone || typeof window.getAllAngularTestabilities !== 'function') { return []; }"
+            + "  return window.getAllAngularTestabilities().filter(function (t) { return !t.isStable(); });"
+            + "}"
+            + "function finish(stable, http, zone) {"
+            + "  if (finished) { return; } finished = true; clearTimeout(timer);"
+            + "  done({stable: stable, http: http, zone: zone, waited: Date.now() - start, errors: window.__smarttest.errors.splice(0)});"
+            + "}"
+            + "function check() {"
+            + "  if (finished) { return; } clearTimeout(timer);"
+            + "  var http = window.__smarttest.pending, unstable = unstableTestabilities();"
+            + "  var idle = http === 0 && unstable.length === 0 && document.readyState === 'complete';"
+            + "  if (idle && idleOnce) { finish(true, 0, true); return; }"
+            + "  idleOnce = idle;"
+            + "  if (Date.now() - start >= max) { finish(false, http, unstable.length === 0); return; }"
+            + "  if (unstable.length && !listening) { listening = true; unstable.forEach(function (t) { t.whenStable(check); }); }"
+            + "  timer = setTimeout(check, idle ? 0 : 25);"
+            + "}"
+            + "check();";
+
+    /** Timeout de las esperas sin timeout propio (perfil {@code local}; ver {@link WaitEngine}). */
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+
+    /** Intervalo de sondeo máximo de las esperas sin intervalo propio. */
+    private static final Duration DEFAULT_POLLING = Duration.ofMillis(500);
+
+    /**
+     * Intervalo de sondeo de {@link #waitForNetworkIdle(long, String)}: solo lee el estado de
+     * {@link NetworkTracker}, sin llamar al navegador.
+     */
+    private static final Duration NETWORK_POLLING = Duration.ofMillis(10);
+
+    /** Devuelve y vacía los errores HTTP registrados por {@link PageInstrumentation} en la página. */
+    private static final String HTTP_ERRORS_SPLICE = "return window.__smarttest ? window.__smarttest.errors.splice(0) : [];";
+
+    /** {@link #HTTP_ERRORS_SPLICE} con la instalación previa del hook, para navegadores sin registro CDP. */
+    private static final String HTTP_ERRORS_SCRIPT = PageInstrumentation.HOOK_SCRIPT + HTTP_ERRORS_SPLICE;
+
+    /** Etiqueta de los escenarios que provocan errores del backend a propósito. */
+    private static final String HTTP_ERROR_EXPECTED_TAG = "@httpErrorExpected";
+
+    /** Intervalo mínimo entre consultas de errores HTTP en las esperas que sondean desde Java. */
+    private static final long HTTP_ERROR_CHECK_MILLIS = 200;
+
+    /** Calma exigida tras cada scroll de las tablas virtuales antes de volver a buscar el elemento. */
+    private static final int SCROLL_QUIET_MILLIS = 50;
+
+    /** Máximo por scroll; equivale a la pausa fija que se usaba antes entre scrolls. */
+    private static final int SCROLL_MAX_MILLIS = 300;
+
+    /** Solape entre dos saltos de pantalla de las tablas virtuales, para no saltarse filas a medio mostrar. */
+    private static final int SCROLL_OVERLAP_PX = 50;
+
     private final WebDriver driver;
     private final WebDriverWait wait;
 
+    /**
+     * {@code true} cuando la zona de Angular no llegó a estabilizarse sin peticiones en curso (timers o
+     * sondeos periódicos de la aplicación); a partir de entonces solo se esperan las peticiones HTTP.
+     */
+    private boolean ignoreAngularZone;
+
+    /** {@code false} con {@code -DfailOnHttpError=false} o en escenarios {@value #HTTP_ERROR_EXPECTED_TAG}. */
+    private final boolean failOnHttpError;
+
+    /** Fragmentos de URL cuyos errores no detienen las esperas ({@code -DhttpErrorIgnore}). */
+    private final List<String> ignoredHttpErrorUrls;
+
+    /** Primer error del backend detectado; una vez detectado, todas las esperas fallan con él. */
+    private IllegalStateException backendError;
+
+    /** {@code true} mientras se ejecuta una validación de {@link #expectingHttpErrors(Runnable)}. */
+    private boolean httpErrorsExpected;
+
     /**
      * Constructor que inicializa el WebDriverWait con el tiempo por defecto.
      *
@@ -26,7 +162,154 @@ public class WaitUtil {
      */
     public WaitUtil(PageManager pageManager) {
         this.driver = pageManager.getDriver();
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(60)); // Configurable
+        this.wait = newWait("waitUntil", DEFAULT_TIMEOUT, DEFAULT_POLLING);
+
+        Scenario scenario = pageManager.getScenarioContext() == null ? null : pageManager.getScenarioContext().getScenario();
+        this.failOnHttpError = Boolean.parseBoolean(System.getProperty("failOnHttpError", "true"))
+                && (scenario == null || !scenario.getSourceTagNames().contains(HTTP_ERROR_EXPECTED_TAG));
+        this.ignoredHttpErrorUrls = Arrays.stream(System.getProperty("httpErrorIgnore", "").split(","))
+                .map(String::trim)
+                .filter(fragment -> !fragment.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Crea un {@link WebDriverWait} gestionado por {@link WaitEngine}: timeout ajustado al perfil en vigor,
+     * sondeo según el calendario configurado (con {@code polling} como intervalo máximo) y registro de la
+     * duración de cada espera. Antes de evaluar la condición comprueba si el backend ha devuelto un error
+     * ({@link #failOnHttpError()}), como mucho cada {@value #HTTP_ERROR_CHECK_MILLIS} ms para no duplicar las
+     * llamadas al navegador con sondeos cortos.
+     *
+     * @param name    nombre de la espera en las estadísticas cuando la condición no se describe a sí misma.
+     * @param timeout timeout de referencia (perfil {@code local}).
+     * @param polling intervalo de sondeo máximo.
+     */
+    private WebDriverWait newWait(String name, Duration timeout, Duration polling) {
+        Duration scaledTimeout = WaitEngine.timeout(timeout);
+        WaitEngine.Poller poller = WaitEngine.poller(polling);
+        return new WebDriverWait(driver, scaledTimeout, polling, Clock.systemDefaultZone(), poller) {
+            @Override
+            public <V> V until(Function<? super WebDriver, V> isTrue) {
+                poller.reset();
+                long start = System.nanoTime();
+                boolean timedOut = false;
+                try {
+                    return super.until(new Function<WebDriver, V>() {
+                        private long nextErrorCheck = start;
+
+                        @Override
+                        public V apply(WebDriver webDriver) {
+                            long now = System.nanoTime();
+                            if (now - nextErrorCheck >= 0) {
+                                failOnHttpError();
+                                nextErrorCheck = now + TimeUnit.MILLISECONDS.toNanos(HTTP_ERROR_CHECK_MILLIS);
+                            }
+                            return isTrue.apply(webDriver);
+                        }
+
+                        @Override
+                        public String toString() {
+                            return String.valueOf(isTrue);
+                        }
+                    });
+                } catch (TimeoutException e) {
+                    timedOut = true;
+                    throw e;
+                } finally {
+                    WaitEngine.record(WaitEngine.describe(isTrue, name),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), timedOut, scaledTimeout);
+                }
+            }
+        };
+    }
+
+    /**
+     * Falla de inmediato si alguna llamada fetch/XHR de la página respondió con un estado 4xx/5xx.
+     *
+     * <p>Los errores los registra en el navegador {@link PageInstrumentation}; todas las esperas de esta
+     * clase llaman a este metodo en cada sondeo, de modo que un escenario roto por el backend falla en
+     * cuanto llega la respuesta, con la URL, el estado y el cuerpo, en lugar de agotar el timeout.</p>
+     *
+     * <p>Una vez detectado, el error se conserva: las esperas siguientes (incluidos los reintentos) fallan
+     * con él sin volver a esperar. No aplica con {@code -DfailOnHttpError=false}, en escenarios etiquetados
+     * con {@value #HTTP_ERROR_EXPECTED_TAG} ni a las URL que contienen algún fragmento de
+     * {@code -DhttpErrorIgnore}.</p>
+     *
+     * @throws IllegalStateException si el backend devolvió un error.
+     */
+    public void failOnHttpError() {
+        if (httpErrorsExpected) {
+            return;
+        }
+        if (backendError != null) {
+            throw backendError;
+        }
+        if (!failOnHttpError) {
+            return;
+        }
+        try {
+            checkHttpErrors(((JavascriptExecutor) driver).executeScript(httpErrorsScript()));
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            // Página en navegación o alerta abierta: se comprobará en el siguiente sondeo
+        }
+    }
+
+    /**
+     * Ejecuta una validación que espera un error del backend sin que sus esperas fallen por ese error.
+     *
+     * <p>Lo usan las validaciones de mensajes de error: durante la acción no se comprueban los errores HTTP y
+     * al terminar se descartan los registrados, incluido el que se estaba verificando.</p>
+     *
+     * @param validation validación a ejecutar.
+     */
+    public void expectingHttpErrors(Runnable validation) {
+        httpErrorsExpected = true;
+        try {
+            validation.run();
+        } finally {
+            httpErrorsExpected = false;
+            backendError = null;
+            try {
+                Object discarded = ((JavascriptExecutor) driver).executeScript(httpErrorsScript());
+                if (discarded instanceof List<?> errors && !errors.isEmpty()) {
+                    LogUtil.info("Se descartan " + errors.size() + " errores HTTP esperados: " + errors);
+                }
+            } catch (WebDriverException e) {
+                LogUtil.warn("No se pudieron descartar los errores HTTP de la página: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return script que vacía los errores HTTP; sin el hook cuando el navegador ya lo inyecta vía CDP.
+     */
+    private String httpErrorsScript() {
+        return PageInstrumentation.isInstalled(driver) ? HTTP_ERRORS_SPLICE : HTTP_ERRORS_SCRIPT;
+    }
+
+    /**
+     * Lanza el primer error HTTP de la lista que no esté ignorado.
+     */
+    private void checkHttpErrors(Object errors) {
+        if (!failOnHttpError || httpErrorsExpected || !(errors instanceof List<?> list)) {
+            return;
+        }
+        for (Object item : list) {
+            if (!(item instanceof Map<?, ?> error)) {
+                continue;
+            }
+            String url = String.valueOf(error.get("url"));
+            if (ignoredHttpErrorUrls.stream().anyMatch(url::contains)) {
+                continue;
+            }
+            backendError = new IllegalStateException(String.format(
+                    "El backend respondió con error: %s %s -> HTTP %s%nRespuesta: %s",
+                    error.get("method"), url, error.get("status"), error.get("body")));
+            LogUtil.error(backendError.getMessage());
+            throw backendError;
+        }
     }
 
     /**
@@ -74,8 +357,8 @@ public class WaitUtil {
         LogUtil.info("Iniciando verificación de visibilidad del elemento: " + locator);
         LogUtil.info("Tiempo máximo de espera: " + timeoutMillis + " ms | Intervalo de sondeo: " + pollingMillis + " ms");
 
-        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofMillis(timeoutMillis));
-        customWait.pollingEvery(Duration.ofMillis(pollingMillis));
+        WebDriverWait customWait = newWait("isElementVisible " + locator,
+                Duration.ofMillis(timeoutMillis), Duration.ofMillis(pollingMillis));
 
         long start = System.currentTimeMillis();
         try {
@@ -161,8 +444,8 @@ public class WaitUtil {
         LogUtil.info("Esperando desaparición del elemento: " + elementName);
         LogUtil.info("Timeout configurado: " + timeoutMillis + " ms | Intervalo de sondeo: " + pollingMillis + " ms");
 
-        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofMillis(timeoutMillis));
-        customWait.pollingEvery(Duration.ofMillis(pollingMillis));
+        WebDriverWait customWait = newWait("waitForInvisibility " + elementName,
+                Duration.ofMillis(timeoutMillis), Duration.ofMillis(pollingMillis));
 
         long start = System.currentTimeMillis();
         try {
@@ -196,8 +479,8 @@ public class WaitUtil {
         LogUtil.info("Esperando desaparición del WebElement: " + elementName);
         LogUtil.info("Timeout configurado: " + timeoutMillis + " ms | Intervalo de sondeo: " + pollingMillis + " ms");
 
-        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofMillis(timeoutMillis));
-        customWait.pollingEvery(Duration.ofMillis(pollingMillis));
+        WebDriverWait customWait = newWait("waitForInvisibility " + elementName,
+                Duration.ofMillis(timeoutMillis), Duration.ofMillis(pollingMillis));
 
         long start = System.currentTimeMillis();
         try {
@@ -218,8 +501,9 @@ public class WaitUtil {
     /**
      * Realiza una pausa fija del hilo actual durante la cantidad de milisegundos indicada.
      *
-     * Este metodo utiliza {@code Thread.sleep} para detener la ejecución durante un tiempo determinado.
-     * En caso de que el hilo sea interrumpido, se registra el error en el log y se restablece el estado de interrupción.
+     * La pausa se hace con {@link SleepBudget#sleep(long, String)}, que la contabiliza por escenario y por
+     * punto de llamada. En caso de que el hilo sea interrumpido, se registra el error en el log y se
+     * restablece el estado de interrupción.
      *
      * <strong>Nota:</strong> Esta es una espera forzada (hard wait), y debe usarse con precaución.
      * Se recomienda preferir esperas explícitas con condiciones (como WebDriverWait) siempre que sea posible.
@@ -230,15 +514,207 @@ public class WaitUtil {
     public void sleepMillis(long millis, String reason) {
         LogUtil.info("Iniciando pausa de " + millis + " ms. Motivo: " + reason);
         long startTime = System.currentTimeMillis();
+        SleepBudget.sleep(millis, reason);
+        if (Thread.currentThread().isInterrupted()) {
+            LogUtil.error("El hilo fue interrumpido durante el sleep de " + millis + " ms. Motivo: " + reason);
+        }
+        long elapsed = System.currentTimeMillis() - startTime;
+        LogUtil.info("Pausa finalizada. Tiempo transcurrido: " + elapsed + " ms. Motivo: " + reason);
+        failOnHttpError();
+    }
+
+    /**
+     * Espera a que el subárbol del elemento indicado deje de cambiar durante {@code quietMillis} ms.
+     *
+     * <p>Se resuelve dentro del navegador con un {@code MutationObserver} ({@code executeAsyncScript}):
+     * una sola llamada al driver sustituye a los bucles de "pausa y volver a mirar". Es útil tras acciones
+     * que re-renderizan una zona (scroll virtual, cambios de cabecera, filtros) cuando no hay un texto o
+     * elemento concreto que esperar.</p>
+     *
+     * @param root          raíz del subárbol a observar; {@code null} para todo el {@code body}.
+     * @param quietMillis   milisegundos sin mutaciones para considerar el DOM estable.
+     * @param timeoutMillis tiempo máximo de espera en milisegundos.
+     * @return {@code true} si el DOM quedó estable; {@code false} si se agotó el tiempo con cambios en curso.
+     */
+    public boolean waitForDomQuiet(WebElement root, long quietMillis, long timeoutMillis) {
+        long start = System.currentTimeMillis();
+        Duration timeout = WaitEngine.timeout(Duration.ofMillis(timeoutMillis));
+        Object settled = ((JavascriptExecutor) driver).executeAsyncScript(
+                DOM_QUIET_SCRIPT, root, quietMillis, timeout.toMillis(), 0, 0);
+        long elapsed = System.currentTimeMillis() - start;
+        boolean quiet = Boolean.TRUE.equals(settled);
+        WaitEngine.record("waitForDomQuiet " + quietMillis + " ms", elapsed, !quiet, timeout);
+        failOnHttpError();
+        if (!quiet) {
+            LogUtil.warn("El DOM siguió cambiando durante " + elapsed + " ms (máximo " + timeout.toMillis() + " ms).");
+        }
+        return quiet;
+    }
+
+    /**
+     * Espera a que la aplicación Angular quede ociosa: zona estable ({@code getAllAngularTestabilities()} /
+     * {@code whenStable}), sin peticiones HTTP en curso y con el documento cargado.
+     *
+     * <p>Se resuelve en el navegador con una sola llamada y vuelve en cuanto la aplicación está ociosa, sin
+     * pausas fijas. El número de peticiones en curso lo lleva {@link PageInstrumentation}. Las interacciones
+     * de {@code BasePage} lo invocan automáticamente antes de actuar.</p>
+     *
+     * <p>El máximo es {@code -DappStableTimeoutMillis} (10000 por defecto, ajustado al perfil de {@link WaitEngine};
+     * {@code 0} desactiva la espera).
+     * Si se agota no falla: registra un aviso y la acción sigue con las esperas explícitas de siempre. Si la
+     * zona nunca se estabiliza aunque no haya peticiones (timers o sondeos de la aplicación), las siguientes
+     * llamadas de esta instancia solo esperan a las peticiones HTTP.</p>
+     *
+     * @return {@code true} si la aplicación quedó ociosa; {@code false} si se agotó el tiempo o está desactivada.
+     */
+    public boolean waitForAppStable() {
+        long timeoutMillis = Long.getLong("appStableTimeoutMillis", 10000);
+        if (timeoutMillis <= 0) {
+            failOnHttpError();
+            return false;
+        }
+        if (backendError != null && !httpErrorsExpected) {
+            throw backendError;
+        }
+        Duration timeout = WaitEngine.timeout(Duration.ofMillis(timeoutMillis));
+        Object result;
         try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            LogUtil.error("El hilo fue interrumpido durante el sleep de " + millis + " ms. Motivo: " + reason, e);
-            Thread.currentThread().interrupt();
-        } finally {
-            long elapsed = System.currentTimeMillis() - startTime;
-            LogUtil.info("Pausa finalizada. Tiempo transcurrido: " + elapsed + " ms. Motivo: " + reason);
+            result = ((JavascriptExecutor) driver).executeAsyncScript(APP_STABLE_SCRIPT, timeout.toMillis(), ignoreAngularZone);
+        } catch (WebDriverException e) {
+            LogUtil.warn("No se pudo comprobar la estabilidad de la aplicación: " + e.getMessage());
+            return false;
+        }
+        if (!(result instanceof Map<?, ?> state)) {
+            return false;
+        }
+        boolean stable = Boolean.TRUE.equals(state.get("stable"));
+        if (state.get("waited") instanceof Number waited) {
+            WaitEngine.record("waitForAppStable", waited.longValue(), !stable, timeout);
+        }
+        checkHttpErrors(state.get("errors"));
+        if (stable) {
+            return true;
+        }
+
+        boolean zoneStable = Boolean.TRUE.equals(state.get("zone"));
+        Object pending = state.get("http");
+        LogUtil.warn("La aplicación no quedó estable en " + state.get("waited") + " ms: " + pending
+                + " peticiones HTTP en curso, zona de Angular " + (zoneStable ? "estable" : "ocupada") + ".");
+        if (!zoneStable && Long.valueOf(0).equals(pending) && !ignoreAngularZone) {
+            ignoreAngularZone = true;
+            LogUtil.warn("La zona de Angular no se estabiliza sin peticiones en curso; en adelante solo se esperan las peticiones HTTP.");
         }
+        return false;
+    }
+
+    /**
+     * Espera a que no haya peticiones de red en curso que coincidan con el filtro y a que pasen
+     * {@code quietMillis} ms sin actividad, contados desde la llamada o desde la última petición.
+     *
+     * <p>Pensado para después de una acción que dispara una llamada al backend (guardar, filtrar,
+     * "Calcular todo"): la ventana de calma cubre el tiempo hasta que la petición sale y la espera termina
+     * en cuanto la respuesta llega. Se basa en los eventos CDP de {@link NetworkTracker}; en navegadores
+     * sin seguimiento de red recurre a {@link #waitForAppStable()}.</p>
+     *
+     * @param quietMillis milisegundos sin actividad de red para considerarla ociosa.
+     * @param urlFilter   fragmento de URL de las peticiones a esperar (p. ej. {@code "/api/forecast"});
+     *                    {@code null} o vacío para todas.
+     * @throws TimeoutException si quedan peticiones en curso tras 60 segundos (ajustados al perfil de {@link WaitEngine}).
+     */
+    public void waitForNetworkIdle(long quietMillis, String urlFilter) {
+        NetworkTracker tracker = NetworkTracker.of(driver);
+        if (tracker == null) {
+            waitForAppStable();
+            return;
+        }
+
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        boolean filtered = urlFilter != null && !urlFilter.isEmpty();
+        WebDriverWait idleWait = newWait("waitForNetworkIdle" + (filtered ? " " + urlFilter : ""), DEFAULT_TIMEOUT, NETWORK_POLLING);
+        idleWait.withMessage(() -> "La red no quedó ociosa; peticiones en curso: " + tracker.pendingUrls(urlFilter));
+        long start = System.nanoTime();
+        // El estado lo actualizan los eventos CDP en otro hilo: comprobarlo no cuesta llamadas al navegador
+        long waited = idleWait.until(webDriver -> {
+            long now = System.nanoTime();
+            long idleSince = Math.max(start, tracker.lastActivityNanos(urlFilter));
+            boolean idle = tracker.pendingUrls(urlFilter).isEmpty() && now - idleSince >= quietNanos;
+            return idle ? TimeUnit.NANOSECONDS.toMillis(now - start) : null;
+        });
+        if (waited > quietMillis) {
+            LogUtil.info("Red ociosa" + (filtered ? " para '" + urlFilter + "'" : "") + " tras " + waited + " ms.");
+        }
+    }
+
+    /**
+     * Desplaza un contenedor con scroll y espera a que el contenido re-renderizado quede estable, todo en
+     * una única llamada al navegador.
+     *
+     * <p>Sustituye a la secuencia "scroll + pausa fija" de las tablas virtuales ({@code cdk-virtual-scroll}):
+     * vuelve en cuanto el contenedor lleva {@value #SCROLL_QUIET_MILLIS} ms sin mutaciones, con un máximo de
+     * {@value #SCROLL_MAX_MILLIS} ms.</p>
+     *
+     * @param scrollable contenedor con scroll.
+     * @param deltaX     píxeles a desplazar en horizontal.
+     * @param deltaY     píxeles a desplazar en vertical.
+     * @return {@code true} si la posición de scroll cambió; {@code false} si ya estaba al final.
+     */
+    public boolean scrollAndWaitForDomQuiet(WebElement scrollable, int deltaX, int deltaY) {
+        long start = System.currentTimeMillis();
+        Object moved = ((JavascriptExecutor) driver).executeAsyncScript(
+                DOM_QUIET_SCRIPT, scrollable, SCROLL_QUIET_MILLIS, SCROLL_MAX_MILLIS, deltaX, deltaY);
+        WaitEngine.record("scrollAndWaitForDomQuiet", System.currentTimeMillis() - start, false,
+                Duration.ofMillis(SCROLL_MAX_MILLIS));
+        failOnHttpError();
+        return Boolean.TRUE.equals(moved);
+    }
+
+    /**
+     * Desplazamiento vertical de una pantalla del contenedor con scroll, menos {@value #SCROLL_OVERLAP_PX} px de
+     * solape.
+     *
+     * @param scrollable contenedor con scroll.
+     * @return píxeles a desplazar en cada salto (como mínimo {@value #SCROLL_OVERLAP_PX}).
+     */
+    private int viewportScrollStep(WebElement scrollable) {
+        Object height = ((JavascriptExecutor) driver).executeScript("return arguments[0].clientHeight;", scrollable);
+        int clientHeight = height instanceof Number number ? number.intValue() : 0;
+        return Math.max(SCROLL_OVERLAP_PX, clientHeight - SCROLL_OVERLAP_PX);
+    }
+
+    /**
+     * Desplazamiento horizontal de una pantalla del contenedor con scroll, menos {@value #SCROLL_OVERLAP_PX} px de
+     * solape.
+     *
+     * @param scrollable contenedor con scroll.
+     * @return píxeles a desplazar en cada salto (como mínimo {@value #SCROLL_OVERLAP_PX}).
+     */
+    private int viewportScrollStepX(WebElement scrollable) {
+        Object width = ((JavascriptExecutor) driver).executeScript("return arguments[0].clientWidth;", scrollable);
+        int clientWidth = width instanceof Number number ? number.intValue() : 0;
+        return Math.max(SCROLL_OVERLAP_PX, clientWidth - SCROLL_OVERLAP_PX);
+    }
+
+    /**
+     * Espera a que aparezca un elemento visible que cumpla el selector CSS dentro de una raíz.
+     *
+     * <p>Se resuelve en el navegador con un {@code MutationObserver}: vuelve en cuanto el elemento aparece,
+     * sin intervalo de sondeo.</p>
+     *
+     * @param root          raíz de la búsqueda; {@code null} para todo el documento.
+     * @param cssSelector   selector CSS del elemento.
+     * @param timeoutMillis tiempo máximo de espera en milisegundos.
+     * @return el elemento encontrado, o {@code null} si no apareció a tiempo.
+     */
+    public WebElement waitForSelector(WebElement root, String cssSelector, long timeoutMillis) {
+        long start = System.currentTimeMillis();
+        Duration timeout = WaitEngine.timeout(Duration.ofMillis(timeoutMillis));
+        Object found = ((JavascriptExecutor) driver).executeAsyncScript(SELECTOR_SCRIPT, root, cssSelector, timeout.toMillis());
+        WaitEngine.record("waitForSelector " + cssSelector, System.currentTimeMillis() - start, found == null, timeout);
+        failOnHttpError();
+        if (found == null) {
+            LogUtil.warn("No apareció ningún elemento visible con el selector '" + cssSelector + "' en " + timeout.toMillis() + " ms.");
+        }
+        return found instanceof WebElement element ? element : null;
     }
 
     /**
@@ -282,6 +758,7 @@ public class WaitUtil {
                 }
 
             } catch (Exception e) {
+                failOnHttpError();
                 LogUtil.warn("Error en intento " + i + " para localizar elemento visible: " + locator.toString() + ". Reintentando...", e);
             }
             sleepMillis(time, "Tiempo de espera entre intentos");
@@ -335,6 +812,7 @@ public class WaitUtil {
             } catch (StaleElementReferenceException sere) {
                 LogUtil.warn("StaleElementReferenceException en intento " + i + " para locator: " + childLocator.toString() + ". Reintentando...", sere);
             } catch (Exception e) {
+                failOnHttpError();
                 LogUtil.warn("Error en intento " + i + " para localizar elementos hijos: " + childLocator.toString() + ". Reintentando...", e);
             }
 
@@ -454,9 +932,7 @@ public class WaitUtil {
                         .collect(Collectors.toList());
             } catch (StaleElementReferenceException e) {
                 // Esperar un poco y reintentar
-                try {
-                    Thread.sleep(time);
-                } catch (InterruptedException ignored) {}
+                SleepBudget.sleep(time, "Reintento por elemento obsoleto");
             }
         }
 
@@ -467,6 +943,11 @@ public class WaitUtil {
     /**
      * Realiza scroll en una tabla virtual con `cdk-virtual-scroll` hasta que el elemento esté visible en el DOM.
      *
+     * <p>Avanza de pantalla en pantalla, con un pequeño solape; tras cada desplazamiento
+     * espera con {@link #scrollAndWaitForDomQuiet(WebElement, int, int)} a que la tabla termine de renderizar, y
+     * abandona la búsqueda en cuanto el scroll llega al final. Para recorrer todas las filas de una tabla se
+     * usa {@link TableUtil#scanRows}.</p>
+     *
      * @param targetLocator Localizador del elemento esperado (generalmente un <td>, <tr> o <span>).
      * @throws RuntimeException si el elemento no se encuentra tras scroll completo.
      */
@@ -478,15 +959,10 @@ public class WaitUtil {
         WebElement scrollable = findVisibleElement(scrollableContainerLocator);
         JavascriptExecutor js = (JavascriptExecutor) driver;
 
-        // Cantidad de píxeles que se desplaza verticalmente en cada iteración del scroll.
-        // Un valor menor hace scrolls más cortos, lo que mejora la precisión en la carga de elementos
-        // en componentes virtuales como cdk-virtual-scroll, pero puede aumentar el tiempo total de búsqueda.
-        int scrollStep = 50;
-
-        // Tiempo de espera entre scroll que permite que se rendericen nuevos elementos
-        int sleepMillis = 300;
+        // Salto de una pantalla (menos el solape): cdk-virtual-scroll renderiza todo lo visible tras cada salto
+        int scrollStep = viewportScrollStep(scrollable);
 
-        // Número máximo de iteraciones de scroll permitidas antes de abandonar la búsqueda.
+        // Número máximo de pantallas recorridas antes de abandonar la búsqueda.
         // Actúa como límite de seguridad para evitar ciclos infinitos en caso de que el elemento nunca aparezca.
         int maxScrolls = 50;
 
@@ -499,10 +975,10 @@ public class WaitUtil {
                 return;
             }
 
-            // Ejecutar scroll vertical
-            js.executeScript("arguments[0].scrollTop = arguments[0].scrollTop + arguments[1];",
-                    scrollable, scrollStep);
-            sleepMillis(sleepMillis, "Tiempo de espera entre scroll que permite que se rendericen nuevos elementos");
+            // Scroll vertical; espera a que se rendericen los nuevos elementos y se detiene al llegar al final
+            if (!scrollAndWaitForDomQuiet(scrollable, 0, scrollStep) && !isElementPresent(targetLocator)) {
+                break;
+            }
         }
 
         String message = "No se encontró el elemento tras scroll completo: " + targetLocator;
@@ -523,8 +999,7 @@ public class WaitUtil {
         WebElement scrollable = findVisibleElement(scrollableContainerLocator);
         JavascriptExecutor js = (JavascriptExecutor) driver;
 
-        int scrollStep = 50;
-        int sleepMillis = 300;
+        int scrollStep = viewportScrollStep(scrollable);
         int maxScrolls = 50;
 
         for (int i = 0; i < maxScrolls; i++) {
@@ -539,9 +1014,9 @@ public class WaitUtil {
                 LogUtil.warn("Elemento no disponible en este ciclo, intentando nuevamente...");
             }
 
-            js.executeScript("arguments[0].scrollTop = arguments[0].scrollTop + arguments[1];",
-                    scrollable, scrollStep);
-            sleepMillis(sleepMillis, "Tiempo de espera entre scroll que permite que se rendericen nuevos elementos");
+            if (!scrollAndWaitForDomQuiet(scrollable, 0, scrollStep)) {
+                break; // final del scroll
+            }
         }
 
         String message = "No se encontró el elemento tras scroll completo: " + targetElement;
@@ -608,8 +1083,8 @@ public class WaitUtil {
      * hasta que el elemento objetivo sea visible.
      * <p>
      * Este metodo es útil para tablas u otros elementos que usan scroll virtual horizontal.
-     * Realiza desplazamientos hacia la derecha en pasos pequeños hasta que el {@code targetElement}
-     * esté visible y centrado horizontalmente.
+     * Avanza hacia la derecha de pantalla en pantalla, con un pequeño solape, hasta que el {@code targetElement}
+     * esté visible y lo centra horizontalmente.
      * </p>
      *
      * @param targetElement el elemento que se desea hacer visible mediante scroll horizontal.
@@ -623,8 +1098,7 @@ public class WaitUtil {
         WebElement scrollable = findVisibleElement(scrollableContainerLocator);
 
         JavascriptExecutor js = (JavascriptExecutor) driver;
-        int scrollStep = 100;
-        int sleepMillis = 300;
+        int scrollStep = viewportScrollStepX(scrollable);
         int maxScrolls = 50;
 
         for (int i = 0; i < maxScrolls; i++) {
@@ -635,11 +1109,10 @@ public class WaitUtil {
                 return;
             }
 
-            // Ejecutar scroll hacia la derecha
-            js.executeScript("arguments[0].scrollLeft = arguments[0].scrollLeft + arguments[1];",
-                    scrollable, scrollStep);
-
-            sleepMillis(sleepMillis, "Tiempo de espera entre scrolls horizontales");
+            // Scroll hacia la derecha y espera a que se rendericen las nuevas columnas
+            if (!scrollAndWaitForDomQuiet(scrollable, scrollStep, 0)) {
+                break; // final del scroll
+            }
         }
 
         String message = "No se encontró el elemento tras scroll horizontal completo: " + targetElement;
@@ -657,7 +1130,7 @@ public class WaitUtil {
      * @throws TimeoutException si no se encuentra el elemento visible en el tiempo especificado.
      */
     public WebElement waitForElement(WebElement context, By locator, int timeoutInSec) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSec));
+        WebDriverWait wait = newWait("waitForElement " + locator, Duration.ofSeconds(timeoutInSec), DEFAULT_POLLING);
         return wait.until(driver -> {
             try {
                 WebElement element = context.findElement(locator);
@@ -674,28 +1147,15 @@ public class WaitUtil {
      *
      * <p>Este metodo ejecuta los siguientes pasos:</p>
      * <ol>
-     *   <li>Define un tiempo máximo para esperar si aparece el mensaje "Cargando datos...".</li>
-     *   <li>Usa {@link #isElementVisible(By, int, int)} para detectar visibilidad del mensaje durante 5 segundos con intervalos de 500 ms.</li>
-     *   <li>Si el mensaje aparece, llama a {@link #waitForInvisibility(By, String, int, int)} con timeout de 20 segundos y sondeo de 500 ms.</li>
-     *   <li>Si el mensaje no aparece, continúa sin espera adicional.</li>
+     *   <li>Espera con {@link #waitForAppStable()} a que terminen las peticiones y la zona de Angular.</li>
+     *   <li>Si el mensaje sigue visible, llama a {@link #waitForInvisibility(By, String, int, int)} con timeout de 10 segundos y sondeo de 100 ms.</li>
+     *   <li>Si el mensaje no está visible, continúa sin espera adicional.</li>
      * </ol>
      *
      * <p>Esto garantiza que no se interactúe con la tabla hasta que haya finalizado completamente su carga.</p>
      */
     public void waitForTableToLoadCompletely() {
-        // Localizador del mensaje de carga
-        By messageLoading = By.xpath("//span[normalize-space(text())='Cargando datos...']");
-
-        LogUtil.info("Esperando mensaje de carga 'Cargando datos...' si aparece.");
-
-        // Verifica si el mensaje está visible
-        if (isElementVisible(messageLoading, 1000, 100)) {
-            LogUtil.info("Mensaje 'Cargando datos...' visible. Esperando que desaparezca...");
-            // Espera que desaparezca
-            waitForInvisibility(messageLoading, "Mensaje Cargando datos...", 10000, 100);
-        } else {
-            LogUtil.info("El mensaje 'Cargando datos...' no apareció. Continuando sin espera adicional.");
-        }
+        waitForLoadingMessage("Cargando datos...", 100);
     }
 
     /**
@@ -703,17 +1163,25 @@ public class WaitUtil {
      * Este mensaje se muestra al modificar la agrupación temporal.
      */
     public void waitForTemporalGroupingChangeToComplete() {
-        // Localizador del mensaje de cambio de agregación temporal
-        By messageGrouping = By.xpath("//span[normalize-space(text())='Cambiando la agregación temporal...']");
+        waitForLoadingMessage("Cambiando la agregación temporal...", 500);
+    }
 
-        LogUtil.info("Esperando mensaje de cambio 'Cambiando la agregación temporal...' si aparece.");
+    /**
+     * Espera a que la aplicación quede estable y, si el mensaje de carga indicado sigue visible, a que
+     * desaparezca (máximo 10 segundos).
+     *
+     * @param message        texto exacto del mensaje.
+     * @param pollingMillis  intervalo de sondeo de la desaparición.
+     */
+    private void waitForLoadingMessage(String message, int pollingMillis) {
+        By messageLocator = By.xpath("//span[normalize-space(text())='" + message + "']");
+        waitForAppStable();
 
-        // Verifica si el mensaje está visible (espera corta)
-        if (isElementVisible(messageGrouping, 1000, 100)) {
-            LogUtil.info("Mensaje 'Cambiando la agregación temporal...' visible. Esperando que desaparezca...");
-            waitForInvisibility(messageGrouping, "Mensaje Cambiando la agregación temporal", 10000, 500);
+        if (isElementDisplayedWithin(driver, messageLocator)) {
+            LogUtil.info("Mensaje '" + message + "' visible. Esperando que desaparezca...");
+            waitForInvisibility(messageLocator, "Mensaje " + message, 10000, pollingMillis);
         } else {
-            LogUtil.info("El mensaje 'Cambiando la agregación temporal...' no apareció. Continuando sin espera adicional.");
+            LogUtil.info("El mensaje '" + message + "' no está visible. Continuando sin espera adicional.");
         }
     }
 
@@ -726,7 +1194,7 @@ public class WaitUtil {
      */
     public boolean isElementVisibleWithinElement(WebElement parent, By locator) {
         try {
-            WebDriverWait nestedWait = new WebDriverWait(driver, Duration.ofSeconds(2)); // espera corta
+            WebDriverWait nestedWait = newWait("isElementVisibleWithinElement " + locator, Duration.ofSeconds(2), DEFAULT_POLLING); // espera corta
             nestedWait.until(ExpectedConditions.visibilityOfNestedElementsLocatedBy(parent, locator));
             return true;
         } catch (TimeoutException e) {
@@ -734,6 +1202,17 @@ public class WaitUtil {
         }
     }
 
+    /**
+     * Comprueba sin esperas si hay algún elemento visible con el localizador dentro del padre.
+     */
+    private boolean isElementDisplayedWithin(SearchContext parent, By locator) {
+        try {
+            return parent.findElements(locator).stream().anyMatch(WebElement::isDisplayed);
+        } catch (StaleElementReferenceException e) {
+            return false;
+        }
+    }
+
     /**
      * Espera explícitamente a que el elemento proporcionado esté visible en el DOM.
      *
@@ -776,13 +1255,15 @@ public class WaitUtil {
 
         JavascriptExecutor js = (JavascriptExecutor) driver;
 
-        int scrollStep = 50;
-        int sleepMillis = 300;
+        int scrollStep = viewportScrollStep(parent);
         int maxScrolls = 50;
 
         for (int i = 0; i < maxScrolls; i++) {
-            // Buscar dentro del contenedor actual
-            if (isElementVisibleWithinElement(parent, targetLocator)) {
+            // Buscar dentro del contenedor actual; tras cada scroll el DOM ya está estable y basta una comprobación inmediata
+            boolean found = i == 0
+                    ? isElementVisibleWithinElement(parent, targetLocator)
+                    : isElementDisplayedWithin(parent, targetLocator);
+            if (found) {
                 WebElement element = waitForElement(parent, targetLocator, 3);
                 js.executeScript("arguments[0].scrollIntoView({block: 'center'});", element);
                 waitForVisibilityByElement(element);
@@ -790,10 +1271,10 @@ public class WaitUtil {
                 return element;
             }
 
-            // Ejecutar scroll vertical
-            js.executeScript("arguments[0].scrollTop = arguments[0].scrollTop + arguments[1];",
-                    parent, scrollStep);
-            sleepMillis(sleepMillis, "Esperando renderizado de nuevos elementos tras scroll");
+            // Scroll vertical y espera a que se rendericen los nuevos elementos
+            if (!scrollAndWaitForDomQuiet(parent, 0, scrollStep) && !isElementDisplayedWithin(parent, targetLocator)) {
+                break; // final del scroll
+            }
         }
 
         String message = "No se encontró el elemento tras scroll completo dentro del contenedor: " + targetLocator;
@@ -824,8 +1305,8 @@ public class WaitUtil {
         LogUtil.info("Esperando que el elemento " + locator + " deje de tener la clase '" + className +
                 "'. Timeout: " + timeoutMillis + " ms | Polling: " + pollingMillis + " ms");
 
-        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofMillis(timeoutMillis));
-        customWait.pollingEvery(Duration.ofMillis(pollingMillis));
+        WebDriverWait customWait = newWait("waitForClassToDisappear '" + className + "' " + locator,
+                Duration.ofMillis(timeoutMillis), Duration.ofMillis(pollingMillis));
         customWait.ignoring(StaleElementReferenceException.class);
 
         long start = System.currentTimeMillis();
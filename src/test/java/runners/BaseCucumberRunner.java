@@ -1,5 +1,7 @@
 package runners;
 
+import config.DriverFactory;
+import config.EnvironmentConfig;
 import org.junit.BeforeClass;
 
 /**
@@ -7,15 +9,29 @@ import org.junit.BeforeClass;
  * antes de la ejecución de las pruebas.
  * <p>
  * - Prioriza valores definidos con {@code -D}.<br>
- * - Si no existen, intenta usar variables de entorno (HEADLESS, TEST_ENV, TEST_USER, BROWSER, KEYCLIENT,
- *   SEND_EMAIL_REPORT, SEND_XRAY_REPORT).<br>
- * - No aplica valores por defecto.
+ * - Si no existen, intenta usar variables de entorno (HEADLESS, TEST_ENV, TEST_USER, BROWSER, DRIVER_POOL,
+ *   BROWSER_PROFILE, BLOCKED_RESOURCES, BROWSER_PRELAUNCH, DRIVER_CACHE, DRIVER_OFFLINE, LOGIN_MODE,
+ *   API_LOGIN_STORAGE, NAVIGATION_MODE, PARALLEL_SCENARIOS, SHARDS,
+ *   SHARD_INDEX, SHARD_HISTORY, WAIT_PROFILE, WAIT_POLLING, SLEEP_BUDGET_MILLIS, SLEEP_BUDGET_MODE, KEYCLIENT, SEND_EMAIL_REPORT, SEND_XRAY_REPORT).<br>
+ * - No aplica valores por defecto.<br>
+ * - Con {@code -DbrowserPrelaunch=true} lanza el primer navegador en segundo plano mientras se carga
+ *   {@link EnvironmentConfig} en el hilo principal.
  * <p>
  * Ejemplos:
  *   -Dheadless=true
  *   -Denv=qa
  *   -Duser=usuario1
  *   -Dbrowser=chrome
+ *   -DdriverPool=2
+ *   -DbrowserProfile=fast
+ *   -DbrowserPrelaunch=true
+ *   -DdriverOffline=true
+ *   -DloginMode=session
+ *   -DnavigationMode=direct
+ *   -Dparallel.scenarios=4
+ *   -Dshards=4 -Dshard.index=2
+ *   -DwaitProfile=ci
+ *   -DsleepBudgetMillis=5000 -DsleepBudgetMode=fail
  *   -Dkeyclient=abc123
  *   -DsendEmailReport=true
  *   -DsendXrayReport=true
@@ -33,10 +49,33 @@ public abstract class BaseCucumberRunner {
         propagateProperty("env", "TEST_ENV");
         propagateProperty("user", "TEST_USER");
         propagateProperty("browser", "BROWSER");
+        propagateProperty("driverPool", "DRIVER_POOL");
+        propagateProperty("browserProfile", "BROWSER_PROFILE");
+        propagateProperty("blockedResources", "BLOCKED_RESOURCES");
+        propagateProperty("browserPrelaunch", "BROWSER_PRELAUNCH");
+        propagateProperty("driverCache", "DRIVER_CACHE");
+        propagateProperty("driverOffline", "DRIVER_OFFLINE");
+        propagateProperty("loginMode", "LOGIN_MODE");
+        propagateProperty("apiLoginStorage", "API_LOGIN_STORAGE");
+        propagateProperty("navigationMode", "NAVIGATION_MODE");
+        propagateProperty("parallel.scenarios", "PARALLEL_SCENARIOS");
+        propagateProperty("shards", "SHARDS");
+        propagateProperty("shard.index", "SHARD_INDEX");
+        propagateProperty("shard.history", "SHARD_HISTORY");
+        propagateProperty("waitProfile", "WAIT_PROFILE");
+        propagateProperty("waitPolling", "WAIT_POLLING");
+        propagateProperty("sleepBudgetMillis", "SLEEP_BUDGET_MILLIS");
+        propagateProperty("sleepBudgetMode", "SLEEP_BUDGET_MODE");
         propagateProperty("keyclient", "KEYCLIENT");
         propagateProperty("sendEmailReport", "SEND_EMAIL_REPORT");
         propagateProperty("sendXrayReport", "SEND_XRAY_REPORT");
         propagateProperty("suite", "SUITE");
+
+        if (Boolean.getBoolean("browserPrelaunch")) {
+            DriverFactory.prelaunchAsync();
+            // Fuerza la carga de EnvironmentConfig (usuario, URLs y recover-test-db) mientras arranca el navegador
+            EnvironmentConfig.getWebUrl();
+        }
     }
 
     /**
@@ -0,0 +1,113 @@
+package runners;
+
+import io.cucumber.core.cli.Main;
+import org.junit.Assert;
+import org.junit.Test;
+import ui.utils.LogUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runner que ejecuta escenarios en paralelo con el motor de Cucumber ({@code --threads}).
+ *
+ * <p>El runner JUnit 4 de Cucumber solo paraleliza por feature; este runner delega en la CLI de Cucumber,
+ * que reparte <em>escenarios</em> entre {@code -Dparallel.scenarios=N} hilos. Cada hilo obtiene su propio
+ * navegador a través de {@code DriverFactory} (o del pool, si {@code -DdriverPool} es al menos N).</p>
+ *
+ * <p>Propiedades:</p>
+ * <ul>
+ *   <li>{@code -Dparallel.scenarios}: número de hilos (por defecto 1).</li>
+ *   <li>{@code -Dcucumber.filter.tags}: expresión de etiquetas (por defecto {@code @ui}).</li>
+ *   <li>{@code -Dparallel.features}: ruta de las features (por defecto {@code src/test/resources/features/uiFeatures}).</li>
+ *   <li>{@code -Dshard.index}: con {@code -Dshards=K}, ejecuta solo el shard indicado (1..K) del plan de
+ *       {@link ShardPlanner}, calculado en esta misma JVM a partir del histórico. No admite
+ *       {@code -Dshard.unit=suite}.</li>
+ * </ul>
+ *
+ * <p>Ejemplo:</p>
+ * <pre>
+ * mvn test -Dtest=ParallelScenarios -Dparallel.scenarios=4 -DdriverPool=4 -Dcucumber.filter.tags="@forecasts"
+ * </pre>
+ */
+public class ParallelScenarios extends BaseCucumberRunner {
+
+    /**
+     * Ejecuta los escenarios seleccionados en paralelo y falla si alguno no pasa.
+     */
+    @Test
+    public void runScenariosInParallel() {
+        String features = System.getProperty("parallel.features", "src/test/resources/features/uiFeatures");
+        String shardIndex = System.getProperty("shard.index");
+        if (shardIndex != null && !shardIndex.isBlank()) {
+            features = shardFeatures(Integer.parseInt(shardIndex.trim()));
+            if (features == null) {
+                return;
+            }
+        }
+
+        byte exitStatus = run(
+                features,
+                System.getProperty("cucumber.filter.tags", "@ui"),
+                Integer.getInteger("parallel.scenarios", 1),
+                "target/ParallelScenarios",
+                "stepdefinitions.uiSteps", "hooks");
+
+        Assert.assertEquals("Hay escenarios fallidos en la ejecución en paralelo.", 0, exitStatus);
+    }
+
+    /**
+     * Calcula el plan de shards y escribe la lista de features del shard indicado.
+     *
+     * @param index índice del shard, empezando en 1.
+     * @return argumento de features en formato rerun ({@code @fichero}), o {@code null} si el shard está vacío.
+     * @throws IllegalArgumentException con {@code -Dshard.unit=suite}, que reparte runners y no escribe la lista
+     *                                  de features.
+     */
+    private static String shardFeatures(int index) {
+        if ("suite".equalsIgnoreCase(System.getProperty("shard.unit", "scenario").trim())) {
+            throw new IllegalArgumentException("-Dshard.unit=suite reparte clases runner (shard-" + index
+                    + ".suites para -Dtest=...) y no es compatible con -Dshard.index en ParallelScenarios;"
+                    + " usa -Dshard.unit=scenario o feature.");
+        }
+        ShardPlanner.Plan plan = ShardPlanner.planFromProperties();
+        if (plan.shard(index).isEmpty()) {
+            LogUtil.info("El shard " + index + " no tiene escenarios asignados; no se ejecuta nada.");
+            return null;
+        }
+        ShardPlanner.write(plan, ShardPlanner.SHARD_DIR);
+        return "@" + ShardPlanner.SHARD_DIR.resolve("shard-" + index + ".txt");
+    }
+
+    /**
+     * Lanza Cucumber con {@code --threads}.
+     *
+     * @param features     ruta de las features.
+     * @param tags         expresión de etiquetas.
+     * @param threads      número de hilos.
+     * @param reportPrefix prefijo de los reportes HTML y JSON.
+     * @param glue         paquetes de step definitions y hooks.
+     * @return código de salida de Cucumber (0 si todos los escenarios pasaron).
+     */
+    static byte run(String features, String tags, int threads, String reportPrefix, String... glue) {
+        List<String> args = new ArrayList<>();
+        args.add("--threads");
+        args.add(String.valueOf(Math.max(1, threads)));
+        for (String pkg : glue) {
+            args.add("--glue");
+            args.add(pkg);
+        }
+        args.add("--tags");
+        args.add(tags);
+        args.add("--plugin");
+        args.add("pretty");
+        args.add("--plugin");
+        args.add("html:" + reportPrefix + ".html");
+        args.add("--plugin");
+        args.add("json:" + reportPrefix + ".json");
+        args.add("--monochrome");
+        args.add(features);
+
+        return Main.run(args.toArray(new String[0]), Thread.currentThread().getContextClassLoader());
+    }
+}
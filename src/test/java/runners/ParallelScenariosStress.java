@@ -0,0 +1,115 @@
+package runners;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import stepdefinitions.stressSteps.ParallelFixtureSteps;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de estrés de la ejecución de escenarios en paralelo.
+ *
+ * <p>Levanta un servidor HTTP local con la página {@code fixtures/parallel-fixture.html} y ejecuta las
+ * features de {@code stressFeatures} con {@link ParallelScenarios} en {@code -Dstress.threads} hilos
+ * (4 por defecto), en modo headless.</p>
+ *
+ * <h2>Qué valida</h2>
+ * <ul>
+ *   <li>Todos los escenarios pasan (driver, {@code PageManager} y carpetas por hilo en {@code Hooks}).</li>
+ *   <li>Ningún navegador es usado por dos escenarios a la vez.</li>
+ *   <li>{@code TestContext} conserva los valores escritos concurrentemente.</li>
+ *   <li>Realmente hubo escenarios simultáneos.</li>
+ * </ul>
+ *
+ * <p>Como los demás runners, no entra en {@code mvn test} por defecto (el nombre no termina en {@code Test}):
+ * se ejecuta con {@code mvn test -Dtest=ParallelScenariosStress}. Si no hay Chrome instalado en la máquina, la
+ * prueba se omite con {@link org.junit.Assume#assumeTrue(String, boolean)} para no romper la pipeline.</p>
+ */
+public class ParallelScenariosStress {
+
+    private static HttpServer server;
+    private static String previousHeadless;
+    private static String previousFixtureUrl;
+
+    @BeforeClass
+    public static void startFixtureServer() throws IOException {
+        previousHeadless = System.getProperty("headless");
+        previousFixtureUrl = System.getProperty("stress.fixtureUrl");
+        Assume.assumeTrue("Sin Chrome instalado -> se omite la prueba de estrés.", isChromeInstalled());
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fixture", exchange -> {
+            try (InputStream in = ParallelScenariosStress.class.getResourceAsStream("/fixtures/parallel-fixture.html")) {
+                byte[] body = in.readAllBytes();
+                exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+
+        System.setProperty("headless", "true");
+        System.setProperty("stress.fixtureUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/fixture");
+    }
+
+    @AfterClass
+    public static void stopFixtureServer() {
+        try {
+            if (server != null) {
+                server.stop(0);
+            }
+        } finally {
+            restoreProperty("headless", previousHeadless);
+            restoreProperty("stress.fixtureUrl", previousFixtureUrl);
+        }
+    }
+
+    private static void restoreProperty(String name, String previous) {
+        if (previous == null) {
+            System.clearProperty(name);
+        } else {
+            System.setProperty(name, previous);
+        }
+    }
+
+    @Test
+    public void runsManyScenariosConcurrently() {
+        int threads = Integer.getInteger("stress.threads", 4);
+
+        byte exitStatus = ParallelScenarios.run(
+                "src/test/resources/features/stressFeatures",
+                "@stress",
+                threads,
+                "target/ParallelScenariosStress",
+                "stepdefinitions.stressSteps", "hooks");
+
+        Assert.assertEquals("Hay escenarios fallidos en la prueba de estrés.", 0, exitStatus);
+        if (threads > 1) {
+            Assert.assertTrue("Los escenarios no llegaron a ejecutarse en paralelo.",
+                    ParallelFixtureSteps.getMaxConcurrentScenarios() > 1);
+        }
+    }
+
+    private static boolean isChromeInstalled() {
+        String chromeBin = System.getenv("CHROME_BIN");
+        if (chromeBin != null && new File(chromeBin).canExecute()) {
+            return true;
+        }
+        String path = System.getenv("PATH");
+        return path != null && Stream.of(path.split(File.pathSeparator))
+                .flatMap(dir -> Stream.of("google-chrome", "google-chrome-stable", "chromium", "chromium-browser")
+                        .map(name -> new File(dir, name)))
+                .anyMatch(File::canExecute);
+    }
+}
@@ -0,0 +1,594 @@
+package runners;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.core.cli.Main;
+import io.cucumber.junit.CucumberOptions;
+import org.junit.Assert;
+import org.junit.Test;
+import ui.utils.LogUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Planificador de shards: reparte la regresión entre K JVM o contenedores según la duración histórica.
+ *
+ * <p>Lee los reportes JSON de Cucumber de ejecuciones anteriores ({@code target/<Suite>.json}) y asigna las
+ * unidades de trabajo con <em>longest processing time first</em>: de mayor a menor duración, cada unidad va
+ * al shard con menos carga acumulada. Sin histórico todas las unidades pesan lo mismo y el reparto queda
+ * equilibrado por número.</p>
+ *
+ * <p>Unidades ({@code -Dshard.unit}):</p>
+ * <ul>
+ *   <li>{@code scenario} (por defecto): cada escenario (o fila de un Scenario Outline).</li>
+ *   <li>{@code feature}: cada fichero {@code .feature}, con la suma de sus escenarios.</li>
+ *   <li>{@code suite}: cada clase runner ({@code Forecasts}, {@code Provisioning}, ...), con la duración de su
+ *       {@code target/<Suite>.json}.</li>
+ * </ul>
+ *
+ * <p>Para {@code scenario} y {@code feature} los escenarios se descubren con un {@code --dry-run} de Cucumber
+ * sobre {@code -Dparallel.features} filtrado por {@code -Dcucumber.filter.tags}, igual que
+ * {@link ParallelScenarios}. Los escenarios sin histórico se estiman con la media de su feature o, si no
+ * hay, con la mediana global.</p>
+ *
+ * <p>Salida en {@code target/shards/}:</p>
+ * <ul>
+ *   <li>{@code shard-<i>.txt}: lista de features con líneas en formato rerun, para
+ *       {@code -Dparallel.features=@target/shards/shard-<i>.txt} o {@code -Dcucumber.features=@...}.</li>
+ *   <li>{@code shard-<i>.tags}: expresión de etiquetas equivalente, solo si todos los escenarios del shard
+ *       tienen una etiqueta propia (p. ej. {@code @TEST_DEV-123}).</li>
+ *   <li>{@code shard-<i>.suites}: runners separados por comas para {@code -Dtest=...} (unidad {@code suite}).</li>
+ *   <li>{@code plan.txt}: resumen con la carga estimada de cada shard.</li>
+ * </ul>
+ *
+ * <p>El plan es determinista: con el mismo histórico, cada contenedor puede calcularlo por su cuenta y
+ * ejecutar solo su parte con {@code -Dshard.index} (ver {@link ParallelScenarios}).</p>
+ *
+ * <p>Ejemplo:</p>
+ * <pre>
+ * mvn test -Dtest=ShardPlanner -Dshards=4 -Dshard.history=shard-history
+ * </pre>
+ */
+public class ShardPlanner extends BaseCucumberRunner {
+
+    /** Carpeta donde se escriben los ficheros del plan. */
+    static final Path SHARD_DIR = Paths.get("target", "shards");
+
+    /** Duración asignada a cada unidad cuando no existe ningún histórico (reparto equitativo). */
+    private static final long DEFAULT_ESTIMATE_MILLIS = 1000L;
+
+    /** Runners agregados que contienen a los demás; no se reparten en modo {@code suite}. */
+    private static final Set<String> AGGREGATE_SUITES = Set.of("Ui", "Api");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Unidad de trabajo repartible.
+     *
+     * @param key       identificador (ruta del feature, {@code ruta:línea} o nombre del runner).
+     * @param lines     ruta del feature con sus líneas en formato rerun; vacío en modo {@code suite}.
+     * @param tags      etiquetas propias que la identifican; vacío si no tiene.
+     * @param millis    duración estimada en milisegundos.
+     * @param estimated {@code true} si no hay histórico y la duración es una estimación.
+     */
+    record Unit(String key, String lines, Set<String> tags, long millis, boolean estimated) {
+    }
+
+    /**
+     * Resultado del reparto.
+     *
+     * @param mode   unidad utilizada ({@code scenario}, {@code feature} o {@code suite}).
+     * @param tags   expresión de etiquetas base con la que se descubrieron los escenarios.
+     * @param shards unidades de cada shard, en orden.
+     */
+    record Plan(String mode, String tags, List<List<Unit>> shards) {
+
+        /**
+         * @param index índice del shard, empezando en 1.
+         * @return unidades del shard.
+         */
+        List<Unit> shard(int index) {
+            if (index < 1 || index > shards.size()) {
+                throw new IllegalArgumentException("Índice de shard fuera de rango: " + index + " (hay " + shards.size() + ").");
+            }
+            return shards.get(index - 1);
+        }
+
+        /**
+         * @param index índice del shard, empezando en 1.
+         * @return carga estimada del shard en milisegundos.
+         */
+        long load(int index) {
+            return shard(index).stream().mapToLong(Unit::millis).sum();
+        }
+    }
+
+    /**
+     * Calcula el plan con las propiedades del sistema y escribe los ficheros en {@code target/shards/}.
+     */
+    @Test
+    public void planShards() {
+        Plan plan = planFromProperties();
+        write(plan, SHARD_DIR);
+        Assert.assertFalse("No se encontró ninguna unidad que repartir.", plan.shards().stream().allMatch(List::isEmpty));
+    }
+
+    /**
+     * Calcula el plan a partir de {@code -Dshards}, {@code -Dshard.unit}, {@code -Dshard.history},
+     * {@code -Dparallel.features} y {@code -Dcucumber.filter.tags}.
+     *
+     * @return plan de reparto.
+     */
+    static Plan planFromProperties() {
+        int shards = Math.max(1, Integer.getInteger("shards", 1));
+        String mode = System.getProperty("shard.unit", "scenario").trim().toLowerCase(Locale.ROOT);
+        List<Path> history = Arrays.stream(System.getProperty("shard.history", "target").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Paths::get)
+                .toList();
+        String features = System.getProperty("parallel.features", "src/test/resources/features/uiFeatures");
+        String tags = System.getProperty("cucumber.filter.tags", "@ui");
+
+        List<Unit> units = switch (mode) {
+            case "suite" -> suiteUnits(history);
+            case "feature" -> groupByFeature(scenarioUnits(features, tags, history));
+            case "scenario" -> scenarioUnits(features, tags, history);
+            default -> throw new IllegalArgumentException("Valor de -Dshard.unit no soportado: " + mode
+                    + " (usa scenario, feature o suite).");
+        };
+
+        Plan plan = new Plan(mode, tags, pack(units, shards));
+        logPlan(plan);
+        return plan;
+    }
+
+    /**
+     * Reparte las unidades con longest processing time first.
+     *
+     * @param units  unidades con su duración.
+     * @param shards número de shards.
+     * @return unidades de cada shard; siempre devuelve {@code shards} listas (algunas pueden quedar vacías).
+     */
+    static List<List<Unit>> pack(List<Unit> units, int shards) {
+        List<List<Unit>> result = new ArrayList<>();
+        long[] loads = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            result.add(new ArrayList<>());
+        }
+
+        PriorityQueue<Integer> lightest = new PriorityQueue<>(
+                Comparator.<Integer>comparingLong(i -> loads[i]).thenComparingInt(i -> i));
+        for (int i = 0; i < shards; i++) {
+            lightest.add(i);
+        }
+
+        units.stream()
+                .sorted(Comparator.comparingLong(Unit::millis).reversed().thenComparing(Unit::key))
+                .forEach(unit -> {
+                    int target = lightest.poll();
+                    result.get(target).add(unit);
+                    loads[target] += unit.millis();
+                    lightest.add(target);
+                });
+
+        result.forEach(shard -> shard.sort(Comparator.comparing((Unit u) -> featureOf(u.key()))
+                .thenComparingInt(u -> lineNumber(u.key()))));
+        return result;
+    }
+
+    /**
+     * Escribe los ficheros del plan.
+     *
+     * @param plan plan calculado.
+     * @param dir  carpeta de salida.
+     */
+    static void write(Plan plan, Path dir) {
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> old = Files.list(dir)) {
+                for (Path file : old.filter(p -> p.getFileName().toString().startsWith("shard-")).toList()) {
+                    Files.delete(file);
+                }
+            }
+
+            StringBuilder summary = new StringBuilder();
+            for (int i = 1; i <= plan.shards().size(); i++) {
+                List<Unit> shard = plan.shard(i);
+                if ("suite".equals(plan.mode())) {
+                    Files.writeString(dir.resolve("shard-" + i + ".suites"),
+                            shard.stream().map(Unit::key).collect(Collectors.joining(",")) + System.lineSeparator());
+                } else {
+                    Files.write(dir.resolve("shard-" + i + ".txt"), rerunLines(shard));
+                    String expression = tagExpression(plan.tags(), shard);
+                    if (expression != null) {
+                        Files.writeString(dir.resolve("shard-" + i + ".tags"), expression + System.lineSeparator());
+                    }
+                }
+                summary.append(describe(plan, i)).append(System.lineSeparator());
+            }
+            Files.writeString(dir.resolve("plan.txt"), summary.toString());
+            LogUtil.info("Plan de shards escrito en " + dir.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el plan de shards en " + dir, e);
+        }
+    }
+
+    /**
+     * Agrupa las líneas de cada feature en formato rerun ({@code ruta:l1:l2}).
+     *
+     * @param shard unidades del shard.
+     * @return una línea por feature.
+     */
+    static List<String> rerunLines(List<Unit> shard) {
+        Map<String, Set<String>> byFeature = new TreeMap<>();
+        for (Unit unit : shard) {
+            String[] parts = unit.lines().split(":");
+            Set<String> lines = byFeature.computeIfAbsent(parts[0], k -> new LinkedHashSet<>());
+            lines.addAll(Arrays.asList(parts).subList(1, parts.length));
+        }
+        return byFeature.entrySet().stream()
+                .map(e -> e.getValue().isEmpty() ? e.getKey() : e.getKey() + ":" + String.join(":", e.getValue()))
+                .toList();
+    }
+
+    private static String tagExpression(String baseTags, List<Unit> shard) {
+        if (shard.isEmpty() || shard.stream().anyMatch(u -> u.tags().isEmpty())) {
+            return null;
+        }
+        String ids = shard.stream()
+                .map(u -> u.tags().iterator().next())
+                .distinct()
+                .collect(Collectors.joining(" or "));
+        return "(" + baseTags + ") and (" + ids + ")";
+    }
+
+    private static String describe(Plan plan, int index) {
+        List<Unit> shard = plan.shard(index);
+        long estimated = shard.stream().filter(Unit::estimated).count();
+        return String.format(Locale.ROOT, "shard %d: %d unidades (%s), %.1f s estimados, %d sin histórico",
+                index, shard.size(), plan.mode(), plan.load(index) / 1000.0, estimated);
+    }
+
+    private static void logPlan(Plan plan) {
+        long total = 0;
+        long makespan = 0;
+        for (int i = 1; i <= plan.shards().size(); i++) {
+            LogUtil.info(describe(plan, i));
+            total += plan.load(i);
+            makespan = Math.max(makespan, plan.load(i));
+        }
+        LogUtil.info(String.format(Locale.ROOT, "Plan de %d shards: %.1f s en serie, %.1f s en el shard más largo.",
+                plan.shards().size(), total / 1000.0, makespan / 1000.0));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Escenarios y features
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Descubre los escenarios con un dry-run de Cucumber y les asigna su duración histórica o estimada.
+     */
+    private static List<Unit> scenarioUnits(String features, String tags, List<Path> history) {
+        Path discovery = SHARD_DIR.resolve("discovery.json");
+        try {
+            Files.createDirectories(SHARD_DIR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String[] args = {
+                "--dry-run",
+                "--glue", "stepdefinitions.uiSteps",
+                "--glue", "hooks",
+                "--tags", tags,
+                "--plugin", "json:" + discovery,
+                "--monochrome",
+                features
+        };
+        Main.run(args, Thread.currentThread().getContextClassLoader());
+
+        Map<String, List<String>> discoveredTags = new LinkedHashMap<>();
+        forEachScenario(readJson(discovery), (key, element) -> discoveredTags.put(key, tagsOf(element)));
+
+        Map<String, Long> known = scenarioHistory(history);
+        Map<String, Long> featureMeans = known.entrySet().stream()
+                .collect(Collectors.groupingBy(e -> featureOf(e.getKey()),
+                        Collectors.averagingLong(Map.Entry::getValue)))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> Math.round(e.getValue())));
+        long median = median(known.values());
+
+        Map<String, Integer> tagUsage = new HashMap<>();
+        discoveredTags.values().forEach(list -> list.forEach(t -> tagUsage.merge(t, 1, Integer::sum)));
+
+        List<Unit> units = new ArrayList<>();
+        discoveredTags.forEach((key, scenarioTags) -> {
+            Set<String> ownTags = scenarioTags.stream()
+                    .filter(t -> tagUsage.get(t) == 1)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            Long millis = known.get(key);
+            if (millis != null) {
+                units.add(new Unit(key, key, ownTags, millis, false));
+            } else {
+                long estimate = featureMeans.getOrDefault(featureOf(key), median);
+                units.add(new Unit(key, key, ownTags, estimate, true));
+            }
+        });
+
+        long withHistory = units.stream().filter(u -> !u.estimated()).count();
+        LogUtil.info("Escenarios descubiertos: " + units.size() + " (" + withHistory + " con histórico).");
+        return units;
+    }
+
+    private static List<Unit> groupByFeature(List<Unit> scenarios) {
+        Map<String, List<Unit>> byFeature = scenarios.stream()
+                .collect(Collectors.groupingBy(u -> featureOf(u.key()), TreeMap::new, Collectors.toList()));
+        return byFeature.entrySet().stream()
+                .map(e -> new Unit(
+                        e.getKey(),
+                        e.getKey() + ":" + e.getValue().stream().map(u -> lineOf(u.key())).collect(Collectors.joining(":")),
+                        Set.of(),
+                        e.getValue().stream().mapToLong(Unit::millis).sum(),
+                        e.getValue().stream().allMatch(Unit::estimated)))
+                .toList();
+    }
+
+    /**
+     * Lee la duración de cada escenario en los reportes JSON del histórico; si un escenario aparece en
+     * varios reportes se usa la media. Se ignoran los escenarios de menos de 1 ms (reportes de dry-run).
+     */
+    private static Map<String, Long> scenarioHistory(List<Path> sources) {
+        Map<String, List<Long>> samples = new HashMap<>();
+        for (Path report : reportFiles(sources)) {
+            forEachScenario(readJson(report), (key, element) -> {
+                long millis = executedNanos(element) / 1_000_000;
+                if (millis > 0) {
+                    samples.computeIfAbsent(key, k -> new ArrayList<>()).add(millis);
+                }
+            });
+        }
+        Map<String, Long> result = new HashMap<>();
+        samples.forEach((key, values) -> result.put(key,
+                Math.round(values.stream().mapToLong(Long::longValue).average().orElse(0))));
+        return result;
+    }
+
+    /**
+     * Recorre los escenarios de un reporte JSON de Cucumber sumando a cada uno la duración de su Background.
+     */
+    private static void forEachScenario(JsonNode report, ScenarioVisitor visitor) {
+        if (report == null || !report.isArray()) {
+            return;
+        }
+        for (JsonNode feature : report) {
+            String path = normalizePath(feature.path("uri").asText(""));
+            JsonNode background = null;
+            for (JsonNode element : feature.path("elements")) {
+                if ("background".equals(element.path("type").asText())) {
+                    background = element;
+                    continue;
+                }
+                visitor.visit(path + ":" + element.path("line").asInt(), new BackgroundAwareElement(element, background));
+                background = null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ScenarioVisitor {
+        void visit(String key, BackgroundAwareElement element);
+    }
+
+    private record BackgroundAwareElement(JsonNode scenario, JsonNode background) {
+    }
+
+    private static List<String> tagsOf(BackgroundAwareElement element) {
+        List<String> tags = new ArrayList<>();
+        element.scenario().path("tags").forEach(t -> tags.add(t.path("name").asText()));
+        return tags;
+    }
+
+    /**
+     * @return duración en nanosegundos de pasos y hooks ejecutados, o {@code -1} si el escenario no llegó a
+     * ejecutarse (dry-run, omitido o indefinido).
+     */
+    private static long executedNanos(BackgroundAwareElement element) {
+        long[] total = {0};
+        boolean[] executed = {false};
+        Stream.of(element.background(), element.scenario())
+                .filter(node -> node != null)
+                .flatMap(node -> Stream.of("before", "steps", "after").map(node::path))
+                .forEach(list -> list.forEach(item -> {
+                    JsonNode result = item.path("result");
+                    String status = result.path("status").asText("");
+                    if ("passed".equals(status) || "failed".equals(status)) {
+                        executed[0] = true;
+                    }
+                    total[0] += result.path("duration").asLong(0);
+                }));
+        return executed[0] ? total[0] : -1;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Runners
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Construye una unidad por runner con {@code @CucumberOptions}; la duración es la suma de su reporte JSON.
+     * Con {@code -Dshard.suites} se reparte solo la lista indicada.
+     */
+    private static List<Unit> suiteUnits(List<Path> history) {
+        Map<String, String> reportBySuite = discoverSuites();
+        String configured = System.getProperty("shard.suites");
+        if (configured != null && !configured.isBlank()) {
+            Map<String, String> selected = new TreeMap<>();
+            for (String suite : configured.split(",")) {
+                String name = suite.trim();
+                selected.put(name, reportBySuite.getOrDefault(name, name + ".json"));
+            }
+            reportBySuite = selected;
+        }
+
+        Map<String, Long> known = new HashMap<>();
+        reportBySuite.forEach((suite, reportName) -> {
+            long[] sum = {0};
+            int[] count = {0};
+            for (Path source : history) {
+                Path report = Files.isDirectory(source) ? source.resolve(reportName) : source;
+                if (!Files.isRegularFile(report) || !report.getFileName().toString().equals(reportName)) {
+                    continue;
+                }
+                long[] nanos = {0};
+                forEachScenario(readJson(report), (key, element) -> nanos[0] += Math.max(0, executedNanos(element)));
+                if (nanos[0] > 0) {
+                    sum[0] += nanos[0] / 1_000_000;
+                    count[0]++;
+                }
+            }
+            if (count[0] > 0) {
+                known.put(suite, sum[0] / count[0]);
+            }
+        });
+
+        long median = median(known.values());
+        List<Unit> units = reportBySuite.keySet().stream()
+                .map(suite -> known.containsKey(suite)
+                        ? new Unit(suite, "", Set.of(), known.get(suite), false)
+                        : new Unit(suite, "", Set.of(), median, true))
+                .toList();
+        LogUtil.info("Runners a repartir: " + units.size() + " (" + known.size() + " con histórico).");
+        return units;
+    }
+
+    /**
+     * @return nombre de cada runner del paquete {@code runners} y el nombre de su reporte JSON.
+     */
+    private static Map<String, String> discoverSuites() {
+        Map<String, String> suites = new TreeMap<>();
+        try {
+            Path classes = Paths.get(ShardPlanner.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    .resolve(ShardPlanner.class.getPackageName());
+            try (Stream<Path> files = Files.list(classes)) {
+                for (Path file : files.filter(p -> p.toString().endsWith(".class") && !p.toString().contains("$")).toList()) {
+                    String simpleName = file.getFileName().toString().replace(".class", "");
+                    if (AGGREGATE_SUITES.contains(simpleName)) {
+                        continue;
+                    }
+                    Class<?> type = Class.forName(ShardPlanner.class.getPackageName() + "." + simpleName);
+                    CucumberOptions options = type.getAnnotation(CucumberOptions.class);
+                    if (options == null) {
+                        continue;
+                    }
+                    String report = Arrays.stream(options.plugin())
+                            .filter(p -> p.startsWith("json:"))
+                            .map(p -> Paths.get(p.substring("json:".length())).getFileName().toString())
+                            .findFirst()
+                            .orElse(simpleName + ".json");
+                    suites.put(simpleName, report);
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudieron descubrir los runners del paquete "
+                    + ShardPlanner.class.getPackageName(), e);
+        }
+        return suites;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Utilidades
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * @return reportes JSON de Cucumber de las carpetas o ficheros indicados (sin los del propio planificador).
+     */
+    private static List<Path> reportFiles(List<Path> sources) {
+        List<Path> reports = new ArrayList<>();
+        for (Path source : sources) {
+            if (Files.isRegularFile(source)) {
+                reports.add(source);
+            } else if (Files.isDirectory(source)) {
+                try (Stream<Path> files = Files.list(source)) {
+                    files.filter(p -> p.toString().endsWith(".json"))
+                            .filter(p -> !p.toAbsolutePath().startsWith(SHARD_DIR.toAbsolutePath()))
+                            .sorted()
+                            .forEach(reports::add);
+                } catch (IOException e) {
+                    LogUtil.warn("No se pudo leer la carpeta de histórico " + source + ": " + e.getMessage());
+                }
+            }
+        }
+        return reports;
+    }
+
+    private static JsonNode readJson(Path file) {
+        try {
+            return MAPPER.readTree(file.toFile());
+        } catch (IOException e) {
+            LogUtil.warn("Se ignora " + file + ": no es un reporte JSON de Cucumber válido (" + e.getMessage() + ").");
+            return null;
+        }
+    }
+
+    /**
+     * Convierte la URI de un feature en una ruta relativa al proyecto, de modo que el histórico generado en
+     * otra máquina o contenedor coincida con los escenarios descubiertos localmente.
+     */
+    static String normalizePath(String uri) {
+        String path = uri;
+        if (path.startsWith("file:")) {
+            try {
+                path = Paths.get(URI.create(path)).toString();
+            } catch (IllegalArgumentException e) {
+                path = path.substring("file:".length());
+            }
+        }
+        path = path.replace('\\', '/');
+        int resources = path.indexOf("src/test/resources/");
+        return resources >= 0 ? path.substring(resources) : path;
+    }
+
+    private static String featureOf(String key) {
+        int colon = key.lastIndexOf(':');
+        return colon > 0 ? key.substring(0, colon) : key;
+    }
+
+    private static String lineOf(String key) {
+        return key.substring(key.lastIndexOf(':') + 1);
+    }
+
+    private static int lineNumber(String key) {
+        try {
+            return Integer.parseInt(lineOf(key));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long median(Collection<Long> values) {
+        if (values.isEmpty()) {
+            return DEFAULT_ESTIMATE_MILLIS;
+        }
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,111 @@
+package stepdefinitions.stressSteps;
+
+import config.DriverFactory;
+import config.TestContext;
+import hooks.Hooks;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import org.junit.Assert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import ui.manager.PageManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Steps de la prueba de estrés de escenarios en paralelo.
+ *
+ * <p>Cada escenario abre la página local de fixture ({@code -Dstress.fixtureUrl}) y comprueba que su
+ * navegador no está siendo usado por ningún otro escenario a la vez, que la validación de pantalla
+ * funciona de forma aislada y que {@code TestContext} conserva los valores escritos desde varios hilos.
+ * Los escenarios con {@code @exclusive:fixture} y {@code @shared:fixture} comprueban que los bloqueos de
+ * {@code hooks.ResourceLockHooks} impiden los solapes no permitidos.</p>
+ */
+public class ParallelFixtureSteps {
+
+    /** Navegadores en uso por los escenarios activos y el escenario que lo posee. */
+    private static final Map<WebDriver, String> ACTIVE_DRIVERS = new ConcurrentHashMap<>();
+
+    /** Máximo de escenarios simultáneos observado durante la ejecución. */
+    private static final AtomicInteger MAX_CONCURRENT = new AtomicInteger();
+
+    /** Escenarios que usan ahora el recurso {@code fixture}: exclusivos y compartidos. */
+    private static final AtomicInteger EXCLUSIVE_HOLDERS = new AtomicInteger();
+    private static final AtomicInteger SHARED_HOLDERS = new AtomicInteger();
+
+    /** Tiempo que cada escenario retiene el recurso, para forzar solapes si el bloqueo no funcionara. */
+    private static final long HOLD_MILLIS = 300;
+
+    private final PageManager pageManager = Hooks.getPageManager();
+    private final WebDriver driver = Hooks.getDriver();
+
+    /**
+     * @return número máximo de escenarios que se ejecutaron a la vez.
+     */
+    public static int getMaxConcurrentScenarios() {
+        return MAX_CONCURRENT.get();
+    }
+
+    @Given("el usuario abre la página de prueba {string}")
+    public void openFixturePage(String id) {
+        Assert.assertSame("El driver del hook y el de DriverFactory deben ser el mismo en el hilo.",
+                DriverFactory.getDriver(), driver);
+
+        String owner = ACTIVE_DRIVERS.putIfAbsent(driver, id);
+        Assert.assertNull("El navegador ya lo está usando el escenario " + owner, owner);
+        MAX_CONCURRENT.accumulateAndGet(ACTIVE_DRIVERS.size(), Math::max);
+
+        driver.get(System.getProperty("stress.fixtureUrl") + "?id=" + id);
+    }
+
+    @Then("se muestra la pantalla de prueba {string}")
+    public void verifyFixtureScreen(String id) {
+        pageManager.getValidationUtil().assertCurrentScreen("Fixture " + id);
+    }
+
+    @And("el valor {string} se conserva en el navegador y en el contexto compartido")
+    public void verifyValueIsKept(String id) {
+        TestContext.setValue("stress-" + id, id);
+
+        WebElement input = driver.findElement(By.id("scenario-value"));
+        input.sendKeys(id);
+
+        Assert.assertEquals(id, input.getDomProperty("value"));
+        Assert.assertEquals(id, TestContext.getValue("stress-" + id));
+    }
+
+    @Then("ningún otro escenario usa el recurso {string} mientras se ejecuta {string}")
+    public void verifyExclusiveResource(String resource, String id) throws InterruptedException {
+        EXCLUSIVE_HOLDERS.incrementAndGet();
+        try {
+            Thread.sleep(HOLD_MILLIS);
+            Assert.assertEquals("Otro escenario exclusivo usa " + resource + " a la vez que " + id, 1, EXCLUSIVE_HOLDERS.get());
+            Assert.assertEquals("Un escenario compartido usa " + resource + " a la vez que " + id, 0, SHARED_HOLDERS.get());
+        } finally {
+            EXCLUSIVE_HOLDERS.decrementAndGet();
+        }
+    }
+
+    @Then("ningún escenario exclusivo usa el recurso {string} mientras se ejecuta {string}")
+    public void verifySharedResource(String resource, String id) throws InterruptedException {
+        SHARED_HOLDERS.incrementAndGet();
+        try {
+            Thread.sleep(HOLD_MILLIS);
+            Assert.assertEquals("Un escenario exclusivo usa " + resource + " a la vez que " + id, 0, EXCLUSIVE_HOLDERS.get());
+        } finally {
+            SHARED_HOLDERS.decrementAndGet();
+        }
+    }
+
+    @After(value = "@stress", order = 100)
+    public void releaseFixtureDriver() {
+        if (driver != null) {
+            ACTIVE_DRIVERS.remove(driver);
+        }
+    }
+}
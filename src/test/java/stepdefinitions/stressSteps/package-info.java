@@ -0,0 +1,5 @@
+/**
+ * Este paquete contiene los step definitions de la prueba de estrés de
+ * ejecución en paralelo, que trabajan contra una página local de fixture.
+ */
+package stepdefinitions.stressSteps;
@@ -67,6 +67,7 @@ public class CommonSteps {
      *                     <li>"Rápido"</li>
      *                     <li>"Indice"</li>
      *                     <li>"Buscar", "Buscador", o "Lupa"</li>
+     *                     <li>"Directo" (URL aprendida; si no se conoce, buscador)</li>
      *                   </ul>
      * @throws IllegalArgumentException si el tipo de menú especificado no está soportado.
      */
@@ -86,6 +87,9 @@ public class CommonSteps {
             case "lupa":
                 accessType = SEARCH;
                 break;
+            case "directo":
+                accessType = DIRECT;
+                break;
             default:
                 throw new IllegalArgumentException("Tipo de menú no soportado: " + menuType);
         }
@@ -116,10 +120,11 @@ public class CommonSteps {
 
     /**
      * Paso que simula que el usuario navega a una pantalla especifica desde la interfaz principal.
+     * Si la pantalla ya está activa no se vuelve a pulsar.
      */
     @When("el usuario selecciona la pantalla {string}")
     public void userSelectModuleSettings(String screenName) {
-        basePage.clickButtonByName(screenName);
+        navigationUtil.selectScreen(screenName);
     }
 
     /**
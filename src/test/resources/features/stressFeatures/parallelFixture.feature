@@ -0,0 +1,54 @@
+@ui @stress
+Feature: Ejecución concurrente de escenarios
+
+  Como responsable del framework
+  Quiero ejecutar muchos escenarios a la vez contra una página local
+  Para validar que cada hilo tiene su propio navegador y su propio estado
+
+  Scenario Outline: Escenario concurrente "<id>"
+    Given el usuario abre la página de prueba "<id>"
+    Then se muestra la pantalla de prueba "<id>"
+    And el valor "<id>" se conserva en el navegador y en el contexto compartido
+
+    Examples:
+      | id  |
+      | s01 |
+      | s02 |
+      | s03 |
+      | s04 |
+      | s05 |
+      | s06 |
+      | s07 |
+      | s08 |
+      | s09 |
+      | s10 |
+      | s11 |
+      | s12 |
+      | s13 |
+      | s14 |
+      | s15 |
+      | s16 |
+
+  @exclusive:fixture
+  Scenario Outline: Escenario con el recurso "fixture" en exclusiva "<id>"
+    Given el usuario abre la página de prueba "<id>"
+    Then ningún otro escenario usa el recurso "fixture" mientras se ejecuta "<id>"
+
+    Examples:
+      | id  |
+      | x01 |
+      | x02 |
+      | x03 |
+      | x04 |
+
+  @shared:fixture
+  Scenario Outline: Escenario con el recurso "fixture" compartido "<id>"
+    Given el usuario abre la página de prueba "<id>"
+    Then ningún escenario exclusivo usa el recurso "fixture" mientras se ejecuta "<id>"
+
+    Examples:
+      | id  |
+      | c01 |
+      | c02 |
+      | c03 |
+      | c04 |
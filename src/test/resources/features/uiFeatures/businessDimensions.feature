@@ -61,7 +61,7 @@ Feature: Pantalla Gestor de Dimensiones de Negocio
     And hace clic en el botón "Aceptar"
     Then el sistema muestra el mensaje "El campo es requerido." del campo "Valor por defecto"
 
-  @businessDimensions08 @limit @TEST_DEV-5939
+  @businessDimensions08 @httpErrorExpected @limit @TEST_DEV-5939
   Scenario: Validar limite maximo de 3 dimensiones de negocio
     Given el usuario está en la pantalla "Gestor de dimensiones de negocio" desde menú "Buscar"
     When crea dimensiones hasta completar el limite de 3
@@ -5,7 +5,7 @@ Feature: Pantalla Configuraciones
   Quiero poder ejecutar el cálculo total de previsiones en configuraciones
   Para asegurarme de que se procesen correctamente todos los datos
 
-  @positivo @calculation @config01 @TEST_DEV-5477
+  @positivo @calculation @config01 @TEST_DEV-5477 @exclusive:calc
   Scenario: Ejecutar calculo completo de previsiones y verificar semaforo verde
     Given el usuario está en la pantalla "Configuraciones" desde menú "Rápido"
     When hace clic en el botón "Calcular todo"
@@ -5,7 +5,7 @@ Feature: Pantalla Previsiones
   Quiero modificar un valor de previsión del período siguiente al actual
   Para validar que se mantenga después de ejecutar el cálculo total
 
-  @forecasts @positivo @calculation @forecasts01 @TEST_DEV-5771
+  @forecasts @positivo @calculation @forecasts01 @TEST_DEV-5771 @exclusive:calc
   Scenario Outline: Modificar celda de prevision por "<agrupacion>", calcular todo y validar persistencia desde menu "<menuTipo>"
     Given el usuario está en la pantalla "Previsiones" desde menú "<menuTipo>"
     And selecciona la agrupación "<agrupacion>"
@@ -62,7 +62,7 @@ Feature: Pantalla Ubicaciones
     Then el sistema muestra el mensaje El campo es requerido
     And se captura evidencia "Validacion de campo obligatorio Descripcion"
 
-  @inventoryLocations07 @TEST_DEV-6087
+  @inventoryLocations07 @httpErrorExpected @TEST_DEV-6087
     #Precondicion: Primero ejecutar el escenario que crea la ubicacion
   Scenario: Intentar crear una ubicacion con codigo duplicado
     Given el usuario está en la pantalla "Ubicaciones" desde menú "Buscar"
@@ -89,7 +89,7 @@ Feature: Pantalla Ubicaciones
     Then la ubicacion editada aparece en la tabla
     And se captura evidencia "Ubicación editada"
 
-  @inventoryLocations10 @TEST_DEV-6090
+  @inventoryLocations10 @httpErrorExpected @TEST_DEV-6090
     #Este escenario requiere un Código de ubicación relacionado a un inventario (Se usa uno de TEST CITEL)
   Scenario: Intentar editar el codigo de una ubicacion asociada a inventario
     Given el usuario está en la pantalla "Ubicaciones" desde menú "Buscar"
@@ -108,7 +108,7 @@ Feature: Pantalla Ubicaciones
     Then la ubicacion ya no aparece en la tabla
     And se captura evidencia "Ubicación eliminada"
 
-  @inventoryLocations12 @TEST_DEV-6092
+  @inventoryLocations12 @httpErrorExpected @TEST_DEV-6092
     #SD creada por que actualmente no se muestra el mensaje esperado SD-3786
   Scenario: Intentar eliminar una ubicacion asociada a inventario
     Given el usuario está en la pantalla "Ubicaciones" desde menú "Buscar"